@@ -1,6 +1,7 @@
 package campuspaths;
 
 import campuspaths.utils.CORSFilter;
+import org.slf4j.LoggerFactory;
 import spark.Request;
 import spark.Response;
 import spark.Route;
@@ -11,12 +12,22 @@ import com.google.gson.Gson;
 import pathfinder.*;
 import pathfinder.datastructures.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
 public class SparkServer {
 
+  /** the system property holding the token admin requests must send, the admin routes are off while it is unset */
+  public static final String ADMIN_TOKEN_PROPERTY = "campuspaths.admin.token";
+
+  /** the request header carrying the admin token */
+  public static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
   public static void main(String[] args) {
     CORSFilter corsFilter = new CORSFilter();
     corsFilter.apply();
     ModelConnector mc = new ModelConnector();
+    LoggerFactory.getLogger("CampusPaths Server").info(mc.routeTableReport());
 
     // Get the list of the building names
     Spark.get("/buildings", new Route() {
@@ -43,7 +54,112 @@ public class SparkServer {
       }
     });
 
+    // find the shortest paths from one building to every building
+    // "routesFrom?start=BAG"
+    Spark.get("/routesFrom", new Route() {
+      @Override
+      public Object handle(Request request, Response response) throws Exception {
+        String start = request.queryParams("start");
+        if (!mc.shortNameExists(start)) {
+          Spark.halt(400, "Must be a valid short name");
+        }
+        Gson gson = new Gson();
+        return gson.toJson(mc.routesFrom(start));
+      }
+    });
+
+    // the size and shape of the campus graphs
+    // "stats"
+    Spark.get("/stats", new Route() {
+      @Override
+      public Object handle(Request request, Response response) throws Exception {
+        Gson gson = new Gson();
+        return gson.toJson(mc.graphStats());
+      }
+    });
+
+    String adminToken = System.getProperty(ADMIN_TOKEN_PROPERTY);
+    if (adminToken != null && !adminToken.isEmpty()) {
+      adminRoutes(mc, adminToken);
+    } else {
+      LoggerFactory.getLogger("CampusPaths Server").info("admin routes off, " + ADMIN_TOKEN_PROPERTY + " is unset");
+    }
+  }
+
+  /**
+   * add the routes that change the live campus graph, each of which needs the admin token
+   *
+   * @param mc the campus map the routes change
+   * @param adminToken the token every request must send in the ADMIN_TOKEN_HEADER header
+   */
+  private static void adminRoutes(ModelConnector mc, String adminToken) {
+    // close the path between two locations, e.g. for construction
+    // "admin/closePath?x1=1536.287&y1=1786.613&x2=1561.0528&y2=1786.6467"
+    Spark.post("/admin/closePath", new Route() {
+      @Override
+      public Object handle(Request request, Response response) throws Exception {
+        checkAdminToken(request, adminToken);
+        Point start = pointParam(request, "x1", "y1");
+        Point end = pointParam(request, "x2", "y2");
+        boolean closed;
+        try {
+          closed = mc.closePath(start, end);
+        } catch (IllegalArgumentException e) {
+          throw Spark.halt(400, "Must be locations on the campus map");
+        }
+        Gson gson = new Gson();
+        return gson.toJson(closed);
+      }
+    });
+
+    // reopen a path closed by admin/closePath
+    // "admin/reopenPath?x1=1536.287&y1=1786.613&x2=1561.0528&y2=1786.6467"
+    Spark.post("/admin/reopenPath", new Route() {
+      @Override
+      public Object handle(Request request, Response response) throws Exception {
+        checkAdminToken(request, adminToken);
+        Point start = pointParam(request, "x1", "y1");
+        Point end = pointParam(request, "x2", "y2");
+        Gson gson = new Gson();
+        return gson.toJson(mc.reopenPath(start, end));
+      }
+    });
+  }
+
+  /**
+   * halt with 403 unless the request sends the admin token. The header is not one the CORS filter allows,
+   * so a page from another origin cannot send it at all
+   *
+   * @param request the admin request
+   * @param adminToken the token the request must send
+   */
+  private static void checkAdminToken(Request request, String adminToken) {
+    String sent = request.headers(ADMIN_TOKEN_HEADER);
+    if (sent == null || !MessageDigest.isEqual(sent.getBytes(StandardCharsets.UTF_8),
+        adminToken.getBytes(StandardCharsets.UTF_8))) {
+      throw Spark.halt(403, "Must send the admin token");
+    }
+  }
 
+  /**
+   * read a point from two query parameters, halting with 400 if they are missing or not numbers
+   *
+   * @param request the request holding the parameters
+   * @param x the name of the x coordinate parameter
+   * @param y the name of the y coordinate parameter
+   * @return the point at the given coordinates
+   */
+  private static Point pointParam(Request request, String x, String y) {
+    String xValue = request.queryParams(x);
+    String yValue = request.queryParams(y);
+    if (xValue == null || yValue == null) {
+      throw Spark.halt(400, "Must give " + x + " and " + y);
+    }
+    try {
+      return new Point(Double.parseDouble(xValue), Double.parseDouble(yValue));
+    } catch (IllegalArgumentException e) {
+      throw Spark.halt(400, x + " and " + y + " must be numbers");
+    }
   }
 
 }
@@ -0,0 +1,513 @@
+package graph;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * CompactGraph represents an immutable directed weighted graph stored in compressed sparse row form
+ *
+ * Every node is given a dense id from 0 to size() - 1, and the outgoing edges of the node with id n
+ * are the edge indices from edgeStart(n) (inclusive) to edgeEnd(n) (exclusive).
+ * A CompactGraph is a read-only snapshot, later changes to the source graph are not reflected.
+ *
+ * @param <Node> the type of the node
+ */
+public class CompactGraph<Node> implements IndexedGraph<Node> {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the number of cells on each side of the grid the Hilbert curve of spatiallyOrdered() fills */
+    private static final int HILBERT_SIDE = 1 << 15;
+
+    /** the node of every id */
+    private final Object[] nodes;
+
+    /** the id of every node */
+    private final Map<Node, Integer> ids;
+
+    /** the first edge index of every node, offsets[size()] is the total number of edges */
+    private final int[] offsets;
+
+    /** the id of the child node of every edge */
+    private final int[] targets;
+
+    /** the weight of every edge */
+    private final double[] weights;
+
+    // Representation Invariant for every CompactGraph g:
+    // nodes, ids, offsets, targets, weights != null, no node is null
+    // ids.get(nodes[i]) == i for every 0 <= i < nodes.length
+    // offsets.length == nodes.length + 1, offsets[0] == 0, offsets is non-decreasing
+    // targets.length == weights.length == offsets[nodes.length]
+    // 0 <= targets[e] < nodes.length for every edge e
+    //
+    // Abstraction Function:
+    // The node with id n is nodes[n], and it has an outgoing edge to nodes[targets[e]]
+    // with weight weights[e] for every offsets[n] <= e < offsets[n + 1]
+
+    /**
+     * @spec.effects create a new compact graph from its arrays, the arrays are not copied
+     */
+    private CompactGraph(Object[] nodes, Map<Node, Integer> ids, int[] offsets, int[] targets, double[] weights) {
+        this.nodes = nodes;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        checkRep();
+    }
+
+    /**
+     * create a compact snapshot of a graph with numeric edge labels
+     *
+     * @param graph the graph being copied
+     * @param <Node> the type of the node
+     * @return a new compact graph with the same nodes and edges as {@code graph}
+     * @spec.requires graph != null
+     */
+    public static <Node> CompactGraph<Node> of(Graph<Node, Double> graph) {
+        return of(graph, Double::doubleValue);
+    }
+
+    /**
+     * create a compact snapshot of a graph, every label is converted into a weight by {@code weight}
+     *
+     * @param graph the graph being copied
+     * @param weight the function giving the weight of every label
+     * @param <Node> the type of the node
+     * @param <Label> the type of the edge label
+     * @return a new compact graph with the same nodes and edges as {@code graph}
+     * @spec.requires graph != null ; weight != null
+     */
+    public static <Node, Label> CompactGraph<Node> of(Graph<Node, Label> graph, ToDoubleFunction<? super Label> weight) {
+        Set<Node> nodeSet = graph.getNodesView();
+        Object[] nodes = new Object[nodeSet.size()];
+        Map<Node, Integer> ids = new HashMap<>();
+        for (Node n : nodeSet) {
+            int id = ids.size();
+            ids.put(n, id);
+            nodes[id] = n;
+        }
+
+        int[] offsets = new int[nodes.length + 1];
+        for (int i = 0; i < nodes.length; i++) {
+            @SuppressWarnings("unchecked")
+            Node n = (Node) nodes[i];
+            offsets[i + 1] = offsets[i] + graph.getEdgesView(n).size();
+        }
+
+        int[] targets = new int[offsets[nodes.length]];
+        double[] weights = new double[offsets[nodes.length]];
+        for (int i = 0; i < nodes.length; i++) {
+            @SuppressWarnings("unchecked")
+            Node n = (Node) nodes[i];
+            copyEdges(graph.edgeCursor(n, weight), ids, offsets[i], targets, weights);
+        }
+        return new CompactGraph<>(nodes, ids, offsets, targets, weights);
+    }
+
+    /**
+     * create a compact snapshot of a graph on the threads of a pool, every label is converted into a weight by {@code weight}
+     *
+     * @param graph the graph being copied, which must not be modified until this returns
+     * @param weight the function giving the weight of every label, called on the threads of {@code pool}
+     * @param pool the pool whose threads copy the edges
+     * @param <Node> the type of the node
+     * @param <Label> the type of the edge label
+     * @return a new compact graph with the same nodes and edges as {@code graph}
+     * @spec.requires graph != null ; weight != null ; pool != null
+     */
+    public static <Node, Label> CompactGraph<Node> of(Graph<Node, Label> graph, ToDoubleFunction<? super Label> weight,
+                                                      ForkJoinPool pool) {
+        Object[] nodes = graph.getNodesView().toArray();
+        Map<Node, Integer> ids = new HashMap<>(nodes.length * 4 / 3 + 1);
+        for (int i = 0; i < nodes.length; i++) {
+            @SuppressWarnings("unchecked")
+            Node n = (Node) nodes[i];
+            ids.put(n, i);
+        }
+
+        int[] offsets = new int[nodes.length + 1];
+        pool.invoke(new RangeAction(0, nodes.length, i -> {
+            @SuppressWarnings("unchecked")
+            Node n = (Node) nodes[i];
+            offsets[i + 1] = graph.getEdgesView(n).size();
+        }));
+        for (int i = 0; i < nodes.length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int[] targets = new int[offsets[nodes.length]];
+        double[] weights = new double[offsets[nodes.length]];
+        pool.invoke(new RangeAction(0, nodes.length, i -> {
+            @SuppressWarnings("unchecked")
+            Node n = (Node) nodes[i];
+            copyEdges(graph.edgeCursor(n, weight), ids, offsets[i], targets, weights);
+        }));
+        return new CompactGraph<>(nodes, ids, offsets, targets, weights);
+    }
+
+    /**
+     * copy the edges of one node into the edge arrays, reading every edge through a cursor so no edge object
+     * is created
+     *
+     * @param edges the cursor over the outgoing edges of the node
+     * @param ids the id of every node
+     * @param first the index of the first edge of the node in targets and weights
+     * @param targets the target id of every edge
+     * @param weights the weight of every edge
+     * @spec.modifies targets, weights
+     */
+    private static <Node> void copyEdges(DoubleEdgeCursor<Node, ?> edges, Map<Node, Integer> ids, int first,
+                                         int[] targets, double[] weights) {
+        for (int e = first; edges.next(); e++) {
+            targets[e] = ids.get(edges.child());
+            weights[e] = edges.weight();
+        }
+    }
+
+    /**
+     * create a compact snapshot of a primitive weighted graph
+     *
+     * @param graph the graph being copied
+     * @param <Node> the type of the node
+     * @return a new compact graph with the same nodes and edges as {@code graph}
+     * @spec.requires graph != null
+     */
+    public static <Node> CompactGraph<Node> of(DoubleWeightedGraph<Node> graph) {
+        Set<Node> nodeSet = graph.getNodes();
+        Object[] nodes = new Object[nodeSet.size()];
+        Map<Node, Integer> ids = new HashMap<>();
+        int[] offsets = new int[nodes.length + 1];
+        for (Node n : nodeSet) {
+            int id = ids.size();
+            ids.put(n, id);
+            nodes[id] = n;
+            offsets[id + 1] = offsets[id] + graph.outDegree(n);
+        }
+
+        int[] targets = new int[offsets[nodes.length]];
+        double[] weights = new double[offsets[nodes.length]];
+        for (int i = 0; i < nodes.length; i++) {
+            int[] e = {offsets[i]};
+            @SuppressWarnings("unchecked")
+            Node parent = (Node) nodes[i];
+            graph.forEachEdge(parent, (child, weight) -> {
+                targets[e[0]] = ids.get(child);
+                weights[e[0]] = weight;
+                e[0]++;
+            });
+        }
+        return new CompactGraph<>(nodes, ids, offsets, targets, weights);
+    }
+
+    /**
+     * create the transpose of an indexed graph, with every edge reversed, so the incoming edges of a node
+     * can be walked like outgoing ones. Every node keeps its id, and the node table is shared if
+     * {@code graph} is a CompactGraph
+     *
+     * @param graph the graph being reversed
+     * @param <Node> the type of the node
+     * @return a new compact graph with the nodes and ids of {@code graph}, and an edge from c to p with weight w
+     * for every edge from p to c with weight w in {@code graph}
+     * @spec.requires graph != null
+     */
+    public static <Node> CompactGraph<Node> transposeOf(IndexedGraph<Node> graph) {
+        Object[] nodes;
+        Map<Node, Integer> ids;
+        if (graph instanceof CompactGraph) {
+            nodes = ((CompactGraph<Node>) graph).nodes;
+            ids = ((CompactGraph<Node>) graph).ids;
+        } else {
+            nodes = new Object[graph.size()];
+            ids = new HashMap<>();
+            for (int n = 0; n < nodes.length; n++) {
+                nodes[n] = graph.nodeAt(n);
+                ids.put(graph.nodeAt(n), n);
+            }
+        }
+
+        // count the incoming edges of every node, then place every edge at its child
+        int[] offsets = new int[nodes.length + 1];
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            offsets[graph.target(e) + 1]++;
+        }
+        for (int n = 0; n < nodes.length; n++) {
+            offsets[n + 1] += offsets[n];
+        }
+        int[] next = Arrays.copyOf(offsets, nodes.length);
+        int[] targets = new int[graph.edgeCount()];
+        double[] weights = new double[graph.edgeCount()];
+        for (int n = 0; n < nodes.length; n++) {
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                int reversed = next[graph.target(e)]++;
+                targets[reversed] = n;
+                weights[reversed] = graph.weight(e);
+            }
+        }
+        return new CompactGraph<>(nodes, ids, offsets, targets, weights);
+    }
+
+    /**
+     * create a copy of this with node ids assigned in Hilbert curve order of the node coordinates,
+     * so that nodes close to each other get close ids and their edges are stored close together
+     *
+     * @param coordinates the coordinates of every node of this
+     * @return a new compact graph with the same nodes and edges as this, renumbered along a Hilbert curve
+     * @spec.requires coordinates != null
+     */
+    public CompactGraph<Node> spatiallyOrdered(NodeCoordinates<? super Node> coordinates) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int n = 0; n < nodes.length; n++) {
+            minX = Math.min(minX, coordinates.x(nodeAt(n)));
+            minY = Math.min(minY, coordinates.y(nodeAt(n)));
+            maxX = Math.max(maxX, coordinates.x(nodeAt(n)));
+            maxY = Math.max(maxY, coordinates.y(nodeAt(n)));
+        }
+        double scale = HILBERT_SIDE / Math.max(Math.max(maxX - minX, maxY - minY), Double.MIN_NORMAL);
+
+        // sort the old ids by the curve position of their node, ties keep their old order
+        long[] keys = new long[nodes.length];
+        for (int n = 0; n < nodes.length; n++) {
+            int x = (int) Math.min(HILBERT_SIDE - 1, (coordinates.x(nodeAt(n)) - minX) * scale);
+            int y = (int) Math.min(HILBERT_SIDE - 1, (coordinates.y(nodeAt(n)) - minY) * scale);
+            keys[n] = hilbertIndex(x, y) << 32 | n;
+        }
+        Arrays.sort(keys);
+
+        int[] newId = new int[nodes.length];
+        Object[] newNodes = new Object[nodes.length];
+        Map<Node, Integer> newIds = new HashMap<>();
+        for (int i = 0; i < nodes.length; i++) {
+            int old = (int) keys[i];
+            newId[old] = i;
+            newNodes[i] = nodes[old];
+            newIds.put(nodeAt(old), i);
+        }
+        int[] newOffsets = new int[nodes.length + 1];
+        int[] newTargets = new int[targets.length];
+        double[] newWeights = new double[weights.length];
+        for (int i = 0; i < nodes.length; i++) {
+            int old = (int) keys[i];
+            int e = newOffsets[i];
+            for (int oldEdge = offsets[old]; oldEdge < offsets[old + 1]; oldEdge++) {
+                newTargets[e] = newId[targets[oldEdge]];
+                newWeights[e] = weights[oldEdge];
+                e++;
+            }
+            newOffsets[i + 1] = e;
+        }
+        return new CompactGraph<>(newNodes, newIds, newOffsets, newTargets, newWeights);
+    }
+
+    /**
+     * return the distance along a Hilbert curve filling a HILBERT_SIDE by HILBERT_SIDE grid of a cell
+     *
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @return the position of cell (x, y) on the curve, from 0 to HILBERT_SIDE * HILBERT_SIDE - 1
+     * @spec.requires 0 &lt;= x, y &lt; HILBERT_SIDE
+     */
+    private static long hilbertIndex(int x, int y) {
+        long d = 0;
+        for (int s = HILBERT_SIDE / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            // rotate the quadrant so the curve stays connected
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = HILBERT_SIDE - 1 - x;
+                    y = HILBERT_SIDE - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * return the number of nodes of this
+     *
+     * @return the number of nodes in this
+     */
+    @Override
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * return the number of edges of this
+     *
+     * @return the number of edges in this
+     */
+    @Override
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * return true if there is a node with same name as 'name'
+     *
+     * @param name the name of the node
+     * @return true iff this has a node with the same name
+     */
+    @Override
+    public boolean hasNode(Node name) {
+        return ids.containsKey(name);
+    }
+
+    /**
+     * return the id of a node
+     *
+     * @param name the node being looked up
+     * @return the id of 'name', -1 if 'name' is not a node of this
+     */
+    @Override
+    public int idOf(Node name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * return the node with the given id
+     *
+     * @param id the id of the node
+     * @return the node with id 'id'
+     * @throws IndexOutOfBoundsException if id is not between 0 and size() - 1
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Node nodeAt(int id) {
+        return (Node) nodes[id];
+    }
+
+    /**
+     * return the index of the first outgoing edge of a node
+     *
+     * @param id the id of the parent node
+     * @return the index of the first outgoing edge of node 'id'
+     * @spec.requires 0 &lt;= id &lt; size()
+     */
+    @Override
+    public int edgeStart(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * return the index after the last outgoing edge of a node
+     *
+     * @param id the id of the parent node
+     * @return the index after the last outgoing edge of node 'id'
+     * @spec.requires 0 &lt;= id &lt; size()
+     */
+    @Override
+    public int edgeEnd(int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * return the child node of an edge
+     *
+     * @param edge the index of the edge
+     * @return the id of the child node of 'edge'
+     * @spec.requires 0 &lt;= edge &lt; edgeCount()
+     */
+    @Override
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * return the weight of an edge
+     *
+     * @param edge the index of the edge
+     * @return the weight of 'edge'
+     * @spec.requires 0 &lt;= edge &lt; edgeCount()
+     */
+    @Override
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    @Override
+    public GraphStats stats() {
+        long heapBytes = GraphStats.objectBytes(5 * 4)
+                + GraphStats.referenceArrayBytes(nodes.length)
+                + GraphStats.hashMapBytes(ids.size()) + (long) ids.size() * GraphStats.objectBytes(4)
+                + GraphStats.arrayBytes(offsets.length, 4)
+                + GraphStats.arrayBytes(targets.length, 4)
+                + GraphStats.arrayBytes(weights.length, 8);
+        return GraphStats.of(this, heapBytes, 0);
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert nodes != null && ids != null : "nodes cannot be null";
+        assert offsets != null && targets != null && weights != null : "edges cannot be null";
+        assert offsets.length == nodes.length + 1 : "every node must have an offset";
+        assert targets.length == weights.length : "every edge must have a weight";
+
+        if (RUN_CHECK_REP) {
+            assert offsets[0] == 0 : "first offset must be 0";
+            assert offsets[nodes.length] == targets.length : "last offset must be the number of edges";
+            for (int i = 0; i < nodes.length; i++) {
+                assert nodes[i] != null : "node cannot be null";
+                assert ids.get(nodes[i]) == i : "node id must match its position";
+                assert offsets[i] <= offsets[i + 1] : "offsets must be non-decreasing";
+            }
+            for (int target : targets) {
+                assert target >= 0 && target < nodes.length : "child node must be a node of graph";
+            }
+        }
+    }
+
+    /**
+     * RangeAction runs an action for every int of a range, splitting the range between the threads of its pool
+     */
+    static class RangeAction extends RecursiveAction {
+        /** the fewest ints worth giving to a thread of their own, when each int takes little work */
+        private static final int THRESHOLD = 1024;
+
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final IntConsumer action;
+
+        private RangeAction(int from, int to, IntConsumer action) {
+            this(from, to, THRESHOLD, action);
+        }
+
+        /**
+         * @spec.effects create an action running 'action' for every int from 'from' (inclusive) to 'to'
+         * (exclusive), on one thread once at most 'threshold' ints are left
+         */
+        RangeAction(int from, int to, int threshold, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RangeAction(from, mid, threshold, action), new RangeAction(mid, to, threshold, action));
+            }
+        }
+    }
+}
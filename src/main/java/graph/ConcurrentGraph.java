@@ -0,0 +1,544 @@
+package graph;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * ConcurrentGraph represent a mutable directed labeled graph that can be read and modified by many threads
+ *
+ * The graph is a sequence of immutable versions, each a GraphSnapshot. Readers never lock: they read
+ * the latest published snapshot, and a reader that needs a consistent view across many reads (such as
+ * a path search) pins one with snapshot(). Writes are serialized by one lock, build the next version by
+ * copying only the chunk of node ids they touch, and publish it with a single volatile write.
+ * Old versions are reclaimed by the garbage collector once no reader holds them.
+ * All edge labels from the same parent and child cannot be same
+ *
+ * @param <Node> the type of the node
+ * @param <Label> the type of the edge label
+ */
+public class ConcurrentGraph<Node, Label> {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the id of every node ever added to this, an id is never given to a different node */
+    private final Map<Node, Integer> ids;
+
+    /** the lock held by every write */
+    private final Object writeLock;
+
+    /** the latest published version of this */
+    private volatile GraphSnapshot<Node, Label> current;
+
+    /** the listeners of this and the changes held back by atomically() */
+    private final EventBatcher<Node, Label> events;
+
+    /** the version being built by atomically(), null if no group of writes is running */
+    private GraphSnapshot<Node, Label> pending;
+
+    /** the nodes given an id by the running group of writes, whose ids are taken back if the group fails */
+    private final List<Node> pendingIds;
+
+    // Representation Invariant for every ConcurrentGraph g:
+    // ids, writeLock, current != null, all nodes, edges and labels of g != null
+    // current and pending share ids, every id of current is an id of ids
+    // pending == null unless a thread holding writeLock is running atomically()
+    // pendingIds != null, and is empty unless pending != null
+    //
+    // Abstraction Function:
+    // The graph is current, the version every reader starts from
+    // pending holds the writes of a running group that other threads cannot see yet
+
+    /**
+     * @spec.effects create an empty new graph
+     */
+    public ConcurrentGraph() {
+        ids = new ConcurrentHashMap<>();
+        writeLock = new Object();
+        events = new EventBatcher<>();
+        pendingIds = new ArrayList<>();
+        current = new GraphSnapshot<>(ids, 0, 0, 0, new Object[0], new Object[0][]);
+        checkRep();
+    }
+
+    /**
+     * create a concurrent copy of a graph
+     *
+     * @param source the graph being copied
+     * @param <Node> the type of the node
+     * @param <Label> the type of the edge label
+     * @return a new concurrent graph with the same nodes and edges as {@code source}
+     * @spec.requires source != null
+     */
+    public static <Node, Label> ConcurrentGraph<Node, Label> copyOf(Graph<Node, Label> source) {
+        ConcurrentGraph<Node, Label> copy = new ConcurrentGraph<>();
+        Set<Node> sourceNodes = source.getNodesView();
+        Object[] nodes = new Object[sourceNodes.size()];
+        Object[][] chunks = new Object[chunkCount(nodes.length)][];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = new Object[GraphSnapshot.CHUNK_SIZE];
+        }
+        for (Node parent : sourceNodes) {
+            int id = copy.ids.size();
+            copy.ids.put(parent, id);
+            nodes[id] = parent;
+            Map<Node, Set<Label>> children = new HashMap<>();
+            source.forEachEdge(parent, (child, label) ->
+                    children.computeIfAbsent(child, c -> new HashSet<>()).add(label));
+            for (Map.Entry<Node, Set<Label>> entry : children.entrySet()) {
+                entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+            }
+            chunks[id / GraphSnapshot.CHUNK_SIZE][id % GraphSnapshot.CHUNK_SIZE] = Collections.unmodifiableMap(children);
+        }
+        copy.current = new GraphSnapshot<>(copy.ids, 0, nodes.length, nodes.length, nodes, chunks);
+        copy.checkRep();
+        return copy;
+    }
+
+    /**
+     * return the latest version of this, which never changes and can be read by any thread without locking
+     *
+     * @return the latest published snapshot of this
+     */
+    public GraphSnapshot<Node, Label> snapshot() {
+        return current;
+    }
+
+    /**
+     * return the number of published versions of this since it was created
+     *
+     * @return the version of the latest snapshot of this, it only increases
+     */
+    public long version() {
+        return current.version();
+    }
+
+    /**
+     * run a group of writes to this and publish them as one new version
+     *
+     * Other threads see either none or all of the writes, and the listeners receive their changes in one list.
+     * If 'writes' throws an exception, none of its writes are published or delivered and the exception is passed on.
+     *
+     * @param writes the writes to this being grouped, run on the calling thread
+     * @spec.modifies this
+     */
+    public void atomically(Runnable writes) {
+        synchronized (writeLock) {
+            if (pending != null) {
+                writes.run(); // already inside a group, which publishes these writes with its own
+                return;
+            }
+            GraphSnapshot<Node, Label> start = current;
+            pending = start;
+            events.begin();
+            boolean published = false;
+            try {
+                writes.run();
+                if (pending != start) {
+                    GraphSnapshot<Node, Label> done = pending;
+                    current = new GraphSnapshot<>(ids, start.version() + 1, done.idCount(), done.size(),
+                            done.nodes(), done.chunks());
+                }
+                published = true;
+            } finally {
+                if (!published) {
+                    // no published version holds these ids, so the next new node must get the first of them again
+                    ids.keySet().removeAll(pendingIds);
+                }
+                pendingIds.clear();
+                pending = null;
+                checkRep();
+                events.end(published);
+            }
+        }
+    }
+
+    /**
+     * return true if there is a node with same name as 'name'
+     *
+     * @param name the name of the node
+     * @return true iff this has a node in graph with the same name
+     * @spec.requires name != null
+     */
+    public boolean hasNode(Node name) {
+        return readable().hasNode(name);
+    }
+
+    /**
+     * return true if there is an edge with same label between parent and child
+     *
+     * @param parent the parent node of the edge
+     * @param child  the child node of the edge
+     * @param label  the label of the edge between parent and child
+     * @return true iff this has parent and parent has an edge to child with the label
+     * @spec.requires parent != null ; child != null ; label != null
+     */
+    public boolean hasLabel(Node parent, Node child, Label label) {
+        return readable().hasLabel(parent, child, label);
+    }
+
+    /**
+     * add a new node to the graph and return whether the node is successfully added to graph
+     *
+     * @param name the new node to be added
+     * @return true iff 'name' has not previously been added
+     * @spec.requires name != null
+     * @spec.modifies this
+     * @spec.effects new element of this, no change if 'name' already exists
+     */
+    public boolean addNode(Node name) {
+        synchronized (writeLock) {
+            GraphSnapshot<Node, Label> base = latest();
+            if (base.hasNode(name)) {
+                return false;
+            }
+            Integer id = ids.get(name);
+            int idCount = base.idCount();
+            Object[] nodes = base.nodes();
+            if (id == null) {
+                id = idCount++;
+                if (id == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, Math.max(GraphSnapshot.CHUNK_SIZE, nodes.length * 2));
+                }
+                // published versions never read a slot at or above their id count, so it can be filled in place
+                nodes[id] = name;
+                ids.put(name, id);
+                if (pending != null) {
+                    pendingIds.add(name);
+                }
+            }
+            publish(new GraphSnapshot<>(ids, base.version() + 1, idCount, base.size() + 1, nodes,
+                    withAdjacency(base.chunks(), id, Collections.emptyMap())));
+            if (events.isListened()) {
+                events.fire(GraphEvent.nodeAdded(name));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * add an edge going from the parent node and return whether the edge is successfully added
+     *
+     * @param parent the parent node
+     * @param child  the child node
+     * @param label  the label of the edge
+     * @return true iff the same edge has not previously been added
+     * @throws IllegalArgumentException if graph does not have node 'parent' and 'child'
+     * @spec.requires parent != null ; child != null ; label != null
+     * @spec.modifies this
+     * @spec.effects a new outgoing edge for 'parent' with a child node and a label
+     * no change if same label already exists
+     */
+    public boolean addChild(Node parent, Node child, Label label) {
+        synchronized (writeLock) {
+            GraphSnapshot<Node, Label> base = latest();
+            if (!base.hasNode(parent) || !base.hasNode(child)) {
+                throw new IllegalArgumentException("parent/child node does not exist");
+            }
+            int id = ids.get(parent);
+            Map<Node, Set<Label>> children = base.adjacency(id);
+            Set<Label> labels = children.getOrDefault(child, Collections.emptySet());
+            if (labels.contains(label)) {
+                return false;
+            }
+            Set<Label> newLabels = new HashSet<>(labels);
+            newLabels.add(label);
+            Map<Node, Set<Label>> newChildren = new HashMap<>(children);
+            newChildren.put(child, Collections.unmodifiableSet(newLabels));
+            publish(withAdjacency(base, id, Collections.unmodifiableMap(newChildren)));
+            if (events.isListened()) {
+                events.fire(GraphEvent.edgeAdded(parent, child, label));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * remove a node from the graph and remove all edges that has 'name' as child
+     *
+     * @param name the name of the node being removed
+     * @throws IllegalArgumentException if graph does not have node 'name'
+     * @spec.requires name != null
+     * @spec.modifies this
+     * @spec.effects this will not have a node with 'name', and all other nodes will remove their outgoing edges with 'name' as child
+     */
+    public void removeNode(Node name) {
+        synchronized (writeLock) {
+            GraphSnapshot<Node, Label> base = latest();
+            if (!base.hasNode(name)) {
+                throw new IllegalArgumentException("node does not exist");
+            }
+            Object[][] chunks = base.chunks().clone();
+            boolean[] copied = new boolean[chunks.length];
+            List<GraphEvent<Node, Label>> removed = events.isListened() ? new ArrayList<>() : null;
+            for (int i = 0; i < base.idCount(); i++) {
+                Map<Node, Set<Label>> children = base.adjacency(i);
+                if (children != null && children.containsKey(name)) {
+                    Map<Node, Set<Label>> newChildren = new HashMap<>(children);
+                    Set<Label> labels = newChildren.remove(name);
+                    setAdjacency(chunks, copied, i, Collections.unmodifiableMap(newChildren));
+                    if (removed != null) {
+                        @SuppressWarnings("unchecked")
+                        Node parent = (Node) base.nodes()[i];
+                        for (Label label : labels) {
+                            removed.add(GraphEvent.edgeRemoved(parent, name, label));
+                        }
+                    }
+                }
+            }
+            int id = ids.get(name);
+            if (removed != null) {
+                for (Map.Entry<Node, Set<Label>> entry : base.adjacency(id).entrySet()) {
+                    // a loop on name was removed with the edges to name
+                    if (!entry.getKey().equals(name)) {
+                        for (Label label : entry.getValue()) {
+                            removed.add(GraphEvent.edgeRemoved(name, entry.getKey(), label));
+                        }
+                    }
+                }
+                removed.add(GraphEvent.nodeRemoved(name));
+            }
+            setAdjacency(chunks, copied, id, null);
+            publish(new GraphSnapshot<>(ids, base.version() + 1, base.idCount(), base.size() - 1,
+                    base.nodes(), chunks));
+            if (removed != null) {
+                for (GraphEvent<Node, Label> event : removed) {
+                    events.fire(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * remove an edge with 'label' that connects from 'parent' to 'child'
+     *
+     * @param parent the starting point of the edge
+     * @param child  the end point of the edge
+     * @param label  the label of the edge that is being removed
+     * @throws IllegalArgumentException if graph does not have node 'parent' or 'child', or does not have an edge between with 'label'
+     * @spec.requires parent != null ; child != null ; label != null
+     * @spec.modifies this
+     * @spec.effects this.getLabels(parent, child) = this.getLabels(parent, child) - label
+     */
+    public void removeEdgeFrom(Node parent, Node child, Label label) {
+        synchronized (writeLock) {
+            GraphSnapshot<Node, Label> base = latest();
+            if (!base.hasNode(parent) || !base.hasNode(child)) {
+                throw new IllegalArgumentException("node does not exist");
+            }
+            int id = ids.get(parent);
+            Map<Node, Set<Label>> children = base.adjacency(id);
+            Set<Label> labels = children.getOrDefault(child, Collections.emptySet());
+            if (!labels.contains(label)) {
+                throw new IllegalArgumentException("label does not exist");
+            }
+            Map<Node, Set<Label>> newChildren = new HashMap<>(children);
+            if (labels.size() == 1) {
+                newChildren.remove(child);
+            } else {
+                Set<Label> newLabels = new HashSet<>(labels);
+                newLabels.remove(label);
+                newChildren.put(child, Collections.unmodifiableSet(newLabels));
+            }
+            publish(withAdjacency(base, id, Collections.unmodifiableMap(newChildren)));
+            if (events.isListened()) {
+                events.fire(GraphEvent.edgeRemoved(parent, child, label));
+            }
+        }
+    }
+
+    /**
+     * get all the edges going from the parent node
+     *
+     * @param parent the parent node of the graph
+     * @return a set of all the outgoing edges of 'parent'
+     * @throws IllegalArgumentException if this does not have key 'parent'
+     * @spec.requires parent != null
+     */
+    public Set<Edge<Node, Label>> getEdges(Node parent) {
+        return readable().getEdges(parent);
+    }
+
+    /**
+     * pass every outgoing edge of the parent node to the visitor, without copying or locking
+     *
+     * The edges are those of the latest version. Since 'parent' may be removed by another thread
+     * at any time, a missing parent is reported instead of thrown.
+     *
+     * @param parent the parent node
+     * @param visitor the visitor receiving the child and the label of every edge
+     * @return true iff 'parent' is a node of this, false if nothing was visited because it is not
+     * @spec.requires parent != null
+     */
+    public boolean forEachEdge(Node parent, BiConsumer<? super Node, ? super Label> visitor) {
+        return readable().forEachEdge(parent, visitor);
+    }
+
+    /**
+     * pass every outgoing edge of the parent node to the visitor with its label converted to a double
+     *
+     * @param parent the parent node
+     * @param weight the function giving the weight of every label
+     * @param visitor the visitor receiving the child and the weight of every edge
+     * @return true iff 'parent' is a node of this, false if nothing was visited because it is not
+     * @spec.requires parent != null ; weight != null
+     */
+    public boolean forEachEdge(Node parent, ToDoubleFunction<? super Label> weight, DoubleEdgeVisitor<? super Node> visitor) {
+        return readable().forEachEdge(parent, weight, visitor);
+    }
+
+    /**
+     * return all the labels the two nodes have
+     *
+     * @param parent the start node of the edge
+     * @param child  the end node of the edge
+     * @return a set of all the labels between the two nodes,
+     * empty set if there are no edges from 'parent' to 'child'
+     * @throws IllegalArgumentException if parent or child is not a key of this
+     * @spec.requires parent != null ; child != null
+     */
+    public Set<Label> getLabels(Node parent, Node child) {
+        return readable().getLabels(parent, child);
+    }
+
+    /**
+     * get all the nodes of the graph
+     *
+     * @return a set of all nodes in this
+     */
+    public Set<Node> getNodes() {
+        return readable().getNodes();
+    }
+
+    /**
+     * return the number of nodes of the graph
+     *
+     * @return the number of nodes in this
+     */
+    public int size() {
+        return readable().size();
+    }
+
+    /**
+     * register a listener to receive every later change to this. Listeners are called on the writing
+     * thread after the change is published, with the write lock held, so they see changes in order
+     *
+     * @param listener the listener being registered
+     * @spec.requires listener != null
+     * @spec.modifies this
+     * @spec.effects 'listener' is called after every later write to this, or once per atomically()
+     */
+    public void addListener(GraphListener<Node, Label> listener) {
+        synchronized (writeLock) {
+            events.addListener(listener);
+        }
+    }
+
+    /**
+     * unregister a listener registered with addListener
+     *
+     * @param listener the listener being unregistered
+     * @return true iff 'listener' was registered
+     * @spec.modifies this
+     */
+    public boolean removeListener(GraphListener<Node, Label> listener) {
+        synchronized (writeLock) {
+            return events.removeListener(listener);
+        }
+    }
+
+    /**
+     * measure the size and shape of the latest version of this, without copying any of it
+     *
+     * @return the stats of the latest version of this
+     */
+    public GraphStats stats() {
+        return readable().stats();
+    }
+
+    /**
+     * @return the version a write should start from: the group being built, or else the published version
+     * @spec.requires the calling thread holds writeLock
+     */
+    private GraphSnapshot<Node, Label> latest() {
+        return pending != null ? pending : current;
+    }
+
+    /**
+     * @return the version a read should see: the group the calling thread is building, or else the published version
+     */
+    private GraphSnapshot<Node, Label> readable() {
+        if (pending != null && Thread.holdsLock(writeLock)) {
+            return pending;
+        }
+        return current;
+    }
+
+    /**
+     * make a version the latest, visible to other threads unless a group of writes is running
+     *
+     * @spec.requires the calling thread holds writeLock
+     */
+    private void publish(GraphSnapshot<Node, Label> next) {
+        if (pending != null) {
+            pending = next;
+        } else {
+            current = next;
+            checkRep();
+        }
+    }
+
+    /**
+     * @return the next version after base, with the adjacency of node id replaced
+     */
+    private GraphSnapshot<Node, Label> withAdjacency(GraphSnapshot<Node, Label> base, int id,
+                                                     Map<Node, Set<Label>> children) {
+        return new GraphSnapshot<>(ids, base.version() + 1, base.idCount(), base.size(),
+                base.nodes(), withAdjacency(base.chunks(), id, children));
+    }
+
+    /**
+     * @return a copy of chunks with the adjacency of node id replaced, only the chunk of id is copied
+     */
+    private static Object[][] withAdjacency(Object[][] chunks, int id, Object children) {
+        int c = id / GraphSnapshot.CHUNK_SIZE;
+        Object[][] newChunks = Arrays.copyOf(chunks, Math.max(chunks.length, c + 1));
+        newChunks[c] = c < chunks.length ? chunks[c].clone() : new Object[GraphSnapshot.CHUNK_SIZE];
+        newChunks[c][id % GraphSnapshot.CHUNK_SIZE] = children;
+        return newChunks;
+    }
+
+    /**
+     * replace the adjacency of node id in chunks, copying its chunk the first time it is changed
+     *
+     * @spec.requires chunks is a private copy of the top level array, copied[c] is true iff chunk c is private too
+     */
+    private static void setAdjacency(Object[][] chunks, boolean[] copied, int id, Object children) {
+        int c = id / GraphSnapshot.CHUNK_SIZE;
+        if (!copied[c]) {
+            chunks[c] = chunks[c].clone();
+            copied[c] = true;
+        }
+        chunks[c][id % GraphSnapshot.CHUNK_SIZE] = children;
+    }
+
+    /**
+     * @return the number of chunks needed for idCount node ids
+     */
+    private static int chunkCount(int idCount) {
+        return (idCount + GraphSnapshot.CHUNK_SIZE - 1) / GraphSnapshot.CHUNK_SIZE;
+    }
+
+    /**
+     * throws exception if representation invariant is violate
+     */
+    private void checkRep() {
+        assert (ids != null) : "ids cannot be null";
+        assert (writeLock != null && current != null) : "graph cannot be null";
+        assert (pendingIds != null && (pending != null || pendingIds.isEmpty())) : "only a group can hold new ids";
+
+        if (RUN_CHECK_REP) {
+            assert (current.idCount() <= ids.size()) : "every id of the graph must be in ids";
+        }
+    }
+}
@@ -0,0 +1,802 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * ContractionHierarchy answers shortest path queries on an indexed graph after a one-time preprocessing step
+ *
+ * Preprocessing contracts the nodes one at a time, from the least to the most important, adding a shortcut
+ * edge u -&gt; w of weight a + b whenever a contracted node v was the only shortest way from u -&gt; v of weight a
+ * to v -&gt; w of weight b. The order a node is contracted in is its rank. Every shortest path then has a form that
+ * climbs to higher ranks and then descends, so a query is a bidirectional search that only follows edges to
+ * higher ranks, forward from the start and backward from the end, and settles a few hundred nodes even on large
+ * road networks. Shortcuts remember the two edges they replace, and are unpacked back into edges of the graph.
+ *
+ * A hierarchy can be written to a file and read back for the same graph, so preprocessing is done once.
+ * The file holds, in big-endian order, a header (magic, format, node count, edge count of the graph,
+ * fingerprint of the graph, edge count of the hierarchy), the rank of every node, and for every edge of the
+ * hierarchy its parent, child, weight and the two edges it replaces, -1 for edges of the graph.
+ * Queries may run on many threads at once.
+ *
+ * @param <Node> the type of the node
+ */
+public class ContractionHierarchy<Node> {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the first int of every hierarchy file */
+    private static final int MAGIC = 0x43484945;
+
+    /** the version of the file layout */
+    private static final int FORMAT = 1;
+
+    /** the graph whose paths are found */
+    private final IndexedGraph<Node> graph;
+
+    /** the fingerprint of graph, telling whether a hierarchy file was built from it */
+    private final long fingerprint;
+
+    /** the position of every node id in the contraction order */
+    private final int[] rank;
+
+    /** the parent and child node ids and the weight of every edge, edges of graph first, then shortcuts */
+    private final int[] from;
+    private final int[] to;
+    private final double[] weight;
+
+    /** the two edges every shortcut replaces, in path order, -1 for edges of graph */
+    private final int[] first;
+    private final int[] second;
+
+    /** the edges from every node to higher ranked nodes, those of node n are upEdges[upOffsets[n]..upOffsets[n+1]) */
+    private final int[] upOffsets;
+    private final int[] upEdges;
+
+    /** the edges into every node from higher ranked nodes, laid out like upEdges */
+    private final int[] downOffsets;
+    private final int[] downEdges;
+
+    /** the search arrays of every thread querying this, reused between its queries */
+    private final ThreadLocal<Search> searches;
+
+    // Representation Invariant for every ContractionHierarchy h:
+    // all fields != null, rank is a permutation of 0..graph.size() - 1
+    // from, to, weight, first, second have one entry per edge, 0 <= from[e], to[e] < graph.size(), from[e] != to[e]
+    // first[e] == -1 iff second[e] == -1, and otherwise to[first[e]] == from[second[e]],
+    // from[first[e]] == from[e], to[second[e]] == to[e] and weight[e] == weight[first[e]] + weight[second[e]]
+    // upEdges holds every edge e with rank[from[e]] < rank[to[e]] at from[e], downEdges every other edge at to[e]
+    //
+    // Abstraction Function:
+    // the shortest path from s to t in graph costs the least d_up(s, v) + d_down(v, t) over all nodes v, where
+    // d_up follows upEdges from s and d_down follows downEdges back from t, and edge e of such a path stands for
+    // the edge from[e] -> to[e] of graph if first[e] == -1, or else for the edges of first[e] then second[e]
+
+    /**
+     * @spec.effects create a new hierarchy from its edges, the arrays are not copied
+     */
+    private ContractionHierarchy(IndexedGraph<Node> graph, long fingerprint, int[] rank,
+                                 int[] from, int[] to, double[] weight, int[] first, int[] second) {
+        this.graph = graph;
+        this.fingerprint = fingerprint;
+        this.rank = rank;
+        this.from = from;
+        this.to = to;
+        this.weight = weight;
+        this.first = first;
+        this.second = second;
+        this.upOffsets = new int[rank.length + 1];
+        this.downOffsets = new int[rank.length + 1];
+        for (int e = 0; e < from.length; e++) {
+            if (rank[from[e]] < rank[to[e]]) {
+                upOffsets[from[e] + 1]++;
+            } else {
+                downOffsets[to[e] + 1]++;
+            }
+        }
+        for (int n = 0; n < rank.length; n++) {
+            upOffsets[n + 1] += upOffsets[n];
+            downOffsets[n + 1] += downOffsets[n];
+        }
+        this.upEdges = new int[upOffsets[rank.length]];
+        this.downEdges = new int[downOffsets[rank.length]];
+        int[] nextUp = Arrays.copyOf(upOffsets, rank.length);
+        int[] nextDown = Arrays.copyOf(downOffsets, rank.length);
+        for (int e = 0; e < from.length; e++) {
+            if (rank[from[e]] < rank[to[e]]) {
+                upEdges[nextUp[from[e]]++] = e;
+            } else {
+                downEdges[nextDown[to[e]]++] = e;
+            }
+        }
+        this.searches = ThreadLocal.withInitial(() -> new Search(rank.length));
+        checkRep();
+    }
+
+    /**
+     * contract every node of a graph, ordering the nodes by how few shortcuts their contraction adds
+     *
+     * @param graph the graph whose paths are found
+     * @param <Node> the type of the node
+     * @return a new hierarchy answering shortest path queries on 'graph'
+     * @spec.requires graph != null, every weight of graph is non-negative, graph is not changed afterwards
+     */
+    public static <Node> ContractionHierarchy<Node> build(IndexedGraph<Node> graph) {
+        return new Contractor(graph).contract(graph);
+    }
+
+    /**
+     * read a hierarchy written by write() for a graph
+     *
+     * @param file the file being read
+     * @param graph the graph the hierarchy was built from
+     * @param <Node> the type of the node
+     * @return a new hierarchy answering shortest path queries on 'graph'
+     * @throws IOException if the file cannot be read, was not written by write(), or was built from another graph
+     * @spec.requires file != null ; graph != null
+     */
+    public static <Node> ContractionHierarchy<Node> read(Path file, IndexedGraph<Node> graph) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new IOException("not a hierarchy file: " + file);
+            }
+            if (in.readInt() != graph.size() || in.readInt() != graph.edgeCount() || in.readLong() != graph.fingerprint()) {
+                throw new IOException("hierarchy file was built from another graph: " + file);
+            }
+            int[] rank = new int[graph.size()];
+            for (int n = 0; n < rank.length; n++) {
+                rank[n] = in.readInt();
+            }
+            int edgeCount = in.readInt();
+            if (edgeCount < 0) {
+                throw new IOException("corrupt hierarchy file: " + file);
+            }
+            int[] from = new int[edgeCount];
+            int[] to = new int[edgeCount];
+            double[] weight = new double[edgeCount];
+            int[] first = new int[edgeCount];
+            int[] second = new int[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                from[e] = in.readInt();
+                to[e] = in.readInt();
+                weight[e] = in.readDouble();
+                first[e] = in.readInt();
+                second[e] = in.readInt();
+                if (from[e] < 0 || from[e] >= rank.length || to[e] < 0 || to[e] >= rank.length
+                        || first[e] < -1 || first[e] >= edgeCount || second[e] < -1 || second[e] >= edgeCount) {
+                    throw new IOException("corrupt hierarchy file: " + file);
+                }
+            }
+            if (in.read() != -1) {
+                throw new IOException("corrupt hierarchy file: " + file);
+            }
+            return new ContractionHierarchy<>(graph, graph.fingerprint(), rank, from, to, weight, first, second);
+        } catch (EOFException e) {
+            throw new IOException("corrupt hierarchy file: " + file, e);
+        }
+    }
+
+    /**
+     * write this to a file that read() can read back, replacing the file if it exists
+     *
+     * @param file the file being written
+     * @throws IOException if the file cannot be written
+     * @spec.requires file != null
+     */
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(graph.size());
+            out.writeInt(graph.edgeCount());
+            out.writeLong(fingerprint);
+            for (int r : rank) {
+                out.writeInt(r);
+            }
+            out.writeInt(from.length);
+            for (int e = 0; e < from.length; e++) {
+                out.writeInt(from[e]);
+                out.writeInt(to[e]);
+                out.writeDouble(weight[e]);
+                out.writeInt(first[e]);
+                out.writeInt(second[e]);
+            }
+        }
+    }
+
+    /**
+     * @return the graph whose paths are found
+     */
+    public IndexedGraph<Node> graph() {
+        return graph;
+    }
+
+    /**
+     * @return the number of edges of this, edges of the graph and shortcuts
+     */
+    public int edgeCount() {
+        return from.length;
+    }
+
+    /**
+     * @return the number of shortcut edges preprocessing added
+     */
+    public int shortcutCount() {
+        int shortcuts = 0;
+        for (int e : first) {
+            if (e != -1) {
+                shortcuts++;
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * find the distance of the shortest path between two nodes
+     *
+     * @param start the start of the path
+     * @param end the end of the path
+     * @return the total weight of the shortest path from 'start' to 'end', infinity if there is none
+     * @throws IllegalArgumentException if 'start' or 'end' is not a node of the graph
+     */
+    public double distance(Node start, Node end) {
+        Search search = searches.get();
+        try {
+            int meeting = search.run(ids(start, end));
+            return meeting == -1 ? Double.POSITIVE_INFINITY : search.dist[0][meeting] + search.dist[1][meeting];
+        } finally {
+            search.reset();
+        }
+    }
+
+    /**
+     * find the shortest path between two nodes, passing its edges of the graph to a visitor in path order
+     *
+     * @param start the start of the path
+     * @param end the end of the path
+     * @param step the visitor receiving the child node and weight of every edge of the path
+     * @return true iff there is a path from 'start' to 'end', 'step' is not called if there is none
+     * @throws IllegalArgumentException if 'start' or 'end' is not a node of the graph
+     */
+    public boolean route(Node start, Node end, DoubleEdgeVisitor<? super Node> step) {
+        Search search = searches.get();
+        int[] edges;
+        try {
+            int meeting = search.run(ids(start, end));
+            if (meeting == -1) {
+                return false;
+            }
+            edges = search.edgesThrough(meeting);
+        } finally {
+            search.reset();
+        }
+        unpack(edges, step);
+        return true;
+    }
+
+    /**
+     * pass the edges of the graph that a path of edges of this replaces to a visitor, in path order
+     *
+     * @param edges the edges of a path of this, in path order
+     * @param step the visitor receiving the child node and weight of every edge of the graph on the path
+     * @spec.requires every edge is between 0 and edgeCount() - 1, and each starts where the one before it ends
+     */
+    void unpack(int[] edges, DoubleEdgeVisitor<? super Node> step) {
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int i = edges.length - 1; i >= 0; i--) {
+            pending.push(edges[i]);
+        }
+        while (!pending.isEmpty()) {
+            int e = pending.pop();
+            if (first[e] == -1) {
+                step.visit(graph.nodeAt(to[e]), weight[e]);
+            } else {
+                pending.push(second[e]);
+                pending.push(first[e]);
+            }
+        }
+    }
+
+    /**
+     * @return the position of node n in the contraction order
+     * @spec.requires 0 &lt;= n &lt; graph().size()
+     */
+    int rank(int n) {
+        return rank[n];
+    }
+
+    /**
+     * return the edges of this from a node to higher ranked nodes (side 0), or into a node from higher ranked
+     * nodes (side 1), which are the edges the upward searches of a query follow
+     *
+     * @param side 0 for the edges a forward search follows, 1 for those a backward search follows
+     * @param n the id of the node
+     * @return the indices of the edges, a new array
+     * @spec.requires side is 0 or 1, 0 &lt;= n &lt; graph().size()
+     */
+    int[] upwardEdges(int side, int n) {
+        return side == 0 ? Arrays.copyOfRange(upEdges, upOffsets[n], upOffsets[n + 1])
+                : Arrays.copyOfRange(downEdges, downOffsets[n], downOffsets[n + 1]);
+    }
+
+    /**
+     * @return the id of the parent node of edge e
+     * @spec.requires 0 &lt;= e &lt; edgeCount()
+     */
+    int edgeFrom(int e) {
+        return from[e];
+    }
+
+    /**
+     * @return the id of the child node of edge e
+     * @spec.requires 0 &lt;= e &lt; edgeCount()
+     */
+    int edgeTo(int e) {
+        return to[e];
+    }
+
+    /**
+     * @return the weight of edge e
+     * @spec.requires 0 &lt;= e &lt; edgeCount()
+     */
+    double edgeWeight(int e) {
+        return weight[e];
+    }
+
+    /**
+     * @return the ids of start and end
+     * @throws IllegalArgumentException if 'start' or 'end' is not a node of the graph
+     */
+    private int[] ids(Node start, Node end) {
+        int source = graph.idOf(start);
+        int target = graph.idOf(end);
+        if (source == -1 || target == -1) {
+            throw new IllegalArgumentException("node does not exist");
+        }
+        return new int[] {source, target};
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert graph != null && rank != null && searches != null : "parts cannot be null";
+        assert rank.length == graph.size() : "every node must have a rank";
+        assert from.length == to.length && from.length == weight.length : "every edge must have a weight";
+        assert from.length == first.length && from.length == second.length : "every edge must say what it replaces";
+
+        if (RUN_CHECK_REP) {
+            boolean[] ranked = new boolean[rank.length];
+            for (int r : rank) {
+                assert !ranked[r] : "ranks must be distinct";
+                ranked[r] = true;
+            }
+            for (int e = 0; e < from.length; e++) {
+                assert from[e] != to[e] : "no edge is a loop";
+                assert (first[e] == -1) == (second[e] == -1) : "a shortcut replaces two edges";
+                if (first[e] != -1) {
+                    assert from[first[e]] == from[e] && to[first[e]] == from[second[e]] && to[second[e]] == to[e]
+                            : "a shortcut replaces a path";
+                    assert weight[e] == weight[first[e]] + weight[second[e]] : "a shortcut weighs its path";
+                }
+            }
+        }
+    }
+
+    /**
+     * Search holds the arrays of one bidirectional upward query, side 0 searching forward from the start
+     * over upEdges and side 1 backward from the end over downEdges
+     */
+    private final class Search {
+        /** the distance of every node from the root of each side, infinity if not reached */
+        private final double[][] dist;
+
+        /** the edge every reached node was reached by on each side, -1 for the roots */
+        private final int[][] pred;
+
+        /** the nodes whose entries are to be reset after the query */
+        private int[] touched;
+        private int touchedCount;
+
+        private Search(int size) {
+            dist = new double[][] {new double[size], new double[size]};
+            pred = new int[][] {new int[size], new int[size]};
+            Arrays.fill(dist[0], Double.POSITIVE_INFINITY);
+            Arrays.fill(dist[1], Double.POSITIVE_INFINITY);
+            touched = new int[16];
+        }
+
+        /**
+         * search up from both roots
+         *
+         * @param roots the id of the start and of the end
+         * @return the node the shortest path meets at, the highest ranked node of the path, -1 if there is no path
+         */
+        private int run(int[] roots) {
+            List<PriorityQueue<Entry>> active = List.of(new PriorityQueue<>(), new PriorityQueue<>());
+            for (int side = 0; side < 2; side++) {
+                reach(side, roots[side], 0, -1);
+                active.get(side).add(new Entry(roots[side], 0));
+            }
+            double best = Double.POSITIVE_INFINITY;
+            int meeting = -1;
+
+            // {inv: best is the cost of the shortest path found through meeting, and every path through a
+            //       node settled by both sides costs at least best}
+            for (int side = 0; !active.get(0).isEmpty() || !active.get(1).isEmpty(); side = 1 - side) {
+                PriorityQueue<Entry> queue = active.get(side);
+                if (queue.isEmpty()) {
+                    continue;
+                }
+                Entry min = queue.remove();
+                int n = min.node;
+                if (min.cost > dist[side][n]) {
+                    continue; // stale entry, n was reached more cheaply
+                }
+                if (min.cost >= best) {
+                    queue.clear(); // every node left on this side is too far to be on a shorter path
+                    continue;
+                }
+                if (min.cost + dist[1 - side][n] < best) {
+                    best = min.cost + dist[1 - side][n];
+                    meeting = n;
+                }
+                if (stalled(side, n, min.cost)) {
+                    continue;
+                }
+                int[] offsets = side == 0 ? upOffsets : downOffsets;
+                int[] edges = side == 0 ? upEdges : downEdges;
+                for (int i = offsets[n]; i < offsets[n + 1]; i++) {
+                    int e = edges[i];
+                    int child = side == 0 ? to[e] : from[e];
+                    double cost = min.cost + weight[e];
+                    if (cost < dist[side][child]) {
+                        reach(side, child, cost, e);
+                        queue.add(new Entry(child, cost));
+                    }
+                }
+            }
+            return meeting;
+        }
+
+        /**
+         * tell whether a side reached a node more cheaply through a higher ranked node, by an edge down to it that
+         * the upward search cannot follow. Such a node is not on a shortest upward path, so its edges need not
+         * be followed
+         *
+         * @return true iff a node reached by side has an edge down to n making it cheaper than cost
+         */
+        private boolean stalled(int side, int n, double cost) {
+            int[] offsets = side == 0 ? downOffsets : upOffsets;
+            int[] edges = side == 0 ? downEdges : upEdges;
+            for (int i = offsets[n]; i < offsets[n + 1]; i++) {
+                int e = edges[i];
+                int higher = side == 0 ? from[e] : to[e];
+                if (dist[side][higher] + weight[e] < cost) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the edges of this from the start to the end through meeting, in path order
+         */
+        private int[] edgesThrough(int meeting) {
+            Deque<Integer> edges = new ArrayDeque<>();
+            for (int n = meeting; pred[0][n] != -1; n = from[pred[0][n]]) {
+                edges.push(pred[0][n]);
+            }
+            List<Integer> path = new ArrayList<>(edges);
+            for (int n = meeting; pred[1][n] != -1; n = to[pred[1][n]]) {
+                path.add(pred[1][n]);
+            }
+            return path.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * record that a side reached a node at a cost through an edge
+         */
+        private void reach(int side, int node, double cost, int edge) {
+            if (dist[0][node] == Double.POSITIVE_INFINITY && dist[1][node] == Double.POSITIVE_INFINITY) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touched.length * 2);
+                }
+                touched[touchedCount++] = node;
+            }
+            dist[side][node] = cost;
+            pred[side][node] = edge;
+        }
+
+        /**
+         * clear the entries of every node the last query reached
+         */
+        private void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                dist[0][touched[i]] = Double.POSITIVE_INFINITY;
+                dist[1][touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    /**
+     * a node id with its tentative distance, ordered by distance for PriorityQueue
+     */
+    private static final class Entry implements Comparable<Entry> {
+        private final int node;
+        private final double cost;
+
+        private Entry(int node, double cost) {
+            this.node = node;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+
+    /**
+     * Contractor holds the shrinking graph of uncontracted nodes while a hierarchy is built
+     */
+    private static final class Contractor {
+        /** the most nodes a witness search settles before giving up and adding the shortcut */
+        private static final int WITNESS_LIMIT = 100;
+
+        /** the most nodes a witness search settles while only estimating the priority of a node */
+        private static final int PRIORITY_WITNESS_LIMIT = 50;
+
+        /** the edges added so far, laid out like those of ContractionHierarchy */
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private double[] weight = new double[16];
+        private int[] first = new int[16];
+        private int[] second = new int[16];
+        private int edgeCount;
+
+        /** the edges out of and into every uncontracted node from other uncontracted nodes */
+        private final int[][] out;
+        private final int[] outCount;
+        private final int[][] in;
+        private final int[] inCount;
+
+        /** whether every node is contracted */
+        private final boolean[] contracted;
+
+        /** the number of contracted neighbours of every node, which spreads contraction evenly over the graph */
+        private final int[] contractedNeighbours;
+
+        /** one more than the highest level of a contracted neighbour of every node, which keeps the hierarchy shallow */
+        private final int[] level;
+
+        /** the distances of the witness search, infinity for nodes it did not reach */
+        private final double[] witnessDist;
+
+        private Contractor(IndexedGraph<?> graph) {
+            int size = graph.size();
+            out = new int[size][];
+            in = new int[size][];
+            outCount = new int[size];
+            inCount = new int[size];
+            contracted = new boolean[size];
+            contractedNeighbours = new int[size];
+            level = new int[size];
+            witnessDist = new double[size];
+            Arrays.fill(witnessDist, Double.POSITIVE_INFINITY);
+            for (int n = 0; n < size; n++) {
+                out[n] = new int[Math.max(2, graph.edgeEnd(n) - graph.edgeStart(n))];
+                in[n] = new int[2];
+            }
+            for (int n = 0; n < size; n++) {
+                for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                    addEdge(n, graph.target(e), graph.weight(e), -1, -1);
+                }
+            }
+        }
+
+        /**
+         * contract every node, least important first
+         *
+         * @return the hierarchy of the contracted graph
+         */
+        private <Node> ContractionHierarchy<Node> contract(IndexedGraph<Node> graph) {
+            int size = contracted.length;
+            // entries are {priority, node}, a node's priority is recomputed when it reaches the head
+            PriorityQueue<int[]> order = new PriorityQueue<>((a, b) -> a[0] != b[0]
+                    ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+            for (int n = 0; n < size; n++) {
+                order.add(new int[] {priority(n), n});
+            }
+            int[] rank = new int[size];
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.remove()[1];
+                int priority = priority(v);
+                if (!order.isEmpty() && priority > order.peek()[0]) {
+                    order.add(new int[] {priority, v});
+                    continue;
+                }
+                shortcuts(v, true);
+                contracted[v] = true;
+                rank[v] = next++;
+                for (int i = 0; i < outCount[v]; i++) {
+                    detach(to[out[v][i]], v);
+                }
+                for (int i = 0; i < inCount[v]; i++) {
+                    detach(from[in[v][i]], v);
+                }
+            }
+            return new ContractionHierarchy<>(graph, graph.fingerprint(), rank, Arrays.copyOf(from, edgeCount),
+                    Arrays.copyOf(to, edgeCount), Arrays.copyOf(weight, edgeCount),
+                    Arrays.copyOf(first, edgeCount), Arrays.copyOf(second, edgeCount));
+        }
+
+        /**
+         * drop the edges between an uncontracted node and its newly contracted neighbour v
+         */
+        private void detach(int node, int v) {
+            int degree = outCount[node] + inCount[node];
+            for (int i = outCount[node] - 1; i >= 0; i--) {
+                if (to[out[node][i]] == v) {
+                    out[node][i] = out[node][--outCount[node]];
+                }
+            }
+            for (int i = inCount[node] - 1; i >= 0; i--) {
+                if (from[in[node][i]] == v) {
+                    in[node][i] = in[node][--inCount[node]];
+                }
+            }
+            if (outCount[node] + inCount[node] < degree) {
+                // the first edge between them, not one already detached in the other direction
+                contractedNeighbours[node]++;
+                level[node] = Math.max(level[node], level[v] + 1);
+            }
+        }
+
+        /**
+         * @return how much contracting v grows the graph: the shortcuts it needs less the edges it removes,
+         * plus its contracted neighbours and its level
+         */
+        private int priority(int v) {
+            return 2 * (shortcuts(v, false) - outCount[v] - inCount[v]) + contractedNeighbours[v] + level[v];
+        }
+
+        /**
+         * count the shortcuts contracting v needs, every path u -&gt; v -&gt; w with no shorter or equal witness
+         * path from u to w avoiding v
+         *
+         * @param v the node being contracted
+         * @param add whether to add the shortcuts
+         * @return the number of shortcuts needed
+         */
+        private int shortcuts(int v, boolean add) {
+            int count = 0;
+            for (int i = 0; i < inCount[v]; i++) {
+                int incoming = in[v][i];
+                int u = from[incoming];
+                if (contracted[u]) {
+                    continue;
+                }
+                double maxCost = Double.NEGATIVE_INFINITY;
+                for (int j = 0; j < outCount[v]; j++) {
+                    int w = to[out[v][j]];
+                    if (!contracted[w] && w != u) {
+                        maxCost = Math.max(maxCost, weight[incoming] + weight[out[v][j]]);
+                    }
+                }
+                if (maxCost == Double.NEGATIVE_INFINITY) {
+                    continue;
+                }
+                int[] reached = witnessSearch(u, v, maxCost, add ? WITNESS_LIMIT : PRIORITY_WITNESS_LIMIT);
+                for (int j = 0; j < outCount[v]; j++) {
+                    int outgoing = out[v][j];
+                    int w = to[outgoing];
+                    double via = weight[incoming] + weight[outgoing];
+                    if (!contracted[w] && w != u && witnessDist[w] > via) {
+                        count++;
+                        if (add) {
+                            addEdge(u, w, via, incoming, outgoing);
+                        }
+                    }
+                }
+                for (int n : reached) {
+                    witnessDist[n] = Double.POSITIVE_INFINITY;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * search the uncontracted nodes other than avoid from source, up to maxCost or limit settled nodes,
+         * leaving the distances in witnessDist
+         *
+         * @return the nodes whose witnessDist the caller must reset
+         */
+        private int[] witnessSearch(int source, int avoid, double maxCost, int limit) {
+            int[] reached = new int[8];
+            int reachedCount = 0;
+            PriorityQueue<Entry> active = new PriorityQueue<>();
+            witnessDist[source] = 0;
+            reached[reachedCount++] = source;
+            active.add(new Entry(source, 0));
+            int settled = 0;
+            while (!active.isEmpty() && settled < limit) {
+                Entry min = active.remove();
+                if (min.cost > witnessDist[min.node]) {
+                    continue;
+                }
+                if (min.cost > maxCost) {
+                    break;
+                }
+                settled++;
+                for (int i = 0; i < outCount[min.node]; i++) {
+                    int e = out[min.node][i];
+                    int child = to[e];
+                    double cost = min.cost + weight[e];
+                    if (child != avoid && !contracted[child] && cost < witnessDist[child]) {
+                        if (witnessDist[child] == Double.POSITIVE_INFINITY) {
+                            if (reachedCount == reached.length) {
+                                reached = Arrays.copyOf(reached, reached.length * 2);
+                            }
+                            reached[reachedCount++] = child;
+                        }
+                        witnessDist[child] = cost;
+                        active.add(new Entry(child, cost));
+                    }
+                }
+            }
+            return Arrays.copyOf(reached, reachedCount);
+        }
+
+        /**
+         * add an edge between uncontracted nodes, or lower the weight of the edge between them if it is heavier
+         */
+        private void addEdge(int u, int w, double cost, int firstEdge, int secondEdge) {
+            if (u == w) {
+                return;
+            }
+            for (int i = 0; i < outCount[u]; i++) {
+                int e = out[u][i];
+                if (to[e] == w) {
+                    if (cost < weight[e]) {
+                        // no shortcut replaces e yet, since both its nodes are uncontracted
+                        weight[e] = cost;
+                        first[e] = firstEdge;
+                        second[e] = secondEdge;
+                    }
+                    return;
+                }
+            }
+            if (edgeCount == from.length) {
+                int length = from.length * 2;
+                from = Arrays.copyOf(from, length);
+                to = Arrays.copyOf(to, length);
+                weight = Arrays.copyOf(weight, length);
+                first = Arrays.copyOf(first, length);
+                second = Arrays.copyOf(second, length);
+            }
+            from[edgeCount] = u;
+            to[edgeCount] = w;
+            weight[edgeCount] = cost;
+            first[edgeCount] = firstEdge;
+            second[edgeCount] = secondEdge;
+            if (outCount[u] == out[u].length) {
+                out[u] = Arrays.copyOf(out[u], out[u].length * 2);
+            }
+            out[u][outCount[u]++] = edgeCount;
+            if (inCount[w] == in[w].length) {
+                in[w] = Arrays.copyOf(in[w], in[w].length * 2);
+            }
+            in[w][inCount[w]++] = edgeCount;
+            edgeCount++;
+        }
+    }
+}
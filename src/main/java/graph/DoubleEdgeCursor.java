@@ -0,0 +1,18 @@
+package graph;
+
+/**
+ * An edge cursor that also reads the weight of the current edge as a primitive double
+ *
+ * @param <Node> the type of the child node
+ * @param <Label> the type of the label
+ */
+public interface DoubleEdgeCursor<Node, Label> extends EdgeCursor<Node, Label> {
+
+    /**
+     * return the weight of the current edge
+     *
+     * @return the weight of the label of the current edge
+     * @throws java.util.NoSuchElementException if the cursor is not at an edge
+     */
+    double weight();
+}
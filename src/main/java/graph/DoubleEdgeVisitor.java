@@ -0,0 +1,18 @@
+package graph;
+
+/**
+ * A visitor receiving the outgoing edges of a node one at a time, with the weight as a primitive double
+ *
+ * @param <Node> the type of the child node
+ */
+@FunctionalInterface
+public interface DoubleEdgeVisitor<Node> {
+
+    /**
+     * visit one outgoing edge
+     *
+     * @param child the child node of the edge
+     * @param weight the weight of the edge
+     */
+    void visit(Node child, double weight);
+}
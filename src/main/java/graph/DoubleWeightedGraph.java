@@ -0,0 +1,452 @@
+package graph;
+
+import java.util.*;
+
+/**
+ * DoubleWeightedGraph represent a mutable directed graph whose edge labels are primitive double weights
+ *
+ * It behaves like a Graph with Double labels, but every edge weight is stored as a raw double
+ * and handed out without boxing. All edge weights from the same parent and child cannot be same
+ *
+ * Finding an edge takes constant expected time, as the edges of a node with more than a few of them are
+ * hashed by child and weight, and removing a node only visits the nodes with an edge to it.
+ *
+ * @param <Node> the type of the node
+ */
+public class DoubleWeightedGraph<Node> {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /**
+     * A graph holding all the nodes and their outgoing edges
+     */
+    private final Map<Node, Adjacency> graph;
+
+    /**
+     * The number of edges from every parent to every node, for the nodes with an incoming edge
+     */
+    private final Map<Node, Map<Node, Integer>> incoming;
+
+    // Representation Invariant for every DoubleWeightedGraph g:
+    // g != null, all nodes of g != null
+    // Every child node of an edge must be a node (key) of g
+    // No two edges of the same parent have the same child and the same weight
+    // incoming.get(c).get(p) is the number of edges from p to c, for every p and c with at least one,
+    // and incoming has no other entries
+    //
+    // Abstraction Function:
+    // Each node in the graph is mapped to its outgoing edges, the i-th edge of node n
+    // goes to graph.get(n).children[i] with weight graph.get(n).weights[i] for 0 <= i < graph.get(n).size
+
+    /**
+     * @spec.effects create an empty new graph
+     */
+    public DoubleWeightedGraph() {
+        graph = new HashMap<>();
+        incoming = new HashMap<>();
+        checkRep();
+    }
+
+    /**
+     * return true if there is a node with same name as 'name'
+     *
+     * @param name the name of the node
+     * @return true iff this has a node in graph with the same name
+     * @spec.requires name != null
+     */
+    public boolean hasNode(Node name) {
+        return graph.containsKey(name);
+    }
+
+    /**
+     * return true if there is an edge with same weight between parent and child
+     *
+     * @param parent the parent node of the edge
+     * @param child  the child node of the edge
+     * @param weight the weight of the edge between parent and child
+     * @return true iff parent and child has an edge with the weight
+     * @spec.requires parent is a node of the graph
+     */
+    public boolean hasEdge(Node parent, Node child, double weight) {
+        checkRep();
+        return graph.get(parent).indexOf(child, weight) >= 0;
+    }
+
+    /**
+     * add a new node to the graph and return whether the node is successfully added to graph
+     *
+     * @param name the new node to be added
+     * @return true iff 'name' has not previously been added
+     * @spec.requires name != null
+     * @spec.modifies this
+     * @spec.effects new element of this, no change if 'name' already exists
+     */
+    public boolean addNode(Node name) {
+        checkRep();
+        boolean added = false;
+        if (!graph.containsKey(name)) {
+            added = true;
+            graph.put(name, new Adjacency());
+        }
+        checkRep();
+        return added;
+    }
+
+    /**
+     * add an edge going from the parent node and return whether the edge is successfully added
+     *
+     * @param parent the parent node
+     * @param child  the child node
+     * @param weight the weight of the edge
+     * @return true iff the same edge has not previously been added
+     * @throws IllegalArgumentException if graph does not have node 'parent' and 'child'
+     * @spec.requires parent != null ; child != null
+     * @spec.modifies this
+     * @spec.effects a new outgoing edge for 'parent' with a child node and a weight
+     * no change if same weight already exists
+     */
+    public boolean addChild(Node parent, Node child, double weight) {
+        checkRep();
+        if (!graph.containsKey(parent) || !graph.containsKey(child)) {
+            throw new IllegalArgumentException("parent/child node does not exist");
+        }
+        Adjacency edges = graph.get(parent);
+        boolean added = false;
+        if (edges.indexOf(child, weight) < 0) {
+            added = true;
+            edges.add(child, weight);
+            incoming.computeIfAbsent(child, c -> new HashMap<>()).merge(parent, 1, Integer::sum);
+        }
+        checkRep();
+        return added;
+    }
+
+    /**
+     * remove a node from the graph and remove all edges that has 'name' as child
+     *
+     * @param name the name of the node being removed
+     * @throws IllegalArgumentException if graph does not have node 'name'
+     * @spec.requires name != null
+     * @spec.modifies this
+     * @spec.effects this will not have a node with 'name', and all other nodes will remove their outgoing edges with 'name' as child
+     */
+    public void removeNode(Node name) {
+        checkRep();
+        if (!graph.containsKey(name)) {
+            throw new IllegalArgumentException("node does not exist");
+        }
+        Adjacency removed = graph.remove(name);
+        Map<Node, Integer> parents = incoming.remove(name);
+        if (parents != null) {
+            for (Node parent : parents.keySet()) {
+                Adjacency edges = graph.get(parent);
+                if (edges != null) {
+                    edges.removeChild(name);
+                }
+            }
+        }
+        for (int i = 0; i < removed.size; i++) {
+            @SuppressWarnings("unchecked")
+            Node child = (Node) removed.children[i];
+            Map<Node, Integer> childParents = incoming.get(child);
+            if (childParents != null) {
+                childParents.remove(name);
+                if (childParents.isEmpty()) {
+                    incoming.remove(child);
+                }
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * remove an edge with 'weight' that connects from 'parent' to 'child'
+     *
+     * @param parent the starting point of the edge
+     * @param child  the end point of the edge
+     * @param weight the weight of the edge that is being removed
+     * @throws IllegalArgumentException if graph does not have node 'parent' or 'child', or does not have an edge between with 'weight'
+     * @spec.requires parent != null ; child != null
+     * @spec.modifies this
+     * @spec.effects this.hasEdge(parent, child, weight) = false
+     */
+    public void removeEdgeFrom(Node parent, Node child, double weight) {
+        checkRep();
+        if (!graph.containsKey(parent) || !graph.containsKey(child)) {
+            throw new IllegalArgumentException("node does not exist");
+        }
+        Adjacency edges = graph.get(parent);
+        int i = edges.indexOf(child, weight);
+        if (i < 0) {
+            throw new IllegalArgumentException("weight does not exist");
+        }
+        edges.remove(i);
+        Map<Node, Integer> parents = incoming.get(child);
+        if (parents.merge(parent, -1, Integer::sum) == 0) {
+            parents.remove(parent);
+            if (parents.isEmpty()) {
+                incoming.remove(child);
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * get all the nodes of the graph
+     *
+     * @return a set of all nodes in this
+     */
+    public Set<Node> getNodes() {
+        return new HashSet<>(graph.keySet());
+    }
+
+    /**
+     * return the number of outgoing edges of a node
+     *
+     * @param parent the parent node
+     * @return the number of outgoing edges of 'parent'
+     * @throws IllegalArgumentException if this does not have node 'parent'
+     */
+    public int outDegree(Node parent) {
+        Adjacency edges = graph.get(parent);
+        if (edges == null) {
+            throw new IllegalArgumentException("parent node does not exist");
+        }
+        return edges.size;
+    }
+
+    /**
+     * pass every outgoing edge of the parent node to the visitor, without copying or boxing
+     *
+     * @param parent the parent node
+     * @param visitor the visitor receiving the child and the weight of every edge
+     * @throws IllegalArgumentException if this does not have node 'parent'
+     * @spec.requires visitor does not modify this
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachEdge(Node parent, DoubleEdgeVisitor<? super Node> visitor) {
+        Adjacency edges = graph.get(parent);
+        if (edges == null) {
+            throw new IllegalArgumentException("parent node does not exist");
+        }
+        for (int i = 0; i < edges.size; i++) {
+            visitor.visit((Node) edges.children[i], edges.weights[i]);
+        }
+    }
+
+    /**
+     * measure the size and shape of this, without copying any of it
+     *
+     * @return the stats of this
+     */
+    public GraphStats stats() {
+        checkRep();
+        GraphStats.Counter counter = new GraphStats.Counter();
+        long heapBytes = GraphStats.objectBytes(2 * 4) + GraphStats.hashMapBytes(graph.size())
+                + GraphStats.hashMapBytes(incoming.size());
+        for (Map<Node, Integer> parents : incoming.values()) {
+            heapBytes += GraphStats.hashMapBytes(parents.size());
+        }
+        Map<Object, Integer> seen = new HashMap<>();
+        for (Adjacency adjacency : graph.values()) {
+            heapBytes += GraphStats.objectBytes(4 * 4) + GraphStats.referenceArrayBytes(adjacency.children.length)
+                    + GraphStats.arrayBytes(adjacency.weights.length, 8);
+            if (adjacency.index != null) {
+                heapBytes += GraphStats.arrayBytes(adjacency.index.length, 4);
+            }
+            seen.clear();
+            for (int i = 0; i < adjacency.size; i++) {
+                seen.merge(adjacency.children[i], 1, Integer::sum);
+            }
+            counter.addNode(adjacency.size, adjacency.size - seen.size());
+        }
+        return counter.build(heapBytes, 0);
+    }
+
+    /**
+     * throws exception if representation invariant is violate
+     */
+    private void checkRep() {
+        assert (graph != null) : "graph cannot be null";
+        assert (incoming != null) : "incoming edges cannot be null";
+
+        if (RUN_CHECK_REP) {
+            Map<Node, Map<Node, Integer>> counted = new HashMap<>();
+            for (Map.Entry<Node, Adjacency> entry : graph.entrySet()) {
+                Adjacency edges = entry.getValue();
+                for (int i = 0; i < edges.size; i++) {
+                    assert (edges.children[i] != null) : "child node cannot be null";
+                    assert (graph.containsKey(edges.children[i])) : "child node must be a node of graph";
+                    assert (edges.indexOf(edges.children[i], edges.weights[i]) == i) : "edges cannot be duplicated";
+                    @SuppressWarnings("unchecked")
+                    Node child = (Node) edges.children[i];
+                    counted.computeIfAbsent(child, c -> new HashMap<>()).merge(entry.getKey(), 1, Integer::sum);
+                }
+            }
+            assert (counted.equals(incoming)) : "incoming edges must be counted";
+        }
+    }
+
+    /**
+     * The outgoing edges of one node, stored as parallel arrays of children and weights
+     *
+     * Once there are more than SCAN_LIMIT edges, they are also hashed by child into index,
+     * an open addressing table of edge index + 1 with linear probing, 0 for an empty slot, at most half full
+     */
+    private static class Adjacency {
+        /** the most edges searched by a scan rather than through index */
+        private static final int SCAN_LIMIT = 8;
+
+        private Object[] children = new Object[2];
+        private double[] weights = new double[2];
+        private int size;
+
+        /** the hashed edges, null while there are at most SCAN_LIMIT of them, its length is a power of 2 */
+        private int[] index;
+
+        /**
+         * @return the index of the edge to child with weight, -1 if there is none
+         */
+        private int indexOf(Object child, double weight) {
+            if (index == null) {
+                for (int i = 0; i < size; i++) {
+                    if (matches(i, child, weight)) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            int mask = index.length - 1;
+            for (int slot = hash(child) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+                if (matches(index[slot] - 1, child, weight)) {
+                    return index[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return the index of an edge to child, -1 if there is none
+         * @spec.requires index != null
+         */
+        private int indexOf(Object child) {
+            int mask = index.length - 1;
+            for (int slot = hash(child) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+                if (children[index[slot] - 1].equals(child)) {
+                    return index[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        private void add(Object child, double weight) {
+            if (size == children.length) {
+                children = Arrays.copyOf(children, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            children[size] = child;
+            weights[size] = weight;
+            size++;
+            if (index != null && size * 2 <= index.length) {
+                put(size - 1);
+            } else if (size > SCAN_LIMIT) {
+                rehash(Integer.highestOneBit(size) << 2);
+            }
+        }
+
+        /**
+         * remove the edge at index i by moving the last edge into its place
+         */
+        private void remove(int i) {
+            size--;
+            if (index != null) {
+                unhash(slotOf(i));
+                if (i != size) {
+                    index[slotOf(size)] = i + 1;
+                }
+            }
+            children[i] = children[size];
+            weights[i] = weights[size];
+            children[size] = null;
+        }
+
+        /**
+         * @return true iff the edge at index i goes to child with weight
+         */
+        private boolean matches(int i, Object child, double weight) {
+            return Double.compare(weights[i], weight) == 0 && children[i].equals(child);
+        }
+
+        /**
+         * @return the hash of an edge to child, which does not depend on the weight so that all the edges
+         * to a child are in one probe run
+         */
+        private static int hash(Object child) {
+            int h = child.hashCode() * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        /**
+         * put the edge at index i into an empty slot of index
+         */
+        private void put(int i) {
+            int mask = index.length - 1;
+            int slot = hash(children[i]) & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = i + 1;
+        }
+
+        /**
+         * hash every edge into a new index with the given number of slots
+         */
+        private void rehash(int slots) {
+            index = new int[slots];
+            for (int i = 0; i < size; i++) {
+                put(i);
+            }
+        }
+
+        /**
+         * @return the slot of index holding the edge at index i
+         */
+        private int slotOf(int i) {
+            int mask = index.length - 1;
+            int slot = hash(children[i]) & mask;
+            while (index[slot] != i + 1) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * empty a slot of index, moving back the later edges of its probe run that would no longer be found
+         */
+        private void unhash(int hole) {
+            int mask = index.length - 1;
+            for (int next = (hole + 1) & mask; index[next] != 0; next = (next + 1) & mask) {
+                int edge = index[next] - 1;
+                int home = hash(children[edge]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    index[hole] = index[next];
+                    hole = next;
+                }
+            }
+            index[hole] = 0;
+        }
+
+        private void removeChild(Object child) {
+            if (index != null) {
+                for (int i = indexOf(child); i >= 0; i = indexOf(child)) {
+                    remove(i);
+                }
+                return;
+            }
+            for (int i = size - 1; i >= 0; i--) {
+                if (children[i].equals(child)) {
+                    remove(i);
+                }
+            }
+        }
+    }
+}
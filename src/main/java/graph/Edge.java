@@ -5,11 +5,15 @@ package graph;
  * @param <Node> the type of the child node
  * @param <Label> the type of the label
  */
-public class Edge<Node,Label> {
-    private Node child;
-    private Label label;
+public final class Edge<Node,Label> {
+    private final Node child;
+    private final Label label;
+
+    /** the hash code of this, computed once since edges are immutable */
+    private final int hash;
 
     // Representation Invariant for every Edge e is child != null and label != null
+    // and hash == mix(child.hashCode(), label.hashCode())
     //
     // Abstraction Function: Each edge consist of a child node and a label that is linked to the parent node
 
@@ -21,6 +25,7 @@ public class Edge<Node,Label> {
     public Edge(Node child, Label label) {
         this.child = child;
         this.label = label;
+        this.hash = mix(child.hashCode(), label.hashCode());
         checkRep();
     }
 
@@ -82,8 +87,7 @@ public class Edge<Node,Label> {
             return false;
         } else {
             Edge<?,?> e = (Edge<?,?>) o;
-            return this.child.hashCode() == e.getChild().hashCode()
-                    && this.label.hashCode() == e.getLabel().hashCode();
+            return this.hash == e.hash && this.child.equals(e.child) && this.label.equals(e.label);
         }
     }
 
@@ -94,7 +98,23 @@ public class Edge<Node,Label> {
      */
     @Override
     public int hashCode() {
-        return child.hashCode() + label.hashCode();
+        return hash;
+    }
+
+    /**
+     * combine the hash codes of a child and a label, so that swapped or close hash codes
+     * of the parts still spread over all the bits of the result
+     *
+     * @param childHash the hash code of the child node
+     * @param labelHash the hash code of the label
+     * @return the hash code of an edge with the given parts
+     */
+    private static int mix(int childHash, int labelHash) {
+        int h = childHash * 0x9E3779B9 + labelHash;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
     }
 
     /**
@@ -0,0 +1,36 @@
+package graph;
+
+/**
+ * A cursor moving over the outgoing edges of one node without creating a copy of them
+ *
+ * A new cursor is positioned before the first edge, next() must be called before reading child() or label()
+ *
+ * @param <Node> the type of the child node
+ * @param <Label> the type of the label
+ */
+public interface EdgeCursor<Node, Label> {
+
+    /**
+     * move to the next edge
+     *
+     * @return true iff the cursor is now at an edge, false if there are no more edges
+     * @spec.modifies this
+     */
+    boolean next();
+
+    /**
+     * return the child node of the current edge
+     *
+     * @return the child node of the current edge
+     * @throws java.util.NoSuchElementException if the cursor is not at an edge
+     */
+    Node child();
+
+    /**
+     * return the label of the current edge
+     *
+     * @return the label of the current edge
+     * @throws java.util.NoSuchElementException if the cursor is not at an edge
+     */
+    Label label();
+}
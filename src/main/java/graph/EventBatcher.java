@@ -0,0 +1,93 @@
+package graph;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * EventBatcher delivers the changes of a graph to its listeners, holding them back while a batch is open
+ *
+ * An EventBatcher is not thread-safe on its own, its graph must serialize the writes that fire events.
+ *
+ * @param <Node> the type of the node
+ * @param <Label> the type of the edge label
+ */
+final class EventBatcher<Node, Label> {
+
+    /** the registered listeners, which may be changed while events are delivered */
+    private final List<GraphListener<Node, Label>> listeners = new CopyOnWriteArrayList<>();
+
+    /** the events held back by the open batches, null if no batch is open */
+    private List<GraphEvent<Node, Label>> batch;
+
+    /** the number of open batches, nested in one another */
+    private int depth;
+
+    // Representation Invariant: listeners != null, depth >= 0, batch != null iff depth > 0
+    //
+    // Abstraction Function: events fired while depth > 0 are delivered together when the outermost batch closes
+
+    /**
+     * @param listener the listener being registered
+     */
+    void addListener(GraphListener<Node, Label> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener the listener being unregistered
+     * @return true iff 'listener' was registered
+     */
+    boolean removeListener(GraphListener<Node, Label> listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * @return true iff fired events are delivered to some listener, so the graph should create them
+     */
+    boolean isListened() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * deliver an event now, or when the open batch closes
+     *
+     * @param event the change made to the graph
+     */
+    void fire(GraphEvent<Node, Label> event) {
+        if (batch != null) {
+            batch.add(event);
+        } else if (isListened()) {
+            deliver(List.of(event));
+        }
+    }
+
+    /**
+     * open a batch, nested in the open one if there is one
+     */
+    void begin() {
+        if (depth++ == 0) {
+            batch = new ArrayList<>();
+        }
+    }
+
+    /**
+     * close the innermost batch, delivering its events if it is the outermost one
+     *
+     * @param keep false if the events of the outermost batch must be dropped because its writes were undone
+     */
+    void end(boolean keep) {
+        if (--depth == 0) {
+            List<GraphEvent<Node, Label>> events = batch;
+            batch = null;
+            if (keep && !events.isEmpty() && isListened()) {
+                deliver(Collections.unmodifiableList(events));
+            }
+        }
+    }
+
+    private void deliver(List<GraphEvent<Node, Label>> events) {
+        for (GraphListener<Node, Label> listener : listeners) {
+            listener.graphChanged(events);
+        }
+    }
+}
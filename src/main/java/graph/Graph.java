@@ -1,6 +1,8 @@
 package graph;
 
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Graph represent a mutable directed labeled graph
@@ -16,24 +18,61 @@ public class Graph<Node, Label> {
     private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
 
     /**
-     * A graph holding all the nodes
+     * A graph holding all the nodes, each mapped from its children to the labels of the edges to them
      */
-    private final Map<Node, Set<Edge<Node, Label>>> graph;
+    private final Map<Node, Map<Node, Set<Label>>> graph;
+
+    /**
+     * Every node mapped from its parents to the labels of the edges from them,
+     * null if this does not index incoming edges
+     */
+    private final Map<Node, Map<Node, Set<Label>>> incoming;
+
+    /** the listeners of this and the changes held back by an open batch */
+    private final EventBatcher<Node, Label> events;
 
     // Representation Invariant for every Graph g:
     // g != null, all nodes, edges and labels of g != null
     // Every child node of an edge must be a node (key) of g
+    // No label set of graph.get(p) is empty
+    // incoming == null || (incoming.keySet() equals graph.keySet()
+    //     && incoming.get(c).get(p) is the same set as graph.get(p).get(c) for every edge from p to c)
     //
     // Abstraction Function:
-    // Each node in the graph is mapped to a collection of its outgoing labelled edges,
-    // each edge consists of a child node and a label
+    // Each node p in the graph has an outgoing edge to child c with label l
+    // for every l in graph.get(p).get(c)
+    // incoming shares the label sets of graph, keyed the other way, to find the parents of a node
+    // events holds the listeners of this, which are told about every change
     //
 
     /**
-     * @spec.effects create an empty new graph
+     * @spec.effects create an empty new graph that does not index incoming edges
      */
     public Graph() {
+        this(false);
+    }
+
+    /**
+     * @param indexIncoming true iff the graph should keep an index of the incoming edges of every node,
+     *                      which makes removeNode and getIncomingEdges proportional to the degree of the node
+     * @spec.effects create an empty new graph
+     */
+    public Graph(boolean indexIncoming) {
         graph = new HashMap<>();
+        incoming = indexIncoming ? new HashMap<>() : null;
+        events = new EventBatcher<>();
+        checkRep();
+    }
+
+    /**
+     * @param graph the nodes mapped from their children to the labels of the edges to them, used without copying
+     * @spec.requires graph satisfies the representation invariant of a graph without incoming index
+     * @spec.effects create a new graph that does not index incoming edges, holding 'graph'
+     */
+    Graph(Map<Node, Map<Node, Set<Label>>> graph) {
+        this.graph = graph;
+        incoming = null;
+        events = new EventBatcher<>();
         checkRep();
     }
 
@@ -62,7 +101,8 @@ public class Graph<Node, Label> {
      */
     public boolean hasLabel(Node parent, Node child, Label label) {
         checkRep();
-        boolean a = graph.get(parent).contains(new Edge<>(child, label));
+        Set<Label> labels = graph.get(parent).get(child);
+        boolean a = labels != null && labels.contains(label);
         checkRep();
         return a;
     }
@@ -94,7 +134,13 @@ public class Graph<Node, Label> {
         boolean added = false;
         if (!graph.containsKey(name)) {
             added = true;
-            graph.put(name, new HashSet<>());
+            graph.put(name, new HashMap<>());
+            if (incoming != null) {
+                incoming.put(name, new HashMap<>());
+            }
+            if (events.isListened()) {
+                events.fire(GraphEvent.nodeAdded(name));
+            }
         }
         checkRep();
         return added;
@@ -118,12 +164,18 @@ public class Graph<Node, Label> {
         if (!graph.containsKey(parent) || !graph.containsKey(child)) {
             throw new IllegalArgumentException("parent/child node does not exist");
         }
-        Set<Edge<Node, Label>> edges = graph.get(parent);
-        Edge<Node, Label> newEdge = new Edge<>(child, label);
-        boolean added = false;
-        if (!edges.contains(newEdge)) {
-            added = true;
-            edges.add(newEdge);
+        Map<Node, Set<Label>> children = graph.get(parent);
+        Set<Label> labels = children.get(child);
+        if (labels == null) {
+            labels = new HashSet<>();
+            children.put(child, labels);
+            if (incoming != null) {
+                incoming.get(child).put(parent, labels);
+            }
+        }
+        boolean added = labels.add(label);
+        if (added && events.isListened()) {
+            events.fire(GraphEvent.edgeAdded(parent, child, label));
         }
         checkRep();
         return added;
@@ -159,19 +211,35 @@ public class Graph<Node, Label> {
         if (!graph.containsKey(name)) {
             throw new IllegalArgumentException("node does not exist");
         }
-        for (Node node : graph.keySet()) {
-            if (isChildOf(name, node)) {
-                Set<Edge<Node, Label>> s = graph.get(node);
-                Iterator<Edge<Node, Label>> it = s.iterator();
-                while (it.hasNext()) {
-                    Edge e = it.next();
-                    if (e.getChild().equals(name)) {
-                        it.remove();
-                    }
+        boolean listened = events.isListened();
+        if (incoming != null) {
+            for (Node parent : incoming.remove(name).keySet()) {
+                Set<Label> labels = graph.get(parent).remove(name);
+                if (listened) {
+                    fireEdgesRemoved(parent, name, labels);
                 }
             }
+            for (Node child : graph.get(name).keySet()) {
+                Map<Node, Set<Label>> parents = incoming.get(child);
+                if (parents != null) {
+                    parents.remove(name);
+                }
+            }
+        } else {
+            for (Map.Entry<Node, Map<Node, Set<Label>>> entry : graph.entrySet()) {
+                Set<Label> labels = entry.getValue().remove(name);
+                if (listened && labels != null) {
+                    fireEdgesRemoved(entry.getKey(), name, labels);
+                }
+            }
+        }
+        Map<Node, Set<Label>> children = graph.remove(name);
+        if (listened) {
+            for (Map.Entry<Node, Set<Label>> entry : children.entrySet()) {
+                fireEdgesRemoved(name, entry.getKey(), entry.getValue());
+            }
+            events.fire(GraphEvent.nodeRemoved(name));
         }
-        graph.remove(name);
         checkRep();
     }
 
@@ -191,11 +259,20 @@ public class Graph<Node, Label> {
         if (!graph.containsKey(parent) || !graph.containsKey(child)) {
             throw new IllegalArgumentException("node does not exist");
         }
-        Edge edge = new Edge<>(child, label);
-        boolean removed = graph.get(parent).remove(edge);
-        if (!removed) {
+        Map<Node, Set<Label>> children = graph.get(parent);
+        Set<Label> labels = children.get(child);
+        if (labels == null || !labels.remove(label)) {
             throw new IllegalArgumentException("label does not exist");
         }
+        if (labels.isEmpty()) {
+            children.remove(child);
+            if (incoming != null) {
+                incoming.get(child).remove(parent);
+            }
+        }
+        if (events.isListened()) {
+            events.fire(GraphEvent.edgeRemoved(parent, child, label));
+        }
         checkRep();
     }
 
@@ -227,11 +304,150 @@ public class Graph<Node, Label> {
         if (!graph.containsKey(parent)) {
             throw new IllegalArgumentException("parent node does not exist");
         }
-        Set<Edge<Node, Label>> set = new HashSet<>(graph.get(parent));
+        Set<Edge<Node, Label>> set = new HashSet<>();
+        for (Map.Entry<Node, Set<Label>> entry : graph.get(parent).entrySet()) {
+            for (Label label : entry.getValue()) {
+                set.add(new Edge<>(entry.getKey(), label));
+            }
+        }
+        checkRep();
+        return set;
+    }
+
+    /**
+     * get all the edges coming into the child node, each returned edge holds the parent node as its child
+     *
+     * Takes time proportional to the in-degree of 'child' if this indexes incoming edges,
+     * otherwise every node of this is looked up
+     *
+     * @param child the child node of the edges
+     * @return a set with an edge to every parent of 'child' for each label between them
+     * @throws IllegalArgumentException if this does not have key 'child'
+     * @spec.requires child != null
+     */
+    public Set<Edge<Node, Label>> getIncomingEdges(Node child) {
+        checkRep();
+        if (!graph.containsKey(child)) {
+            throw new IllegalArgumentException("child node does not exist");
+        }
+        Set<Edge<Node, Label>> set = new HashSet<>();
+        if (incoming != null) {
+            for (Map.Entry<Node, Set<Label>> entry : incoming.get(child).entrySet()) {
+                for (Label label : entry.getValue()) {
+                    set.add(new Edge<>(entry.getKey(), label));
+                }
+            }
+        } else {
+            for (Map.Entry<Node, Map<Node, Set<Label>>> entry : graph.entrySet()) {
+                for (Label label : entry.getValue().getOrDefault(child, Collections.emptySet())) {
+                    set.add(new Edge<>(entry.getKey(), label));
+                }
+            }
+        }
         checkRep();
         return set;
     }
 
+    /**
+     * get an unmodifiable live view of the edges going from the parent node
+     *
+     * The view is not a copy, it reflects later changes to this and must not be used
+     * while this is being modified. Use getEdges for an independent snapshot.
+     * Its size and contains do not allocate, but iterating it creates a new Edge for every edge,
+     * use forEachEdge or edgeCursor to read the edges without creating them.
+     *
+     * @param parent the parent node of the graph
+     * @return an unmodifiable view of all the outgoing edges of 'parent'
+     * @throws IllegalArgumentException if this does not have key 'parent'
+     * @spec.requires parent != null
+     */
+    public Set<Edge<Node, Label>> getEdgesView(Node parent) {
+        Map<Node, Set<Label>> children = graph.get(parent);
+        if (children == null) {
+            throw new IllegalArgumentException("parent node does not exist");
+        }
+        return new EdgesView<>(children);
+    }
+
+    /**
+     * pass every outgoing edge of the parent node to the visitor, without copying the edges
+     *
+     * @param parent the parent node
+     * @param visitor the visitor receiving the child and the label of every edge
+     * @throws IllegalArgumentException if this does not have key 'parent'
+     * @spec.requires parent != null ; visitor does not modify this
+     */
+    public void forEachEdge(Node parent, BiConsumer<? super Node, ? super Label> visitor) {
+        Map<Node, Set<Label>> children = graph.get(parent);
+        if (children == null) {
+            throw new IllegalArgumentException("parent node does not exist");
+        }
+        for (Map.Entry<Node, Set<Label>> entry : children.entrySet()) {
+            for (Label label : entry.getValue()) {
+                visitor.accept(entry.getKey(), label);
+            }
+        }
+    }
+
+    /**
+     * pass every outgoing edge of the parent node to the visitor with its label converted to a double
+     *
+     * @param parent the parent node
+     * @param weight the function giving the weight of every label
+     * @param visitor the visitor receiving the child and the weight of every edge
+     * @throws IllegalArgumentException if this does not have key 'parent'
+     * @spec.requires parent != null ; weight != null ; visitor does not modify this
+     */
+    public void forEachEdge(Node parent, ToDoubleFunction<? super Label> weight, DoubleEdgeVisitor<? super Node> visitor) {
+        Map<Node, Set<Label>> children = graph.get(parent);
+        if (children == null) {
+            throw new IllegalArgumentException("parent node does not exist");
+        }
+        for (Map.Entry<Node, Set<Label>> entry : children.entrySet()) {
+            for (Label label : entry.getValue()) {
+                visitor.visit(entry.getKey(), weight.applyAsDouble(label));
+            }
+        }
+    }
+
+    /**
+     * get a cursor over the edges going from the parent node, without copying the edges
+     *
+     * @param parent the parent node
+     * @return a new cursor positioned before the first outgoing edge of 'parent'
+     * @throws IllegalArgumentException if this does not have key 'parent'
+     * @spec.requires parent != null ; this is not modified while the cursor is used
+     */
+    public EdgeCursor<Node, Label> edgeCursor(Node parent) {
+        return new LabelCursor<>(children(parent));
+    }
+
+    /**
+     * get a cursor over the edges going from the parent node that reads the weight of every label as a double,
+     * without copying the edges
+     *
+     * @param parent the parent node
+     * @param weight the function giving the weight of every label
+     * @return a new cursor positioned before the first outgoing edge of 'parent'
+     * @throws IllegalArgumentException if this does not have key 'parent'
+     * @spec.requires parent != null ; weight != null ; this is not modified while the cursor is used
+     */
+    public DoubleEdgeCursor<Node, Label> edgeCursor(Node parent, ToDoubleFunction<? super Label> weight) {
+        return new WeightCursor<>(children(parent), weight);
+    }
+
+    /**
+     * @return the children of parent mapped to the labels of the edges to them
+     * @throws IllegalArgumentException if this does not have key 'parent'
+     */
+    private Map<Node, Set<Label>> children(Node parent) {
+        Map<Node, Set<Label>> children = graph.get(parent);
+        if (children == null) {
+            throw new IllegalArgumentException("parent node does not exist");
+        }
+        return children;
+    }
+
     /**
      * return all the labels the two nodes have
      *
@@ -247,13 +463,8 @@ public class Graph<Node, Label> {
         if (!graph.containsKey(parent) || !graph.containsKey(child)) {
             throw new IllegalArgumentException("parent/child node does not exist");
         }
-        Set<Edge<Node, Label>> edges = graph.get(parent);
-        Set<Label> result = new HashSet<>();
-        for (Edge<Node, Label> e : edges) {
-            if (e.getChild().equals(child)) {
-                result.add((e.getLabel()));
-            }
-        }
+        Set<Label> labels = graph.get(parent).get(child);
+        Set<Label> result = labels == null ? new HashSet<>() : new HashSet<>(labels);
         checkRep();
         return result;
     }
@@ -270,6 +481,94 @@ public class Graph<Node, Label> {
         return s;
     }
 
+    /**
+     * get an unmodifiable live view of the nodes of the graph
+     *
+     * The view is not a copy, it reflects later changes to this and must not be used
+     * while this is being modified. Use getNodes for an independent snapshot.
+     *
+     * @return an unmodifiable view of all nodes in this
+     */
+    public Set<Node> getNodesView() {
+        return Collections.unmodifiableSet(graph.keySet());
+    }
+
+    /**
+     * register a listener to receive every later change to this
+     *
+     * @param listener the listener being registered
+     * @spec.requires listener != null
+     * @spec.modifies this
+     * @spec.effects 'listener' is called after every later write to this, or once per batch()
+     */
+    public void addListener(GraphListener<Node, Label> listener) {
+        events.addListener(listener);
+    }
+
+    /**
+     * unregister a listener registered with addListener
+     *
+     * @param listener the listener being unregistered
+     * @return true iff 'listener' was registered
+     * @spec.modifies this
+     */
+    public boolean removeListener(GraphListener<Node, Label> listener) {
+        return events.removeListener(listener);
+    }
+
+    /**
+     * run a group of writes to this, delivering their changes to the listeners in one list when it ends.
+     * If 'writes' throws an exception, the changes it made before are still delivered and the exception is passed on.
+     *
+     * @param writes the writes to this being grouped, run on the calling thread
+     * @spec.modifies this
+     */
+    public void batch(Runnable writes) {
+        events.begin();
+        try {
+            writes.run();
+        } finally {
+            events.end(true);
+        }
+    }
+
+    /**
+     * fire an edge removed event for every label of the removed edges from parent to child
+     */
+    private void fireEdgesRemoved(Node parent, Node child, Set<Label> labels) {
+        for (Label label : labels) {
+            events.fire(GraphEvent.edgeRemoved(parent, child, label));
+        }
+    }
+
+    /**
+     * measure the size and shape of this, without copying any of it
+     *
+     * @return the stats of this
+     */
+    public GraphStats stats() {
+        checkRep();
+        GraphStats.Counter counter = new GraphStats.Counter();
+        long heapBytes = GraphStats.objectBytes(2 * 4) + GraphStats.hashMapBytes(graph.size());
+        for (Map<Node, Set<Label>> children : graph.values()) {
+            heapBytes += GraphStats.hashMapBytes(children.size());
+            int degree = 0;
+            for (Set<Label> labels : children.values()) {
+                heapBytes += GraphStats.hashSetBytes(labels.size());
+                degree += labels.size();
+            }
+            counter.addNode(degree, degree - children.size());
+        }
+        if (incoming != null) {
+            // the label sets are shared with graph, only the maps are extra
+            heapBytes += GraphStats.hashMapBytes(incoming.size());
+            for (Map<Node, Set<Label>> parents : incoming.values()) {
+                heapBytes += GraphStats.hashMapBytes(parents.size());
+            }
+        }
+        return counter.build(heapBytes, 0);
+    }
+
     /**
      * return if 'child' node has an edge going from the parent to child
      *
@@ -284,13 +583,7 @@ public class Graph<Node, Label> {
         if (!graph.containsKey(child) || !graph.containsKey(parent)) {
             throw new IllegalArgumentException("node does not exist");
         }
-        boolean found = false;
-        Set<Edge<Node, Label>> edges = graph.get(parent);
-        for (Edge e : edges) {
-            if (e.getChild().equals(child)) {
-                found = true;
-            }
-        }
+        boolean found = graph.get(parent).containsKey(child);
         checkRep();
         return found;
     }
@@ -304,15 +597,150 @@ public class Graph<Node, Label> {
         if (RUN_CHECK_REP) {
             Set<Node> nodes = graph.keySet();
             for (Node s : nodes) {
-                assert (nodes != null) : "nodes cannot be null";
-                Set<Edge<Node, Label>> edges = graph.get(s);
-                for (Edge<Node, Label> e : edges) {
-                    assert (e.getChild() != null) : "child node cannot be null";
-                    assert (nodes.contains(e.getChild())) : "child node must be a node of graph";
-                    assert (e.getLabel() != null) : "edge label cannot be null";
+                assert (s != null) : "nodes cannot be null";
+                Map<Node, Set<Label>> children = graph.get(s);
+                for (Node c : children.keySet()) {
+                    Set<Label> labels = children.get(c);
+                    assert (c != null) : "child node cannot be null";
+                    assert (nodes.contains(c)) : "child node must be a node of graph";
+                    assert (!labels.isEmpty()) : "child node must have a label";
+                    assert (!labels.contains(null)) : "edge label cannot be null";
+                    assert (incoming == null || incoming.get(c).get(s) == labels)
+                            : "incoming index must share the labels of every edge";
+                }
+            }
+            if (incoming != null) {
+                assert (incoming.keySet().equals(nodes)) : "incoming index must have every node";
+                for (Node c : incoming.keySet()) {
+                    for (Node p : incoming.get(c).keySet()) {
+                        assert (graph.get(p).get(c) == incoming.get(c).get(p))
+                                : "incoming index cannot have a removed edge";
+                    }
                 }
             }
         }
     }
-}
 
+    /**
+     * a cursor over the edges to the children of one node, in the order of the map and then of every label set
+     * @param <Node> the type of the child node
+     * @param <Label> the type of the label
+     */
+    private static class LabelCursor<Node, Label> implements EdgeCursor<Node, Label> {
+        private final Iterator<Map.Entry<Node, Set<Label>>> childIt;
+        private Iterator<Label> labelIt = Collections.emptyIterator();
+        private Node child;
+        private Label label;
+
+        private LabelCursor(Map<Node, Set<Label>> children) {
+            childIt = children.entrySet().iterator();
+        }
+
+        @Override
+        public boolean next() {
+            while (!labelIt.hasNext() && childIt.hasNext()) {
+                Map.Entry<Node, Set<Label>> entry = childIt.next();
+                child = entry.getKey();
+                labelIt = entry.getValue().iterator();
+            }
+            label = labelIt.hasNext() ? labelIt.next() : null;
+            return label != null;
+        }
+
+        @Override
+        public Node child() {
+            if (label == null) {
+                throw new NoSuchElementException("cursor is not at an edge");
+            }
+            return child;
+        }
+
+        @Override
+        public Label label() {
+            if (label == null) {
+                throw new NoSuchElementException("cursor is not at an edge");
+            }
+            return label;
+        }
+    }
+
+    /**
+     * a label cursor that also converts the label of the current edge to a double
+     * @param <Node> the type of the child node
+     * @param <Label> the type of the label
+     */
+    private static class WeightCursor<Node, Label> extends LabelCursor<Node, Label>
+            implements DoubleEdgeCursor<Node, Label> {
+        private final ToDoubleFunction<? super Label> weight;
+
+        private WeightCursor(Map<Node, Set<Label>> children, ToDoubleFunction<? super Label> weight) {
+            super(children);
+            this.weight = weight;
+        }
+
+        @Override
+        public double weight() {
+            return weight.applyAsDouble(label());
+        }
+    }
+
+    /**
+     * An unmodifiable live view of the outgoing edges of one node, backed by its child to labels map
+     *
+     * @param <Node> the type of the node
+     * @param <Label> the type of the edge label
+     */
+    private static class EdgesView<Node, Label> extends AbstractSet<Edge<Node, Label>> {
+        private final Map<Node, Set<Label>> children;
+
+        private EdgesView(Map<Node, Set<Label>> children) {
+            this.children = children;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Edge<?, ?>)) {
+                return false;
+            }
+            Edge<?, ?> e = (Edge<?, ?>) o;
+            Set<Label> labels = children.get(e.getChild());
+            return labels != null && labels.contains(e.getLabel());
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Set<Label> labels : children.values()) {
+                size += labels.size();
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<Edge<Node, Label>> iterator() {
+            Iterator<Map.Entry<Node, Set<Label>>> childIt = children.entrySet().iterator();
+            return new Iterator<>() {
+                private Node child;
+                private Iterator<Label> labelIt = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!labelIt.hasNext() && childIt.hasNext()) {
+                        Map.Entry<Node, Set<Label>> entry = childIt.next();
+                        child = entry.getKey();
+                        labelIt = entry.getValue().iterator();
+                    }
+                    return labelIt.hasNext();
+                }
+
+                @Override
+                public Edge<Node, Label> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return new Edge<>(child, labelIt.next());
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package graph;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * GraphBuilder collects the nodes and edges of a new Graph and produces it in one go
+ *
+ * Nodes are added implicitly by the edges that use them, and duplicate edges are dropped,
+ * so edge triples can be loaded without looking anything up first.
+ * A builder can build only one graph.
+ *
+ * @param <Node> the type of the node
+ * @param <Label> the type of the edge label
+ */
+public class GraphBuilder<Node, Label> {
+
+    /** every node added so far, mapped from its children to the labels of the edges to them, null once built */
+    private Map<Node, Map<Node, Set<Label>>> graph;
+
+    // Representation Invariant for every GraphBuilder b:
+    // graph == null after build(), otherwise graph holds the same representation as a Graph without incoming index
+    //
+    // Abstraction Function:
+    // The graph being built has every key of graph as a node, and an edge from p to c with label l
+    // for every l in graph.get(p).get(c)
+
+    /**
+     * @spec.effects create a new builder for an empty graph
+     */
+    public GraphBuilder() {
+        graph = new HashMap<>();
+    }
+
+    /**
+     * @param expectedNodes the number of nodes the graph is expected to have, used to size its tables
+     * @throws IllegalArgumentException if expectedNodes is negative
+     * @spec.effects create a new builder for an empty graph
+     */
+    public GraphBuilder(int expectedNodes) {
+        if (expectedNodes < 0) {
+            throw new IllegalArgumentException("expected nodes cannot be negative");
+        }
+        graph = new HashMap<>(expectedNodes * 4 / 3 + 1);
+    }
+
+    /**
+     * add a node to the graph being built
+     *
+     * @param name the new node
+     * @return this builder
+     * @throws IllegalStateException if the graph has already been built
+     * @spec.requires name != null
+     * @spec.modifies this
+     * @spec.effects 'name' is a node of the graph being built
+     */
+    public GraphBuilder<Node, Label> addNode(Node name) {
+        children(name);
+        return this;
+    }
+
+    /**
+     * add an edge to the graph being built, together with its parent and child nodes
+     *
+     * @param parent the parent node
+     * @param child the child node
+     * @param label the label of the edge
+     * @return this builder
+     * @throws IllegalStateException if the graph has already been built
+     * @spec.requires parent != null ; child != null ; label != null
+     * @spec.modifies this
+     * @spec.effects 'parent' and 'child' are nodes of the graph being built, with an edge between them with 'label',
+     * no change if the same edge has already been added
+     */
+    public GraphBuilder<Node, Label> addEdge(Node parent, Node child, Label label) {
+        add(contents(), parent, child, label);
+        return this;
+    }
+
+    /**
+     * add an edge for every record to the graph being built, together with its parent and child nodes,
+     * as addEdge would one record at a time
+     *
+     * @param records the records of the edges
+     * @param parent the function giving the parent node of the edge of a record
+     * @param child the function giving the child node of the edge of a record
+     * @param label the function giving the label of the edge of a record
+     * @param <R> the type of the records
+     * @return this builder
+     * @throws IllegalStateException if the graph has already been built
+     * @spec.requires no argument is null, and the functions never return null
+     * @spec.modifies this
+     * @spec.effects the parent and child of every record are nodes of the graph being built, with the edge of
+     * the record between them, edges that have already been added are not added again
+     */
+    public <R> GraphBuilder<Node, Label> addEdges(Iterable<? extends R> records,
+                                                  Function<? super R, ? extends Node> parent,
+                                                  Function<? super R, ? extends Node> child,
+                                                  Function<? super R, ? extends Label> label) {
+        Map<Node, Map<Node, Set<Label>>> contents = contents();
+        for (R record : records) {
+            add(contents, parent.apply(record), child.apply(record), label.apply(record));
+        }
+        return this;
+    }
+
+    /**
+     * produce the graph, without copying what has been added
+     *
+     * @return a new graph with every node and edge added to this
+     * @throws IllegalStateException if the graph has already been built
+     * @spec.modifies this
+     * @spec.effects this cannot be used anymore
+     */
+    public Graph<Node, Label> build() {
+        Map<Node, Map<Node, Set<Label>>> built = contents();
+        graph = null;
+        return new Graph<>(built);
+    }
+
+    /**
+     * add an edge and its nodes to the nodes and edges added so far, unless it is already there
+     */
+    private static <Node, Label> void add(Map<Node, Map<Node, Set<Label>>> contents, Node parent, Node child,
+                                          Label label) {
+        Map<Node, Set<Label>> children = contents.computeIfAbsent(parent, n -> new HashMap<>(4));
+        contents.computeIfAbsent(child, n -> new HashMap<>(4));
+        Set<Label> labels = children.get(child);
+        if (labels == null) {
+            labels = new HashSet<>(2);
+            children.put(child, labels);
+        }
+        labels.add(label);
+    }
+
+    /**
+     * return the child to labels map of a node, adding the node if it is new
+     *
+     * @param name the node
+     * @return the modifiable child to labels map of 'name'
+     * @throws IllegalStateException if the graph has already been built
+     */
+    private Map<Node, Set<Label>> children(Node name) {
+        return contents().computeIfAbsent(name, n -> new HashMap<>(4));
+    }
+
+    /**
+     * @return the nodes and edges added so far
+     * @throws IllegalStateException if the graph has already been built
+     */
+    private Map<Node, Map<Node, Set<Label>>> contents() {
+        if (graph == null) {
+            throw new IllegalStateException("graph has already been built");
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,162 @@
+package graph;
+
+import java.util.Objects;
+
+/**
+ * GraphEvent represents one change made to a graph: a node added or removed, or an edge added or removed
+ *
+ * @param <Node> the type of the node
+ * @param <Label> the type of the edge label
+ */
+public final class GraphEvent<Node, Label> {
+
+    /**
+     * The kind of change
+     */
+    public enum Type {
+        NODE_ADDED, NODE_REMOVED, EDGE_ADDED, EDGE_REMOVED
+    }
+
+    private final Type type;
+    private final Node node;
+    private final Node child;
+    private final Label label;
+
+    // Representation Invariant for every GraphEvent e:
+    // type != null, node != null, child and label are null iff type is NODE_ADDED or NODE_REMOVED
+    //
+    // Abstraction Function:
+    // a NODE event adds or removes node, an EDGE event adds or removes the edge from node to child with label
+
+    /**
+     * @spec.effects create a new event
+     */
+    private GraphEvent(Type type, Node node, Node child, Label label) {
+        this.type = type;
+        this.node = node;
+        this.child = child;
+        this.label = label;
+        checkRep();
+    }
+
+    /**
+     * @param node the node added
+     * @param <Node> the type of the node
+     * @param <Label> the type of the edge label
+     * @return an event for 'node' being added
+     */
+    public static <Node, Label> GraphEvent<Node, Label> nodeAdded(Node node) {
+        return new GraphEvent<>(Type.NODE_ADDED, node, null, null);
+    }
+
+    /**
+     * @param node the node removed
+     * @param <Node> the type of the node
+     * @param <Label> the type of the edge label
+     * @return an event for 'node' being removed
+     */
+    public static <Node, Label> GraphEvent<Node, Label> nodeRemoved(Node node) {
+        return new GraphEvent<>(Type.NODE_REMOVED, node, null, null);
+    }
+
+    /**
+     * @param parent the parent node of the edge added
+     * @param child the child node of the edge added
+     * @param label the label of the edge added
+     * @param <Node> the type of the node
+     * @param <Label> the type of the edge label
+     * @return an event for the edge being added
+     */
+    public static <Node, Label> GraphEvent<Node, Label> edgeAdded(Node parent, Node child, Label label) {
+        return new GraphEvent<>(Type.EDGE_ADDED, parent, child, label);
+    }
+
+    /**
+     * @param parent the parent node of the edge removed
+     * @param child the child node of the edge removed
+     * @param label the label of the edge removed
+     * @param <Node> the type of the node
+     * @param <Label> the type of the edge label
+     * @return an event for the edge being removed
+     */
+    public static <Node, Label> GraphEvent<Node, Label> edgeRemoved(Node parent, Node child, Label label) {
+        return new GraphEvent<>(Type.EDGE_REMOVED, parent, child, label);
+    }
+
+    /**
+     * @return the kind of change
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return true iff this adds or removes an edge
+     */
+    public boolean isEdgeEvent() {
+        return type == Type.EDGE_ADDED || type == Type.EDGE_REMOVED;
+    }
+
+    /**
+     * @return the node added or removed, or the parent node of the edge added or removed
+     */
+    public Node getNode() {
+        return node;
+    }
+
+    /**
+     * @return the child node of the edge added or removed, null if this is not an edge event
+     */
+    public Node getChild() {
+        return child;
+    }
+
+    /**
+     * @return the label of the edge added or removed, null if this is not an edge event
+     */
+    public Label getLabel() {
+        return label;
+    }
+
+    /**
+     * A string representation of this event
+     * @return A string representation in the form of "TYPE node" or "TYPE parent->child(label)"
+     */
+    @Override
+    public String toString() {
+        return isEdgeEvent() ? type + " " + node + "->" + child + "(" + label + ")" : type + " " + node;
+    }
+
+    /**
+     * Standard equality operation.
+     *
+     * @param o the object to be compared for equality
+     * @return true if and only if 'o' is a GraphEvent of the same type with the same node, child and label
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GraphEvent<?, ?>)) {
+            return false;
+        }
+        GraphEvent<?, ?> e = (GraphEvent<?, ?>) o;
+        return type == e.type && node.equals(e.node) && Objects.equals(child, e.child) && Objects.equals(label, e.label);
+    }
+
+    /**
+     * Standard hashCode function.
+     *
+     * @return an int that all objects equal to this will also return
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, node, child, label);
+    }
+
+    /**
+     * throws exception if rep invariant is violated
+     */
+    private void checkRep() {
+        assert type != null && node != null : "type and node cannot be null";
+        assert isEdgeEvent() == (child != null && label != null) : "only edge events have a child and label";
+    }
+}
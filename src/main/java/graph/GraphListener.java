@@ -0,0 +1,21 @@
+package graph;
+
+import java.util.List;
+
+/**
+ * GraphListener receives the changes made to a graph it is registered with
+ *
+ * @param <Node> the type of the node
+ * @param <Label> the type of the edge label
+ */
+@FunctionalInterface
+public interface GraphListener<Node, Label> {
+
+    /**
+     * called after the graph has changed, once for every write or once for a whole batch of writes.
+     * The listener must not modify the graph.
+     *
+     * @param events the unmodifiable list of changes in the order they were made, never empty
+     */
+    void graphChanged(List<GraphEvent<Node, Label>> events);
+}
@@ -0,0 +1,315 @@
+package graph;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * GraphSnapshot represent one immutable version of a ConcurrentGraph
+ *
+ * A snapshot never changes, later writes to the graph publish new snapshots instead.
+ * Snapshots share every part that a write did not touch with the snapshots before and after them,
+ * so taking one is free and holding one only keeps the parts it does not share alive.
+ * All edge labels from the same parent and child cannot be same
+ *
+ * @param <Node> the type of the node
+ * @param <Label> the type of the edge label
+ */
+public final class GraphSnapshot<Node, Label> {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the number of node ids in one chunk of adjacency */
+    static final int CHUNK_SIZE = 64;
+
+    /** the id of every node ever added to the graph, shared by all snapshots of the graph */
+    private final Map<Node, Integer> ids;
+
+    /** the number of this version */
+    private final long version;
+
+    /** the number of node ids in use in this version */
+    private final int idCount;
+
+    /** the number of nodes of this version */
+    private final int nodeCount;
+
+    /** the node of every id, the first idCount entries are never changed */
+    private final Object[] nodes;
+
+    /** the child to labels map of every node id, grouped in chunks of CHUNK_SIZE ids, null for a removed node */
+    private final Object[][] chunks;
+
+    // Representation Invariant for every GraphSnapshot s:
+    // ids, nodes, chunks != null, idCount <= nodes.length, idCount <= chunks.length * CHUNK_SIZE
+    // ids.get(nodes[i]) == i for every 0 <= i < idCount
+    // nodeCount is the number of ids below idCount whose adjacency is not null
+    // every adjacency map and its label sets are unmodifiable, no label set is empty
+    // every child of an adjacency map is a node of this
+    //
+    // Abstraction Function:
+    // The nodes of this are nodes[i] for every 0 <= i < idCount with adjacency(i) != null,
+    // and nodes[i] has an edge to child c with label l for every l in adjacency(i).get(c)
+
+    /**
+     * @spec.effects create a new snapshot from its parts, the arrays are not copied
+     */
+    GraphSnapshot(Map<Node, Integer> ids, long version, int idCount, int nodeCount, Object[] nodes, Object[][] chunks) {
+        this.ids = ids;
+        this.version = version;
+        this.idCount = idCount;
+        this.nodeCount = nodeCount;
+        this.nodes = nodes;
+        this.chunks = chunks;
+        checkRep();
+    }
+
+    /**
+     * return the version number of this snapshot
+     *
+     * @return the number of writes to the graph before this snapshot was published
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * return the number of nodes of this
+     *
+     * @return the number of nodes in this
+     */
+    public int size() {
+        return nodeCount;
+    }
+
+    /**
+     * return true if there is a node with same name as 'name'
+     *
+     * @param name the name of the node
+     * @return true iff this has a node with the same name
+     * @spec.requires name != null
+     */
+    public boolean hasNode(Node name) {
+        return adjacency(name) != null;
+    }
+
+    /**
+     * return true if there is an edge with same label between parent and child
+     *
+     * @param parent the parent node of the edge
+     * @param child  the child node of the edge
+     * @param label  the label of the edge between parent and child
+     * @return true iff this has parent and parent has an edge to child with the label
+     * @spec.requires parent != null ; child != null ; label != null
+     */
+    public boolean hasLabel(Node parent, Node child, Label label) {
+        Map<Node, Set<Label>> children = adjacency(parent);
+        return children != null && children.getOrDefault(child, Collections.emptySet()).contains(label);
+    }
+
+    /**
+     * get all the edges going from the parent node
+     *
+     * @param parent the parent node of the graph
+     * @return a set of all the outgoing edges of 'parent'
+     * @throws IllegalArgumentException if this does not have node 'parent'
+     * @spec.requires parent != null
+     */
+    public Set<Edge<Node, Label>> getEdges(Node parent) {
+        Set<Edge<Node, Label>> set = new HashSet<>();
+        if (!forEachEdge(parent, (child, label) -> set.add(new Edge<>(child, label)))) {
+            throw new IllegalArgumentException("parent node does not exist");
+        }
+        return set;
+    }
+
+    /**
+     * pass every outgoing edge of the parent node to the visitor, without copying
+     *
+     * @param parent the parent node
+     * @param visitor the visitor receiving the child and the label of every edge
+     * @return true iff 'parent' is a node of this, false if nothing was visited because it is not
+     * @spec.requires parent != null
+     */
+    public boolean forEachEdge(Node parent, BiConsumer<? super Node, ? super Label> visitor) {
+        Map<Node, Set<Label>> children = adjacency(parent);
+        if (children == null) {
+            return false;
+        }
+        for (Map.Entry<Node, Set<Label>> entry : children.entrySet()) {
+            for (Label label : entry.getValue()) {
+                visitor.accept(entry.getKey(), label);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * pass every outgoing edge of the parent node to the visitor with its label converted to a double
+     *
+     * @param parent the parent node
+     * @param weight the function giving the weight of every label
+     * @param visitor the visitor receiving the child and the weight of every edge
+     * @return true iff 'parent' is a node of this, false if nothing was visited because it is not
+     * @spec.requires parent != null ; weight != null
+     */
+    public boolean forEachEdge(Node parent, ToDoubleFunction<? super Label> weight, DoubleEdgeVisitor<? super Node> visitor) {
+        Map<Node, Set<Label>> children = adjacency(parent);
+        if (children == null) {
+            return false;
+        }
+        for (Map.Entry<Node, Set<Label>> entry : children.entrySet()) {
+            for (Label label : entry.getValue()) {
+                visitor.visit(entry.getKey(), weight.applyAsDouble(label));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * return all the labels the two nodes have
+     *
+     * @param parent the start node of the edge
+     * @param child  the end node of the edge
+     * @return a set of all the labels between the two nodes,
+     * empty set if there are no edges from 'parent' to 'child'
+     * @throws IllegalArgumentException if parent or child is not a node of this
+     * @spec.requires parent != null ; child != null
+     */
+    public Set<Label> getLabels(Node parent, Node child) {
+        Map<Node, Set<Label>> children = adjacency(parent);
+        if (children == null || !hasNode(child)) {
+            throw new IllegalArgumentException("parent/child node does not exist");
+        }
+        return new HashSet<>(children.getOrDefault(child, Collections.emptySet()));
+    }
+
+    /**
+     * get all the nodes of the snapshot
+     *
+     * @return a set of all nodes in this
+     */
+    @SuppressWarnings("unchecked")
+    public Set<Node> getNodes() {
+        Set<Node> set = new HashSet<>();
+        for (int i = 0; i < idCount; i++) {
+            if (adjacency(i) != null) {
+                set.add((Node) nodes[i]);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * pass every node of the snapshot to the visitor, without copying
+     *
+     * @param visitor the visitor receiving every node
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachNode(Consumer<? super Node> visitor) {
+        for (int i = 0; i < idCount; i++) {
+            if (adjacency(i) != null) {
+                visitor.accept((Node) nodes[i]);
+            }
+        }
+    }
+
+    /**
+     * measure the size and shape of this snapshot, without copying any of it.
+     * The bytes count every part of the snapshot, including the parts shared with other versions
+     *
+     * @return the stats of this
+     */
+    public GraphStats stats() {
+        GraphStats.Counter counter = new GraphStats.Counter();
+        long heapBytes = GraphStats.objectBytes(7 * 4)
+                + GraphStats.hashMapBytes(ids.size()) + (long) ids.size() * GraphStats.objectBytes(4)
+                + GraphStats.referenceArrayBytes(nodes.length) + GraphStats.referenceArrayBytes(chunks.length);
+        for (Object[] chunk : chunks) {
+            heapBytes += chunk == null ? 0 : GraphStats.referenceArrayBytes(chunk.length);
+        }
+        for (int i = 0; i < idCount; i++) {
+            Map<Node, Set<Label>> children = adjacency(i);
+            if (children != null) {
+                heapBytes += GraphStats.wrapperBytes() + GraphStats.hashMapBytes(children.size());
+                int degree = 0;
+                for (Set<Label> labels : children.values()) {
+                    heapBytes += GraphStats.wrapperBytes() + GraphStats.hashSetBytes(labels.size());
+                    degree += labels.size();
+                }
+                counter.addNode(degree, degree - children.size());
+            }
+        }
+        return counter.build(heapBytes, 0);
+    }
+
+    /**
+     * @return the number of node ids in use in this version
+     */
+    int idCount() {
+        return idCount;
+    }
+
+    /**
+     * @return the node array of this version, entries below idCount() must not be changed
+     */
+    Object[] nodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the chunk array of this version, which must not be changed
+     */
+    Object[][] chunks() {
+        return chunks;
+    }
+
+    /**
+     * return the child to labels map of a node id
+     *
+     * @param id the id of the node
+     * @return the unmodifiable child to labels map of node 'id', null if it is not a node of this
+     */
+    @SuppressWarnings("unchecked")
+    Map<Node, Set<Label>> adjacency(int id) {
+        return (Map<Node, Set<Label>>) chunks[id / CHUNK_SIZE][id % CHUNK_SIZE];
+    }
+
+    /**
+     * return the child to labels map of a node
+     *
+     * @param name the node
+     * @return the unmodifiable child to labels map of 'name', null if it is not a node of this
+     */
+    private Map<Node, Set<Label>> adjacency(Node name) {
+        Integer id = ids.get(name);
+        if (id == null || id >= idCount) {
+            return null;
+        }
+        return adjacency(id);
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert ids != null && nodes != null && chunks != null : "parts cannot be null";
+        assert idCount <= nodes.length && idCount <= chunks.length * CHUNK_SIZE : "every id must have a slot";
+
+        if (RUN_CHECK_REP) {
+            int count = 0;
+            for (int i = 0; i < idCount; i++) {
+                assert ids.get(nodes[i]) == i : "node id must match its position";
+                Map<Node, Set<Label>> children = adjacency(i);
+                if (children != null) {
+                    count++;
+                    for (Map.Entry<Node, Set<Label>> entry : children.entrySet()) {
+                        assert hasNode(entry.getKey()) : "child node must be a node of graph";
+                        assert !entry.getValue().isEmpty() : "child node must have a label";
+                    }
+                }
+            }
+            assert count == nodeCount : "node count must match the nodes";
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * GraphStats represents the size and shape of one graph at the time it was measured
+ *
+ * The retained bytes are estimated for a 64-bit JVM with compressed references, and count the
+ * structures of the graph only, not the node and label objects, which may be shared with the caller.
+ * Duplicate edges are edges with the same parent and child as an earlier edge, differing only in label.
+ */
+public final class GraphStats {
+    /** the bytes of an object header */
+    private static final int HEADER_BYTES = 12;
+
+    /** the bytes of a compressed reference */
+    private static final int REFERENCE_BYTES = 4;
+
+    /** the bytes of one HashMap entry: header, hash, key, value and next references */
+    private static final int MAP_ENTRY_BYTES = 32;
+
+    /** the number of nodes */
+    private final int nodeCount;
+
+    /** the number of edges */
+    private final long edgeCount;
+
+    /** the number of edges that have the same parent and child as another edge */
+    private final long duplicateEdgeCount;
+
+    /** the number of nodes with every out-degree, the last entry is the maximum out-degree */
+    private final int[] outDegreeHistogram;
+
+    /** the estimated bytes of the heap held by the graph structures */
+    private final long heapBytes;
+
+    /** the bytes held outside the heap, such as mapped files */
+    private final long offHeapBytes;
+
+    // Representation Invariant for every GraphStats s:
+    // nodeCount, edgeCount, duplicateEdgeCount, heapBytes, offHeapBytes >= 0, duplicateEdgeCount <= edgeCount
+    // outDegreeHistogram != null, its entries sum to nodeCount, and its last entry is not 0 unless it has one entry
+    //
+    // Abstraction Function:
+    // outDegreeHistogram[d] nodes of the measured graph have d outgoing edges
+
+    /**
+     * @spec.effects create new stats from their parts, the histogram is not copied
+     */
+    private GraphStats(int nodeCount, long edgeCount, long duplicateEdgeCount, int[] outDegreeHistogram,
+                       long heapBytes, long offHeapBytes) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.duplicateEdgeCount = duplicateEdgeCount;
+        this.outDegreeHistogram = outDegreeHistogram;
+        this.heapBytes = heapBytes;
+        this.offHeapBytes = offHeapBytes;
+        checkRep();
+    }
+
+    /**
+     * measure an indexed graph by walking its edges, duplicate edges are found with one int per node
+     *
+     * @param graph the graph being measured
+     * @param heapBytes the estimated bytes of the heap held by 'graph'
+     * @param offHeapBytes the bytes held by 'graph' outside the heap
+     * @return the stats of 'graph'
+     */
+    static GraphStats of(IndexedGraph<?> graph, long heapBytes, long offHeapBytes) {
+        Counter counter = new Counter();
+        int[] lastParent = new int[graph.size()];
+        Arrays.fill(lastParent, -1);
+        for (int n = 0; n < graph.size(); n++) {
+            int duplicates = 0;
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                if (lastParent[graph.target(e)] == n) {
+                    duplicates++;
+                }
+                lastParent[graph.target(e)] = n;
+            }
+            counter.addNode(graph.edgeEnd(n) - graph.edgeStart(n), duplicates);
+        }
+        return counter.build(heapBytes, offHeapBytes);
+    }
+
+    /**
+     * @return the number of nodes of the measured graph
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the number of edges of the measured graph
+     */
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return the number of edges with the same parent and child as another edge of the measured graph
+     */
+    public long duplicateEdgeCount() {
+        return duplicateEdgeCount;
+    }
+
+    /**
+     * @return the largest number of outgoing edges of a node of the measured graph, 0 if it has no nodes
+     */
+    public int maxOutDegree() {
+        return outDegreeHistogram.length - 1;
+    }
+
+    /**
+     * return the number of nodes with an out-degree
+     *
+     * @param degree the number of outgoing edges
+     * @return the number of nodes of the measured graph with 'degree' outgoing edges
+     */
+    public int nodesWithOutDegree(int degree) {
+        return degree >= 0 && degree < outDegreeHistogram.length ? outDegreeHistogram[degree] : 0;
+    }
+
+    /**
+     * @return a new array holding the number of nodes with every out-degree from 0 to maxOutDegree()
+     */
+    public int[] outDegreeHistogram() {
+        return outDegreeHistogram.clone();
+    }
+
+    /**
+     * @return the estimated bytes of the heap retained by the measured graph
+     */
+    public long heapBytes() {
+        return heapBytes;
+    }
+
+    /**
+     * @return the bytes retained by the measured graph outside the heap
+     */
+    public long offHeapBytes() {
+        return offHeapBytes;
+    }
+
+    /**
+     * A string representation of these stats
+     * @return the counts, maximum out-degree and bytes of these stats
+     */
+    @Override
+    public String toString() {
+        return nodeCount + " nodes, " + edgeCount + " edges (" + duplicateEdgeCount + " duplicate), max out-degree "
+                + maxOutDegree() + ", " + heapBytes + " heap bytes, " + offHeapBytes + " off-heap bytes";
+    }
+
+    /**
+     * @return the estimated bytes of an object with the given bytes of fields
+     */
+    static long objectBytes(long fieldBytes) {
+        return align(HEADER_BYTES + fieldBytes);
+    }
+
+    /**
+     * @return the estimated bytes of an array of the given length
+     */
+    static long arrayBytes(long length, int elementBytes) {
+        return align(HEADER_BYTES + 4 + length * elementBytes);
+    }
+
+    /**
+     * @return the estimated bytes of an array of references of the given length
+     */
+    static long referenceArrayBytes(long length) {
+        return arrayBytes(length, REFERENCE_BYTES);
+    }
+
+    /**
+     * @return the estimated bytes of a HashMap with the given number of entries, not counting keys and values
+     */
+    static long hashMapBytes(int entries) {
+        long bytes = objectBytes(6 * REFERENCE_BYTES + 16);
+        if (entries > 0) {
+            int capacity = Math.max(16, Integer.highestOneBit((int) Math.ceil(entries / 0.75) - 1) << 1);
+            bytes += referenceArrayBytes(capacity) + (long) entries * MAP_ENTRY_BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the estimated bytes of a HashSet with the given number of elements, not counting the elements
+     */
+    static long hashSetBytes(int elements) {
+        return objectBytes(REFERENCE_BYTES) + hashMapBytes(elements);
+    }
+
+    /**
+     * @return the estimated bytes of an unmodifiable wrapper of a collection
+     */
+    static long wrapperBytes() {
+        return objectBytes(4 * REFERENCE_BYTES);
+    }
+
+    /**
+     * @return 'bytes' rounded up to a multiple of 8
+     */
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert outDegreeHistogram != null && outDegreeHistogram.length > 0 : "histogram cannot be empty";
+        assert nodeCount >= 0 && edgeCount >= 0 && heapBytes >= 0 && offHeapBytes >= 0 : "counts cannot be negative";
+        assert duplicateEdgeCount >= 0 && duplicateEdgeCount <= edgeCount : "duplicates must be edges";
+    }
+
+    /**
+     * Counter collects the degree of every node of a graph being measured
+     */
+    static final class Counter {
+        private int nodeCount;
+        private long edgeCount;
+        private long duplicateEdgeCount;
+        private int[] histogram = new int[8];
+        private int maxOutDegree;
+
+        /**
+         * count a node
+         *
+         * @param outDegree the number of outgoing edges of the node
+         * @param duplicates the number of those edges with the same child as another one of them
+         */
+        void addNode(int outDegree, long duplicates) {
+            if (outDegree >= histogram.length) {
+                histogram = Arrays.copyOf(histogram, Math.max(outDegree + 1, histogram.length * 2));
+            }
+            histogram[outDegree]++;
+            maxOutDegree = Math.max(maxOutDegree, outDegree);
+            nodeCount++;
+            edgeCount += outDegree;
+            duplicateEdgeCount += duplicates;
+        }
+
+        /**
+         * @return the stats of the counted nodes
+         */
+        GraphStats build(long heapBytes, long offHeapBytes) {
+            return new GraphStats(nodeCount, edgeCount, duplicateEdgeCount,
+                    Arrays.copyOf(histogram, maxOutDegree + 1), heapBytes, offHeapBytes);
+        }
+    }
+}
@@ -0,0 +1,509 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * HubLabels answers distance queries on an indexed graph by merging two precomputed labels, a 2-hop cover
+ *
+ * Every node v has a forward label, some hubs h with the distance d(v, h), and a backward label, some hubs h with
+ * d(h, v). For every pair of nodes with a path, some node of a shortest path is a hub of both the forward label
+ * of the start and the backward label of the end, so d(s, t) is the least d(s, h) + d(h, t) over the hubs common
+ * to the two labels, found by merging the labels sorted by hub id without searching the graph.
+ *
+ * The labels are taken from a contraction hierarchy: the forward label of v holds the nodes its upward search
+ * reaches, built from the labels of the higher ranked nodes v has edges to, less every hub the labels themselves
+ * show is closer by another way. Labels of nodes whose higher ranked neighbors are all labelled are built in
+ * parallel. Every hub of a label also remembers the edge of the hierarchy its distance was reached through,
+ * so the path to it can be walked label by label and unpacked into edges of the graph.
+ *
+ * Labels can be written to a file and read back for the same hierarchy. The file holds, in big-endian order,
+ * a header (magic, format, node count of the graph, edge count and fingerprint of the hierarchy), and for every
+ * node its forward and then its backward label, each an entry count and the hub, distance and edge of every entry.
+ * Queries may run on many threads at once.
+ *
+ * @param <Node> the type of the node
+ */
+public class HubLabels<Node> {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the first int of every labels file */
+    private static final int MAGIC = 0x48554231;
+
+    /** the layout of the rest of a labels file */
+    private static final int FORMAT = 1;
+
+    /** the fewest nodes worth labelling on a thread of their own */
+    private static final int THRESHOLD = 16;
+
+    /** the hierarchy the labels were taken from, whose edges unpack paths */
+    private final ContractionHierarchy<Node> hierarchy;
+
+    /** the fingerprint of hierarchy, telling whether a labels file was built from it */
+    private final long fingerprint;
+
+    /** the forward (side 0) and backward (side 1) label of node n is entries offsets[side][n]..offsets[side][n+1] */
+    private final int[][] offsets;
+
+    /** the hub of every label entry, increasing within a label */
+    private final int[][] hubs;
+
+    /** the distance from the node to the hub (side 0) or from the hub to the node (side 1) of every label entry */
+    private final double[][] dist;
+
+    /**
+     * the first edge of the hierarchy on the path of every label entry, from the node (side 0) or last edge, into
+     * the node (side 1), -1 for the entry of the node itself
+     */
+    private final int[][] via;
+
+    // Representation Invariant for every HubLabels l:
+    // all fields != null, and offsets, hubs, dist and via have two arrays each
+    // offsets[side] has hierarchy.graph().size() + 1 non-decreasing entries from 0 to hubs[side].length
+    // hubs[side], dist[side] and via[side] have the same length
+    // the hubs of every label are strictly increasing node ids, and every label holds its node with distance 0
+    // and via -1
+    // every other entry has a via edge of hierarchy leaving the node (side 0) or entering it (side 1), whose
+    // other end has an entry for the same hub in its label of the same side, with distance less the edge weight
+    //
+    // Abstract Function:
+    // AF(l) = for every node id n of hierarchy.graph(), the forward label
+    //         {(hubs[0][i], dist[0][i]) | offsets[0][n] <= i < offsets[0][n + 1]} and the backward label
+    //         {(hubs[1][i], dist[1][i]) | offsets[1][n] <= i < offsets[1][n + 1]}
+
+    /**
+     * @spec.effects create new labels from their entries, the arrays are not copied
+     */
+    private HubLabels(ContractionHierarchy<Node> hierarchy, long fingerprint, int[][] offsets, int[][] hubs,
+                      double[][] dist, int[][] via) {
+        this.hierarchy = hierarchy;
+        this.fingerprint = fingerprint;
+        this.offsets = offsets;
+        this.hubs = hubs;
+        this.dist = dist;
+        this.via = via;
+        checkRep();
+    }
+
+    /**
+     * label every node of the graph of a contraction hierarchy, labelling nodes on the threads of a pool
+     *
+     * @param hierarchy the hierarchy of the graph whose distances are found
+     * @param pool the pool whose threads build the labels
+     * @param <Node> the type of the node
+     * @return new labels answering distance queries on 'hierarchy.graph()'
+     * @spec.requires hierarchy != null ; pool != null
+     */
+    public static <Node> HubLabels<Node> build(ContractionHierarchy<Node> hierarchy, ForkJoinPool pool) {
+        int size = hierarchy.graph().size();
+        // a node is labelled after every node it has an upward edge to or from, so nodes are grouped by the
+        // length of the longest upward path from them, and each group is labelled in parallel
+        Integer[] order = new Integer[size];
+        for (int n = 0; n < size; n++) {
+            order[n] = n;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(hierarchy.rank(b), hierarchy.rank(a)));
+        int[] depth = new int[size];
+        List<List<Integer>> groups = new ArrayList<>();
+        for (int n : order) {
+            for (int side = 0; side < 2; side++) {
+                for (int e : hierarchy.upwardEdges(side, n)) {
+                    depth[n] = Math.max(depth[n], depth[higher(hierarchy, side, e)] + 1);
+                }
+            }
+            while (groups.size() <= depth[n]) {
+                groups.add(new ArrayList<>());
+            }
+            groups.get(depth[n]).add(n);
+        }
+
+        Label[][] labels = new Label[2][size];
+        for (List<Integer> group : groups) {
+            pool.invoke(new CompactGraph.RangeAction(0, group.size(), THRESHOLD, i -> {
+                int n = group.get(i);
+                for (int side = 0; side < 2; side++) {
+                    labels[side][n] = label(hierarchy, labels, side, n);
+                }
+            }));
+        }
+
+        int[][] offsets = new int[2][size + 1];
+        int[][] hubs = new int[2][];
+        double[][] dist = new double[2][];
+        int[][] via = new int[2][];
+        for (int side = 0; side < 2; side++) {
+            for (int n = 0; n < size; n++) {
+                offsets[side][n + 1] = offsets[side][n] + labels[side][n].hubs.length;
+            }
+            hubs[side] = new int[offsets[side][size]];
+            dist[side] = new double[offsets[side][size]];
+            via[side] = new int[offsets[side][size]];
+            for (int n = 0; n < size; n++) {
+                Label label = labels[side][n];
+                System.arraycopy(label.hubs, 0, hubs[side], offsets[side][n], label.hubs.length);
+                System.arraycopy(label.dist, 0, dist[side], offsets[side][n], label.hubs.length);
+                System.arraycopy(label.via, 0, via[side], offsets[side][n], label.hubs.length);
+            }
+        }
+        return new HubLabels<>(hierarchy, fingerprint(hierarchy), offsets, hubs, dist, via);
+    }
+
+    /**
+     * read labels written by write() for a hierarchy
+     *
+     * @param file the file being read
+     * @param hierarchy the hierarchy the labels were built from
+     * @param <Node> the type of the node
+     * @return new labels answering distance queries on 'hierarchy.graph()'
+     * @throws IOException if the file cannot be read, was not written by write(), or was built from another hierarchy
+     * @spec.requires file != null ; hierarchy != null
+     */
+    public static <Node> HubLabels<Node> read(Path file, ContractionHierarchy<Node> hierarchy) throws IOException {
+        int size = hierarchy.graph().size();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new IOException("not a labels file: " + file);
+            }
+            if (in.readInt() != size || in.readInt() != hierarchy.edgeCount() || in.readLong() != fingerprint(hierarchy)) {
+                throw new IOException("labels file was built from another hierarchy: " + file);
+            }
+            int[][] offsets = new int[2][size + 1];
+            List<List<Label>> labels = List.of(new ArrayList<>(), new ArrayList<>());
+            for (int n = 0; n < size; n++) {
+                for (int side = 0; side < 2; side++) {
+                    int count = in.readInt();
+                    if (count < 1 || count > size) {
+                        throw new IOException("corrupt labels file: " + file);
+                    }
+                    Label label = new Label(new int[count], new double[count], new int[count]);
+                    for (int i = 0; i < count; i++) {
+                        label.hubs[i] = in.readInt();
+                        label.dist[i] = in.readDouble();
+                        label.via[i] = in.readInt();
+                        if (label.hubs[i] < 0 || label.hubs[i] >= size
+                                || label.via[i] < -1 || label.via[i] >= hierarchy.edgeCount()) {
+                            throw new IOException("corrupt labels file: " + file);
+                        }
+                    }
+                    labels.get(side).add(label);
+                    offsets[side][n + 1] = offsets[side][n] + count;
+                }
+            }
+            if (in.read() != -1) {
+                throw new IOException("corrupt labels file: " + file);
+            }
+            int[][] hubs = new int[2][];
+            double[][] dist = new double[2][];
+            int[][] via = new int[2][];
+            for (int side = 0; side < 2; side++) {
+                hubs[side] = new int[offsets[side][size]];
+                dist[side] = new double[offsets[side][size]];
+                via[side] = new int[offsets[side][size]];
+                for (int n = 0; n < size; n++) {
+                    Label label = labels.get(side).get(n);
+                    System.arraycopy(label.hubs, 0, hubs[side], offsets[side][n], label.hubs.length);
+                    System.arraycopy(label.dist, 0, dist[side], offsets[side][n], label.hubs.length);
+                    System.arraycopy(label.via, 0, via[side], offsets[side][n], label.hubs.length);
+                }
+            }
+            return new HubLabels<>(hierarchy, fingerprint(hierarchy), offsets, hubs, dist, via);
+        } catch (EOFException e) {
+            throw new IOException("corrupt labels file: " + file, e);
+        }
+    }
+
+    /**
+     * write this to a file that read() can read back, replacing the file if it exists
+     *
+     * @param file the file being written
+     * @throws IOException if the file cannot be written
+     * @spec.requires file != null
+     */
+    public void write(Path file) throws IOException {
+        int size = hierarchy.graph().size();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(size);
+            out.writeInt(hierarchy.edgeCount());
+            out.writeLong(fingerprint);
+            for (int n = 0; n < size; n++) {
+                for (int side = 0; side < 2; side++) {
+                    out.writeInt(offsets[side][n + 1] - offsets[side][n]);
+                    for (int i = offsets[side][n]; i < offsets[side][n + 1]; i++) {
+                        out.writeInt(hubs[side][i]);
+                        out.writeDouble(dist[side][i]);
+                        out.writeInt(via[side][i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the graph whose distances are found
+     */
+    public IndexedGraph<Node> graph() {
+        return hierarchy.graph();
+    }
+
+    /**
+     * @return the number of entries of every forward and backward label together
+     */
+    public int entryCount() {
+        return hubs[0].length + hubs[1].length;
+    }
+
+    /**
+     * find the distance of the shortest path between two nodes
+     *
+     * @param start the start of the path
+     * @param end the end of the path
+     * @return the total weight of the shortest path from 'start' to 'end', infinity if there is none
+     * @throws IllegalArgumentException if 'start' or 'end' is not a node of the graph
+     */
+    public double distance(Node start, Node end) {
+        int[] ids = ids(start, end);
+        int[] meeting = meet(ids[0], ids[1]);
+        return meeting == null ? Double.POSITIVE_INFINITY : dist[0][meeting[0]] + dist[1][meeting[1]];
+    }
+
+    /**
+     * find the shortest path between two nodes, passing its edges of the graph to a visitor in path order
+     *
+     * @param start the start of the path
+     * @param end the end of the path
+     * @param step the visitor receiving the child node and weight of every edge of the path
+     * @return true iff there is a path from 'start' to 'end', 'step' is not called if there is none
+     * @throws IllegalArgumentException if 'start' or 'end' is not a node of the graph
+     */
+    public boolean route(Node start, Node end, DoubleEdgeVisitor<? super Node> step) {
+        int[] ids = ids(start, end);
+        int[] meeting = meet(ids[0], ids[1]);
+        if (meeting == null) {
+            return false;
+        }
+        int hub = hubs[0][meeting[0]];
+        List<Integer> edges = new ArrayList<>();
+        for (int n = ids[0]; n != hub; ) {
+            int e = via[0][find(0, n, hub)];
+            edges.add(e);
+            n = hierarchy.edgeTo(e);
+        }
+        Deque<Integer> down = new ArrayDeque<>();
+        for (int n = ids[1]; n != hub; ) {
+            int e = via[1][find(1, n, hub)];
+            down.push(e);
+            n = hierarchy.edgeFrom(e);
+        }
+        edges.addAll(down);
+        hierarchy.unpack(edges.stream().mapToInt(Integer::intValue).toArray(), step);
+        return true;
+    }
+
+    /**
+     * @return the entries of the forward label of source and the backward label of target for the hub of a
+     * shortest path, null if there is no path
+     */
+    private int[] meet(int source, int target) {
+        int i = offsets[0][source];
+        int j = offsets[1][target];
+        int iEnd = offsets[0][source + 1];
+        int jEnd = offsets[1][target + 1];
+        double best = Double.POSITIVE_INFINITY;
+        int[] meeting = null;
+        while (i < iEnd && j < jEnd) {
+            if (hubs[0][i] < hubs[1][j]) {
+                i++;
+            } else if (hubs[0][i] > hubs[1][j]) {
+                j++;
+            } else {
+                if (dist[0][i] + dist[1][j] < best) {
+                    best = dist[0][i] + dist[1][j];
+                    meeting = new int[] {i, j};
+                }
+                i++;
+                j++;
+            }
+        }
+        return meeting;
+    }
+
+    /**
+     * @return the entry of a hub in the label of a side of node n
+     * @spec.requires the label has an entry for hub
+     */
+    private int find(int side, int n, int hub) {
+        return Arrays.binarySearch(hubs[side], offsets[side][n], offsets[side][n + 1], hub);
+    }
+
+    /**
+     * @return the ids of start and end
+     * @throws IllegalArgumentException if 'start' or 'end' is not a node of the graph
+     */
+    private int[] ids(Node start, Node end) {
+        int source = graph().idOf(start);
+        int target = graph().idOf(end);
+        if (source == -1 || target == -1) {
+            throw new IllegalArgumentException("node does not exist");
+        }
+        return new int[] {source, target};
+    }
+
+    /**
+     * @return the higher ranked end of an edge a side of an upward search follows
+     */
+    private static int higher(ContractionHierarchy<?> hierarchy, int side, int e) {
+        return side == 0 ? hierarchy.edgeTo(e) : hierarchy.edgeFrom(e);
+    }
+
+    /**
+     * build the label of a side of node n from the labels of the same side of the higher ranked nodes n has
+     * edges with, dropping every hub that a shorter path through another hub reaches
+     *
+     * @spec.requires both labels of every higher ranked node n has an edge with are built
+     */
+    private static Label label(ContractionHierarchy<?> hierarchy, Label[][] labels, int side, int n) {
+        Label label = new Label(new int[] {n}, new double[] {0}, new int[] {-1});
+        for (int e : hierarchy.upwardEdges(side, n)) {
+            label = label.union(labels[side][higher(hierarchy, side, e)], hierarchy.edgeWeight(e), e);
+        }
+
+        int kept = 0;
+        Label pruned = new Label(new int[label.hubs.length], new double[label.hubs.length], new int[label.hubs.length]);
+        for (int i = 0; i < label.hubs.length; i++) {
+            int hub = label.hubs[i];
+            // the other label of the hub is built, as the hub ranks higher than n unless it is n
+            double shortest = hub == n ? 0 : side == 0 ? label.distanceTo(labels[1][hub]) : labels[0][hub].distanceTo(label);
+            if (label.dist[i] <= shortest) {
+                pruned.hubs[kept] = hub;
+                pruned.dist[kept] = label.dist[i];
+                pruned.via[kept] = label.via[i];
+                kept++;
+            }
+        }
+        return new Label(Arrays.copyOf(pruned.hubs, kept), Arrays.copyOf(pruned.dist, kept),
+                Arrays.copyOf(pruned.via, kept));
+    }
+
+    /**
+     * @return a hash of the node count and every edge of a hierarchy, in edge order
+     */
+    private static long fingerprint(ContractionHierarchy<?> hierarchy) {
+        long hash = hierarchy.graph().size();
+        for (int e = 0; e < hierarchy.edgeCount(); e++) {
+            hash = hash * 31 + hierarchy.edgeFrom(e);
+            hash = hash * 31 + hierarchy.edgeTo(e);
+            hash = hash * 31 + Double.doubleToLongBits(hierarchy.edgeWeight(e));
+        }
+        return hash;
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert hierarchy != null && offsets != null && hubs != null && dist != null && via != null
+                : "parts cannot be null";
+        int size = hierarchy.graph().size();
+        for (int side = 0; side < 2; side++) {
+            assert offsets[side].length == size + 1 : "every node must have a label";
+            assert hubs[side].length == dist[side].length && hubs[side].length == via[side].length
+                    : "every entry must have a distance and an edge";
+            assert offsets[side][size] == hubs[side].length : "labels must cover every entry";
+        }
+
+        if (RUN_CHECK_REP) {
+            for (int side = 0; side < 2; side++) {
+                for (int n = 0; n < size; n++) {
+                    assert offsets[side][n] < offsets[side][n + 1] : "every label holds its node";
+                    for (int i = offsets[side][n]; i < offsets[side][n + 1]; i++) {
+                        assert i == offsets[side][n] || hubs[side][i - 1] < hubs[side][i] : "hubs must increase";
+                        if (hubs[side][i] == n) {
+                            assert dist[side][i] == 0 && via[side][i] == -1 : "a node is its own hub at distance 0";
+                        } else {
+                            int e = via[side][i];
+                            int next = higher(hierarchy, side, e);
+                            assert (side == 0 ? hierarchy.edgeFrom(e) : hierarchy.edgeTo(e)) == n
+                                    : "the path to a hub starts at the node";
+                            assert find(side, next, hubs[side][i]) >= 0 : "the path to a hub goes on to the hub";
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Label is the entries of one label while labels are built, sorted by hub
+     */
+    private static final class Label {
+        private final int[] hubs;
+        private final double[] dist;
+        private final int[] via;
+
+        private Label(int[] hubs, double[] dist, int[] via) {
+            this.hubs = hubs;
+            this.dist = dist;
+            this.via = via;
+        }
+
+        /**
+         * @return a new label with the entries of this and of other reached by an edge of a weight, keeping
+         * the closer entry of a hub in both
+         */
+        private Label union(Label other, double weight, int edge) {
+            int[] unionHubs = new int[hubs.length + other.hubs.length];
+            double[] unionDist = new double[unionHubs.length];
+            int[] unionVia = new int[unionHubs.length];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < hubs.length || j < other.hubs.length) {
+                if (j == other.hubs.length || i < hubs.length && hubs[i] < other.hubs[j]) {
+                    unionHubs[k] = hubs[i];
+                    unionDist[k] = dist[i];
+                    unionVia[k++] = via[i++];
+                } else if (i == hubs.length || hubs[i] > other.hubs[j]) {
+                    unionHubs[k] = other.hubs[j];
+                    unionDist[k] = weight + other.dist[j];
+                    unionVia[k++] = edge;
+                    j++;
+                } else {
+                    boolean mine = dist[i] <= weight + other.dist[j];
+                    unionHubs[k] = hubs[i];
+                    unionDist[k] = mine ? dist[i] : weight + other.dist[j];
+                    unionVia[k++] = mine ? via[i] : edge;
+                    i++;
+                    j++;
+                }
+            }
+            return new Label(Arrays.copyOf(unionHubs, k), Arrays.copyOf(unionDist, k), Arrays.copyOf(unionVia, k));
+        }
+
+        /**
+         * @return the least distance through a hub of both this forward label and the backward label 'to'
+         */
+        private double distanceTo(Label to) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0, j = 0; i < hubs.length && j < to.hubs.length; ) {
+                if (hubs[i] < to.hubs[j]) {
+                    i++;
+                } else if (hubs[i] > to.hubs[j]) {
+                    j++;
+                } else {
+                    best = Math.min(best, dist[i++] + to.dist[j++]);
+                }
+            }
+            return best;
+        }
+    }
+}
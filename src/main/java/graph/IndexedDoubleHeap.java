@@ -0,0 +1,332 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * IndexedDoubleHeap is a d-ary min-heap of int ids with double keys, holding each id at most once
+ *
+ * Ids are between 0 and the capacity, such as the node ids of an IndexedGraph. The key of an id in the heap can
+ * be lowered in place, so a search keeps one entry per node instead of a new entry per shorter distance found,
+ * and compares primitive keys instead of calling a comparator on boxed entries. A 4-ary heap is shallower than
+ * a binary one, so lowering a key moves it up fewer levels, and the children of an entry share a cache line.
+ *
+ * Every id inserted since the last clear() is remembered, whether it is still in the heap or was polled,
+ * so clear() takes time in the number of those ids rather than in the capacity, and the heap can be reused
+ * from one search to the next.
+ */
+public class IndexedDoubleHeap {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the number of children of every entry when no arity is given */
+    public static final int DEFAULT_ARITY = 4;
+
+    /** the position in heap of an id that was never inserted since the last clear */
+    private static final int ABSENT = -1;
+
+    /** the position in heap of an id that was polled since the last clear */
+    private static final int POLLED = -2;
+
+    /** the number of children of every entry */
+    private final int arity;
+
+    /** the base 2 logarithm of arity, so positions are found by shifting instead of dividing */
+    private final int shift;
+
+    /** the ids in heap order, the children of heap[i] are heap[arity * i + 1 .. arity * i + arity] */
+    private final int[] heap;
+
+    /** the number of ids in the heap */
+    private int size;
+
+    /** the position of every id in heap, ABSENT or POLLED if it is not in the heap */
+    private final int[] positions;
+
+    /** the key of every id inserted since the last clear */
+    private final double[] keys;
+
+    /** the ids inserted since the last clear, in insertion order */
+    private final int[] touched;
+
+    /** the number of ids inserted since the last clear */
+    private int touchedCount;
+
+    // Representation Invariant for every IndexedDoubleHeap h:
+    // arity >= 2 is 1 << shift, heap, positions, keys and touched have capacity entries, 0 <= size <= touchedCount <= capacity
+    // positions[heap[i]] == i for every 0 <= i < size
+    // keys[heap[(i - 1) / arity]] <= keys[heap[i]] for every 0 < i < size
+    // touched[0 .. touchedCount - 1] are the distinct ids whose positions are not ABSENT
+    //
+    // Abstract Function:
+    // AF(h) = the ids heap[0 .. size - 1], each with key keys[id], and the ids
+    //         {id | positions[id] == POLLED} removed since the last clear
+
+    /**
+     * @param capacity one more than the largest id the heap holds
+     * @throws IllegalArgumentException if capacity &lt; 0
+     * @spec.effects create a new empty 4-ary heap for ids 0 to capacity - 1
+     */
+    public IndexedDoubleHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * @param capacity one more than the largest id the heap holds
+     * @param arity the number of children of every entry, 2 for a binary heap
+     * @throws IllegalArgumentException if capacity &lt; 0, or arity &lt; 2 or is not a power of 2
+     * @spec.effects create a new empty heap for ids 0 to capacity - 1
+     */
+    public IndexedDoubleHeap(int capacity, int arity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity cannot be negative");
+        }
+        if (arity < 2 || Integer.bitCount(arity) != 1) {
+            throw new IllegalArgumentException("arity must be a power of 2 of at least 2");
+        }
+        this.arity = arity;
+        this.shift = Integer.numberOfTrailingZeros(arity);
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        this.touched = new int[capacity];
+        Arrays.fill(positions, ABSENT);
+        checkRep();
+    }
+
+    /**
+     * @return the number of ids in this
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true iff this holds no id
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param id the id being looked up
+     * @return true iff 'id' is in this
+     * @spec.requires 0 &lt;= id &lt; capacity
+     */
+    public boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    /**
+     * @param id the id being looked up
+     * @return true iff 'id' was polled from this since the last clear
+     * @spec.requires 0 &lt;= id &lt; capacity
+     */
+    public boolean wasPolled(int id) {
+        return positions[id] == POLLED;
+    }
+
+    /**
+     * @param id the id being looked up
+     * @return the key of 'id' when it was last in this
+     * @throws IllegalArgumentException if 'id' was not inserted since the last clear
+     * @spec.requires 0 &lt;= id &lt; capacity
+     */
+    public double key(int id) {
+        if (positions[id] == ABSENT) {
+            throw new IllegalArgumentException("id was not inserted");
+        }
+        return keys[id];
+    }
+
+    /**
+     * insert an id that is not in this with a key
+     *
+     * @param id the id being inserted
+     * @param key the key of 'id'
+     * @throws IllegalArgumentException if 'id' is in this or was polled since the last clear
+     * @spec.requires 0 &lt;= id &lt; capacity
+     * @spec.modifies this
+     * @spec.effects add 'id' with 'key' to this
+     */
+    public void insert(int id, double key) {
+        if (positions[id] != ABSENT) {
+            throw new IllegalArgumentException("id was already inserted");
+        }
+        touched[touchedCount++] = id;
+        keys[id] = key;
+        heap[size] = id;
+        positions[id] = size;
+        size++;
+        siftUp(size - 1);
+        checkRep();
+    }
+
+    /**
+     * lower the key of an id in this
+     *
+     * @param id the id whose key is lowered
+     * @param key the new key of 'id'
+     * @throws IllegalArgumentException if 'id' is not in this, or 'key' is greater than its key
+     * @spec.requires 0 &lt;= id &lt; capacity
+     * @spec.modifies this
+     * @spec.effects set the key of 'id' to 'key'
+     */
+    public void decreaseKey(int id, double key) {
+        if (positions[id] < 0) {
+            throw new IllegalArgumentException("id is not in the heap");
+        }
+        if (key > keys[id]) {
+            throw new IllegalArgumentException("key cannot increase");
+        }
+        keys[id] = key;
+        siftUp(positions[id]);
+        checkRep();
+    }
+
+    /**
+     * insert an id with a key if it was not inserted since the last clear, or lower its key if it is in this
+     * with a greater key, which is how a search relaxes an edge
+     *
+     * @param id the id being inserted or lowered
+     * @param key the key offered for 'id'
+     * @return true iff 'id' was inserted or its key lowered
+     * @spec.requires 0 &lt;= id &lt; capacity
+     * @spec.modifies this
+     */
+    public boolean offer(int id, double key) {
+        if (positions[id] == ABSENT) {
+            insert(id, key);
+            return true;
+        }
+        if (positions[id] >= 0 && key < keys[id]) {
+            decreaseKey(id, key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the id with the least key in this
+     * @throws NoSuchElementException if this is empty
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * @return the least key in this
+     * @throws NoSuchElementException if this is empty
+     */
+    public double peekKey() {
+        return keys[peek()];
+    }
+
+    /**
+     * remove the id with the least key
+     *
+     * @return the id with the least key in this, whose key stays readable by key()
+     * @throws NoSuchElementException if this is empty
+     * @spec.modifies this
+     * @spec.effects remove the id with the least key from this, remembering it was polled
+     */
+    public int poll() {
+        int min = peek();
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        positions[min] = POLLED;
+        checkRep();
+        return min;
+    }
+
+    /**
+     * remove every id and forget every polled id, in time proportional to the ids inserted since the last clear
+     *
+     * @spec.modifies this
+     * @spec.effects make this empty, as if newly created
+     */
+    public void clear() {
+        for (int i = 0; i < touchedCount; i++) {
+            positions[touched[i]] = ABSENT;
+        }
+        touchedCount = 0;
+        size = 0;
+        checkRep();
+    }
+
+    /**
+     * move the entry at position i up until its parent's key is not greater
+     */
+    private void siftUp(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while (i > 0) {
+            int parent = (i - 1) >>> shift;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            positions[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        positions[id] = i;
+    }
+
+    /**
+     * move the entry at position i down until no child's key is less
+     */
+    private void siftDown(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while (true) {
+            int first = (i << shift) + 1;
+            if (first >= size) {
+                break;
+            }
+            int min = first;
+            int last = Math.min(first + arity, size);
+            for (int c = first + 1; c < last; c++) {
+                if (keys[heap[c]] < keys[heap[min]]) {
+                    min = c;
+                }
+            }
+            if (keys[heap[min]] >= key) {
+                break;
+            }
+            heap[i] = heap[min];
+            positions[heap[i]] = i;
+            i = min;
+        }
+        heap[i] = id;
+        positions[id] = i;
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert arity >= 2 && arity == 1 << shift : "every entry must have a power of 2 children";
+        assert 0 <= size && size <= touchedCount && touchedCount <= heap.length : "sizes must fit the capacity";
+
+        if (RUN_CHECK_REP) {
+            for (int i = 0; i < size; i++) {
+                assert positions[heap[i]] == i : "position must match heap";
+                assert i == 0 || keys[heap[(i - 1) / arity]] <= keys[heap[i]] : "parent key cannot be greater";
+            }
+            int inserted = 0;
+            for (int position : positions) {
+                if (position != ABSENT) {
+                    inserted++;
+                }
+            }
+            assert inserted == touchedCount : "every inserted id must be touched";
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package graph;
+
+/**
+ * IndexedGraph represents an immutable directed weighted graph whose nodes have dense integer ids
+ *
+ * Every node is given an id from 0 to size() - 1, and the outgoing edges of the node with id n
+ * are the edge indices from edgeStart(n) (inclusive) to edgeEnd(n) (exclusive),
+ * so the graph can be searched with int and double arrays instead of node objects.
+ *
+ * @param <Node> the type of the node
+ */
+public interface IndexedGraph<Node> {
+
+    /**
+     * return the number of nodes of this
+     *
+     * @return the number of nodes in this
+     */
+    int size();
+
+    /**
+     * return the number of edges of this
+     *
+     * @return the number of edges in this
+     */
+    int edgeCount();
+
+    /**
+     * return true if there is a node with same name as 'name'
+     *
+     * @param name the name of the node
+     * @return true iff this has a node with the same name
+     */
+    default boolean hasNode(Node name) {
+        return idOf(name) != -1;
+    }
+
+    /**
+     * return the id of a node
+     *
+     * @param name the node being looked up
+     * @return the id of 'name', -1 if 'name' is not a node of this
+     */
+    int idOf(Node name);
+
+    /**
+     * return the node with the given id
+     *
+     * @param id the id of the node
+     * @return the node with id 'id'
+     * @throws IndexOutOfBoundsException if id is not between 0 and size() - 1
+     */
+    Node nodeAt(int id);
+
+    /**
+     * return the index of the first outgoing edge of a node
+     *
+     * @param id the id of the parent node
+     * @return the index of the first outgoing edge of node 'id'
+     * @spec.requires 0 &lt;= id &lt; size()
+     */
+    int edgeStart(int id);
+
+    /**
+     * return the index after the last outgoing edge of a node
+     *
+     * @param id the id of the parent node
+     * @return the index after the last outgoing edge of node 'id'
+     * @spec.requires 0 &lt;= id &lt; size()
+     */
+    int edgeEnd(int id);
+
+    /**
+     * return the child node of an edge
+     *
+     * @param edge the index of the edge
+     * @return the id of the child node of 'edge'
+     * @spec.requires 0 &lt;= edge &lt; edgeCount()
+     */
+    int target(int edge);
+
+    /**
+     * return the weight of an edge
+     *
+     * @param edge the index of the edge
+     * @return the weight of 'edge'
+     * @spec.requires 0 &lt;= edge &lt; edgeCount()
+     */
+    double weight(int edge);
+
+    /**
+     * hash the node count and every edge of this in id order, so files of data precomputed for this graph,
+     * such as a contraction hierarchy, can tell whether they were built from another graph
+     *
+     * @return the fingerprint of this
+     */
+    default long fingerprint() {
+        long hash = size();
+        for (int n = 0; n < size(); n++) {
+            for (int e = edgeStart(n); e < edgeEnd(n); e++) {
+                hash = hash * 31 + n;
+                hash = hash * 31 + target(e);
+                hash = hash * 31 + Double.doubleToLongBits(weight(e));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * measure the size and shape of this
+     *
+     * @return the stats of this
+     */
+    GraphStats stats();
+}
@@ -0,0 +1,340 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Landmarks gives lower bounds on the distance between two nodes of an indexed graph, so A* search can be
+ * directed at the end of a path with landmarks and the triangle inequality (ALT) instead of coordinates
+ *
+ * A few nodes far apart are chosen as landmarks, each the node farthest from the landmarks chosen before it,
+ * and the distance from every landmark to every node and from every node to every landmark is precomputed.
+ * By the triangle inequality d(v, t) &gt;= d(L, t) - d(L, v) and d(v, t) &gt;= d(v, L) - d(t, L) for every
+ * landmark L, and the largest of these bounds follows paths that wind around obstacles far better than the
+ * straight line distance does.
+ *
+ * Landmarks can be written to a file and read back for the same graph, so they are only searched for once.
+ * The file holds, in big-endian order, a header (magic, format, node count, edge count and fingerprint of the
+ * graph, landmark count), the id of every landmark, and for every node the distances from every landmark to it
+ * and from it to every landmark, infinity where there is no path.
+ * Bounds may be asked for on many threads at once.
+ *
+ * @param <Node> the type of the node
+ */
+public class Landmarks<Node> {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the first int of every landmarks file */
+    private static final int MAGIC = 0x414c5431;
+
+    /** the layout of the rest of a landmarks file */
+    private static final int FORMAT = 1;
+
+    /** the graph whose distances are bounded */
+    private final IndexedGraph<Node> graph;
+
+    /** the fingerprint of graph, telling whether a landmarks file was built from it */
+    private final long fingerprint;
+
+    /** the node id of every landmark */
+    private final int[] landmarks;
+
+    /** the distance from landmark i to node n at fromLandmark[n * landmarks.length + i] */
+    private final double[] fromLandmark;
+
+    /** the distance from node n to landmark i at toLandmark[n * landmarks.length + i] */
+    private final double[] toLandmark;
+
+    // Representation Invariant for every Landmarks l:
+    // graph != null, landmarks != null, fromLandmark != null, toLandmark != null
+    // landmarks holds distinct node ids of graph
+    // fromLandmark.length == toLandmark.length == graph.size() * landmarks.length
+    // every entry of fromLandmark and toLandmark is non-negative or infinity,
+    // and the entries of a landmark at itself are 0
+    //
+    // Abstract Function:
+    // AF(l) = the nodes landmarks[0], ..., landmarks[landmarks.length - 1] of graph, with
+    //         d(landmarks[i], n) = fromLandmark[n * landmarks.length + i] and
+    //         d(n, landmarks[i]) = toLandmark[n * landmarks.length + i] for every node id n of graph
+
+    /**
+     * @spec.effects create new landmarks from their distance tables, the arrays are not copied
+     */
+    private Landmarks(IndexedGraph<Node> graph, long fingerprint, int[] landmarks,
+                      double[] fromLandmark, double[] toLandmark) {
+        this.graph = graph;
+        this.fingerprint = fingerprint;
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+        checkRep();
+    }
+
+    /**
+     * choose landmarks of a graph by farthest point selection and search their distances, searching the
+     * distances to a landmark on pool while the next landmark is chosen
+     *
+     * @param graph the graph whose distances are bounded
+     * @param count the number of landmarks to choose
+     * @param pool the pool the searches run on
+     * @param <Node> the type of the node
+     * @return new landmarks bounding the distances of 'graph', fewer than 'count' once every node is at a landmark,
+     * and none if no two nodes are apart
+     * @throws IllegalArgumentException if count &lt; 1
+     * @spec.requires graph != null, pool != null, every weight of graph is non-negative,
+     * graph is not changed afterwards
+     */
+    public static <Node> Landmarks<Node> build(IndexedGraph<Node> graph, int count, ForkJoinPool pool) {
+        if (count < 1) {
+            throw new IllegalArgumentException("landmark count must be positive");
+        }
+        IndexedGraph<Node> reversed = CompactGraph.transposeOf(graph);
+        List<Integer> chosen = new ArrayList<>();
+        List<double[]> from = new ArrayList<>();
+        List<ForkJoinTask<double[]>> to = new ArrayList<>();
+        // the distance from the closest landmark to every node, seeded by a search from any node so the first
+        // landmark is at the edge of the graph
+        double[] nearest = graph.size() == 0 ? new double[0] : distances(graph, 0);
+        while (chosen.size() < count) {
+            int next = farthest(nearest);
+            if (next == -1) {
+                break; // every node is at a landmark
+            }
+            chosen.add(next);
+            to.add(pool.submit(() -> distances(reversed, next)));
+            double[] distances = distances(graph, next);
+            from.add(distances);
+            for (int n = 0; n < nearest.length; n++) {
+                nearest[n] = chosen.size() == 1 ? distances[n] : Math.min(nearest[n], distances[n]);
+            }
+        }
+
+        int k = chosen.size();
+        int[] landmarks = new int[k];
+        double[] fromLandmark = new double[graph.size() * k];
+        double[] toLandmark = new double[graph.size() * k];
+        for (int i = 0; i < k; i++) {
+            landmarks[i] = chosen.get(i);
+            double[] fromTable = from.get(i);
+            double[] toTable = to.get(i).join();
+            for (int n = 0; n < graph.size(); n++) {
+                fromLandmark[n * k + i] = fromTable[n];
+                toLandmark[n * k + i] = toTable[n];
+            }
+        }
+        return new Landmarks<>(graph, graph.fingerprint(), landmarks, fromLandmark, toLandmark);
+    }
+
+    /**
+     * read landmarks written by write() for a graph
+     *
+     * @param file the file being read
+     * @param graph the graph the landmarks were built from
+     * @param <Node> the type of the node
+     * @return new landmarks bounding the distances of 'graph'
+     * @throws IOException if the file cannot be read, was not written by write(), or was built from another graph
+     * @spec.requires file != null ; graph != null
+     */
+    public static <Node> Landmarks<Node> read(Path file, IndexedGraph<Node> graph) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new IOException("not a landmarks file: " + file);
+            }
+            if (in.readInt() != graph.size() || in.readInt() != graph.edgeCount() || in.readLong() != graph.fingerprint()) {
+                throw new IOException("landmarks file was built from another graph: " + file);
+            }
+            int k = in.readInt();
+            if (k < 0 || k > graph.size()) {
+                throw new IOException("corrupt landmarks file: " + file);
+            }
+            int[] landmarks = new int[k];
+            for (int i = 0; i < k; i++) {
+                landmarks[i] = in.readInt();
+                if (landmarks[i] < 0 || landmarks[i] >= graph.size()) {
+                    throw new IOException("corrupt landmarks file: " + file);
+                }
+            }
+            double[] fromLandmark = new double[graph.size() * k];
+            double[] toLandmark = new double[graph.size() * k];
+            for (int n = 0; n < graph.size(); n++) {
+                for (int i = 0; i < k; i++) {
+                    fromLandmark[n * k + i] = in.readDouble();
+                }
+                for (int i = 0; i < k; i++) {
+                    toLandmark[n * k + i] = in.readDouble();
+                }
+            }
+            if (in.read() != -1) {
+                throw new IOException("corrupt landmarks file: " + file);
+            }
+            return new Landmarks<>(graph, graph.fingerprint(), landmarks, fromLandmark, toLandmark);
+        } catch (EOFException e) {
+            throw new IOException("corrupt landmarks file: " + file, e);
+        }
+    }
+
+    /**
+     * write this to a file that read() can read back, replacing the file if it exists
+     *
+     * @param file the file being written
+     * @throws IOException if the file cannot be written
+     * @spec.requires file != null
+     */
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(graph.size());
+            out.writeInt(graph.edgeCount());
+            out.writeLong(fingerprint);
+            out.writeInt(landmarks.length);
+            for (int l : landmarks) {
+                out.writeInt(l);
+            }
+            int k = landmarks.length;
+            for (int n = 0; n < graph.size(); n++) {
+                for (int i = 0; i < k; i++) {
+                    out.writeDouble(fromLandmark[n * k + i]);
+                }
+                for (int i = 0; i < k; i++) {
+                    out.writeDouble(toLandmark[n * k + i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the graph whose distances are bounded
+     */
+    public IndexedGraph<Node> graph() {
+        return graph;
+    }
+
+    /**
+     * @return the landmarks, in the order they were chosen
+     */
+    public List<Node> landmarks() {
+        List<Node> nodes = new ArrayList<>();
+        for (int l : landmarks) {
+            nodes.add(graph.nodeAt(l));
+        }
+        return nodes;
+    }
+
+    /**
+     * find a lower bound on the distance between two nodes by the triangle inequality at every landmark
+     *
+     * @param node the id of the start of the path
+     * @param target the id of the end of the path
+     * @return a number no greater than the total weight of the shortest path from 'node' to 'target',
+     * infinity only if there is no such path
+     * @spec.requires 0 &lt;= node, target &lt; graph().size()
+     */
+    public double lowerBound(int node, int target) {
+        int k = landmarks.length;
+        int n = node * k;
+        int t = target * k;
+        double bound = 0;
+        for (int i = 0; i < k; i++) {
+            // a bound is NaN when neither node reaches the landmark or is reached from it, and is then skipped
+            double before = fromLandmark[t + i] - fromLandmark[n + i];
+            double after = toLandmark[n + i] - toLandmark[t + i];
+            if (before > bound) {
+                bound = before;
+            }
+            if (after > bound) {
+                bound = after;
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * @return the id of the node farthest from its closest landmark, preferring nodes no landmark reaches,
+     * -1 if every node is at a landmark
+     */
+    private static int farthest(double[] nearest) {
+        int farthest = -1;
+        double max = 0;
+        for (int n = 0; n < nearest.length; n++) {
+            if (nearest[n] > max) {
+                max = nearest[n];
+                farthest = n;
+            }
+        }
+        return farthest;
+    }
+
+    /**
+     * @return the distance from source to every node of graph, infinity for nodes it does not reach
+     */
+    private static double[] distances(IndexedGraph<?> graph, int source) {
+        double[] dist = new double[graph.size()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        PriorityQueue<Entry> active = new PriorityQueue<>();
+        active.add(new Entry(source, 0));
+        while (!active.isEmpty()) {
+            Entry min = active.remove();
+            if (min.cost > dist[min.node]) {
+                continue; // stale entry, the node was reached more cheaply
+            }
+            for (int e = graph.edgeStart(min.node); e < graph.edgeEnd(min.node); e++) {
+                double cost = min.cost + graph.weight(e);
+                if (cost < dist[graph.target(e)]) {
+                    dist[graph.target(e)] = cost;
+                    active.add(new Entry(graph.target(e), cost));
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert graph != null && landmarks != null : "parts cannot be null";
+        assert fromLandmark.length == graph.size() * landmarks.length : "every node must have a distance from every landmark";
+        assert toLandmark.length == graph.size() * landmarks.length : "every node must have a distance to every landmark";
+
+        if (RUN_CHECK_REP) {
+            Set<Integer> distinct = new HashSet<>();
+            for (int i = 0; i < landmarks.length; i++) {
+                assert distinct.add(landmarks[i]) : "landmarks must be distinct";
+                assert fromLandmark[landmarks[i] * landmarks.length + i] == 0 : "a landmark is at itself";
+                assert toLandmark[landmarks[i] * landmarks.length + i] == 0 : "a landmark is at itself";
+            }
+            for (int j = 0; j < fromLandmark.length; j++) {
+                assert fromLandmark[j] >= 0 && toLandmark[j] >= 0 : "distances cannot be negative";
+            }
+        }
+    }
+
+    /**
+     * a node id with its tentative distance, ordered by distance for PriorityQueue
+     */
+    private static final class Entry implements Comparable<Entry> {
+        private final int node;
+        private final double cost;
+
+        private Entry(int node, double cost) {
+            this.node = node;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+}
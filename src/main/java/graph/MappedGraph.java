@@ -0,0 +1,471 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MappedGraph represents an immutable directed weighted graph stored off the heap in a memory-mapped file
+ *
+ * The coordinates of every node, the edge offsets, edge targets, edge weights and a hash table from
+ * coordinates to node id all live in the file, so the heap used by a MappedGraph does not grow with
+ * the graph, and processes mapping the same file share its pages through the OS page cache.
+ * Nodes are identified by their coordinates, which are converted to and from nodes by a NodeCoordinates.
+ *
+ * The file is written once by write() and is read-only afterwards. write() fills a temporary file and renames it
+ * over the old one, so a process that has the old file mapped keeps reading it and a process opening the file
+ * sees either the whole old or the whole new graph. It holds, in little-endian order, a header (magic, format,
+ * node count, edge count, table size, the fingerprint of the data the graph was built from) followed by the sections
+ * xs, ys (double per node), offsets (int per node + 1), targets (int per edge), weights (double per edge)
+ * and table (int per slot, node id + 1 or 0 for an empty slot). Every section is mapped on its own,
+ * so only a single section is limited to 2GB.
+ *
+ * @param <Node> the type of the node
+ */
+public class MappedGraph<Node> implements IndexedGraph<Node> {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the first int of every mapped graph file */
+    private static final int MAGIC = 0x47524146;
+
+    /** the version of the file layout */
+    private static final int FORMAT = 2;
+
+    /** the number of bytes of the header, padded so that every section is 8 byte aligned */
+    private static final int HEADER_BYTES = 32;
+
+    /** the position of the fingerprint in the header */
+    private static final int FINGERPRINT_POSITION = 24;
+
+    /** the most table slots, so that the table section stays below 2GB */
+    private static final int MAX_TABLE_SIZE = 1 << 28;
+
+    /** converts between nodes and their coordinates */
+    private final NodeCoordinates<Node> coordinates;
+
+    /** the number of nodes */
+    private final int nodeCount;
+
+    /** the number of edges */
+    private final int edgeCount;
+
+    /** the fingerprint of the data the graph was built from, as given to write() */
+    private final long sourceFingerprint;
+
+    /** the x and y coordinate of every node */
+    private final DoubleBuffer xs;
+    private final DoubleBuffer ys;
+
+    /** the first edge index of every node, offsets.get(nodeCount) is the total number of edges */
+    private final IntBuffer offsets;
+
+    /** the id of the child node of every edge */
+    private final IntBuffer targets;
+
+    /** the weight of every edge */
+    private final DoubleBuffer weights;
+
+    /** open addressing hash table of node id + 1 by coordinates, 0 for an empty slot, its size is a power of 2 */
+    private final IntBuffer table;
+
+    // Representation Invariant for every MappedGraph g:
+    // all buffers != null and read-only, xs and ys have nodeCount entries, offsets has nodeCount + 1 entries,
+    // targets and weights have edgeCount entries, offsets.get(0) == 0, offsets is non-decreasing,
+    // offsets.get(nodeCount) == edgeCount, 0 <= targets.get(e) < nodeCount for every edge e,
+    // no two nodes have the same coordinates, and every node id + 1 is in the first empty-free
+    // run of table slots starting at slot(xs.get(id), ys.get(id))
+    //
+    // Abstraction Function:
+    // The node with id n is coordinates.at(xs.get(n), ys.get(n)), and it has an outgoing edge to the node with id
+    // targets.get(e) with weight weights.get(e) for every offsets.get(n) <= e < offsets.get(n + 1)
+
+    /**
+     * @spec.effects create a new mapped graph from its mapped sections
+     */
+    private MappedGraph(NodeCoordinates<Node> coordinates, int nodeCount, int edgeCount, long sourceFingerprint,
+                        DoubleBuffer xs, DoubleBuffer ys, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights,
+                        IntBuffer table) {
+        this.coordinates = coordinates;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.sourceFingerprint = sourceFingerprint;
+        this.xs = xs;
+        this.ys = ys;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.table = table;
+        checkRep();
+    }
+
+    /**
+     * write a graph to a file that can be opened as a mapped graph, replacing the file if it exists, with the
+     * fingerprint of its edges and coordinates as the fingerprint of its source
+     *
+     * @param graph the graph being written
+     * @param coordinates the coordinates of every node of 'graph'
+     * @param file the file being written
+     * @param <Node> the type of the node
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if two nodes of 'graph' have the same coordinates
+     * @spec.requires graph != null ; coordinates != null ; file != null
+     */
+    public static <Node> void write(IndexedGraph<Node> graph, NodeCoordinates<? super Node> coordinates,
+                                    Path file) throws IOException {
+        long fingerprint = graph.fingerprint();
+        for (int n = 0; n < graph.size(); n++) {
+            fingerprint = fingerprint * 31 + Double.doubleToLongBits(coordinates.x(graph.nodeAt(n)));
+            fingerprint = fingerprint * 31 + Double.doubleToLongBits(coordinates.y(graph.nodeAt(n)));
+        }
+        write(graph, coordinates, file, fingerprint);
+    }
+
+    /**
+     * write a graph to a file that can be opened as a mapped graph, replacing the file if it exists.
+     * The graph is written to a temporary file in the same directory, which is then renamed to 'file'.
+     *
+     * @param graph the graph being written
+     * @param coordinates the coordinates of every node of 'graph'
+     * @param file the file being written
+     * @param sourceFingerprint the fingerprint of the data 'graph' was built from, which open() can check,
+     *                          so the file is known to be stale without building the graph again
+     * @param <Node> the type of the node
+     * @throws IOException if the file cannot be written or 'graph' has too many nodes for a mapped graph
+     * @throws IllegalArgumentException if two nodes of 'graph' have the same coordinates
+     * @spec.requires graph != null ; coordinates != null ; file != null
+     */
+    public static <Node> void write(IndexedGraph<Node> graph, NodeCoordinates<? super Node> coordinates,
+                                    Path file, long sourceFingerprint) throws IOException {
+        Path target = file.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            // fill() forces every page to disk and keeps no mapping, so a crash never leaves a complete looking file
+            // with unwritten pages, and the rename is not refused for a file this process still maps
+            fill(graph, coordinates, temp, sourceFingerprint);
+            // a rename never changes a file another process has mapped, unlike truncating and rewriting it
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * write a graph to an empty file in the layout open() maps, forcing its contents to disk
+     */
+    private static <Node> void fill(IndexedGraph<Node> graph, NodeCoordinates<? super Node> coordinates,
+                                    Path file, long sourceFingerprint) throws IOException {
+        int nodeCount = graph.size();
+        int edgeCount = graph.edgeCount();
+        long slots = tableSize(nodeCount);
+        if (slots > MAX_TABLE_SIZE) {
+            throw new IOException("too many nodes for a mapped graph: " + nodeCount);
+        }
+        int tableSize = (int) slots;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            List<MappedByteBuffer> sections = new ArrayList<>();
+            ByteBuffer header = map(channel, 0, HEADER_BYTES, sections);
+            header.putInt(MAGIC).putInt(FORMAT).putInt(nodeCount).putInt(edgeCount).putInt(tableSize);
+            header.putLong(FINGERPRINT_POSITION, sourceFingerprint);
+
+            long position = HEADER_BYTES;
+            DoubleBuffer xs = map(channel, position, 8L * nodeCount, sections).asDoubleBuffer();
+            position += 8L * nodeCount;
+            DoubleBuffer ys = map(channel, position, 8L * nodeCount, sections).asDoubleBuffer();
+            position += 8L * nodeCount;
+            IntBuffer offsets = map(channel, position, 4L * (nodeCount + 1), sections).asIntBuffer();
+            position += align(4L * (nodeCount + 1));
+            IntBuffer targets = map(channel, position, 4L * edgeCount, sections).asIntBuffer();
+            position += align(4L * edgeCount);
+            DoubleBuffer weights = map(channel, position, 8L * edgeCount, sections).asDoubleBuffer();
+            position += 8L * edgeCount;
+            IntBuffer table = map(channel, position, 4L * tableSize, sections).asIntBuffer();
+
+            for (int n = 0; n < nodeCount; n++) {
+                Node node = graph.nodeAt(n);
+                double x = coordinates.x(node);
+                double y = coordinates.y(node);
+                xs.put(n, x);
+                ys.put(n, y);
+                offsets.put(n, graph.edgeStart(n));
+                int slot = slot(x, y, tableSize - 1);
+                while (table.get(slot) != 0) {
+                    int other = table.get(slot) - 1;
+                    if (sameCoordinates(xs.get(other), ys.get(other), x, y)) {
+                        throw new IllegalArgumentException("two nodes have the same coordinates");
+                    }
+                    slot = (slot + 1) & (tableSize - 1);
+                }
+                table.put(slot, n + 1);
+            }
+            offsets.put(nodeCount, edgeCount);
+            for (int e = 0; e < edgeCount; e++) {
+                targets.put(e, graph.target(e));
+                weights.put(e, graph.weight(e));
+            }
+            for (MappedByteBuffer section : sections) {
+                section.force();
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * map a file written by write() as a graph, the file must not be changed while it is mapped
+     *
+     * @param file the file being mapped
+     * @param coordinates converts between the nodes of the graph and their coordinates
+     * @param <Node> the type of the node
+     * @return a new graph backed by the contents of 'file'
+     * @throws IOException if the file cannot be read or was not written by write()
+     * @spec.requires file != null ; coordinates != null
+     */
+    public static <Node> MappedGraph<Node> open(Path file, NodeCoordinates<Node> coordinates) throws IOException {
+        return open(file, coordinates, false, 0);
+    }
+
+    /**
+     * map a file written by write() as a graph if it was written from the data with the given fingerprint
+     *
+     * @param file the file being mapped
+     * @param coordinates converts between the nodes of the graph and their coordinates
+     * @param sourceFingerprint the fingerprint of the data the graph must have been built from
+     * @param <Node> the type of the node
+     * @return a new graph backed by the contents of 'file'
+     * @throws IOException if the file cannot be read, was not written by write(), or was written with
+     *                     another fingerprint
+     * @spec.requires file != null ; coordinates != null
+     */
+    public static <Node> MappedGraph<Node> open(Path file, NodeCoordinates<Node> coordinates, long sourceFingerprint)
+            throws IOException {
+        return open(file, coordinates, true, sourceFingerprint);
+    }
+
+    /**
+     * map a file written by write() as a graph, checking that its fingerprint is 'expected' if 'check' is true
+     */
+    private static <Node> MappedGraph<Node> open(Path file, NodeCoordinates<Node> coordinates, boolean check,
+                                                 long expected) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("not a mapped graph file: " + file);
+            }
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT) {
+                throw new IOException("not a mapped graph file: " + file);
+            }
+            int nodeCount = header.getInt();
+            int edgeCount = header.getInt();
+            int tableSize = header.getInt();
+            long sourceFingerprint = header.getLong(FINGERPRINT_POSITION);
+            if (check && expected != sourceFingerprint) {
+                throw new IOException("mapped graph file written from other data: " + file);
+            }
+            if (nodeCount < 0 || edgeCount < 0 || tableSize != tableSize(nodeCount)
+                    || channel.size() != fileBytes(nodeCount, edgeCount, tableSize)) {
+                throw new IOException("corrupt mapped graph file: " + file);
+            }
+
+            long position = HEADER_BYTES;
+            DoubleBuffer xs = map(channel, FileChannel.MapMode.READ_ONLY, position, 8L * nodeCount).asDoubleBuffer();
+            position += 8L * nodeCount;
+            DoubleBuffer ys = map(channel, FileChannel.MapMode.READ_ONLY, position, 8L * nodeCount).asDoubleBuffer();
+            position += 8L * nodeCount;
+            IntBuffer offsets = map(channel, FileChannel.MapMode.READ_ONLY, position, 4L * (nodeCount + 1)).asIntBuffer();
+            position += align(4L * (nodeCount + 1));
+            IntBuffer targets = map(channel, FileChannel.MapMode.READ_ONLY, position, 4L * edgeCount).asIntBuffer();
+            position += align(4L * edgeCount);
+            DoubleBuffer weights = map(channel, FileChannel.MapMode.READ_ONLY, position, 8L * edgeCount).asDoubleBuffer();
+            position += 8L * edgeCount;
+            IntBuffer table = map(channel, FileChannel.MapMode.READ_ONLY, position, 4L * tableSize).asIntBuffer();
+            return new MappedGraph<>(coordinates, nodeCount, edgeCount, sourceFingerprint, xs, ys, offsets, targets,
+                    weights, table);
+        }
+    }
+
+    @Override
+    public int size() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the fingerprint of the data this graph was built from, as given to write()
+     */
+    public long sourceFingerprint() {
+        return sourceFingerprint;
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int idOf(Node name) {
+        return idAt(coordinates.x(name), coordinates.y(name));
+    }
+
+    /**
+     * return the id of the node at the given coordinates
+     *
+     * @param x the x coordinate of the node
+     * @param y the y coordinate of the node
+     * @return the id of the node at (x, y), -1 if there is no such node
+     */
+    public int idAt(double x, double y) {
+        int mask = table.capacity() - 1;
+        for (int slot = slot(x, y, mask); table.get(slot) != 0; slot = (slot + 1) & mask) {
+            int id = table.get(slot) - 1;
+            if (sameCoordinates(xs.get(id), ys.get(id), x, y)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Node nodeAt(int id) {
+        return coordinates.at(xs.get(id), ys.get(id));
+    }
+
+    /**
+     * @param id the id of the node
+     * @return the x coordinate of node 'id'
+     * @throws IndexOutOfBoundsException if id is not between 0 and size() - 1
+     */
+    public double x(int id) {
+        return xs.get(id);
+    }
+
+    /**
+     * @param id the id of the node
+     * @return the y coordinate of node 'id'
+     * @throws IndexOutOfBoundsException if id is not between 0 and size() - 1
+     */
+    public double y(int id) {
+        return ys.get(id);
+    }
+
+    @Override
+    public int edgeStart(int id) {
+        return offsets.get(id);
+    }
+
+    @Override
+    public int edgeEnd(int id) {
+        return offsets.get(id + 1);
+    }
+
+    @Override
+    public int target(int edge) {
+        return targets.get(edge);
+    }
+
+    @Override
+    public double weight(int edge) {
+        return weights.get(edge);
+    }
+
+    @Override
+    public GraphStats stats() {
+        // the object and its seven buffer views are all that is on the heap
+        long heapBytes = GraphStats.objectBytes(14 * 4) + 7 * GraphStats.objectBytes(64);
+        return GraphStats.of(this, heapBytes, fileBytes(nodeCount, edgeCount, table.capacity()));
+    }
+
+    /**
+     * @return the bytes of a mapped graph file with the given counts
+     */
+    private static long fileBytes(int nodeCount, int edgeCount, long tableSize) {
+        return HEADER_BYTES + 16L * nodeCount + align(4L * (nodeCount + 1))
+                + align(4L * edgeCount) + 8L * edgeCount + 4L * tableSize;
+    }
+
+    /**
+     * map a part of a file in little-endian order
+     */
+    private static ByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long size)
+            throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("graph section larger than 2GB");
+        }
+        return channel.map(mode, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * map a part of a file for writing in little-endian order, adding the mapping to 'sections' so it can be forced
+     */
+    private static ByteBuffer map(FileChannel channel, long position, long size, List<MappedByteBuffer> sections)
+            throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("graph section larger than 2GB");
+        }
+        MappedByteBuffer section = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        sections.add(section);
+        return section.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return 'bytes' rounded up to a multiple of 8
+     */
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * @return the smallest power of 2 at least twice 'nodeCount', so that probe runs stay short
+     */
+    private static long tableSize(int nodeCount) {
+        return Long.highestOneBit(Math.max(1L, nodeCount) * 2 - 1) << 1;
+    }
+
+    /**
+     * @return the first table slot probed for a node at (x, y)
+     */
+    private static int slot(double x, double y, int mask) {
+        long h = Double.doubleToLongBits(x) * 0x9E3779B97F4A7C15L + Double.doubleToLongBits(y);
+        h ^= h >>> 32;
+        h *= 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> 29)) & mask;
+    }
+
+    /**
+     * @return true iff (x1, y1) and (x2, y2) are the same coordinates as compared by Double.compare
+     */
+    private static boolean sameCoordinates(double x1, double y1, double x2, double y2) {
+        return Double.compare(x1, x2) == 0 && Double.compare(y1, y2) == 0;
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert coordinates != null : "coordinates cannot be null";
+        assert xs != null && ys != null && offsets != null : "nodes cannot be null";
+        assert targets != null && weights != null && table != null : "edges cannot be null";
+        assert xs.capacity() == nodeCount && ys.capacity() == nodeCount : "every node must have coordinates";
+        assert offsets.capacity() == nodeCount + 1 : "every node must have an offset";
+        assert targets.capacity() == edgeCount && weights.capacity() == edgeCount : "every edge must have a weight";
+
+        if (RUN_CHECK_REP) {
+            assert offsets.get(0) == 0 : "first offset must be 0";
+            assert offsets.get(nodeCount) == edgeCount : "last offset must be the number of edges";
+            for (int i = 0; i < nodeCount; i++) {
+                assert offsets.get(i) <= offsets.get(i + 1) : "offsets must be non-decreasing";
+                assert idAt(xs.get(i), ys.get(i)) == i : "node must be found by its coordinates";
+            }
+            for (int e = 0; e < edgeCount; e++) {
+                assert targets.get(e) >= 0 && targets.get(e) < nodeCount : "child node must be a node of graph";
+            }
+        }
+    }
+}
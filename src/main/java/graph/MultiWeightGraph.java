@@ -0,0 +1,308 @@
+package graph;
+
+import java.util.*;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * MultiWeightGraph gives the edges of an indexed graph several named weights, one for every criterion
+ * such as distance, walking time or an accessibility penalty
+ *
+ * The topology is shared, not copied: every criterion is one double array indexed by edge, and the
+ * weights of the indexed graph itself are the base criterion. A search routes on one criterion, or on
+ * a non-negative linear combination of criteria chosen per query, through a view that is an IndexedGraph.
+ * Criteria must not be added while views of this are searched by other threads.
+ *
+ * @param <Node> the type of the node
+ */
+public class MultiWeightGraph<Node> {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the graph whose edges are weighted */
+    private final IndexedGraph<Node> topology;
+
+    /** the name of the criterion held by the weights of topology */
+    private final String baseCriterion;
+
+    /** the weight of every edge for every other criterion, by name */
+    private final Map<String, double[]> criteria;
+
+    // Representation Invariant for every MultiWeightGraph g:
+    // topology, baseCriterion, criteria != null, baseCriterion is not a key of criteria
+    // every array of criteria has topology.edgeCount() entries, all non-negative
+    //
+    // Abstraction Function:
+    // edge e of topology weighs topology.weight(e) for baseCriterion, and criteria.get(c)[e] for criterion c
+
+    /**
+     * @param topology the graph whose edges are weighted
+     * @param baseCriterion the name of the criterion the weights of 'topology' measure
+     * @spec.requires topology != null ; baseCriterion != null ; every weight of topology is non-negative
+     * @spec.effects create a new multi-weight graph with the single criterion 'baseCriterion'
+     */
+    public MultiWeightGraph(IndexedGraph<Node> topology, String baseCriterion) {
+        this.topology = topology;
+        this.baseCriterion = baseCriterion;
+        this.criteria = new HashMap<>();
+        checkRep();
+    }
+
+    /**
+     * add a criterion whose weight is computed from each edge
+     *
+     * @param name the name of the new criterion
+     * @param weight the function giving the weight of an edge from its parent, its child and its base weight
+     * @throws IllegalArgumentException if 'name' is already a criterion of this, or a weight is negative or NaN
+     * @spec.requires name != null ; weight != null
+     * @spec.modifies this
+     * @spec.effects 'name' is a criterion of this
+     */
+    public void addCriterion(String name, EdgeWeightFunction<? super Node> weight) {
+        double[] weights = new double[topology.edgeCount()];
+        for (int n = 0; n < topology.size(); n++) {
+            Node parent = topology.nodeAt(n);
+            for (int e = topology.edgeStart(n); e < topology.edgeEnd(n); e++) {
+                weights[e] = weight.weigh(parent, topology.nodeAt(topology.target(e)), topology.weight(e));
+            }
+        }
+        put(name, weights);
+    }
+
+    /**
+     * add a criterion from the weight of every edge
+     *
+     * @param name the name of the new criterion
+     * @param weights the weight of every edge index, which is copied
+     * @throws IllegalArgumentException if 'name' is already a criterion of this, 'weights' does not have an entry
+     *                                  for every edge, or a weight is negative or NaN
+     * @spec.requires name != null ; weights != null
+     * @spec.modifies this
+     * @spec.effects 'name' is a criterion of this
+     */
+    public void addCriterion(String name, double[] weights) {
+        if (weights.length != topology.edgeCount()) {
+            throw new IllegalArgumentException("criterion must weigh every edge");
+        }
+        put(name, weights.clone());
+    }
+
+    /**
+     * @return the graph whose edges are weighted
+     */
+    public IndexedGraph<Node> topology() {
+        return topology;
+    }
+
+    /**
+     * @return the names of all criteria of this
+     */
+    public Set<String> criteria() {
+        Set<String> names = new HashSet<>(criteria.keySet());
+        names.add(baseCriterion);
+        return names;
+    }
+
+    /**
+     * return the weight of an edge for a criterion
+     *
+     * @param criterion the name of the criterion
+     * @param edge the index of the edge
+     * @return the weight of 'edge' for 'criterion'
+     * @throws IllegalArgumentException if 'criterion' is not a criterion of this
+     * @spec.requires 0 &lt;= edge &lt; topology().edgeCount()
+     */
+    public double weight(String criterion, int edge) {
+        if (criterion.equals(baseCriterion)) {
+            return topology.weight(edge);
+        }
+        return column(criterion)[edge];
+    }
+
+    /**
+     * return a view of this weighted by one criterion, sharing the topology and the weights of this
+     *
+     * @param criterion the name of the criterion
+     * @return an indexed graph with the topology of this, whose edges weigh their 'criterion' weight
+     * @throws IllegalArgumentException if 'criterion' is not a criterion of this
+     */
+    public IndexedGraph<Node> weightedBy(String criterion) {
+        if (criterion.equals(baseCriterion)) {
+            return topology;
+        }
+        double[] weights = column(criterion);
+        return new View<>(topology, edge -> weights[edge]);
+    }
+
+    /**
+     * return a view of this weighted by a linear combination of criteria, sharing the topology and the weights of this
+     *
+     * @param coefficients the coefficient of every criterion in the combination, criteria not in it count 0
+     * @return an indexed graph with the topology of this, whose edges weigh the sum of their weight for every
+     * criterion times its coefficient
+     * @throws IllegalArgumentException if a key of 'coefficients' is not a criterion of this,
+     *                                  or a coefficient is negative or NaN
+     * @spec.requires coefficients != null
+     */
+    public IndexedGraph<Node> weightedBy(Map<String, Double> coefficients) {
+        double base = 0;
+        List<double[]> columns = new ArrayList<>();
+        List<Double> factors = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : coefficients.entrySet()) {
+            double factor = entry.getValue();
+            if (!(factor >= 0)) {
+                throw new IllegalArgumentException("coefficient must be non-negative");
+            }
+            if (entry.getKey().equals(baseCriterion)) {
+                base = factor;
+            } else {
+                double[] column = column(entry.getKey());
+                if (factor > 0) {
+                    columns.add(column);
+                    factors.add(factor);
+                }
+            }
+        }
+        if (columns.isEmpty() && base == 1) {
+            return topology;
+        }
+        if (columns.size() == 1 && base == 0 && factors.get(0) == 1) {
+            double[] weights = columns.get(0);
+            return new View<>(topology, edge -> weights[edge]);
+        }
+        double baseFactor = base;
+        double[][] columnArray = columns.toArray(new double[0][]);
+        double[] factorArray = factors.stream().mapToDouble(Double::doubleValue).toArray();
+        return new View<>(topology, edge -> {
+            double weight = baseFactor == 0 ? 0 : baseFactor * topology.weight(edge);
+            for (int i = 0; i < columnArray.length; i++) {
+                weight += factorArray[i] * columnArray[i][edge];
+            }
+            return weight;
+        });
+    }
+
+    /**
+     * @return the weights of a criterion other than the base one
+     * @throws IllegalArgumentException if 'criterion' is not a criterion of this
+     */
+    private double[] column(String criterion) {
+        double[] weights = criteria.get(criterion);
+        if (weights == null) {
+            throw new IllegalArgumentException("criterion does not exist");
+        }
+        return weights;
+    }
+
+    /**
+     * add a criterion with its own copy of weights
+     */
+    private void put(String name, double[] weights) {
+        if (name.equals(baseCriterion) || criteria.containsKey(name)) {
+            throw new IllegalArgumentException("criterion already exists");
+        }
+        for (double weight : weights) {
+            if (!(weight >= 0)) {
+                throw new IllegalArgumentException("weight must be non-negative");
+            }
+        }
+        criteria.put(name, weights);
+        checkRep();
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert topology != null && baseCriterion != null && criteria != null : "parts cannot be null";
+        assert !criteria.containsKey(baseCriterion) : "base criterion has no array";
+
+        if (RUN_CHECK_REP) {
+            for (double[] weights : criteria.values()) {
+                assert weights.length == topology.edgeCount() : "every edge must have a weight";
+                for (double weight : weights) {
+                    assert weight >= 0 : "weight must be non-negative";
+                }
+            }
+        }
+    }
+
+    /**
+     * EdgeWeightFunction computes the weight of an edge for a criterion
+     *
+     * @param <Node> the type of the node
+     */
+    @FunctionalInterface
+    public interface EdgeWeightFunction<Node> {
+        /**
+         * @param parent the parent node of the edge
+         * @param child the child node of the edge
+         * @param baseWeight the weight of the edge for the base criterion
+         * @return the weight of the edge, non-negative
+         */
+        double weigh(Node parent, Node child, double baseWeight);
+    }
+
+    /**
+     * A view of an indexed graph with its weights replaced
+     *
+     * @param <Node> the type of the node
+     */
+    private static final class View<Node> implements IndexedGraph<Node> {
+        private final IndexedGraph<Node> topology;
+        private final IntToDoubleFunction weights;
+
+        private View(IndexedGraph<Node> topology, IntToDoubleFunction weights) {
+            this.topology = topology;
+            this.weights = weights;
+        }
+
+        @Override
+        public int size() {
+            return topology.size();
+        }
+
+        @Override
+        public int edgeCount() {
+            return topology.edgeCount();
+        }
+
+        @Override
+        public boolean hasNode(Node name) {
+            return topology.hasNode(name);
+        }
+
+        @Override
+        public int idOf(Node name) {
+            return topology.idOf(name);
+        }
+
+        @Override
+        public Node nodeAt(int id) {
+            return topology.nodeAt(id);
+        }
+
+        @Override
+        public int edgeStart(int id) {
+            return topology.edgeStart(id);
+        }
+
+        @Override
+        public int edgeEnd(int id) {
+            return topology.edgeEnd(id);
+        }
+
+        @Override
+        public int target(int edge) {
+            return topology.target(edge);
+        }
+
+        @Override
+        public double weight(int edge) {
+            return weights.applyAsDouble(edge);
+        }
+
+        @Override
+        public GraphStats stats() {
+            return topology.stats();
+        }
+    }
+}
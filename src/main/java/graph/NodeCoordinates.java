@@ -0,0 +1,30 @@
+package graph;
+
+/**
+ * NodeCoordinates converts between the nodes of a graph and the planar coordinates that identify them
+ *
+ * Two nodes must be equal iff they have the same coordinates, compared as by Double.compare.
+ *
+ * @param <Node> the type of the node
+ */
+public interface NodeCoordinates<Node> {
+
+    /**
+     * @param node the node
+     * @return the x coordinate of 'node'
+     */
+    double x(Node node);
+
+    /**
+     * @param node the node
+     * @return the y coordinate of 'node'
+     */
+    double y(Node node);
+
+    /**
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the node at (x, y)
+     */
+    Node at(double x, double y);
+}
@@ -0,0 +1,173 @@
+package graph;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * ParallelGraphBuilder builds a Graph from a list of edge records on all the threads of a ForkJoinPool
+ *
+ * The records are cut into slices, and every slice sorts its edges into partitions by the hash of their
+ * parent node. Every partition then builds the adjacency of its own nodes with no locking, since no two
+ * partitions share a node, and the partitions are joined into one graph. Duplicate edges are dropped
+ * and nodes are added implicitly, as with GraphBuilder. Fewer than PARALLEL_THRESHOLD records would make
+ * only one slice, so they are given to a GraphBuilder on the calling thread instead.
+ */
+public final class ParallelGraphBuilder {
+
+    /** the fewest records worth giving to a thread of their own */
+    private static final int SLICE_SIZE = 4096;
+
+    /** the fewest records built in parallel, enough for two slices */
+    public static final int PARALLEL_THRESHOLD = 2 * SLICE_SIZE;
+
+    private ParallelGraphBuilder() {
+    }
+
+    /**
+     * build a graph with an edge for every record, on the threads of 'pool' if there are at least
+     * PARALLEL_THRESHOLD records and on the calling thread otherwise
+     *
+     * @param records the records of the edges
+     * @param parent the function giving the parent node of the edge of a record
+     * @param child the function giving the child node of the edge of a record
+     * @param label the function giving the label of the edge of a record
+     * @param pool the pool whose threads build the graph, the functions are called on them
+     * @param <R> the type of the records
+     * @param <Node> the type of the node
+     * @param <Label> the type of the edge label
+     * @return a new graph with the parent and child of every record as nodes, and the edges of every record
+     * @spec.requires no argument is null, the functions are thread-safe and never return null
+     */
+    public static <R, Node, Label> Graph<Node, Label> build(List<R> records,
+                                                           Function<? super R, ? extends Node> parent,
+                                                           Function<? super R, ? extends Node> child,
+                                                           Function<? super R, ? extends Label> label,
+                                                           ForkJoinPool pool) {
+        if (records.size() < PARALLEL_THRESHOLD) {
+            return new GraphBuilder<Node, Label>().addEdges(records, parent, child, label).build();
+        }
+        int slices = Math.min(pool.getParallelism() * 4, records.size() / SLICE_SIZE);
+        int partitions = pool.getParallelism();
+
+        // fragments.get(slice).get(partition) holds the edges of a slice whose parent is in the partition,
+        // and the children in the partition whose parent is not
+        List<List<List<Fragment<Node, Label>>>> fragments = new ArrayList<>(slices);
+        for (int s = 0; s < slices; s++) {
+            List<List<Fragment<Node, Label>>> slice = new ArrayList<>(partitions);
+            for (int p = 0; p < partitions; p++) {
+                slice.add(new ArrayList<>());
+            }
+            fragments.add(slice);
+        }
+        List<RecursiveAction> tasks = new ArrayList<>();
+        for (int s = 0; s < slices; s++) {
+            List<List<Fragment<Node, Label>>> own = fragments.get(s);
+            int from = (int) ((long) records.size() * s / slices);
+            int to = (int) ((long) records.size() * (s + 1) / slices);
+            tasks.add(action(() -> {
+                for (R record : records.subList(from, to)) {
+                    Node p = parent.apply(record);
+                    Node c = child.apply(record);
+                    int partition = partition(p, partitions);
+                    own.get(partition).add(new Fragment<>(p, c, label.apply(record)));
+                    if (partition(c, partitions) != partition) {
+                        own.get(partition(c, partitions)).add(new Fragment<>(c, null, null));
+                    }
+                }
+            }));
+        }
+        pool.invoke(all(tasks));
+
+        List<Map<Node, Map<Node, Set<Label>>>> adjacency = new ArrayList<>(Collections.nCopies(partitions, null));
+        tasks.clear();
+        for (int p = 0; p < partitions; p++) {
+            int partition = p;
+            tasks.add(action(() -> {
+                Map<Node, Map<Node, Set<Label>>> own = new HashMap<>();
+                for (List<List<Fragment<Node, Label>>> slice : fragments) {
+                    for (Fragment<Node, Label> fragment : slice.get(partition)) {
+                        Map<Node, Set<Label>> children = own.computeIfAbsent(fragment.node, n -> new HashMap<>(4));
+                        if (fragment.child != null) {
+                            children.computeIfAbsent(fragment.child, n -> new HashSet<>(2)).add(fragment.label);
+                            if (partition(fragment.child, partitions) == partition) {
+                                own.computeIfAbsent(fragment.child, n -> new HashMap<>(4));
+                            }
+                        }
+                    }
+                }
+                // every task sets only its own entry, and invoke waits for all of them
+                adjacency.set(partition, own);
+            }));
+        }
+        pool.invoke(all(tasks));
+
+        if (partitions == 1) {
+            return new Graph<>(adjacency.get(0));
+        }
+        int nodeCount = 0;
+        for (Map<Node, Map<Node, Set<Label>>> own : adjacency) {
+            nodeCount += own.size();
+        }
+        Map<Node, Map<Node, Set<Label>>> graph = new HashMap<>(nodeCount * 4 / 3 + 1);
+        for (Map<Node, Map<Node, Set<Label>>> own : adjacency) {
+            graph.putAll(own);
+        }
+        return new Graph<>(graph);
+    }
+
+    /**
+     * an edge sorted into the partition of its parent node, or a child node sorted into its own partition
+     * @param <Node> the type of the node
+     * @param <Label> the type of the edge label
+     */
+    private static final class Fragment<Node, Label> {
+        /** the node in the partition, the parent of the edge */
+        private final Node node;
+
+        /** the child of the edge, null if this only adds node */
+        private final Node child;
+
+        /** the label of the edge, null if this only adds node */
+        private final Label label;
+
+        private Fragment(Node node, Node child, Label label) {
+            this.node = node;
+            this.child = child;
+            this.label = label;
+        }
+    }
+
+    /**
+     * @return the partition of a node, nodes are spread over the partitions by their hash code
+     */
+    private static int partition(Object node, int partitions) {
+        int h = node.hashCode() * 0x9E3779B9;
+        return (int) (((h ^ (h >>> 16)) & 0xFFFFFFFFL) % partitions);
+    }
+
+    /**
+     * @return a task running 'work'
+     */
+    private static RecursiveAction action(Runnable work) {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                work.run();
+            }
+        };
+    }
+
+    /**
+     * @return a task running all of 'tasks' in parallel
+     */
+    private static RecursiveAction all(List<RecursiveAction> tasks) {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        };
+    }
+}
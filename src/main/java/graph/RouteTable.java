@@ -0,0 +1,294 @@
+package graph;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * RouteTable holds the shortest paths between every pair of a few endpoint nodes of an indexed graph,
+ * so they are looked up instead of searched for
+ *
+ * One single-source search is run from every endpoint, on the threads of a pool, until it has settled every
+ * endpoint. The distances between endpoints are kept in a dense matrix, and the paths from every endpoint as the
+ * edge each node was reached by, one int per node of the graph, so the table takes about 4 * endpoints * nodes
+ * bytes and suits graphs with few endpoints or few nodes. estimateBytes() gives the size before it is built.
+ * Every thread of the pool keeps one SearchContext for all of its searches, so a search allocates only its result.
+ * Lookups may run on many threads at once.
+ *
+ * @param <Node> the type of the node
+ */
+public class RouteTable<Node> {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the bytes of an array header */
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    /** the graph whose paths are held */
+    private final IndexedGraph<Node> graph;
+
+    /** the node id of every endpoint */
+    private final int[] endpoints;
+
+    /** the position of every endpoint in endpoints */
+    private final Map<Node, Integer> endpointIndex;
+
+    /** the parent node id of every edge of graph */
+    private final int[] edgeParent;
+
+    /** the distance from endpoint i to endpoint j at distances[i][j], infinity if there is no path */
+    private final double[][] distances;
+
+    /** the edge node n was reached by from endpoint i at predEdges[i][n], -1 for the endpoint and unreached nodes */
+    private final int[][] predEdges;
+
+    /** the nanoseconds the searches took */
+    private final long buildNanos;
+
+    // Representation Invariant for every RouteTable t:
+    // all fields != null, endpoints holds distinct node ids of graph, and endpointIndex maps the node of
+    // endpoints[i] to i and holds nothing else
+    // edgeParent.length == graph.edgeCount() and graph.edgeStart(edgeParent[e]) <= e < graph.edgeEnd(edgeParent[e])
+    // distances is endpoints.length by endpoints.length, with 0 on the diagonal and non-negative entries
+    // predEdges has endpoints.length arrays of graph.size() entries, following predEdges[i] from any endpoint j
+    // with a finite distances[i][j] leads back to endpoints[i] along a path weighing distances[i][j]
+    // buildNanos >= 0
+    //
+    // Abstract Function:
+    // AF(t) = for every pair of endpoints i, j with a path, the shortest path from endpoints[i] to endpoints[j]
+    //         ending with edge predEdges[i][endpoints[j]], preceded by the path to edgeParent of that edge
+
+    /**
+     * @spec.effects create a new table from its parts, the arrays are not copied
+     */
+    private RouteTable(IndexedGraph<Node> graph, int[] endpoints, Map<Node, Integer> endpointIndex,
+                       int[] edgeParent, double[][] distances, int[][] predEdges, long buildNanos) {
+        this.graph = graph;
+        this.endpoints = endpoints;
+        this.endpointIndex = endpointIndex;
+        this.edgeParent = edgeParent;
+        this.distances = distances;
+        this.predEdges = predEdges;
+        this.buildNanos = buildNanos;
+        checkRep();
+    }
+
+    /**
+     * search the shortest paths between every pair of endpoints, one endpoint at a time on every thread of a pool
+     *
+     * @param graph the graph whose paths are held
+     * @param endpoints the nodes whose paths to each other are held, duplicates are held once
+     * @param pool the pool whose threads search the paths
+     * @param <Node> the type of the node
+     * @return a new table of the shortest paths between 'endpoints' in 'graph'
+     * @throws IllegalArgumentException if an endpoint is not a node of 'graph'
+     * @spec.requires graph != null ; endpoints != null ; pool != null, every weight of graph is non-negative,
+     * graph is not changed afterwards
+     */
+    public static <Node> RouteTable<Node> build(IndexedGraph<Node> graph, Collection<? extends Node> endpoints,
+                                                ForkJoinPool pool) {
+        long start = System.nanoTime();
+        Map<Node, Integer> endpointIndex = new LinkedHashMap<>();
+        for (Node endpoint : endpoints) {
+            if (!graph.hasNode(endpoint)) {
+                throw new IllegalArgumentException("endpoint is not a node of the graph");
+            }
+            endpointIndex.putIfAbsent(endpoint, endpointIndex.size());
+        }
+        int[] ids = new int[endpointIndex.size()];
+        for (Map.Entry<Node, Integer> entry : endpointIndex.entrySet()) {
+            ids[entry.getValue()] = graph.idOf(entry.getKey());
+        }
+        int[] edgeParent = new int[graph.edgeCount()];
+        for (int n = 0; n < graph.size(); n++) {
+            Arrays.fill(edgeParent, graph.edgeStart(n), graph.edgeEnd(n), n);
+        }
+
+        boolean[] isEndpoint = new boolean[graph.size()];
+        for (int id : ids) {
+            isEndpoint[id] = true;
+        }
+        double[][] distances = new double[ids.length][];
+        int[][] predEdges = new int[ids.length][];
+        ThreadLocal<SearchContext> contexts = ThreadLocal.withInitial(() -> new SearchContext(graph.size()));
+        pool.invoke(new CompactGraph.RangeAction(0, ids.length, 1, i -> {
+            predEdges[i] = new int[graph.size()];
+            distances[i] = search(graph, ids, isEndpoint, i, predEdges[i], contexts.get());
+        }));
+        return new RouteTable<>(graph, ids, endpointIndex, edgeParent, distances, predEdges,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * estimate the bytes of the heap a table of a graph would hold, without building it
+     *
+     * @param graph the graph whose paths would be held
+     * @param endpointCount the number of distinct endpoints
+     * @return the estimated bytes of the distance matrix and the predecessor arrays of the table
+     * @spec.requires graph != null ; endpointCount &gt;= 0
+     */
+    public static long estimateBytes(IndexedGraph<?> graph, int endpointCount) {
+        long matrix = (long) endpointCount * (ARRAY_HEADER_BYTES + 8L * endpointCount);
+        long preds = (long) endpointCount * (ARRAY_HEADER_BYTES + 4L * graph.size());
+        return matrix + preds + ARRAY_HEADER_BYTES + 4L * graph.edgeCount() + 4L * endpointCount;
+    }
+
+    /**
+     * @return the graph whose paths are held
+     */
+    public IndexedGraph<Node> graph() {
+        return graph;
+    }
+
+    /**
+     * @return the number of distinct endpoints
+     */
+    public int endpointCount() {
+        return endpoints.length;
+    }
+
+    /**
+     * @return the nanoseconds the searches took, from the first search to the last
+     */
+    public long buildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * @return the estimated bytes of the heap held by this, as estimateBytes() gives
+     */
+    public long heapBytes() {
+        return estimateBytes(graph, endpoints.length);
+    }
+
+    /**
+     * @param node the node being looked up
+     * @return true iff 'node' is an endpoint of this
+     */
+    public boolean isEndpoint(Node node) {
+        return endpointIndex.containsKey(node);
+    }
+
+    /**
+     * look up the distance of the shortest path between two endpoints
+     *
+     * @param start the start of the path
+     * @param end the end of the path
+     * @return the total weight of the shortest path from 'start' to 'end', infinity if there is none
+     * @throws IllegalArgumentException if 'start' or 'end' is not an endpoint
+     */
+    public double distance(Node start, Node end) {
+        return distances[index(start)][index(end)];
+    }
+
+    /**
+     * look up the shortest path between two endpoints, passing its edges to a visitor in path order
+     *
+     * @param start the start of the path
+     * @param end the end of the path
+     * @param step the visitor receiving the child node and weight of every edge of the path
+     * @return true iff there is a path from 'start' to 'end', 'step' is not called if there is none
+     * @throws IllegalArgumentException if 'start' or 'end' is not an endpoint
+     */
+    public boolean route(Node start, Node end, DoubleEdgeVisitor<? super Node> step) {
+        int i = index(start);
+        int j = index(end);
+        if (distances[i][j] == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+        int[] pred = predEdges[i];
+        int length = 0;
+        for (int n = endpoints[j]; pred[n] != -1; n = edgeParent[pred[n]]) {
+            length++;
+        }
+        // the edges are found from the end back, so they are written into the buffer from its end
+        int[] edges = new int[length];
+        for (int n = endpoints[j]; pred[n] != -1; n = edgeParent[pred[n]]) {
+            edges[--length] = pred[n];
+        }
+        for (int e : edges) {
+            step.visit(graph.nodeAt(graph.target(e)), graph.weight(e));
+        }
+        return true;
+    }
+
+    /**
+     * @return the position of an endpoint
+     * @throws IllegalArgumentException if 'node' is not an endpoint
+     */
+    private int index(Node node) {
+        Integer i = endpointIndex.get(node);
+        if (i == null) {
+            throw new IllegalArgumentException("node is not an endpoint");
+        }
+        return i;
+    }
+
+    /**
+     * search the graph from endpoint source until every endpoint is settled
+     *
+     * @param isEndpoint whether every node id is an endpoint
+     * @param pred the array receiving the edge every node was reached by, -1 for source and unreached nodes
+     * @param context the working memory of the search, cleared before it is returned
+     * @return the distance from endpoint source to every endpoint
+     */
+    private static double[] search(IndexedGraph<?> graph, int[] endpoints, boolean[] isEndpoint, int source,
+                                   int[] pred, SearchContext context) {
+        Arrays.fill(pred, -1);
+        IndexedDoubleHeap active = context.queue(SearchContext.FORWARD);
+        active.insert(endpoints[source], 0);
+        context.reach(SearchContext.FORWARD, endpoints[source], 0, -1, -1);
+        int unsettled = endpoints.length;
+        while (!active.isEmpty() && unsettled > 0) {
+            double distance = active.peekKey();
+            int n = active.poll();
+            if (isEndpoint[n]) {
+                unsettled--;
+            }
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                int child = graph.target(e);
+                double cost = distance + graph.weight(e);
+                if (active.offer(child, cost)) {
+                    context.reach(SearchContext.FORWARD, child, cost, n, e);
+                    pred[child] = e;
+                }
+            }
+        }
+        double[] distances = new double[endpoints.length];
+        for (int j = 0; j < endpoints.length; j++) {
+            distances[j] = context.distance(SearchContext.FORWARD, endpoints[j]);
+        }
+        context.clear();
+        return distances;
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert graph != null && endpoints != null && endpointIndex != null : "parts cannot be null";
+        assert edgeParent != null && distances != null && predEdges != null : "parts cannot be null";
+        assert endpointIndex.size() == endpoints.length : "every endpoint must have an index";
+        assert distances.length == endpoints.length && predEdges.length == endpoints.length
+                : "every endpoint must have its paths";
+        assert buildNanos >= 0 : "build time cannot be negative";
+
+        if (RUN_CHECK_REP) {
+            for (Map.Entry<Node, Integer> entry : endpointIndex.entrySet()) {
+                assert graph.idOf(entry.getKey()) == endpoints[entry.getValue()] : "index must match endpoint";
+            }
+            for (int i = 0; i < endpoints.length; i++) {
+                assert distances[i][i] == 0 : "an endpoint is at itself";
+                for (int j = 0; j < endpoints.length; j++) {
+                    if (distances[i][j] == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    double weight = 0;
+                    for (int n = endpoints[j]; predEdges[i][n] != -1; n = edgeParent[predEdges[i][n]]) {
+                        assert graph.target(predEdges[i][n]) == n : "a path edge must end at its node";
+                        weight += graph.weight(predEdges[i][n]);
+                    }
+                    assert Math.abs(weight - distances[i][j]) <= 1e-9 * Math.max(1, weight) : "a path weighs its distance";
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * SearchContext is the working memory of a shortest path search on an indexed graph, kept from one search to the next
+ *
+ * It holds a queue, the distance, predecessor and predecessor edge of every node id for each of the two sides of a
+ * search, forward from the start and backward from the end, and the estimated distance to the end of every node id.
+ * Every id written since the last clear() is remembered, so clear() takes time in the number of those ids rather
+ * than in the capacity, and a thread running many searches allocates nothing per search.
+ * The context takes about 85 bytes per id with its queues. It may only be used by one thread at a time.
+ */
+public class SearchContext {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the side of a search that goes forward from its start */
+    public static final int FORWARD = 0;
+
+    /** the side of a search that goes backward from its end along the reversed edges */
+    public static final int BACKWARD = 1;
+
+    /** the queue of every side */
+    private final IndexedDoubleHeap[] queues;
+
+    /** the distance of every id from the root of every side, infinity if it was not reached */
+    private final double[][] distances;
+
+    /** the id every id was reached from on every side, -1 if it was not reached */
+    private final int[][] pred;
+
+    /** the edge every id was reached by on every side, -1 if it was not reached */
+    private final int[][] predEdge;
+
+    /** the estimated distance from every id to the end, NaN if it was not estimated */
+    private final double[] estimates;
+
+    /** the ids written since the last clear, in the order they were first written */
+    private final int[] touched;
+
+    /** the number of ids written since the last clear */
+    private int touchedCount;
+
+    /** whether every id was written since the last clear */
+    private final boolean[] isTouched;
+
+    // Representation Invariant for every SearchContext c:
+    // queues, distances, pred and predEdge have 2 entries, each of them and estimates, touched and isTouched have
+    // capacity entries, 0 <= touchedCount <= capacity
+    // touched[0 .. touchedCount - 1] are the distinct ids n with isTouched[n]
+    // for every id n with !isTouched[n], distances[side][n] is infinity, pred[side][n] and predEdge[side][n] are -1
+    // for every side, and estimates[n] is NaN
+    //
+    // Abstract Function:
+    // AF(c) = for every side, the queue queues[side] and the ids n with a finite distances[side][n], each reached
+    //         at that distance from pred[side][n] by edge predEdge[side][n], and the ids n with a number
+    //         estimates[n], each estimated at that distance from the end
+
+    /**
+     * @param capacity one more than the largest node id of the graphs searched
+     * @throws IllegalArgumentException if capacity &lt; 0
+     * @spec.effects create a new context in which no id is reached or estimated and both queues are empty
+     */
+    public SearchContext(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity cannot be negative");
+        }
+        queues = new IndexedDoubleHeap[] {new IndexedDoubleHeap(capacity), new IndexedDoubleHeap(capacity)};
+        distances = new double[2][capacity];
+        pred = new int[2][capacity];
+        predEdge = new int[2][capacity];
+        estimates = new double[capacity];
+        touched = new int[capacity];
+        isTouched = new boolean[capacity];
+        for (int side = FORWARD; side <= BACKWARD; side++) {
+            Arrays.fill(distances[side], Double.POSITIVE_INFINITY);
+            Arrays.fill(pred[side], -1);
+            Arrays.fill(predEdge[side], -1);
+        }
+        Arrays.fill(estimates, Double.NaN);
+        checkRep();
+    }
+
+    /**
+     * @return one more than the largest node id this holds
+     */
+    public int capacity() {
+        return touched.length;
+    }
+
+    /**
+     * @param side FORWARD or BACKWARD
+     * @return the queue of 'side', which the caller may change
+     */
+    public IndexedDoubleHeap queue(int side) {
+        return queues[side];
+    }
+
+    /**
+     * @param side FORWARD or BACKWARD
+     * @param id the node id
+     * @return the distance 'id' was reached at on 'side', infinity if it was not reached
+     */
+    public double distance(int side, int id) {
+        return distances[side][id];
+    }
+
+    /**
+     * @param side FORWARD or BACKWARD
+     * @param id the node id
+     * @return the node id 'id' was reached from on 'side', -1 if it was not reached or is the root
+     */
+    public int pred(int side, int id) {
+        return pred[side][id];
+    }
+
+    /**
+     * @param side FORWARD or BACKWARD
+     * @param id the node id
+     * @return the edge 'id' was reached by on 'side', -1 if it was not reached or is the root
+     */
+    public int predEdge(int side, int id) {
+        return predEdge[side][id];
+    }
+
+    /**
+     * record that a node id was reached on one side
+     *
+     * @param side FORWARD or BACKWARD
+     * @param id the node id reached
+     * @param distance the distance 'id' was reached at
+     * @param from the node id 'id' was reached from, -1 for the root
+     * @param edge the edge 'id' was reached by, -1 for the root
+     * @spec.modifies this
+     * @spec.effects 'id' is reached at 'distance' from 'from' by 'edge' on 'side'
+     */
+    public void reach(int side, int id, double distance, int from, int edge) {
+        touch(id);
+        distances[side][id] = distance;
+        pred[side][id] = from;
+        predEdge[side][id] = edge;
+    }
+
+    /**
+     * @param id the node id
+     * @return the estimated distance from 'id' to the end, NaN if it was not estimated
+     */
+    public double estimate(int id) {
+        return estimates[id];
+    }
+
+    /**
+     * record the estimated distance from a node id to the end
+     *
+     * @param id the node id estimated
+     * @param estimate the estimated distance from 'id' to the end
+     * @spec.modifies this
+     * @spec.effects 'id' is estimated at 'estimate'
+     */
+    public void estimate(int id, double estimate) {
+        touch(id);
+        estimates[id] = estimate;
+    }
+
+    /**
+     * forget every reached and estimated id and empty both queues, in time proportional to the ids written
+     * since the last clear
+     *
+     * @spec.modifies this
+     * @spec.effects make this as if newly created
+     */
+    public void clear() {
+        for (int i = 0; i < touchedCount; i++) {
+            int id = touched[i];
+            for (int side = FORWARD; side <= BACKWARD; side++) {
+                distances[side][id] = Double.POSITIVE_INFINITY;
+                pred[side][id] = -1;
+                predEdge[side][id] = -1;
+            }
+            estimates[id] = Double.NaN;
+            isTouched[id] = false;
+        }
+        touchedCount = 0;
+        queues[FORWARD].clear();
+        queues[BACKWARD].clear();
+        checkRep();
+    }
+
+    /**
+     * remember that id was written, so clear() resets it
+     */
+    private void touch(int id) {
+        if (!isTouched[id]) {
+            isTouched[id] = true;
+            touched[touchedCount++] = id;
+        }
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert queues.length == 2 && distances.length == 2 && pred.length == 2 && predEdge.length == 2
+                : "there must be two sides";
+        assert 0 <= touchedCount && touchedCount <= touched.length : "touched ids must fit the capacity";
+
+        if (RUN_CHECK_REP) {
+            int written = 0;
+            for (int id = 0; id < touched.length; id++) {
+                if (isTouched[id]) {
+                    written++;
+                    continue;
+                }
+                for (int side = FORWARD; side <= BACKWARD; side++) {
+                    assert distances[side][id] == Double.POSITIVE_INFINITY && pred[side][id] == -1
+                            && predEdge[side][id] == -1 : "an untouched id must be unreached";
+                }
+                assert Double.isNaN(estimates[id]) : "an untouched id must be unestimated";
+            }
+            assert written == touchedCount : "every written id must be touched";
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package graph;
+
+/**
+ * ShortestPathTree holds the shortest paths from one source node to every node of an indexed graph
+ *
+ * One search settles every node reachable from the source, keeping the distance of every node and the edge it
+ * was reached by, so the path to any node is found by walking those edges back to the source, in time
+ * proportional to its length. The tree takes 16 bytes per node of the graph.
+ * Lookups may run on many threads at once.
+ *
+ * @param <Node> the type of the node
+ */
+public class ShortestPathTree<Node> {
+    private static final boolean RUN_CHECK_REP = false; // indicate whether checkRep() is enabled
+
+    /** the graph whose paths are held */
+    private final IndexedGraph<Node> graph;
+
+    /** the node id of the source */
+    private final int source;
+
+    /** the distance from source to every node id, infinity if there is no path */
+    private final double[] distances;
+
+    /** the node id every node was reached from, -1 for source and unreached nodes */
+    private final int[] pred;
+
+    /** the edge every node was reached by, -1 for source and unreached nodes */
+    private final int[] predEdge;
+
+    // Representation Invariant for every ShortestPathTree t:
+    // graph != null, distances, pred and predEdge have graph.size() entries, 0 <= source < graph.size()
+    // distances[source] == 0 and pred[source] == -1
+    // for every node n != source with a finite distance, pred[n] has a finite distance,
+    // graph.edgeStart(pred[n]) <= predEdge[n] < graph.edgeEnd(pred[n]), graph.target(predEdge[n]) == n and
+    // distances[n] == distances[pred[n]] + graph.weight(predEdge[n])
+    //
+    // Abstract Function:
+    // AF(t) = for every node n with a finite distance, the shortest path from source to n ending with edge
+    //         predEdge[n], preceded by the path to pred[n]
+
+    /**
+     * @spec.effects create a new tree from its parts, the arrays are not copied
+     */
+    private ShortestPathTree(IndexedGraph<Node> graph, int source, double[] distances, int[] pred, int[] predEdge) {
+        this.graph = graph;
+        this.source = source;
+        this.distances = distances;
+        this.pred = pred;
+        this.predEdge = predEdge;
+        checkRep();
+    }
+
+    /**
+     * search the shortest paths from a source to every node of a graph
+     *
+     * @param graph the graph whose paths are held
+     * @param source the start of every path
+     * @param <Node> the type of the node
+     * @return a new tree of the shortest paths from 'source' in 'graph'
+     * @throws IllegalArgumentException if 'source' is not a node of 'graph'
+     * @spec.requires graph != null, every weight of graph is non-negative, graph is not changed afterwards
+     */
+    public static <Node> ShortestPathTree<Node> build(IndexedGraph<Node> graph, Node source) {
+        int root = graph.idOf(source);
+        if (root == -1) {
+            throw new IllegalArgumentException("source is not a node of the graph");
+        }
+        double[] distances = new double[graph.size()];
+        int[] pred = new int[graph.size()];
+        int[] predEdge = new int[graph.size()];
+        IndexedDoubleHeap active = new IndexedDoubleHeap(graph.size());
+        active.insert(root, 0);
+        pred[root] = -1;
+        predEdge[root] = -1;
+        while (!active.isEmpty()) {
+            double distance = active.peekKey();
+            int n = active.poll();
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                if (active.offer(graph.target(e), distance + graph.weight(e))) {
+                    pred[graph.target(e)] = n;
+                    predEdge[graph.target(e)] = e;
+                }
+            }
+        }
+        for (int n = 0; n < graph.size(); n++) {
+            if (active.wasPolled(n)) {
+                distances[n] = active.key(n);
+            } else {
+                distances[n] = Double.POSITIVE_INFINITY;
+                pred[n] = -1;
+                predEdge[n] = -1;
+            }
+        }
+        return new ShortestPathTree<>(graph, root, distances, pred, predEdge);
+    }
+
+    /**
+     * @return the graph whose paths are held
+     */
+    public IndexedGraph<Node> graph() {
+        return graph;
+    }
+
+    /**
+     * @return the start of every path held
+     */
+    public Node source() {
+        return graph.nodeAt(source);
+    }
+
+    /**
+     * look up the distance of the shortest path from the source to a node
+     *
+     * @param end the end of the path
+     * @return the total weight of the shortest path from the source to 'end', infinity if there is none
+     * @throws IllegalArgumentException if 'end' is not a node of the graph
+     */
+    public double distance(Node end) {
+        return distances[id(end)];
+    }
+
+    /**
+     * look up the shortest path from the source to a node, passing its edges to a visitor in path order
+     *
+     * @param end the end of the path
+     * @param step the visitor receiving the child node and weight of every edge of the path
+     * @return true iff there is a path from the source to 'end', 'step' is not called if there is none
+     * @throws IllegalArgumentException if 'end' is not a node of the graph
+     */
+    public boolean route(Node end, DoubleEdgeVisitor<? super Node> step) {
+        int target = id(end);
+        if (distances[target] == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+        int length = 0;
+        for (int n = target; n != source; n = pred[n]) {
+            length++;
+        }
+        int[] edges = new int[length];
+        for (int n = target; n != source; n = pred[n]) {
+            edges[--length] = predEdge[n];
+        }
+        for (int e : edges) {
+            step.visit(graph.nodeAt(graph.target(e)), graph.weight(e));
+        }
+        return true;
+    }
+
+    /**
+     * @return the id of a node of graph
+     * @throws IllegalArgumentException if 'node' is not a node of graph
+     */
+    private int id(Node node) {
+        int id = graph.idOf(node);
+        if (id == -1) {
+            throw new IllegalArgumentException("node is not a node of the graph");
+        }
+        return id;
+    }
+
+    /**
+     * throws exception if representation invariant is violated
+     */
+    private void checkRep() {
+        assert graph != null && distances != null && pred != null && predEdge != null : "parts cannot be null";
+        assert distances.length == graph.size() && pred.length == graph.size() && predEdge.length == graph.size()
+                : "every node must have its path";
+        assert 0 <= source && source < graph.size() : "source must be a node of the graph";
+        assert distances[source] == 0 && pred[source] == -1 : "the source is at itself";
+
+        if (RUN_CHECK_REP) {
+            for (int n = 0; n < graph.size(); n++) {
+                if (n == source || distances[n] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                int e = predEdge[n];
+                assert graph.edgeStart(pred[n]) <= e && e < graph.edgeEnd(pred[n]) : "a path edge must leave its parent";
+                assert graph.target(e) == n : "a path edge must end at its node";
+                assert distances[n] == distances[pred[n]] + graph.weight(e) : "a node is one edge past its parent";
+            }
+        }
+    }
+}
@@ -17,7 +17,15 @@ import graph.*;
 import pathfinder.parser.CampusPath;
 import pathfinder.parser.CampusPathsParser;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
 
 /*
 In the pathfinder homework, the text user interface calls these methods to talk
@@ -41,12 +49,123 @@ public class ModelConnector {
   //                && buildingCoordinates != null
   //                && shortToLong != null
   //                && every child is a node of the graph
+  //                && compactGraph != null
+  //                && compactGraph has the same nodes and edges as graph when graph.version() == compactVersion
+  //                && closedPaths != null
+  //                && hierarchy is the contraction hierarchy of compactGraph if strategy is CONTRACTION_HIERARCHY, else null
+  //                && routeTable is null or holds the routes between every building of compactGraph
+  //                && routeTableBudget >= -1
+  //                && labels is null iff routeTable != null, and otherwise completes with the hub labels of compactGraph
+  //                && trees != null and holds at most TREE_CACHE_SIZE trees of compactGraph, each keyed by its source,
+  //                   some of them still being searched
+  //                && landmarks are landmarks of compactGraph if strategy is ALT, else null
+  //                && reversedGraph is the transpose of compactGraph if strategy is BIDIRECTIONAL, else null
+  //                && searchContexts != null and every context it gives holds compactGraph.size() node ids
+  //                && no edge of compactGraph is shorter than heuristicScale times the distance between its coordinates
   //
   // AF(this) = each node in graph holds a coordinates on the campus, and connected to other coordinates with distance as label
   //            Some coordinates are campus buildings which are stored in buildingCoordinates
+  //            compactGraph is a read-only copy of graph that path queries run against until graph is modified
+  //            closedPaths holds the labels of every closed path, keyed by [start, end], so it can be reopened
 
-  /** the graph of the campus with locations as node */
-  private Graph<Point, Double> graph;
+  /** the graph of the campus with locations as node, paths may be closed and reopened while versions of it are searched */
+  private ConcurrentGraph<Point, Double> graph;
+
+  /** the system property naming the file the read-only graph is memory-mapped from, kept on the heap if unset */
+  public static final String GRAPH_FILE_PROPERTY = "pathfinder.graph.file";
+
+  /**
+   * the system property naming the file the contraction hierarchy is read from, written there when the file is
+   * missing or was built from other campus data, and built at every start if unset
+   */
+  public static final String HIERARCHY_FILE_PROPERTY = "pathfinder.hierarchy.file";
+
+  /**
+   * the system property naming the file the landmark distances are read from, written there when the file is
+   * missing or was built from other campus data, and searched at every start if unset
+   */
+  public static final String LANDMARKS_FILE_PROPERTY = "pathfinder.landmarks.file";
+
+  /**
+   * the system property naming the file the hub labels answering distance queries are read from, written there
+   * when the file is missing or was built from another contraction hierarchy, and built at the first query if unset
+   */
+  public static final String LABELS_FILE_PROPERTY = "pathfinder.labels.file";
+
+  /**
+   * the system property giving the megabytes the table of routes between every pair of buildings may take,
+   * which is built at startup if it fits, and not built if the property is unset
+   */
+  public static final String ROUTE_TABLE_BUDGET_PROPERTY = "pathfinder.routes.budget";
+
+  /** the bytes of a megabyte */
+  private static final long MEGABYTE = 1024 * 1024;
+
+  /** the number of landmarks ALT searches estimate distances by */
+  private static final int LANDMARK_COUNT = 16;
+
+  /** the number of shortest path trees kept for the most recent fan-out starts, each 16 bytes per location */
+  private static final int TREE_CACHE_SIZE = 64;
+
+  /** the coordinates of the campus locations */
+  private static final NodeCoordinates<Point> POINT_COORDINATES = new NodeCoordinates<>() {
+    @Override
+    public double x(Point p) {
+      return p.getX();
+    }
+
+    @Override
+    public double y(Point p) {
+      return p.getY();
+    }
+
+    @Override
+    public Point at(double x, double y) {
+      return new Point(x, y);
+    }
+  };
+
+  /** the read-only compact snapshot of graph used to answer path queries */
+  private IndexedGraph<Point> compactGraph;
+
+  /** the transpose of compactGraph that bidirectional searches walk backward on, null for other strategies */
+  private IndexedGraph<Point> reversedGraph;
+
+  /** the contraction hierarchy of compactGraph that hierarchy searches run on, null for other strategies */
+  private ContractionHierarchy<Point> hierarchy;
+
+  /** the routes between every pair of buildings in compactGraph, null if the table is off or over budget */
+  private RouteTable<Point> routeTable;
+
+  /** the bytes the route table may take, -1 if it is off */
+  private final long routeTableBudget;
+
+  /**
+   * the hub labels of compactGraph that distance queries merge, built on a background thread after construction,
+   * null if the route table answers distance queries
+   */
+  private final CompletableFuture<HubLabels<Point>> labels;
+
+  /**
+   * the shortest path trees of compactGraph from the most recently used starts, in order of last use, each done
+   * once its search finishes. Guarded by its own lock, which is never held while a tree is searched
+   */
+  private final Map<Point, CompletableFuture<ShortestPathTree<Point>>> trees;
+
+  /** the landmarks of compactGraph that ALT searches estimate distances by, null for other strategies */
+  private Landmarks<Point> landmarks;
+
+  /** the working memory of the searches of compactGraph run on every thread, reused from one query to the next */
+  private final ThreadLocal<SearchContext> searchContexts;
+
+  /** the factor from the straight line distance between two locations to the shortest distance between them */
+  private double heuristicScale;
+
+  /** the version of graph that compactGraph has the same nodes and edges as */
+  private volatile long compactVersion;
+
+  /** the labels of the closed paths, keyed by the start and end of the path */
+  private Map<List<Point>, Set<Double>> closedPaths;
 
   /** the short name of the buildings map to its coordinates */
   private Map<String, Point> buildingCoordinates;
@@ -54,19 +173,53 @@ public class ModelConnector {
   /** the short name of the building map to its full name */
   private Map<String, String> shortToLong;
 
+  /** how much of the rep invariant checkRep checks */
+  private final ValidationMode validation;
+
+  /** how path queries search the read-only graph */
+  private final SearchStrategy strategy;
+
+  /** the number of locations whose paths a sampled check looks at */
+  private static final int SAMPLE_SIZE = 4;
+
   /**
    * Creates a new {@link ModelConnector} and initializes it to contain data about
    * pathways and buildings or locations of interest on the campus of the University
    * of Washington, Seattle. When this constructor completes, the dataset is loaded
    * and prepared, and any method may be called on this object to query the data.
+   * The rep invariant is checked as chosen by the {@value ValidationMode#PROPERTY} system property,
+   * and paths are searched as chosen by the {@value SearchStrategy#PROPERTY} system property.
    */
   public ModelConnector() {
+    this(ValidationMode.configured());
+  }
+
+  /**
+   * Creates a new {@link ModelConnector} like {@link #ModelConnector()}, checking the rep invariant
+   * as chosen by {@code validation}.
+   *
+   * @param validation how much of the rep invariant to check, and when
+   */
+  public ModelConnector(ValidationMode validation) {
+    this(validation, SearchStrategy.configured());
+  }
+
+  /**
+   * Creates a new {@link ModelConnector} like {@link #ModelConnector()}, checking the rep invariant
+   * as chosen by {@code validation} and searching paths as chosen by {@code strategy}.
+   *
+   * @param validation how much of the rep invariant to check, and when
+   * @param strategy how to search for shortest paths
+   */
+  public ModelConnector(ValidationMode validation, SearchStrategy strategy) {
     // Remember the tenets of design that you've learned. You shouldn't necessarily do everything
     // you need for the model in this one constructor, factor code out to helper methods or
     // classes to work with your design best. The only thing that needs to remain the
     // same is the name of this class and the four method signatures below, because the
     // Pathfinder application calls these methods in order to talk to your model.
     // Change and add anything else as you'd like.
+    this.validation = validation;
+    this.strategy = strategy;
     buildingCoordinates = new HashMap<>();
     shortToLong = new HashMap<>();
     List<CampusBuilding> buildingsInfo = CampusPathsParser.parseCampusBuildings();
@@ -80,37 +233,265 @@ public class ModelConnector {
       }
     }
 
-    graph = buildGraph(CampusPathsParser.parseCampusPaths());
-    checkRep();
+    List<CampusPath> campusPaths = CampusPathsParser.parseCampusPaths();
+    Graph<Point, Double> campus = buildGraph(campusPaths);
+    graph = ConcurrentGraph.copyOf(campus);
+    compactGraph = freeze(campus, fingerprint(campusPaths));
+    // campus distances are in feet and coordinates in pixels, the scale converts one to the other
+    heuristicScale = SearchPath.heuristicScale(compactGraph, POINT_COORDINATES);
+    int nodeCount = compactGraph.size();
+    searchContexts = ThreadLocal.withInitial(() -> new SearchContext(nodeCount));
+    if (strategy == SearchStrategy.BIDIRECTIONAL) {
+      reversedGraph = CompactGraph.transposeOf(compactGraph);
+    }
+    if (strategy == SearchStrategy.CONTRACTION_HIERARCHY) {
+      hierarchy = contract(compactGraph);
+    }
+    if (strategy == SearchStrategy.ALT) {
+      landmarks = chooseLandmarks(compactGraph);
+    }
+    routeTableBudget = routeTableBudget();
+    if (routeTableBudget >= 0
+        && RouteTable.estimateBytes(compactGraph, new HashSet<>(buildingCoordinates.values()).size()) <= routeTableBudget) {
+      routeTable = RouteTable.build(compactGraph, buildingCoordinates.values(), ForkJoinPool.commonPool());
+    }
+    // compactGraph never changes, so a tree stays valid for as long as it is kept
+    trees = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Point, CompletableFuture<ShortestPathTree<Point>>> eldest) {
+        return size() > TREE_CACHE_SIZE;
+      }
+    };
+    compactVersion = graph.version();
+    closedPaths = new HashMap<>();
+    // every field the labels are built from is set, distance queries search until they are done
+    labels = routeTable == null ? CompletableFuture.supplyAsync(this::buildLabels, ModelConnector::labelThread) : null;
+    checkRepFully();
   }
 
   /**
-   * build a graph of the campus from the list of coordinates
+   * make the read-only copy of the campus graph that path queries run against, memory-mapped from the
+   * file named by the GRAPH_FILE_PROPERTY system property if it is set, so it is shared between processes.
+   * A file written from the same campus paths is mapped without building the copy on the heap.
+   * Locations are numbered along a Hilbert curve, so the locations a search reaches one after another
+   * are mostly stored close together
    *
-   * @param coordinates the list of coordinates being used as graph data
-   * @return a new graph with all the coordinates connected appropriately
+   * @param campus the graph of the campus
+   * @param source the fingerprint of the campus paths {@code campus} was built from
+   * @return a new read-only graph with the same nodes and edges as {@code campus}
+   * @throws UncheckedIOException if the graph file cannot be written or read
    */
-  private static Graph<Point, Double> buildGraph(List<CampusPath> coordinates) {
-    Graph<Point, Double> graph = new Graph<>();
+  private static IndexedGraph<Point> freeze(Graph<Point, Double> campus, long source) {
+    String file = System.getProperty(GRAPH_FILE_PROPERTY);
+    if (file == null) {
+      return compact(campus);
+    }
+    java.nio.file.Path path = Paths.get(file);
+    if (Files.exists(path)) {
+      try {
+        return MappedGraph.open(path, POINT_COORDINATES, source);
+      } catch (IOException e) {
+        // the file was written from other campus paths or is damaged, replace it
+      }
+    }
+    try {
+      MappedGraph.write(compact(campus), POINT_COORDINATES, path, source);
+      return MappedGraph.open(path, POINT_COORDINATES, source);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot map campus graph.", e);
+    }
+  }
+
+  /**
+   * @param campus the graph of the campus
+   * @return a new read-only graph on the heap with the same nodes and edges as {@code campus},
+   * its locations numbered along a Hilbert curve
+   */
+  private static CompactGraph<Point> compact(Graph<Point, Double> campus) {
+    return CompactGraph.of(campus, Double::doubleValue, ForkJoinPool.commonPool()).spatiallyOrdered(POINT_COORDINATES);
+  }
+
+  /**
+   * @param campusPaths the campus paths being fingerprinted
+   * @return a fingerprint of the ends and distance of every path, which differs if any of them changes
+   */
+  private static long fingerprint(List<CampusPath> campusPaths) {
+    long hash = campusPaths.size();
+    for (CampusPath campusPath : campusPaths) {
+      for (double value : new double[] {campusPath.getX1(), campusPath.getY1(), campusPath.getX2(),
+          campusPath.getY2(), campusPath.getDistance()}) {
+        hash = hash * 31 + Double.doubleToLongBits(value);
+      }
+    }
+    return hash;
+  }
 
-    // {inv: n from 0 to (i-1), coordinates.get(n) is a node of graph
-    for (CampusPath campusPath : coordinates) {
-      Point start = new Point(campusPath.getX1(), campusPath.getY1());
-      Point end = new Point(campusPath.getX2(), campusPath.getY2());
+  /**
+   * build the contraction hierarchy of the read-only campus graph, or read it from the file named by the
+   * HIERARCHY_FILE_PROPERTY system property if it was built there for the same graph
+   *
+   * @param campus the read-only graph of the campus
+   * @return the contraction hierarchy of {@code campus}
+   * @throws UncheckedIOException if the hierarchy file cannot be written
+   */
+  private static ContractionHierarchy<Point> contract(IndexedGraph<Point> campus) {
+    String file = System.getProperty(HIERARCHY_FILE_PROPERTY);
+    if (file == null) {
+      return ContractionHierarchy.build(campus);
+    }
+    java.nio.file.Path path = Paths.get(file);
+    if (Files.exists(path)) {
+      try {
+        return ContractionHierarchy.read(path, campus);
+      } catch (IOException e) {
+        // the file was written from other campus data or is damaged, replace it
+      }
+    }
+    ContractionHierarchy<Point> built = ContractionHierarchy.build(campus);
+    try {
+      built.write(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot write contraction hierarchy.", e);
+    }
+    return built;
+  }
 
-      if (!graph.hasNode(start)) {
-        graph.addNode(start);
+  /**
+   * choose the landmarks of the read-only campus graph and search their distances in parallel, or read them from
+   * the file named by the LANDMARKS_FILE_PROPERTY system property if they were searched there for the same graph
+   *
+   * @param campus the read-only graph of the campus
+   * @return the landmarks of {@code campus}
+   * @throws UncheckedIOException if the landmarks file cannot be written
+   */
+  private static Landmarks<Point> chooseLandmarks(IndexedGraph<Point> campus) {
+    String file = System.getProperty(LANDMARKS_FILE_PROPERTY);
+    if (file == null) {
+      return Landmarks.build(campus, LANDMARK_COUNT, ForkJoinPool.commonPool());
+    }
+    java.nio.file.Path path = Paths.get(file);
+    if (Files.exists(path)) {
+      try {
+        return Landmarks.read(path, campus);
+      } catch (IOException e) {
+        // the file was written from other campus data or is damaged, replace it
       }
+    }
+    Landmarks<Point> built = Landmarks.build(campus, LANDMARK_COUNT, ForkJoinPool.commonPool());
+    try {
+      built.write(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot write landmarks.", e);
+    }
+    return built;
+  }
 
-      if (!graph.hasNode(end)) {
-        graph.addNode(end);
+  /**
+   * label the read-only campus graph, or read the labels from the file named by the LABELS_FILE_PROPERTY
+   * system property if they were built there for the same contraction hierarchy
+   *
+   * @return the hub labels of compactGraph
+   * @throws UncheckedIOException if the labels file cannot be written
+   */
+  private HubLabels<Point> buildLabels() {
+    ContractionHierarchy<Point> contracted = hierarchy != null ? hierarchy : contract(compactGraph);
+    String file = System.getProperty(LABELS_FILE_PROPERTY);
+    if (file == null) {
+      return HubLabels.build(contracted, ForkJoinPool.commonPool());
+    }
+    java.nio.file.Path path = Paths.get(file);
+    if (Files.exists(path)) {
+      try {
+        return HubLabels.read(path, contracted);
+      } catch (IOException e) {
+        // the file was written from another hierarchy or is damaged, replace it
       }
+    }
+    HubLabels<Point> built = HubLabels.build(contracted, ForkJoinPool.commonPool());
+    try {
+      built.write(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot write hub labels.", e);
+    }
+    return built;
+  }
+
+  /**
+   * run a task on a new daemon thread, so building the labels never keeps the process alive
+   */
+  private static void labelThread(Runnable task) {
+    Thread thread = new Thread(task, "hub labels");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * @return the hub labels of compactGraph if they are built, null if they are still being built
+   * @throws UncheckedIOException if the labels file cannot be written
+   * @spec.requires labels != null
+   */
+  private HubLabels<Point> readyLabels() {
+    try {
+      return labels.getNow(null);
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  /**
+   * Waits until the hub labels that distance queries merge while no path is closed are built, for callers
+   * that want every later distance query to use them, such as a server warming up before it takes requests.
+   *
+   * @return {@literal true} iff distance queries merge hub labels, {@literal false} if the route table answers them
+   * @throws UncheckedIOException if the labels file cannot be written
+   */
+  public boolean awaitHubLabels() {
+    if (labels == null) {
+      return false;
+    }
+    try {
+      labels.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+    return true;
+  }
 
-      if (!graph.hasLabel(start, end, campusPath.getDistance())) {
-        graph.addChild(start, end, campusPath.getDistance());
+  /**
+   * return the bytes the route table may take, as set in megabytes by the ROUTE_TABLE_BUDGET_PROPERTY system property
+   *
+   * @return the budget of the route table in bytes, -1 if the property is unset
+   * @throws IllegalArgumentException if the property is not a non-negative number of megabytes
+   */
+  private static long routeTableBudget() {
+    String value = System.getProperty(ROUTE_TABLE_BUDGET_PROPERTY);
+    if (value == null) {
+      return -1;
+    }
+    try {
+      long megabytes = Long.parseLong(value.trim());
+      if (megabytes >= 0 && megabytes <= Long.MAX_VALUE / MEGABYTE) {
+        return megabytes * MEGABYTE;
       }
+    } catch (NumberFormatException e) {
+      // reported below with the other bad values
     }
-    return graph;
+    throw new IllegalArgumentException("unknown route table budget: " + value);
+  }
+
+  /**
+   * build a graph of the campus from the list of coordinates
+   *
+   * @param coordinates the list of coordinates being used as graph data
+   * @return a new graph with all the coordinates connected appropriately
+   */
+  private static Graph<Point, Double> buildGraph(List<CampusPath> coordinates) {
+    // the paths are spread over every core, each building the locations of its own part of the campus
+    return ParallelGraphBuilder.build(coordinates,
+            campusPath -> new Point(campusPath.getX1(), campusPath.getY1()),
+            campusPath -> new Point(campusPath.getX2(), campusPath.getY2()),
+            CampusPath::getDistance,
+            ForkJoinPool.commonPool());
   }
 
   /**
@@ -165,6 +546,47 @@ public class ModelConnector {
     return map;
   }
 
+  /**
+   * Measures the graphs of this campus map, to size heaps and spot growth of the data files.
+   *
+   * @return the stats of the live campus graph, which closed paths are removed from, keyed by "live",
+   * and of the read-only copy that path queries run on while no path is closed, keyed by "query"
+   */
+  public Map<String, GraphStats> graphStats() {
+    checkRep();
+    Map<String, GraphStats> stats = new LinkedHashMap<>();
+    stats.put("live", graph.stats());
+    stats.put("query", compactGraph.stats());
+    checkRep();
+    return stats;
+  }
+
+  /**
+   * Describes the table of routes between every pair of buildings that path queries look up while no path is
+   * closed, so it can be turned on for campus-sized maps and off for larger ones. The server logs it once at startup.
+   *
+   * @return a line telling whether the route table was built, how much memory it takes of its budget,
+   * and how long it took to build
+   */
+  public String routeTableReport() {
+    checkRep();
+    String report;
+    if (routeTable != null) {
+      report = String.format("route table of %d buildings built in %.1f ms, %.1f of %.1f MB",
+              routeTable.endpointCount(), routeTable.buildNanos() / 1e6,
+              (double) routeTable.heapBytes() / MEGABYTE, (double) routeTableBudget / MEGABYTE);
+    } else if (routeTableBudget >= 0) {
+      int buildings = new HashSet<>(buildingCoordinates.values()).size();
+      report = String.format("route table of %d buildings not built, it needs %.1f of %.1f MB", buildings,
+              (double) RouteTable.estimateBytes(compactGraph, buildings) / MEGABYTE,
+              (double) routeTableBudget / MEGABYTE);
+    } else {
+      report = "route table off, " + ROUTE_TABLE_BUDGET_PROPERTY + " is unset";
+    }
+    checkRep();
+    return report;
+  }
+
   /**
    * Finds the shortest path, by distance, between the two provided buildings.
    *
@@ -183,27 +605,283 @@ public class ModelConnector {
     }
     Point start = buildingCoordinates.get(startShortName);
     Point end = buildingCoordinates.get(endShortName);
-    Path<Point> result = SearchPath.findShortestPath(start, end, this.graph);
+    // pin one version, so paths closed or reopened during the search are not half seen
+    GraphSnapshot<Point, Double> pinned = graph.snapshot();
+    Path<Point> result;
+    if (pinned.version() == compactVersion && routeTable != null) {
+      result = SearchPath.findShortestPath(start, end, routeTable);
+    } else if (pinned.version() == compactVersion && strategy == SearchStrategy.A_STAR) {
+      result = SearchPath.findShortestPath(start, end, this.compactGraph, POINT_COORDINATES, heuristicScale,
+          searchContexts.get());
+    } else if (pinned.version() == compactVersion && strategy == SearchStrategy.ALT) {
+      result = SearchPath.findShortestPath(start, end, landmarks, searchContexts.get());
+    } else if (pinned.version() == compactVersion && strategy == SearchStrategy.BIDIRECTIONAL) {
+      result = SearchPath.findShortestPath(start, end, this.compactGraph, reversedGraph, searchContexts.get());
+    } else if (pinned.version() == compactVersion && strategy == SearchStrategy.CONTRACTION_HIERARCHY) {
+      result = SearchPath.findShortestPath(start, end, hierarchy);
+    } else if (pinned.version() == compactVersion) {
+      result = SearchPath.findShortestPath(start, end, this.compactGraph, searchContexts.get());
+    } else {
+      result = SearchPath.findShortestPath(start, end, pinned);
+    }
+    checkRep();
+    return result;
+  }
+
+  /**
+   * Finds the length of the shortest path between the two provided buildings, without building the path.
+   * While no path is closed this looks the distance up in the route table if it was built, and otherwise merges
+   * two precomputed hub labels instead of searching the campus. The labels are built on a background thread
+   * after construction, and the campus is searched until they are done.
+   *
+   * @param startShortName The short name of the building at the beginning of the path.
+   * @param endShortName   The short name of the building at the end of the path.
+   * @return the distance of the shortest path from {@code startShortName} to {@code endShortName},
+   * {@link Double#POSITIVE_INFINITY} if none exists
+   * @throws IllegalArgumentException if {@code startShortName} or {@code endShortName} are {@literal null},
+   *                                  or not valid short names of buildings in this campus map.
+   * @throws UncheckedIOException if the labels file cannot be written
+   */
+  public double distance(String startShortName, String endShortName) {
+    checkRep();
+    if (!buildingCoordinates.containsKey(startShortName) || !buildingCoordinates.containsKey(endShortName)) {
+      throw new IllegalArgumentException("building does not exists");
+    }
+    Point start = buildingCoordinates.get(startShortName);
+    Point end = buildingCoordinates.get(endShortName);
+    GraphSnapshot<Point, Double> pinned = graph.snapshot();
+    HubLabels<Point> hubs = labels == null ? null : readyLabels();
+    double result;
+    if (pinned.version() == compactVersion && routeTable != null) {
+      result = routeTable.distance(start, end);
+    } else if (pinned.version() == compactVersion && hubs != null) {
+      result = hubs.distance(start, end);
+    } else if (pinned.version() == compactVersion) {
+      Path<Point> path = SearchPath.findShortestPath(start, end, this.compactGraph, searchContexts.get());
+      result = path == null ? Double.POSITIVE_INFINITY : path.getCost();
+    } else {
+      Path<Point> path = SearchPath.findShortestPath(start, end, pinned);
+      result = path == null ? Double.POSITIVE_INFINITY : path.getCost();
+    }
     checkRep();
     return result;
   }
 
+  /**
+   * Finds the shortest paths from one building to every building, as {@link #findShortestPath(String, String)}
+   * would one at a time. While no path is closed the paths are extracted from one search of the campus, whose
+   * result is kept for the most recently used starts, so asking again from the same building searches nothing.
+   *
+   * @param startShortName The short name of the building at the beginning of every path.
+   * @return the shortest path from {@code startShortName} to every building it can reach, keyed by the short name
+   * of the building at its end, including {@code startShortName} itself
+   * @throws IllegalArgumentException if {@code startShortName} is {@literal null}, or not a valid short name of
+   *                                  a building in this campus map.
+   */
+  public Map<String, Path<Point>> routesFrom(String startShortName) {
+    checkRep();
+    if (!buildingCoordinates.containsKey(startShortName)) {
+      throw new IllegalArgumentException("building does not exists");
+    }
+    Point start = buildingCoordinates.get(startShortName);
+    GraphSnapshot<Point, Double> pinned = graph.snapshot();
+    ShortestPathTree<Point> tree = pinned.version() == compactVersion ? tree(start) : null;
+    Map<String, Path<Point>> routes = new HashMap<>();
+    for (Map.Entry<String, Point> building : buildingCoordinates.entrySet()) {
+      Path<Point> path = tree != null
+          ? SearchPath.findShortestPath(start, building.getValue(), tree)
+          : SearchPath.findShortestPath(start, building.getValue(), pinned);
+      if (path != null) {
+        routes.put(building.getKey(), path);
+      }
+    }
+    checkRep();
+    return routes;
+  }
 
   /**
-   * exception will be thrown if rep invariant is violated
+   * return the shortest path tree of the read-only campus graph from a start, searching it if it is not kept,
+   * and keeping it in place of the least recently used tree if TREE_CACHE_SIZE trees are kept.
+   * The search runs without holding any lock, threads asking for the same start wait for the one searching it,
+   * and other threads go on. compactGraph never changes, so the tree is valid at every version of graph that
+   * compactGraph has the same edges as
+   *
+   * @param start the location the paths start from
+   * @return the shortest path tree of compactGraph from {@code start}
+   */
+  private ShortestPathTree<Point> tree(Point start) {
+    CompletableFuture<ShortestPathTree<Point>> tree;
+    boolean search = false;
+    synchronized (trees) {
+      tree = trees.get(start);
+      if (tree == null) {
+        tree = new CompletableFuture<>();
+        trees.put(start, tree);
+        search = true;
+      }
+    }
+    if (search) {
+      try {
+        tree.complete(SearchPath.shortestPathTree(start, compactGraph));
+      } catch (RuntimeException e) {
+        synchronized (trees) {
+          trees.remove(start, tree);
+        }
+        tree.completeExceptionally(e);
+        throw e;
+      }
+    }
+    try {
+      return tree.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  /**
+   * Closes the paths between two locations in both directions, so no shortest path uses them until reopened.
+   * Path queries running on other threads are not blocked.
+   *
+   * @param start one end of the path being closed
+   * @param end   the other end of the path being closed
+   * @return {@literal true} iff a path between {@code start} and {@code end} was open and is now closed
+   * @throws IllegalArgumentException if {@code start} or {@code end} is not a location of this campus map
+   * @spec.modifies this
+   */
+  public synchronized boolean closePath(Point start, Point end) {
+    checkRep();
+    if (!graph.hasNode(start) || !graph.hasNode(end)) {
+      throw new IllegalArgumentException("location does not exist");
+    }
+    boolean[] closed = {false};
+    graph.atomically(() -> {
+      closed[0] = closeDirection(start, end);
+      closed[0] = closeDirection(end, start) || closed[0];
+    });
+    checkRepFully();
+    return closed[0];
+  }
+
+  /**
+   * Reopens the paths between two locations that were closed by {@link #closePath(Point, Point)}.
+   *
+   * @param start one end of the path being reopened
+   * @param end   the other end of the path being reopened
+   * @return {@literal true} iff a path between {@code start} and {@code end} was closed and is now open
+   * @spec.modifies this
+   */
+  public synchronized boolean reopenPath(Point start, Point end) {
+    checkRep();
+    boolean[] reopened = {false};
+    graph.atomically(() -> {
+      reopened[0] = reopenDirection(start, end);
+      reopened[0] = reopenDirection(end, start) || reopened[0];
+    });
+    if (closedPaths.isEmpty()) {
+      // every closed path is back, so graph has the same edges as compactGraph again
+      compactVersion = graph.version();
+    }
+    checkRepFully();
+    return reopened[0];
+  }
+
+  /**
+   * remove every edge from start to end and remember their labels in closedPaths
+   *
+   * @return true iff there was an edge to remove
+   */
+  private boolean closeDirection(Point start, Point end) {
+    Set<Double> labels = graph.getLabels(start, end);
+    for (Double label : labels) {
+      graph.removeEdgeFrom(start, end, label);
+    }
+    if (!labels.isEmpty()) {
+      closedPaths.computeIfAbsent(List.of(start, end), k -> new HashSet<>()).addAll(labels);
+    }
+    return !labels.isEmpty();
+  }
+
+  /**
+   * add back every edge from start to end that closeDirection removed
+   *
+   * @return true iff there was an edge to add back
+   */
+  private boolean reopenDirection(Point start, Point end) {
+    Set<Double> labels = closedPaths.remove(List.of(start, end));
+    if (labels == null) {
+      return false;
+    }
+    for (Double label : labels) {
+      graph.addChild(start, end, label);
+    }
+    return true;
+  }
+
+  /**
+   * exception will be thrown if rep invariant is violated, a sample of the graph is checked in SAMPLED mode,
+   * and none of it in FULL and OFF mode
    */
   private void checkRep() {
     assert graph != null;
     assert buildingCoordinates != null;
     assert shortToLong != null;
-    for (Point p : graph.getNodes()) {
-      assert p != null;
-      for (Edge<Point, Double> edge : graph.getEdges(p)) {
-        assert graph.hasNode(edge.getChild());
-        assert edge.getLabel() >= 0;
-      }
+    assert compactGraph != null;
+    assert closedPaths != null;
+    assert trees != null;
+    assert (labels == null) == (routeTable != null);
+    assert searchContexts != null;
+    assert strategy != null;
+    assert (reversedGraph != null) == (strategy == SearchStrategy.BIDIRECTIONAL);
+    assert (hierarchy != null) == (strategy == SearchStrategy.CONTRACTION_HIERARCHY);
+    assert (landmarks != null) == (strategy == SearchStrategy.ALT);
+    assert routeTableBudget >= -1;
+    assert routeTable == null || routeTable.heapBytes() <= routeTableBudget;
+    if (validation == ValidationMode.SAMPLED) {
+      checkSample();
+    }
+  }
+
+  /**
+   * exception will be thrown if rep invariant is violated, the whole graph is checked unless in OFF mode
+   */
+  private void checkRepFully() {
+    checkRep();
+    if (validation != ValidationMode.OFF) {
+      checkGraph();
+    }
+  }
+
+  /**
+   * exception will be thrown if some edge of the graph violates the rep invariant
+   */
+  private void checkGraph() {
+    GraphSnapshot<Point, Double> snapshot = graph.snapshot();
+    snapshot.forEachNode(p -> checkEdges(snapshot, p));
+  }
+
+  /**
+   * exception will be thrown if an edge of a few randomly chosen locations violates the rep invariant
+   */
+  private void checkSample() {
+    GraphSnapshot<Point, Double> snapshot = graph.snapshot();
+    Random random = ThreadLocalRandom.current();
+    for (int i = 0; i < SAMPLE_SIZE && compactGraph.size() > 0; i++) {
+      Point p = compactGraph.nodeAt(random.nextInt(compactGraph.size()));
+      assert snapshot.hasNode(p);
+      checkEdges(snapshot, p);
     }
   }
 
+  /**
+   * exception will be thrown if an outgoing edge of p violates the rep invariant
+   */
+  private static void checkEdges(GraphSnapshot<Point, Double> snapshot, Point p) {
+    assert p != null;
+    snapshot.forEachEdge(p, (child, label) -> {
+      assert snapshot.hasNode(child);
+      assert label >= 0;
+    });
+  }
+
 
 }
@@ -1,10 +1,25 @@
 package pathfinder;
 
-import graph.Edge;
+import graph.CompactGraph;
+import graph.ConcurrentGraph;
+import graph.ContractionHierarchy;
+import graph.DoubleEdgeVisitor;
+import graph.DoubleWeightedGraph;
 import graph.Graph;
+import graph.GraphSnapshot;
+import graph.HubLabels;
+import graph.IndexedDoubleHeap;
+import graph.IndexedGraph;
+import graph.Landmarks;
+import graph.MultiWeightGraph;
+import graph.NodeCoordinates;
+import graph.RouteTable;
+import graph.SearchContext;
+import graph.ShortestPathTree;
 import pathfinder.datastructures.Path;
 
 import java.util.*;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * A class for a graph to search for a path with the shortest distance between 2 node
@@ -22,27 +37,307 @@ public class SearchPath {
      * @return a new shortest distance path from the {@code start} to the {@code end} in {@code graph}, {@literal null} if none exists
      */
     public static <Node> Path<Node> findShortestPath(Node start, Node end, Graph<Node, Double> graph) {
-        Queue<Path<Node>> active = new PriorityQueue<>(new PathSorter<>());
-        Set<Node> finished = new HashSet<>();
-        active.add(new Path<>(start));
+        return search(start, end, (parent, visitor) -> graph.forEachEdge(parent, Double::doubleValue, visitor));
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} in a primitive weighted {@code graph}
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param graph the graph we are searching the path in
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code graph}
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code graph}, {@literal null} if none exists
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, DoubleWeightedGraph<Node> graph) {
+        return search(start, end, graph::forEachEdge);
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} in a {@code graph} that other threads
+     * may modify. The search runs on the latest version when it starts, and does not see later writes.
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param graph the concurrent graph we are searching the path in
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code graph}
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code graph}, {@literal null} if none exists
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, ConcurrentGraph<Node, Double> graph) {
+        return findShortestPath(start, end, graph.snapshot());
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} in one version of a concurrent graph
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param graph the snapshot we are searching the path in
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code graph}
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code graph}, {@literal null} if none exists
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, GraphSnapshot<Node, Double> graph) {
+        return search(start, end, (parent, visitor) -> graph.forEachEdge(parent, Double::doubleValue, visitor));
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} in the graph given by {@code adjacency}
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param adjacency the outgoing edges of every node of the graph we are searching the path in
+     * @param <Node> the type for Path node
+     * @return a new shortest distance path from the {@code start} to the {@code end}, {@literal null} if none exists
+     */
+    private static <Node> Path<Node> search(Node start, Node end, Adjacency<Node> adjacency) {
+        // the queue holds node and cost pairs and every reached node its predecessor, so no path is copied
+        // until the one to end is built
+        Map<Node, Reached<Node>> reached = new HashMap<>();
+        Queue<Candidate<Node>> active = new PriorityQueue<>();
+        reached.put(start, new Reached<>(null, 0, 0));
+        active.add(new Candidate<>(start, 0));
 
-        // {inv: (active = [] && no path found) || (active.size() > 0 && active.remove() is the current shortest path from start)}
+        // {inv: every reached node has pred pointing along a path of cost reached.cost from start,
+        //       and every finished node's cost is the cost of the shortest path from start}
         while (!active.isEmpty()) {
-            Path<Node> minPath = active.remove();
-            Node minDest = minPath.getEnd();
-
-            if (minDest.equals(end)) {
-                return minPath;
-            } else if (!finished.contains(minDest)) {
-
-                // {inv: n from 0 to (i-1), active = active_pre + (minPath + graph.getEdge(minDest)_n)}
-                for (Edge<Node, Double> edge: graph.getEdges(minDest)) {
-                    Node p = edge.getChild();
-                    if (!finished.contains(p)) {
-                        Path<Node> newPath = minPath.extend(p, edge.getLabel());
-                        active.add(newPath);
+            Candidate<Node> min = active.remove();
+            Reached<Node> minReached = reached.get(min.node);
+            if (minReached.finished || min.cost > minReached.cost) {
+                continue; // stale entry, the node was reached more cheaply
+            }
+            if (min.node.equals(end)) {
+                return buildPath(start, end, reached);
+            }
+            minReached.finished = true;
+            adjacency.forEachEdge(min.node, (child, weight) -> {
+                double cost = min.cost + weight;
+                Reached<Node> known = reached.get(child);
+                if (known == null) {
+                    reached.put(child, new Reached<>(min.node, weight, cost));
+                    active.add(new Candidate<>(child, cost));
+                } else if (!known.finished && cost < known.cost) {
+                    known.pred = min.node;
+                    known.predWeight = weight;
+                    known.cost = cost;
+                    active.add(new Candidate<>(child, cost));
+                }
+            });
+        }
+        return null;
+    }
+
+    /**
+     * build the path ending at {@code end} by following the predecessor of every reached node
+     *
+     * @param start the start of the search
+     * @param end the end of the path
+     * @param reached the predecessor of every node the search reached
+     * @param <Node> the type for Path node
+     * @return the path from {@code start} to {@code end}
+     */
+    private static <Node> Path<Node> buildPath(Node start, Node end, Map<Node, Reached<Node>> reached) {
+        Steps<Node> steps = new Steps<>();
+        for (Node n = end; !n.equals(start); n = reached.get(n).pred) {
+            steps.visit(n, reached.get(n).predWeight);
+        }
+        steps.reverseFrom(0);
+        return steps.pathFrom(start);
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} in an indexed {@code graph},
+     * such as a CompactGraph on the heap or a MappedGraph off the heap
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param graph the indexed graph we are searching the path in
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code graph}
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code graph}, {@literal null} if none exists
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, IndexedGraph<Node> graph) {
+        return findShortestPath(start, end, graph, new SearchContext(graph.size()));
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} in an indexed {@code graph}, keeping
+     * the queue and the predecessor of every node reached in {@code context}. The context is cleared in time
+     * proportional to the nodes the last search reached, so a caller running many searches on one thread can pass
+     * the same context to all of them and allocate nothing but the path.
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param graph the indexed graph we are searching the path in
+     * @param context the working memory of the search, whose contents are replaced
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code graph}, every weight of {@code graph} is
+     * non-negative
+     * @spec.modifies context
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code graph}, {@literal null} if none exists
+     * @throws IllegalArgumentException if the capacity of {@code context} is less than {@code graph.size()}
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, IndexedGraph<Node> graph,
+                                                     SearchContext context) {
+        int source = graph.idOf(start);
+        int target = graph.idOf(end);
+        IndexedDoubleHeap heap = prepare(graph, context).queue(SearchContext.FORWARD);
+        heap.insert(source, 0);
+        context.reach(SearchContext.FORWARD, source, 0, -1, -1);
+
+        // {inv: every node in heap or polled from it has pred pointing along a path of cost heap.key from start,
+        //       and every node polled from heap is finished}
+        while (!heap.isEmpty()) {
+            double distance = heap.peekKey();
+            int n = heap.poll();
+            if (n == target) {
+                return buildPath(graph, context, source, target);
+            }
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                int child = graph.target(e);
+                double cost = distance + graph.weight(e);
+                if (heap.offer(child, cost)) {
+                    context.reach(SearchContext.FORWARD, child, cost, n, e);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} in an indexed {@code graph} with A* search,
+     * which settles nodes in order of their distance from {@code start} plus {@code scale} times their straight line
+     * distance to {@code end}. The path found has the same cost as the one found by Dijkstra's algorithm, and
+     * fewer nodes are settled the closer the estimate is to the real distance.
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param graph the indexed graph we are searching the path in
+     * @param coordinates the coordinates of the nodes of {@code graph}
+     * @param scale the factor from straight line distance between coordinates to edge weight, such as the one
+     *              returned by {@link #heuristicScale(IndexedGraph, NodeCoordinates)}
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code graph}, and no edge of {@code graph} weighs
+     * less than {@code scale} times the straight line distance between its nodes
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code graph}, {@literal null} if none exists
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, IndexedGraph<Node> graph,
+                                                     NodeCoordinates<? super Node> coordinates, double scale) {
+        return findShortestPath(start, end, graph, coordinates, scale, new SearchContext(graph.size()));
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} in an indexed {@code graph} with A* search
+     * like {@link #findShortestPath(Object, Object, IndexedGraph, NodeCoordinates, double)}, keeping the queue,
+     * distances and estimates in {@code context} so it can be reused by the next search on the same thread
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param graph the indexed graph we are searching the path in
+     * @param coordinates the coordinates of the nodes of {@code graph}
+     * @param scale the factor from straight line distance between coordinates to edge weight
+     * @param context the working memory of the search, whose contents are replaced
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code graph}, and no edge of {@code graph} weighs
+     * less than {@code scale} times the straight line distance between its nodes
+     * @spec.modifies context
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code graph}, {@literal null} if none exists
+     * @throws IllegalArgumentException if the capacity of {@code context} is less than {@code graph.size()}
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, IndexedGraph<Node> graph,
+                                                     NodeCoordinates<? super Node> coordinates, double scale,
+                                                     SearchContext context) {
+        double endX = coordinates.x(end);
+        double endY = coordinates.y(end);
+        return aStar(graph, graph.idOf(start), graph.idOf(end), context, n -> {
+            Node node = graph.nodeAt(n);
+            return scale * Math.hypot(coordinates.x(node) - endX, coordinates.y(node) - endY);
+        });
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} with A* search directed by landmarks,
+     * which settles nodes in order of their distance from {@code start} plus the lower bound the landmarks give on
+     * their distance to {@code end}. The bound follows the real distance around obstacles, so it settles fewer
+     * nodes than A* search by coordinates where paths wind.
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param landmarks the landmarks of the graph we are searching the path in
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code landmarks.graph()}
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code landmarks.graph()},
+     * {@literal null} if none exists
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, Landmarks<Node> landmarks) {
+        return findShortestPath(start, end, landmarks, new SearchContext(landmarks.graph().size()));
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} with A* search directed by landmarks
+     * like {@link #findShortestPath(Object, Object, Landmarks)}, keeping the queue, distances and estimates in
+     * {@code context} so it can be reused by the next search on the same thread
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param landmarks the landmarks of the graph we are searching the path in
+     * @param context the working memory of the search, whose contents are replaced
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code landmarks.graph()}
+     * @spec.modifies context
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code landmarks.graph()},
+     * {@literal null} if none exists
+     * @throws IllegalArgumentException if the capacity of {@code context} is less than the size of the graph
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, Landmarks<Node> landmarks,
+                                                     SearchContext context) {
+        IndexedGraph<Node> graph = landmarks.graph();
+        int target = graph.idOf(end);
+        return aStar(graph, graph.idOf(start), target, context, n -> landmarks.lowerBound(n, target));
+    }
+
+    /**
+     * find the shortest path from source to target in an indexed graph with A* search
+     *
+     * @param graph the indexed graph we are searching the path in
+     * @param source the id of the start of the search
+     * @param target the id of the end of the search
+     * @param context the working memory of the search, whose contents are replaced
+     * @param lowerBound a lower bound on the distance from every node id to target, infinity if there is no path,
+     *                   which drops by no more than the weight of any edge, so no node is settled twice
+     * @param <Node> the type for Path node
+     * @return a new shortest distance path from source to target in graph, null if none exists
+     */
+    private static <Node> Path<Node> aStar(IndexedGraph<Node> graph, int source, int target, SearchContext context,
+                                           IntToDoubleFunction lowerBound) {
+        IndexedDoubleHeap active = prepare(graph, context).queue(SearchContext.FORWARD);
+        context.reach(SearchContext.FORWARD, source, 0, -1, -1);
+        context.estimate(source, lowerBound.applyAsDouble(source));
+        active.insert(source, context.estimate(source));
+
+        // {inv: every node with a finite distance has pred pointing along a path of that cost from start,
+        //       the estimate of every such node is a lower bound on its distance to end,
+        //       and every node in active has key distance + estimate}
+        while (!active.isEmpty()) {
+            int n = active.poll();
+            if (n == target) {
+                return buildPath(graph, context, source, target);
+            }
+            double distance = context.distance(SearchContext.FORWARD, n);
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                int child = graph.target(e);
+                double cost = distance + graph.weight(e);
+                if (cost < context.distance(SearchContext.FORWARD, child) && !active.wasPolled(child)) {
+                    if (Double.isNaN(context.estimate(child))) {
+                        context.estimate(child, lowerBound.applyAsDouble(child));
+                    }
+                    if (context.estimate(child) == Double.POSITIVE_INFINITY) {
+                        continue; // end cannot be reached from child
                     }
-                    finished.add(minDest);
+                    context.reach(SearchContext.FORWARD, child, cost, n, e);
+                    active.offer(child, cost + context.estimate(child));
                 }
             }
         }
@@ -50,14 +345,425 @@ public class SearchPath {
     }
 
     /**
-     * this class is for Path to be compatible with PriorityQueue
-     * @param <Node> the type of the node in the path
+     * find the shortest path by distance from {@code start} to {@code end} in an indexed {@code graph} with
+     * bidirectional Dijkstra search, which alternates a search forward from {@code start} with a search backward
+     * from {@code end} along the reversed edges, and stops once no path through the two frontiers can be shorter
+     * than the shortest path found where they meet. Both searches only reach about half as far as one search would.
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param graph the indexed graph we are searching the path in
+     * @param reversed the transpose of {@code graph}, such as {@link CompactGraph#transposeOf(IndexedGraph)}
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code graph}, {@code reversed} has the node ids of
+     * {@code graph} and an edge from c to p with weight w for every edge from p to c with weight w in {@code graph}
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code graph}, {@literal null} if none exists
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, IndexedGraph<Node> graph,
+                                                     IndexedGraph<Node> reversed) {
+        return findShortestPath(start, end, graph, reversed, new SearchContext(graph.size()));
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} in an indexed {@code graph} with
+     * bidirectional Dijkstra search like {@link #findShortestPath(Object, Object, IndexedGraph, IndexedGraph)},
+     * keeping both queues and the distances of both sides in {@code context} so it can be reused by the next
+     * search on the same thread
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param graph the indexed graph we are searching the path in
+     * @param reversed the transpose of {@code graph}
+     * @param context the working memory of the search, whose contents are replaced
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code graph}, {@code reversed} has the node ids of
+     * {@code graph} and an edge from c to p with weight w for every edge from p to c with weight w in {@code graph}
+     * @spec.modifies context
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code graph}, {@literal null} if none exists
+     * @throws IllegalArgumentException if the capacity of {@code context} is less than {@code graph.size()}
      */
-    private static class PathSorter<Node> implements Comparator<Path<Node>> {
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, IndexedGraph<Node> graph,
+                                                     IndexedGraph<Node> reversed, SearchContext context) {
+        int source = graph.idOf(start);
+        int target = graph.idOf(end);
+        prepare(graph, context);
+        // the FORWARD side keeps the predecessor towards start, the BACKWARD side the successor towards end,
+        // with the edge used in graph or reversed respectively
+        IndexedGraph<Node>[] sides = sides(graph, reversed);
+        int[] roots = {source, target};
+        for (int side = SearchContext.FORWARD; side <= SearchContext.BACKWARD; side++) {
+            context.reach(side, roots[side], 0, -1, -1);
+            context.queue(side).insert(roots[side], 0);
+        }
+        double best = source == target ? 0 : Double.POSITIVE_INFINITY;
+        int meeting = source;
+
+        // {inv: best is the cost of the shortest path found through meeting, every node with a finite distance on
+        //       a side has pred pointing along a path of that cost from (FORWARD) or to (BACKWARD) its root,
+        //       and any shorter path must go through a node still in both active queues' reach}
+        for (int side = SearchContext.FORWARD; ; side = 1 - side) {
+            IndexedDoubleHeap queue = context.queue(side);
+            if (minCost(queue) + minCost(context.queue(1 - side)) >= best) {
+                break; // both frontiers are so far out that no path through them beats best
+            }
+            int n = queue.poll();
+            IndexedGraph<Node> edges = sides[side];
+            double distance = context.distance(side, n);
+            for (int e = edges.edgeStart(n); e < edges.edgeEnd(n); e++) {
+                int child = edges.target(e);
+                double cost = distance + edges.weight(e);
+                if (cost < context.distance(side, child)) {
+                    context.reach(side, child, cost, n, e);
+                    queue.offer(child, cost);
+                    double through = cost + context.distance(1 - side, child);
+                    if (through < best) {
+                        best = through;
+                        meeting = child;
+                    }
+                }
+            }
+        }
+        if (best == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        Steps<Node> steps = new Steps<>();
+        forwardSteps(graph, context, source, meeting, steps);
+        for (int n = meeting; n != target; n = context.pred(SearchContext.BACKWARD, n)) {
+            steps.visit(graph.nodeAt(context.pred(SearchContext.BACKWARD, n)),
+                    reversed.weight(context.predEdge(SearchContext.BACKWARD, n)));
+        }
+        return steps.pathFrom(start);
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} with a contraction hierarchy,
+     * whose shortcuts are unpacked so the path only has edges of the graph of the hierarchy
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param hierarchy the contraction hierarchy of the graph we are searching the path in
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code hierarchy.graph()}
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code hierarchy.graph()},
+     * {@literal null} if none exists
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, ContractionHierarchy<Node> hierarchy) {
+        Steps<Node> steps = new Steps<>();
+        if (!hierarchy.route(start, end, steps)) {
+            return null;
+        }
+        return steps.pathFrom(start);
+    }
+
+    /**
+     * find the shortest path by distance from {@code start} to {@code end} with hub labels, merging the labels of
+     * {@code start} and {@code end} instead of searching and walking the labels to the hub they meet at
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param labels the hub labels of the graph we are searching the path in
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code labels.graph()}
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code labels.graph()},
+     * {@literal null} if none exists
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, HubLabels<Node> labels) {
+        Steps<Node> steps = new Steps<>();
+        if (!labels.route(start, end, steps)) {
+            return null;
+        }
+        return steps.pathFrom(start);
+    }
+
+    /**
+     * look up the shortest path by distance from {@code start} to {@code end} in a table of precomputed routes
+     *
+     * @param start the start of the path
+     * @param end the end of the path
+     * @param routes the routes between the endpoints of the graph we are looking the path up in
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are endpoints of {@code routes}
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code routes.graph()},
+     * {@literal null} if none exists
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, RouteTable<Node> routes) {
+        Steps<Node> steps = new Steps<>();
+        if (!routes.route(start, end, steps)) {
+            return null;
+        }
+        return steps.pathFrom(start);
+    }
+
+    /**
+     * search the shortest paths from {@code start} to every node of an indexed {@code graph} at once, so the paths
+     * from one start to many ends are found with one search instead of one search per end
+     *
+     * @param start the start of every path
+     * @param graph the indexed graph we are searching the paths in
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} is a node of {@code graph}, and every weight of {@code graph} is non-negative
+     * @return a new tree of the shortest distance paths from {@code start} in {@code graph}, whose paths
+     * {@link #findShortestPath(Object, Object, ShortestPathTree)} extracts
+     */
+    public static <Node> ShortestPathTree<Node> shortestPathTree(Node start, IndexedGraph<Node> graph) {
+        return ShortestPathTree.build(graph, start);
+    }
+
+    /**
+     * extract the shortest path by distance from {@code start} to {@code end} from a tree of the shortest paths
+     * from {@code start}, in time proportional to the length of the path
+     *
+     * @param start the start of the path
+     * @param end the end of the path
+     * @param tree the shortest paths from {@code start} in the graph we are looking the path up in
+     * @param <Node> the type for Path node
+     * @spec.requires {@code end} is a node of {@code tree.graph()}
+     * @return a new shortest distance path from the {@code start} to the {@code end} in {@code tree.graph()},
+     * {@literal null} if none exists
+     * @throws IllegalArgumentException if {@code start} is not the source of {@code tree}
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, ShortestPathTree<Node> tree) {
+        if (!start.equals(tree.source())) {
+            throw new IllegalArgumentException("start is not the source of the tree");
+        }
+        Steps<Node> steps = new Steps<>();
+        if (!tree.route(end, steps)) {
+            return null;
+        }
+        return steps.pathFrom(start);
+    }
+
+    /**
+     * clear a context for a search of graph
+     *
+     * @return context
+     * @throws IllegalArgumentException if the capacity of context is less than graph.size()
+     */
+    private static SearchContext prepare(IndexedGraph<?> graph, SearchContext context) {
+        if (context.capacity() < graph.size()) {
+            throw new IllegalArgumentException("search context is smaller than the graph");
+        }
+        context.clear();
+        return context;
+    }
+
+    /**
+     * @return the forward and backward graphs of a bidirectional search, indexed by side
+     */
+    @SuppressWarnings("unchecked")
+    private static <Node> IndexedGraph<Node>[] sides(IndexedGraph<Node> graph, IndexedGraph<Node> reversed) {
+        return new IndexedGraph[] {graph, reversed};
+    }
+
+    /**
+     * @param queue the queue of a search
+     * @return the least cost in {@code queue}, infinity if it is empty
+     */
+    private static double minCost(IndexedDoubleHeap queue) {
+        return queue.isEmpty() ? Double.POSITIVE_INFINITY : queue.peekKey();
+    }
+
+    /**
+     * find the largest factor from straight line distance between coordinates to edge weight that makes
+     * the A* search of {@code graph} find shortest paths, that is the smallest ratio of the weight of an edge
+     * to the straight line distance between its nodes, lowered slightly to absorb rounding
+     *
+     * @param graph the indexed graph being searched
+     * @param coordinates the coordinates of the nodes of {@code graph}
+     * @param <Node> the type of the node
+     * @spec.requires every weight of {@code graph} is non-negative
+     * @return the factor to search {@code graph} by, 0 if no edge joins nodes at different coordinates
+     */
+    public static <Node> double heuristicScale(IndexedGraph<Node> graph, NodeCoordinates<? super Node> coordinates) {
+        double scale = Double.POSITIVE_INFINITY;
+        for (int n = 0; n < graph.size(); n++) {
+            Node parent = graph.nodeAt(n);
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                Node child = graph.nodeAt(graph.target(e));
+                double length = Math.hypot(coordinates.x(parent) - coordinates.x(child),
+                        coordinates.y(parent) - coordinates.y(child));
+                if (length > 0) {
+                    scale = Math.min(scale, graph.weight(e) / length);
+                }
+            }
+        }
+        return scale == Double.POSITIVE_INFINITY ? 0 : scale * (1 - 1e-9);
+    }
+
+    /**
+     * find the shortest path from {@code start} to {@code end} in {@code graph} by one criterion,
+     * the cost of every step of the path is its weight for that criterion
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param graph the multi-weight graph we are searching the path in
+     * @param criterion the name of the criterion being minimized
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code graph.topology()}
+     * @return a new shortest path by {@code criterion} from the {@code start} to the {@code end} in {@code graph},
+     * {@literal null} if none exists
+     * @throws IllegalArgumentException if {@code criterion} is not a criterion of {@code graph}
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, MultiWeightGraph<Node> graph,
+                                                     String criterion) {
+        return findShortestPath(start, end, graph.weightedBy(criterion));
+    }
+
+    /**
+     * find the shortest path from {@code start} to {@code end} in {@code graph} by a linear combination of criteria,
+     * the cost of every step of the path is the sum of its weight for every criterion times its coefficient
+     *
+     * @param start the start of the search
+     * @param end the end of the search
+     * @param graph the multi-weight graph we are searching the path in
+     * @param coefficients the coefficient of every criterion being minimized
+     * @param <Node> the type for Path node
+     * @spec.requires {@code start} and {@code end} are nodes of {@code graph.topology()}
+     * @return a new shortest path by the combined cost from the {@code start} to the {@code end} in {@code graph},
+     * {@literal null} if none exists
+     * @throws IllegalArgumentException if a key of {@code coefficients} is not a criterion of {@code graph},
+     *                                  or a coefficient is negative
+     */
+    public static <Node> Path<Node> findShortestPath(Node start, Node end, MultiWeightGraph<Node> graph,
+                                                     Map<String, Double> coefficients) {
+        return findShortestPath(start, end, graph.weightedBy(coefficients));
+    }
+
+    /**
+     * build the path ending at {@code target} by following the predecessor of every node on the forward side
+     *
+     * @param graph the indexed graph that was searched
+     * @param context the context of the search, {@code target} reached on its forward side
+     * @param source the id of the start of the path
+     * @param target the id of the end of the path
+     * @param <Node> the type for Path node
+     * @return the path from {@code source} to {@code target}
+     */
+    private static <Node> Path<Node> buildPath(IndexedGraph<Node> graph, SearchContext context, int source, int target) {
+        Steps<Node> steps = new Steps<>();
+        forwardSteps(graph, context, source, target, steps);
+        return steps.pathFrom(graph.nodeAt(source));
+    }
+
+    /**
+     * append the nodes after {@code source} on the path to {@code target} on the forward side of a search,
+     * and the weights of the edges to them, in path order
+     *
+     * @param graph the indexed graph that was searched
+     * @param context the context of the search, {@code target} reached on its forward side
+     * @param source the id of the start of the path
+     * @param target the id of the end of the path
+     * @param steps the steps the nodes and weights are appended to
+     * @param <Node> the type for Path node
+     * @spec.modifies steps
+     */
+    private static <Node> void forwardSteps(IndexedGraph<Node> graph, SearchContext context, int source, int target,
+                                            Steps<Node> steps) {
+        int first = steps.size();
+        for (int n = target; n != source; n = context.pred(SearchContext.FORWARD, n)) {
+            steps.visit(graph.nodeAt(n), graph.weight(context.predEdge(SearchContext.FORWARD, n)));
+        }
+        steps.reverseFrom(first);
+    }
+
+    /**
+     * a node with its tentative distance, ordered by distance for PriorityQueue
+     * @param <Node> the type of the node
+     */
+    private static class Candidate<Node> implements Comparable<Candidate<Node>> {
+        private final Node node;
+        private final double cost;
+
+        private Candidate(Node node, double cost) {
+            this.node = node;
+            this.cost = cost;
+        }
+
         @Override
-        public int compare(Path<Node> p1, Path<Node> p2) {
-            return Double.compare(p1.getCost(), p2.getCost());
+        public int compareTo(Candidate<Node> other) {
+            return Double.compare(cost, other.cost);
         }
+    }
+
+    /**
+     * the edges of a path passed one at a time to a visitor, kept until the path is built with one copy
+     * @param <Node> the type of the node
+     */
+    private static class Steps<Node> implements DoubleEdgeVisitor<Node> {
+        private final List<Node> nodes = new ArrayList<>();
+        /** the weight of the edge to nodes.get(i) at weights[i], the entries past nodes.size() are unused */
+        private double[] weights = new double[16];
+
+        @Override
+        public void visit(Node child, double weight) {
+            if (nodes.size() == weights.length) {
+                weights = Arrays.copyOf(weights, weights.length * 2);
+            }
+            weights[nodes.size()] = weight;
+            nodes.add(child);
+        }
+
+        /**
+         * @return the number of edges visited so far
+         */
+        private int size() {
+            return nodes.size();
+        }
+
+        /**
+         * reverse the order of the edges visited from the one at index {@code from} on
+         */
+        private void reverseFrom(int from) {
+            Collections.reverse(nodes.subList(from, nodes.size()));
+            for (int i = from, j = nodes.size() - 1; i < j; i++, j--) {
+                double weight = weights[i];
+                weights[i] = weights[j];
+                weights[j] = weight;
+            }
+        }
+
+        /**
+         * @return the path from start along every edge visited so far
+         */
+        private Path<Node> pathFrom(Node start) {
+            return new Path<>(start).extend(nodes, weights);
+        }
+    }
+
+    /**
+     * the shortest way to a node a search has found so far
+     * @param <Node> the type of the node
+     */
+    private static class Reached<Node> {
+        /** the node before this one on the way, null for the start */
+        private Node pred;
+
+        /** the weight of the edge from pred */
+        private double predWeight;
+
+        /** the cost of the way from the start */
+        private double cost;
+
+        /** whether the way is known to be the shortest */
+        private boolean finished;
+
+        private Reached(Node pred, double predWeight, double cost) {
+            this.pred = pred;
+            this.predWeight = predWeight;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * the outgoing edges of every node of a graph being searched
+     * @param <Node> the type of the node
+     */
+    @FunctionalInterface
+    private interface Adjacency<Node> {
 
+        /**
+         * pass every outgoing edge of parent to visitor
+         */
+        void forEachEdge(Node parent, DoubleEdgeVisitor<Node> visitor);
     }
 }
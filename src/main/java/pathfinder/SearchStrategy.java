@@ -0,0 +1,59 @@
+package pathfinder;
+
+import java.util.Locale;
+
+/**
+ * How a {@link ModelConnector} searches the campus graph for a shortest path
+ */
+public enum SearchStrategy {
+  /** Dijkstra's algorithm, settling every location closer to the start than the end */
+  DIJKSTRA,
+
+  /**
+   * A* search, settling locations in order of their distance from the start plus a lower bound on their
+   * distance to the end taken from their coordinates, so it finds the same shortest paths settling fewer locations
+   */
+  A_STAR,
+
+  /**
+   * A* search estimating the distance to the end from precomputed distances to and from a few landmark locations,
+   * which follow paths around buildings where the straight line distance cannot, so it settles fewer locations
+   */
+  ALT,
+
+  /**
+   * bidirectional Dijkstra's algorithm, searching forward from the start and backward from the end in turn,
+   * so each search settles the locations within about half the distance of the route
+   */
+  BIDIRECTIONAL,
+
+  /**
+   * bidirectional search of a contraction hierarchy built once at startup, climbing from the start and the end
+   * to more important locations over shortcuts, so each query settles a few hundred locations on any map size
+   */
+  CONTRACTION_HIERARCHY;
+
+  /**
+   * the system property choosing the search strategy, one of dijkstra, a_star, alt, bidirectional
+   * or contraction_hierarchy
+   */
+  public static final String PROPERTY = "pathfinder.search";
+
+  /**
+   * return the search strategy chosen by the PROPERTY system property, which defaults to A_STAR
+   *
+   * @return the configured search strategy
+   * @throws IllegalArgumentException if the property is set to an unknown strategy
+   */
+  public static SearchStrategy configured() {
+    String value = System.getProperty(PROPERTY);
+    if (value == null) {
+      return A_STAR;
+    }
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("unknown search strategy: " + value);
+    }
+  }
+}
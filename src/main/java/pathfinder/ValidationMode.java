@@ -0,0 +1,44 @@
+package pathfinder;
+
+import java.util.Locale;
+
+/**
+ * How much of its rep invariant a {@link ModelConnector} checks, and when
+ */
+public enum ValidationMode {
+  /**
+   * check the whole campus graph after construction and after every closed or reopened path,
+   * and none of it on other calls
+   */
+  FULL,
+
+  /**
+   * check the whole campus graph when FULL does, and also a few randomly chosen locations on every other call
+   */
+  SAMPLED,
+
+  /** never walk the campus graph */
+  OFF;
+
+  /** the system property choosing the validation mode, one of full, sampled or off */
+  public static final String PROPERTY = "pathfinder.validation";
+
+  /**
+   * return the validation mode chosen by the PROPERTY system property, which defaults to SAMPLED
+   * when assertions are enabled and OFF when they are not
+   *
+   * @return the configured validation mode
+   * @throws IllegalArgumentException if the property is set to an unknown mode
+   */
+  public static ValidationMode configured() {
+    String value = System.getProperty(PROPERTY);
+    if (value == null) {
+      return ValidationMode.class.desiredAssertionStatus() ? SAMPLED : OFF;
+    }
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("unknown validation mode: " + value);
+    }
+  }
+}
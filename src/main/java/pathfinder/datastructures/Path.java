@@ -91,6 +91,59 @@ public class Path<Node> implements Iterable<Path<Node>.Segment> {
     return extendedPath;
   }
 
+  /**
+   * Appends several segments to the end of this path, one to every object of {@code newEnds} in order,
+   * each originating at the end of the segment before it. Unlike calling {@link #extend(Object, double)}
+   * once per segment, this copies the segments of this path once.
+   *
+   * @param newEnds      The objects being added at the end of every segment being appended to this path
+   * @param segmentCosts The cost of every segment being added, in the order of {@code newEnds}
+   * @return A new path representing the current path with the given segments appended to the end.
+   * @throws IllegalArgumentException if {@code newEnds} and {@code segmentCosts} differ in size
+   */
+  public Path<Node> extend(List<Node> newEnds, List<Double> segmentCosts) {
+    if (newEnds.size() != segmentCosts.size()) {
+      throw new IllegalArgumentException("every segment must have a cost");
+    }
+    double[] costs = new double[segmentCosts.size()];
+    for (int i = 0; i < costs.length; i++) {
+      costs[i] = segmentCosts.get(i);
+    }
+    return extend(newEnds, costs);
+  }
+
+  /**
+   * Appends several segments to the end of this path like {@link #extend(List, List)}, with the costs
+   * given as primitive doubles so none of them is boxed. Costs past the size of {@code newEnds} are
+   * ignored, so a buffer larger than the path can be passed as is.
+   *
+   * @param newEnds      The objects being added at the end of every segment being appended to this path
+   * @param segmentCosts The cost of every segment being added, in the order of {@code newEnds}
+   * @return A new path representing the current path with the given segments appended to the end.
+   * @throws IllegalArgumentException if {@code segmentCosts} is shorter than {@code newEnds}
+   */
+  public Path<Node> extend(List<Node> newEnds, double[] segmentCosts) {
+    checkRep();
+    if (segmentCosts.length < newEnds.size()) {
+      throw new IllegalArgumentException("every segment must have a cost");
+    }
+    Path<Node> extendedPath = new Path<>(start);
+    extendedPath.path = new ArrayList<>(this.path.size() + newEnds.size());
+    extendedPath.path.addAll(this.path);
+    extendedPath.cost = this.cost;
+    Node end = this.getEnd();
+    for (int i = 0; i < newEnds.size(); i++) {
+      extendedPath.path.add(new Segment(end, newEnds.get(i), segmentCosts[i]));
+      extendedPath.cost += segmentCosts[i];
+      end = newEnds.get(i);
+    }
+    //
+    extendedPath.checkRep();
+    checkRep();
+    //
+    return extendedPath;
+  }
+
   /**
    * @return The total cost along this path.
    */
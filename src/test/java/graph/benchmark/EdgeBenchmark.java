@@ -0,0 +1,160 @@
+package graph.benchmark;
+
+import graph.Edge;
+import graph.Graph;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Measures the throughput of edge inserts and lookups on the high-degree nodes of the Marvel hero graph
+ *
+ * Every hero has an edge to every book they appear in and every book has an edge back to its heroes,
+ * so popular heroes and crowded books have hundreds to thousands of edges.
+ * Run with {@code gradle runEdgeBenchmark}, optionally passing the data file as the only argument.
+ */
+public final class EdgeBenchmark {
+    private static final String DATA_FILE = "src/test/resources/marvel/data/marvel.tsv";
+
+    /** the number of untimed rounds letting the JIT compile the measured code */
+    private static final int WARMUP_ROUNDS = 5;
+
+    /** the number of timed rounds */
+    private static final int ROUNDS = 10;
+
+    /** the number of highest-degree nodes whose edge sets are measured */
+    private static final int HUBS = 20;
+
+    public static void main(String[] args) throws IOException {
+        List<String[]> rows = readRows(args.length > 0 ? args[0] : DATA_FILE);
+        System.out.println(rows.size() + " hero/book rows");
+
+        Graph<String, String> graph = null;
+        double[] addChild = new double[ROUNDS];
+        double[] hasLabel = new double[ROUNDS];
+        double[] edgeSet = new double[ROUNDS];
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            graph = build(rows);
+            long built = System.nanoTime();
+            int found = lookUp(graph, rows);
+            long looked = System.nanoTime();
+            if (found != 2 * rows.size()) {
+                throw new IllegalStateException("missing edges");
+            }
+            if (round >= 0) {
+                addChild[round] = opsPerSecond(2L * rows.size(), built - start);
+                hasLabel[round] = opsPerSecond(2L * rows.size(), looked - built);
+            }
+        }
+
+        List<String> hubs = hubs(graph);
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long ops = edgeSets(graph, hubs);
+            if (round >= 0) {
+                edgeSet[round] = opsPerSecond(ops, System.nanoTime() - start);
+            }
+        }
+
+        System.out.println("largest degree: " + graph.getEdges(hubs.get(0)).size() + " (" + hubs.get(0) + ")");
+        report("Graph.addChild", addChild);
+        report("Graph.hasLabel", hasLabel);
+        report("Edge set add/contains on hubs", edgeSet);
+    }
+
+    /**
+     * read the hero and book of every row of a tab separated file with a header line
+     */
+    private static List<String[]> readRows(String file) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            reader.readLine();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String[] row = line.split("\t");
+                if (row.length == 2) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * build the hero/book graph one edge at a time
+     */
+    private static Graph<String, String> build(List<String[]> rows) {
+        Graph<String, String> graph = new Graph<>();
+        for (String[] row : rows) {
+            graph.addNode(row[0]);
+            graph.addNode(row[1]);
+            graph.addChild(row[0], row[1], row[1]);
+            graph.addChild(row[1], row[0], row[0]);
+        }
+        return graph;
+    }
+
+    /**
+     * look up every edge of the graph, returning the number found
+     */
+    private static int lookUp(Graph<String, String> graph, List<String[]> rows) {
+        int found = 0;
+        for (String[] row : rows) {
+            if (graph.hasLabel(row[0], row[1], row[1])) {
+                found++;
+            }
+            if (graph.hasLabel(row[1], row[0], row[0])) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * return the nodes with the most outgoing edges, highest first
+     */
+    private static List<String> hubs(Graph<String, String> graph) {
+        List<String> nodes = new ArrayList<>(graph.getNodes());
+        Map<String, Integer> degree = new HashMap<>();
+        for (String n : nodes) {
+            degree.put(n, graph.getEdgesView(n).size());
+        }
+        nodes.sort((a, b) -> Integer.compare(degree.get(b), degree.get(a)));
+        return nodes.subList(0, Math.min(HUBS, nodes.size()));
+    }
+
+    /**
+     * copy the edges of every hub into a hash set and look every edge up in it, returning the number of operations
+     */
+    private static long edgeSets(Graph<String, String> graph, List<String> hubs) {
+        long ops = 0;
+        for (String hub : hubs) {
+            Set<Edge<String, String>> edges = graph.getEdges(hub);
+            for (Edge<String, String> e : graph.getEdgesView(hub)) {
+                if (!edges.contains(new Edge<>(e.getChild(), e.getLabel()))) {
+                    throw new IllegalStateException("missing edge " + e);
+                }
+            }
+            ops += 2L * edges.size();
+        }
+        return ops;
+    }
+
+    private static double opsPerSecond(long ops, long nanos) {
+        return ops * 1e9 / nanos;
+    }
+
+    /**
+     * print the median and best of the measured rounds
+     */
+    private static void report(String name, double[] rounds) {
+        double[] sorted = rounds.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-32s median %,14.0f ops/s   best %,14.0f ops/s%n",
+                name, sorted[sorted.length / 2], sorted[sorted.length - 1]);
+    }
+}
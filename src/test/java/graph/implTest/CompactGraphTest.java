@@ -0,0 +1,141 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import graph.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of CompactGraph class
+ */
+
+public final class CompactGraphTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private Graph<String, Double> graph;
+    private CompactGraph<String> compact;
+
+    @Before
+    public void setUp() {
+        graph = new Graph<>();
+        graph.addNode("n1");
+        graph.addNode("n2");
+        graph.addNode("n3");
+        graph.addChild("n1", "n2", 1.0);
+        graph.addChild("n1", "n2", 2.0);
+        graph.addChild("n1", "n3", 3.0);
+        graph.addChild("n3", "n3", 4.0);
+        compact = CompactGraph.of(graph);
+    }
+
+    @Test
+    public void testSize() {
+        assertEquals(3, compact.size());
+        assertEquals(4, compact.edgeCount());
+    }
+
+    @Test
+    public void testIds() {
+        for (String n : graph.getNodes()) {
+            assertTrue(compact.hasNode(n));
+            assertEquals(n, compact.nodeAt(compact.idOf(n)));
+        }
+        assertFalse(compact.hasNode("n4"));
+        assertEquals(-1, compact.idOf("n4"));
+    }
+
+    @Test
+    public void testEdges() {
+        int n1 = compact.idOf("n1");
+        assertEquals(3, compact.edgeEnd(n1) - compact.edgeStart(n1));
+        Set<Edge<String, Double>> edges = new HashSet<>();
+        for (int e = compact.edgeStart(n1); e < compact.edgeEnd(n1); e++) {
+            edges.add(new Edge<>(compact.nodeAt(compact.target(e)), compact.weight(e)));
+        }
+        assertEquals(graph.getEdges("n1"), edges);
+    }
+
+    @Test
+    public void testNoEdges() {
+        int n2 = compact.idOf("n2");
+        assertEquals(compact.edgeStart(n2), compact.edgeEnd(n2));
+    }
+
+    @Test
+    public void testSnapshotUnchanged() {
+        graph.addChild("n2", "n1", 5.0);
+        int n2 = compact.idOf("n2");
+        assertEquals(compact.edgeStart(n2), compact.edgeEnd(n2));
+    }
+
+    @Test
+    public void testSpatiallyOrdered() {
+        // node "xy" is at (x, y)
+        NodeCoordinates<String> coordinates = new NodeCoordinates<>() {
+            @Override
+            public double x(String node) {
+                return node.charAt(0) - '0';
+            }
+
+            @Override
+            public double y(String node) {
+                return node.charAt(1) - '0';
+            }
+
+            @Override
+            public String at(double x, double y) {
+                return "" + (int) x + (int) y;
+            }
+        };
+        Graph<String, Double> grid = new GraphBuilder<String, Double>()
+                .addEdge("00", "10", 1.0)
+                .addEdge("10", "11", 2.0)
+                .addEdge("11", "01", 3.0)
+                .addEdge("01", "00", 4.0)
+                .addEdge("00", "11", 5.0)
+                .build();
+        CompactGraph<String> ordered = CompactGraph.of(grid).spatiallyOrdered(coordinates);
+        assertEquals(List.of("00", "01", "11", "10"),
+                List.of(ordered.nodeAt(0), ordered.nodeAt(1), ordered.nodeAt(2), ordered.nodeAt(3)));
+        assertEquals(5, ordered.edgeCount());
+        for (String n : grid.getNodes()) {
+            int id = ordered.idOf(n);
+            assertEquals(n, ordered.nodeAt(id));
+            Set<Edge<String, Double>> edges = new HashSet<>();
+            for (int e = ordered.edgeStart(id); e < ordered.edgeEnd(id); e++) {
+                edges.add(new Edge<>(ordered.nodeAt(ordered.target(e)), ordered.weight(e)));
+            }
+            assertEquals(grid.getEdges(n), edges);
+        }
+    }
+
+    @Test
+    public void testTransposeOf() {
+        CompactGraph<String> reversed = CompactGraph.transposeOf(compact);
+        assertEquals(compact.size(), reversed.size());
+        assertEquals(compact.edgeCount(), reversed.edgeCount());
+        for (String n : graph.getNodes()) {
+            assertEquals(compact.idOf(n), reversed.idOf(n));
+        }
+        Map<String, Set<Edge<String, Double>>> incoming = new HashMap<>();
+        for (String n : graph.getNodes()) {
+            incoming.put(n, new HashSet<>());
+        }
+        for (String n : graph.getNodes()) {
+            for (Edge<String, Double> edge : graph.getEdges(n)) {
+                incoming.get(edge.getChild()).add(new Edge<>(n, edge.getLabel()));
+            }
+        }
+        for (String n : graph.getNodes()) {
+            int id = reversed.idOf(n);
+            Set<Edge<String, Double>> edges = new HashSet<>();
+            for (int e = reversed.edgeStart(id); e < reversed.edgeEnd(id); e++) {
+                edges.add(new Edge<>(reversed.nodeAt(reversed.target(e)), reversed.weight(e)));
+            }
+            assertEquals(incoming.get(n), edges);
+        }
+    }
+}
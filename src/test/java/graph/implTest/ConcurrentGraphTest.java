@@ -0,0 +1,222 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import graph.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of ConcurrentGraph class
+ */
+
+public final class ConcurrentGraphTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private ConcurrentGraph<String, String> graph;
+
+    @Before
+    public void setUp() {
+        Graph<String, String> source = new Graph<>();
+        source.addNode("n1");
+        source.addNode("n2");
+        source.addNode("n3");
+        source.addChild("n1", "n2", "e1");
+        source.addChild("n1", "n2", "e2");
+        source.addChild("n1", "n3", "e1");
+        graph = ConcurrentGraph.copyOf(source);
+    }
+
+    @Test
+    public void testCopyOf() {
+        assertEquals(3, graph.size());
+        assertEquals(Set.of("e1", "e2"), graph.getLabels("n1", "n2"));
+        assertEquals(3, graph.getEdges("n1").size());
+        assertEquals(0, graph.version());
+    }
+
+    @Test
+    public void testAddChild() {
+        assertTrue(graph.addChild("n2", "n1", "e3"));
+        assertFalse(graph.addChild("n2", "n1", "e3"));
+        assertTrue(graph.hasLabel("n2", "n1", "e3"));
+        assertEquals(1, graph.version());
+    }
+
+    @Test
+    public void testRemoveEdgeFrom() {
+        graph.removeEdgeFrom("n1", "n2", "e1");
+        assertEquals(Set.of("e2"), graph.getLabels("n1", "n2"));
+        graph.removeEdgeFrom("n1", "n2", "e2");
+        assertTrue(graph.getLabels("n1", "n2").isEmpty());
+        assertEquals(2, graph.version());
+    }
+
+    @Test
+    public void testRemoveNodeWithEdges() {
+        graph.removeNode("n2");
+        assertFalse(graph.hasNode("n2"));
+        assertEquals(Set.of(new Edge<>("n3", "e1")), graph.getEdges("n1"));
+        assertFalse(graph.forEachEdge("n2", (child, label) -> { }));
+    }
+
+    @Test
+    public void testReadWhileWriting() throws InterruptedException {
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                graph.addChild("n2", "n3", "w" + i);
+                graph.removeEdgeFrom("n2", "n3", "w" + i);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            int[] count = {0};
+            graph.forEachEdge("n2", (child, label) -> count[0]++);
+            assertTrue(count[0] <= 1);
+        }
+        writer.join();
+        assertTrue(graph.getEdges("n2").isEmpty());
+        assertEquals(2000, graph.version());
+    }
+
+    @Test
+    public void testSnapshotIsolation() {
+        GraphSnapshot<String, String> before = graph.snapshot();
+        graph.addChild("n2", "n1", "e3");
+        graph.removeNode("n3");
+        assertFalse(before.hasLabel("n2", "n1", "e3"));
+        assertTrue(before.hasNode("n3"));
+        assertEquals(3, before.getEdges("n1").size());
+        assertEquals(0, before.version());
+        GraphSnapshot<String, String> after = graph.snapshot();
+        assertTrue(after.hasLabel("n2", "n1", "e3"));
+        assertFalse(after.hasNode("n3"));
+        assertEquals(2, after.version());
+    }
+
+    @Test
+    public void testAtomically() {
+        GraphSnapshot<String, String> before = graph.snapshot();
+        graph.atomically(() -> {
+            graph.addNode("n4");
+            graph.addChild("n4", "n1", "e4");
+            assertTrue(graph.hasLabel("n4", "n1", "e4"));
+            assertFalse(graph.snapshot().hasNode("n4"));
+        });
+        assertEquals(1, graph.version());
+        assertTrue(graph.snapshot().hasLabel("n4", "n1", "e4"));
+        assertFalse(before.hasNode("n4"));
+    }
+
+    @Test
+    public void testAtomicallyRollback() {
+        try {
+            graph.atomically(() -> {
+                graph.removeNode("n2");
+                graph.addChild("n1", "n5", "e1");
+            });
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(graph.hasNode("n2"));
+            assertEquals(0, graph.version());
+        }
+    }
+
+    @Test
+    public void testAtomicallyRollbackNewNode() {
+        try {
+            graph.atomically(() -> {
+                graph.addNode("ghost");
+                throw new IllegalStateException();
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertFalse(graph.hasNode("ghost"));
+        }
+        assertTrue(graph.addNode("real"));
+        assertFalse(graph.snapshot().hasNode("ghost"));
+        assertTrue(graph.snapshot().hasNode("real"));
+        graph.addChild("real", "n1", "e5");
+        assertEquals(Set.of("e5"), graph.getLabels("real", "n1"));
+        try {
+            graph.addChild("ghost", "n1", "e6");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(graph.getLabels("real", "n1").equals(Set.of("e5")));
+        }
+        assertTrue(graph.addNode("ghost"));
+        assertTrue(graph.getEdges("ghost").isEmpty());
+    }
+
+    @Test
+    public void testReaddRemovedNode() {
+        graph.removeNode("n3");
+        assertTrue(graph.addNode("n3"));
+        assertTrue(graph.getEdges("n3").isEmpty());
+        assertEquals(Set.of("e1", "e2"), graph.getLabels("n1", "n2"));
+        assertEquals(3, graph.size());
+    }
+
+    @Test
+    public void testListenerSeesPublishedChange() {
+        List<GraphEvent<String, String>> received = new ArrayList<>();
+        graph.addListener(events -> {
+            received.addAll(events);
+            assertEquals(1, graph.snapshot().version());
+        });
+        graph.addChild("n2", "n1", "e3");
+        assertEquals(List.of(GraphEvent.edgeAdded("n2", "n1", "e3")), received);
+    }
+
+    @Test
+    public void testListenerOnRemoveNode() {
+        graph.addChild("n2", "n2", "e3");
+        graph.addChild("n2", "n3", "e4");
+        List<GraphEvent<String, String>> received = new ArrayList<>();
+        graph.addListener(received::addAll);
+        graph.removeNode("n2");
+        assertEquals(Set.of(GraphEvent.edgeRemoved("n1", "n2", "e1"), GraphEvent.edgeRemoved("n1", "n2", "e2"),
+                GraphEvent.edgeRemoved("n2", "n2", "e3"), GraphEvent.edgeRemoved("n2", "n3", "e4")),
+                new HashSet<>(received.subList(0, received.size() - 1)));
+        assertEquals(5, received.size());
+        assertEquals(GraphEvent.nodeRemoved("n2"), received.get(4));
+    }
+
+    @Test
+    public void testAtomicallyDeliversOnceOrNever() {
+        List<List<GraphEvent<String, String>>> received = new ArrayList<>();
+        graph.addListener(received::add);
+        graph.atomically(() -> {
+            graph.removeEdgeFrom("n1", "n2", "e1");
+            graph.removeEdgeFrom("n1", "n2", "e2");
+        });
+        assertEquals(List.of(List.of(GraphEvent.edgeRemoved("n1", "n2", "e1"),
+                GraphEvent.edgeRemoved("n1", "n2", "e2"))), received);
+        try {
+            graph.atomically(() -> {
+                graph.addChild("n1", "n2", "e1");
+                graph.addChild("n1", "n5", "e1");
+            });
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(1, received.size());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddEdgeToNonExistChild() {
+        graph.addChild("n1", "n4", "e1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoveEdgeOnNonExistLabel() {
+        graph.removeEdgeFrom("n1", "n2", "e5");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetEdgeOnNonExistParent() {
+        graph.getEdges("n5");
+    }
+}
@@ -0,0 +1,192 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import graph.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of ContractionHierarchy class
+ */
+
+public final class ContractionHierarchyTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static final int SIDE = 15;
+
+    private CompactGraph<Integer> grid;
+    private ContractionHierarchy<Integer> hierarchy;
+
+    /**
+     * @return a street grid of SIDE by SIDE nodes with random one-way and missing streets and random lengths
+     */
+    private static CompactGraph<Integer> grid(Random random) {
+        GraphBuilder<Integer, Double> builder = new GraphBuilder<>();
+        for (int i = 0; i < SIDE; i++) {
+            for (int j = 0; j < SIDE; j++) {
+                int n = i * SIDE + j;
+                builder.addNode(n);
+                for (int other : new int[] {i + 1 < SIDE ? n + SIDE : -1, j + 1 < SIDE ? n + 1 : -1}) {
+                    if (other != -1 && random.nextInt(6) > 0) {
+                        builder.addEdge(n, other, 1.0 + random.nextInt(10));
+                    }
+                    if (other != -1 && random.nextInt(6) > 0) {
+                        builder.addEdge(other, n, 1.0 + random.nextInt(10));
+                    }
+                }
+            }
+        }
+        return CompactGraph.of(builder.build());
+    }
+
+    /**
+     * @return the distance of the shortest path from start to every node of graph, by Dijkstra's algorithm
+     */
+    private static double[] distances(IndexedGraph<Integer> graph, int start) {
+        double[] dist = new double[graph.size()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[graph.idOf(start)] = 0;
+        PriorityQueue<double[]> active = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        active.add(new double[] {0, graph.idOf(start)});
+        while (!active.isEmpty()) {
+            double[] min = active.remove();
+            int n = (int) min[1];
+            if (min[0] > dist[n]) {
+                continue;
+            }
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                if (min[0] + graph.weight(e) < dist[graph.target(e)]) {
+                    dist[graph.target(e)] = min[0] + graph.weight(e);
+                    active.add(new double[] {dist[graph.target(e)], graph.target(e)});
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * @return the weight of the edge from parent to child in graph, failing if there is none
+     */
+    private static double edgeWeight(IndexedGraph<Integer> graph, int parent, int child) {
+        int p = graph.idOf(parent);
+        double weight = Double.POSITIVE_INFINITY;
+        for (int e = graph.edgeStart(p); e < graph.edgeEnd(p); e++) {
+            if (graph.nodeAt(graph.target(e)) == child) {
+                weight = Math.min(weight, graph.weight(e));
+            }
+        }
+        assertTrue("route uses an edge of the graph", weight < Double.POSITIVE_INFINITY);
+        return weight;
+    }
+
+    @Before
+    public void setUp() {
+        grid = grid(new Random(331));
+        hierarchy = ContractionHierarchy.build(grid);
+    }
+
+    @Test
+    public void testDistancesMatchDijkstra() {
+        for (int start = 0; start < SIDE * SIDE; start += 7) {
+            double[] expected = distances(grid, start);
+            for (int end = 0; end < SIDE * SIDE; end++) {
+                assertEquals(expected[grid.idOf(end)], hierarchy.distance(start, end), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testRoutesAreUnpacked() {
+        for (int start = 0; start < SIDE * SIDE; start += 11) {
+            double[] expected = distances(grid, start);
+            for (int end = 0; end < SIDE * SIDE; end += 3) {
+                List<Integer> nodes = new ArrayList<>(List.of(start));
+                double[] cost = {0};
+                boolean found = hierarchy.route(start, end, (child, weight) -> {
+                    assertEquals(edgeWeight(grid, nodes.get(nodes.size() - 1), child), weight, 0);
+                    nodes.add(child);
+                    cost[0] += weight;
+                });
+                assertEquals(expected[grid.idOf(end)] < Double.POSITIVE_INFINITY, found);
+                if (found) {
+                    assertEquals(end, (int) nodes.get(nodes.size() - 1));
+                    assertEquals(expected[grid.idOf(end)], cost[0], 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSameStartAndEnd() {
+        assertEquals(0, Double.compare(0.0, hierarchy.distance(5, 5)));
+        assertTrue(hierarchy.route(5, 5, (child, weight) -> fail("no edge")));
+    }
+
+    @Test
+    public void testNoPath() {
+        CompactGraph<String> graph = CompactGraph.of(new GraphBuilder<String, Double>()
+                .addEdge("a", "b", 1.0)
+                .addEdge("b", "c", 2.0)
+                .addEdge("a", "c", 4.0)
+                .build());
+        ContractionHierarchy<String> small = ContractionHierarchy.build(graph);
+        assertEquals(3.0, small.distance("a", "c"), 0);
+        assertEquals(Double.POSITIVE_INFINITY, small.distance("c", "a"), 0);
+        assertFalse(small.route("c", "a", (child, weight) -> fail("no edge")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownNode() {
+        hierarchy.distance(0, -1);
+    }
+
+    @Test
+    public void testShortcutsAdded() {
+        assertTrue(hierarchy.shortcutCount() > 0);
+        assertTrue(hierarchy.edgeCount() >= hierarchy.shortcutCount());
+        assertSame(grid, hierarchy.graph());
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path file = Files.createTempFile("hierarchy", ".ch");
+        try {
+            hierarchy.write(file);
+            ContractionHierarchy<Integer> read = ContractionHierarchy.read(file, grid);
+            assertEquals(hierarchy.edgeCount(), read.edgeCount());
+            for (int end = 0; end < SIDE * SIDE; end++) {
+                assertEquals(hierarchy.distance(3, end), read.distance(3, end), 0);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadForOtherGraph() throws IOException {
+        Path file = Files.createTempFile("hierarchy", ".ch");
+        try {
+            hierarchy.write(file);
+            ContractionHierarchy.read(file, grid(new Random(332)));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadOtherFile() throws IOException {
+        Path file = Files.createTempFile("hierarchy", ".ch");
+        try {
+            Files.write(file, new byte[] {1, 2, 3});
+            ContractionHierarchy.read(file, grid);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import graph.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of DoubleWeightedGraph class
+ */
+
+public final class DoubleWeightedGraphTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private DoubleWeightedGraph<String> graph;
+
+    @Before
+    public void setUp() {
+        graph = new DoubleWeightedGraph<>();
+        graph.addNode("n1");
+        graph.addNode("n2");
+        graph.addNode("n3");
+        graph.addChild("n1", "n2", 1.0);
+        graph.addChild("n1", "n2", 2.0);
+        graph.addChild("n1", "n3", 1.0);
+    }
+
+    @Test
+    public void testAddDuplicateNode() {
+        assertFalse(graph.addNode("n1"));
+        assertEquals(3, graph.getNodes().size());
+    }
+
+    @Test
+    public void testAddDuplicateEdge() {
+        assertFalse(graph.addChild("n1", "n2", 1.0));
+        assertEquals(3, graph.outDegree("n1"));
+    }
+
+    @Test
+    public void testHasEdge() {
+        assertTrue(graph.hasEdge("n1", "n2", 2.0));
+        assertFalse(graph.hasEdge("n1", "n2", 3.0));
+        assertFalse(graph.hasEdge("n2", "n1", 1.0));
+    }
+
+    @Test
+    public void testForEachEdge() {
+        Map<String, Double> total = new HashMap<>();
+        graph.forEachEdge("n1", (child, weight) -> total.merge(child, weight, Double::sum));
+        assertEquals(3.0, total.get("n2"), 0);
+        assertEquals(1.0, total.get("n3"), 0);
+    }
+
+    @Test
+    public void testRemoveEdgeFrom() {
+        graph.removeEdgeFrom("n1", "n2", 1.0);
+        assertFalse(graph.hasEdge("n1", "n2", 1.0));
+        assertTrue(graph.hasEdge("n1", "n2", 2.0));
+        assertEquals(2, graph.outDegree("n1"));
+    }
+
+    @Test
+    public void testRemoveNodeWithEdges() {
+        graph.removeNode("n2");
+        assertFalse(graph.hasNode("n2"));
+        assertEquals(1, graph.outDegree("n1"));
+        assertTrue(graph.hasEdge("n1", "n3", 1.0));
+    }
+
+    @Test
+    public void testRemoveNodeWithSelfLoop() {
+        graph.addChild("n3", "n3", 1.0);
+        graph.addChild("n3", "n1", 1.0);
+        graph.removeNode("n3");
+        assertEquals(2, graph.outDegree("n1"));
+        graph.addNode("n3");
+        assertTrue(graph.addChild("n1", "n3", 1.0));
+        assertEquals(0, graph.outDegree("n3"));
+    }
+
+    @Test
+    public void testHubDegree() {
+        // a hub with as many edges as the busiest nodes of a street network, times ten
+        DoubleWeightedGraph<Integer> hub = new DoubleWeightedGraph<>();
+        int children = 50000;
+        for (int n = 0; n <= children; n++) {
+            hub.addNode(n);
+        }
+        for (int n = 1; n <= children; n++) {
+            assertTrue(hub.addChild(0, n, 1.0));
+            assertTrue(hub.addChild(0, n, 2.0));
+            assertTrue(hub.addChild(n, 0, 1.0));
+        }
+        for (int n = 1; n <= children; n++) {
+            assertFalse(hub.addChild(0, n, 2.0));
+        }
+        for (int n = 1; n <= children; n += 2) {
+            hub.removeEdgeFrom(0, n, 1.0);
+        }
+        for (int n = 1; n <= children; n += 4) {
+            hub.removeNode(n);
+        }
+        for (int n = 2; n <= children; n += 2) {
+            assertTrue(hub.hasEdge(0, n, 1.0));
+            assertTrue(hub.hasEdge(0, n, 2.0));
+        }
+        for (int n = 3; n <= children; n += 4) {
+            assertFalse(hub.hasEdge(0, n, 1.0));
+            assertTrue(hub.hasEdge(0, n, 2.0));
+        }
+        assertEquals(children + children / 4, hub.outDegree(0));
+        hub.removeNode(0);
+        assertEquals(0, hub.outDegree(2));
+    }
+
+    @Test
+    public void testRandomEdgesMatchSet() {
+        // few children and weights, so that the hashed edges of a node collide, move and are removed often
+        Random random = new Random(2);
+        DoubleWeightedGraph<Integer> randomGraph = new DoubleWeightedGraph<>();
+        Set<List<Object>> expected = new HashSet<>();
+        for (int n = 0; n < 40; n++) {
+            randomGraph.addNode(n);
+        }
+        for (int i = 0; i < 20000; i++) {
+            int parent = random.nextInt(3);
+            int child = random.nextInt(40);
+            double weight = random.nextInt(4);
+            List<Object> edge = List.of(parent, child, weight);
+            if (random.nextInt(3) == 0 && expected.remove(edge)) {
+                randomGraph.removeEdgeFrom(parent, child, weight);
+            } else {
+                assertEquals(expected.add(edge), randomGraph.addChild(parent, child, weight));
+            }
+        }
+        for (int parent = 0; parent < 3; parent++) {
+            Set<List<Object>> edges = new HashSet<>();
+            int from = parent;
+            randomGraph.forEachEdge(parent, (child, weight) -> assertTrue(edges.add(List.of(from, child, weight))));
+            for (List<Object> edge : expected) {
+                if (edge.get(0).equals(parent)) {
+                    assertTrue(edges.remove(edge));
+                }
+            }
+            assertTrue(edges.isEmpty());
+        }
+    }
+
+    @Test
+    public void testCompactCopy() {
+        CompactGraph<String> compact = CompactGraph.of(graph);
+        assertEquals(3, compact.size());
+        assertEquals(3, compact.edgeCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddEdgeToNonExistChild() {
+        graph.addChild("n1", "n4", 1.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoveEdgeOnNonExistWeight() {
+        graph.removeEdgeFrom("n1", "n2", 5.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForEachEdgeOnNonExistParent() {
+        graph.forEachEdge("n4", (child, weight) -> { });
+    }
+}
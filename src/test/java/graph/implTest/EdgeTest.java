@@ -32,6 +32,35 @@ public class EdgeTest {
         assertEquals("e1", edge1.getLabel());
     }
 
+    @Test
+    public void testEquals() {
+        assertEquals(new Edge<>("n2", "e1"), edge1);
+        assertEquals(new Edge<>("n2", "e1").hashCode(), edge1.hashCode());
+        assertNotEquals(new Edge<>("n2", "e2"), edge1);
+        assertNotEquals(new Edge<>("n1", "e1"), edge1);
+        assertNotEquals(edge1, "n2(e1)");
+    }
+
+    @Test
+    public void testEqualsWithCollidingHashes() {
+        // "Aa" and "BB" have the same hash code
+        Edge<String, String> e1 = new Edge<>("Aa", "BB");
+        Edge<String, String> e2 = new Edge<>("BB", "Aa");
+        assertNotEquals(e1, new Edge<>("BB", "BB"));
+        assertNotEquals(e1, e2);
+    }
+
+    @Test
+    public void testHashSetOfSwappedEdges() {
+        Set<Edge<Integer, Integer>> set = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            set.add(new Edge<>(i, 99 - i));
+        }
+        assertEquals(100, set.size());
+        assertTrue(set.contains(new Edge<>(30, 69)));
+        assertFalse(set.contains(new Edge<>(30, 70)));
+    }
+
     @Test
     public void testToString() {
         assertEquals("n2(e1)", edge1.toString());
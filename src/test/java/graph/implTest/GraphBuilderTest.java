@@ -0,0 +1,90 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import graph.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of GraphBuilder class
+ */
+
+public final class GraphBuilderTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    @Test
+    public void testBuildEmpty() {
+        assertTrue(new GraphBuilder<String, String>(0).build().getNodes().isEmpty());
+    }
+
+    @Test
+    public void testBuildAddsNodesOfEdges() {
+        Graph<String, String> graph = new GraphBuilder<String, String>()
+                .addEdge("n1", "n2", "e1")
+                .addEdge("n2", "n3", "e2")
+                .addNode("n4")
+                .build();
+        assertEquals(Set.of("n1", "n2", "n3", "n4"), graph.getNodes());
+        assertTrue(graph.hasLabel("n1", "n2", "e1"));
+        assertTrue(graph.hasLabel("n2", "n3", "e2"));
+        assertTrue(graph.getEdges("n3").isEmpty());
+    }
+
+    @Test
+    public void testBuildDropsDuplicates() {
+        Graph<String, String> graph = new GraphBuilder<String, String>(2)
+                .addEdge("n1", "n2", "e1")
+                .addEdge("n1", "n2", "e1")
+                .addEdge("n1", "n2", "e2")
+                .addNode("n1")
+                .build();
+        assertEquals(Set.of("e1", "e2"), graph.getLabels("n1", "n2"));
+        assertEquals(2, graph.getEdges("n1").size());
+    }
+
+    @Test
+    public void testAddEdges() {
+        List<String[]> records = List.of(new String[] {"n1", "n2", "e1"}, new String[] {"n2", "n3", "e2"},
+                new String[] {"n1", "n2", "e1"}, new String[] {"n1", "n2", "e3"});
+        Graph<String, String> graph = new GraphBuilder<String, String>()
+                .addNode("n4")
+                .addEdges(records, r -> r[0], r -> r[1], r -> r[2])
+                .build();
+        assertEquals(Set.of("n1", "n2", "n3", "n4"), graph.getNodes());
+        assertEquals(Set.of("e1", "e3"), graph.getLabels("n1", "n2"));
+        assertTrue(graph.hasLabel("n2", "n3", "e2"));
+        assertTrue(graph.getEdges("n3").isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddEdgesAfterBuild() {
+        GraphBuilder<String, String> builder = new GraphBuilder<>();
+        builder.build();
+        builder.addEdges(List.<String>of(), r -> r, r -> r, r -> r);
+    }
+
+    @Test
+    public void testBuiltGraphIsModifiable() {
+        Graph<String, String> graph = new GraphBuilder<String, String>()
+                .addEdge("n1", "n2", "e1")
+                .build();
+        graph.removeEdgeFrom("n1", "n2", "e1");
+        assertFalse(graph.isChildOf("n2", "n1"));
+        graph.removeNode("n2");
+        assertEquals(Set.of("n1"), graph.getNodes());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddAfterBuild() {
+        GraphBuilder<String, String> builder = new GraphBuilder<>();
+        builder.build();
+        builder.addNode("n1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeExpectedNodes() {
+        new GraphBuilder<String, String>(-1);
+    }
+}
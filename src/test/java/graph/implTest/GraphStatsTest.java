@@ -0,0 +1,100 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import graph.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of GraphStats class
+ */
+
+public final class GraphStatsTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private Graph<String, Double> graph;
+
+    @Before
+    public void setUp() {
+        graph = new GraphBuilder<String, Double>()
+                .addEdge("n1", "n2", 1.0)
+                .addEdge("n1", "n2", 2.0)
+                .addEdge("n1", "n3", 3.0)
+                .addEdge("n3", "n3", 4.0)
+                .build();
+    }
+
+    /**
+     * assert stats describe the graph of setUp
+     */
+    private static void assertSetUpStats(GraphStats stats) {
+        assertEquals(3, stats.nodeCount());
+        assertEquals(4, stats.edgeCount());
+        assertEquals(1, stats.duplicateEdgeCount());
+        assertEquals(3, stats.maxOutDegree());
+        assertArrayEquals(new int[] {1, 1, 0, 1}, stats.outDegreeHistogram());
+        assertEquals(1, stats.nodesWithOutDegree(3));
+        assertEquals(0, stats.nodesWithOutDegree(4));
+        assertTrue(stats.heapBytes() > 0);
+    }
+
+    @Test
+    public void testGraphStats() {
+        assertSetUpStats(graph.stats());
+        assertEquals(0, graph.stats().offHeapBytes());
+    }
+
+    @Test
+    public void testCompactGraphStats() {
+        assertSetUpStats(CompactGraph.of(graph).stats());
+    }
+
+    @Test
+    public void testConcurrentGraphStats() {
+        ConcurrentGraph<String, Double> concurrent = ConcurrentGraph.copyOf(graph);
+        assertSetUpStats(concurrent.stats());
+        GraphSnapshot<String, Double> before = concurrent.snapshot();
+        concurrent.removeEdgeFrom("n1", "n2", 2.0);
+        assertEquals(0, concurrent.stats().duplicateEdgeCount());
+        assertSetUpStats(before.stats());
+    }
+
+    @Test
+    public void testDoubleWeightedGraphStats() {
+        DoubleWeightedGraph<String> weighted = new DoubleWeightedGraph<>();
+        weighted.addNode("n1");
+        weighted.addNode("n2");
+        weighted.addNode("n3");
+        weighted.addChild("n1", "n2", 1.0);
+        weighted.addChild("n1", "n2", 2.0);
+        weighted.addChild("n1", "n3", 3.0);
+        weighted.addChild("n3", "n3", 4.0);
+        assertSetUpStats(weighted.stats());
+    }
+
+    @Test
+    public void testIncomingIndexCostsBytes() {
+        Graph<String, Double> indexed = new Graph<>(true);
+        for (String n : graph.getNodes()) {
+            indexed.addNode(n);
+        }
+        for (String n : graph.getNodes()) {
+            for (Edge<String, Double> e : graph.getEdges(n)) {
+                indexed.addChild(n, e);
+            }
+        }
+        assertSetUpStats(indexed.stats());
+        assertTrue(indexed.stats().heapBytes() > graph.stats().heapBytes());
+    }
+
+    @Test
+    public void testEmptyGraphStats() {
+        GraphStats stats = new Graph<String, Double>().stats();
+        assertEquals(0, stats.nodeCount());
+        assertEquals(0, stats.edgeCount());
+        assertEquals(0, stats.maxOutDegree());
+    }
+}
@@ -112,6 +112,16 @@ public final class GraphTest {
         assertTrue(graph3.isChildOf("n3", "n1"));
     }
 
+    @Test
+    public void testIsChildAfterRemovingLabels() {
+        graph3.removeEdgeFrom("n1", "n2", "e1");
+        assertTrue(graph3.isChildOf("n2", "n1"));
+        assertFalse(graph3.hasLabel("n1", "n2", "e1"));
+        graph3.removeEdgeFrom("n1", "n2", "e2");
+        assertFalse(graph3.isChildOf("n2", "n1"));
+        assertFalse(graph3.isChildOf("n1", "n2"));
+    }
+
     @Test
     public void testGetNodesSize() {
         Set<String> s = graph3.getNodes();
@@ -184,6 +194,120 @@ public final class GraphTest {
         assertTrue(g1.getEdges("n1").contains(e));
     }
 
+    @Test
+    public void testEdgesView() {
+        Set<Edge<String, String>> view = graph3.getEdgesView("n1");
+        assertEquals(graph3.getEdges("n1"), view);
+        graph3.addChild("n1", "n1", "e3");
+        assertEquals(4, view.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testEdgesViewUnmodifiable() {
+        graph3.getEdgesView("n1").clear();
+    }
+
+    @Test
+    public void testNodesView() {
+        Set<String> view = graph3.getNodesView();
+        assertEquals(graph3.getNodes(), view);
+        graph3.addNode("n4");
+        assertTrue(view.contains("n4"));
+    }
+
+    @Test
+    public void testForEachEdge() {
+        Set<Edge<String, String>> s = new HashSet<>();
+        graph3.forEachEdge("n1", (child, label) -> s.add(new Edge<>(child, label)));
+        assertEquals(graph3.getEdges("n1"), s);
+    }
+
+    @Test
+    public void testForEachWeightedEdge() {
+        double[] total = {0};
+        graph3.forEachEdge("n1", label -> label.length(), (child, weight) -> total[0] += weight);
+        assertEquals(6.0, total[0], 0);
+    }
+
+    @Test
+    public void testEdgeCursor() {
+        Set<Edge<String, String>> s = new HashSet<>();
+        EdgeCursor<String, String> cursor = graph3.edgeCursor("n1");
+        while (cursor.next()) {
+            s.add(new Edge<>(cursor.child(), cursor.label()));
+        }
+        assertEquals(graph3.getEdges("n1"), s);
+        assertFalse(graph2.edgeCursor("n1").next());
+    }
+
+    @Test
+    public void testWeightedEdgeCursor() {
+        double total = 0;
+        DoubleEdgeCursor<String, String> cursor = graph3.edgeCursor("n1", label -> label.length());
+        while (cursor.next()) {
+            assertEquals(cursor.label().length(), cursor.weight(), 0);
+            total += cursor.weight();
+        }
+        assertEquals(6.0, total, 0);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testWeightedEdgeCursorBeforeNext() {
+        graph3.edgeCursor("n1", label -> label.length()).weight();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testEdgeCursorBeforeNext() {
+        graph3.edgeCursor("n1").child();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForEachEdgeOnNonExistParent() {
+        graph3.forEachEdge("n5", (child, label) -> { });
+    }
+
+    @Test
+    public void testIncomingEdges() {
+        Set<Edge<String, String>> s = graph3.getIncomingEdges("n2");
+        assertEquals(2, s.size());
+        assertTrue(s.contains(new Edge<>("n1", "e1")) && s.contains(new Edge<>("n1", "e2")));
+        assertTrue(graph3.getIncomingEdges("n1").isEmpty());
+    }
+
+    @Test
+    public void testIndexedIncomingEdges() {
+        Graph<String, String> g1 = new Graph<>(true);
+        g1.addNode("n1");
+        g1.addNode("n2");
+        g1.addChild("n1", "n2", "e1");
+        g1.addChild("n2", "n2", "e2");
+        assertEquals(2, g1.getIncomingEdges("n2").size());
+        g1.removeEdgeFrom("n2", "n2", "e2");
+        assertEquals(Set.of(new Edge<>("n1", "e1")), g1.getIncomingEdges("n2"));
+    }
+
+    @Test
+    public void testIndexedRemoveNodeWithEdges() {
+        Graph<String, String> g1 = new Graph<>(true);
+        g1.addNode("n1");
+        g1.addNode("n2");
+        g1.addNode("n3");
+        g1.addChild("n1", "n2", "e1");
+        g1.addChild("n2", "n1", "e2");
+        g1.addChild("n2", "n3", "e3");
+        g1.addChild("n2", "n2", "e4");
+        g1.removeNode("n2");
+        assertFalse(g1.hasNode("n2"));
+        assertTrue(g1.getEdges("n1").isEmpty());
+        assertTrue(g1.getIncomingEdges("n1").isEmpty());
+        assertTrue(g1.getIncomingEdges("n3").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncomingEdgesOnNonExistNode() {
+        graph3.getIncomingEdges("n5");
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testAddEdgeToNonExistParent() {
         graph1.addChild("n3", "n1", "e1");
@@ -224,6 +348,62 @@ public final class GraphTest {
         graph3.removeEdgeFrom("n1", "n2", "e5");
     }
 
+    @Test
+    public void testListenerReceivesChanges() {
+        List<List<GraphEvent<String, String>>> received = new ArrayList<>();
+        graph3.addListener(received::add);
+        graph3.addNode("n4");
+        graph3.addNode("n4");
+        graph3.addChild("n4", "n1", "e3");
+        graph3.addChild("n4", "n1", "e3");
+        graph3.removeEdgeFrom("n1", "n2", "e2");
+        assertEquals(List.of(
+                List.of(GraphEvent.nodeAdded("n4")),
+                List.of(GraphEvent.edgeAdded("n4", "n1", "e3")),
+                List.of(GraphEvent.edgeRemoved("n1", "n2", "e2"))), received);
+    }
+
+    @Test
+    public void testListenerOnRemoveNode() {
+        for (Graph<String, String> graph : List.of(graph3, new Graph<String, String>(true))) {
+            if (graph != graph3) {
+                graph.addNode("n1");
+                graph.addNode("n2");
+                graph.addNode("n3");
+                graph.addChild("n1", "n2", "e1");
+                graph.addChild("n1", "n2", "e2");
+                graph.addChild("n1", "n3", "e1");
+            }
+            graph.addChild("n2", "n2", "e4");
+            graph.addChild("n2", "n3", "e5");
+            List<GraphEvent<String, String>> received = new ArrayList<>();
+            graph.addListener(received::addAll);
+            graph.removeNode("n2");
+            assertEquals(Set.of(GraphEvent.edgeRemoved("n1", "n2", "e1"), GraphEvent.edgeRemoved("n1", "n2", "e2"),
+                    GraphEvent.edgeRemoved("n2", "n2", "e4"), GraphEvent.edgeRemoved("n2", "n3", "e5")),
+                    new HashSet<>(received.subList(0, received.size() - 1)));
+            assertEquals(5, received.size());
+            assertEquals(GraphEvent.nodeRemoved("n2"), received.get(4));
+        }
+    }
+
+    @Test
+    public void testBatchDeliversOnce() {
+        List<List<GraphEvent<String, String>>> received = new ArrayList<>();
+        GraphListener<String, String> listener = received::add;
+        graph2.addListener(listener);
+        graph2.batch(() -> {
+            graph2.addChild("n1", "n2", "e1");
+            graph2.batch(() -> graph2.addChild("n2", "n1", "e2"));
+            assertTrue(received.isEmpty());
+        });
+        assertEquals(List.of(List.of(GraphEvent.edgeAdded("n1", "n2", "e1"), GraphEvent.edgeAdded("n2", "n1", "e2"))),
+                received);
+        assertTrue(graph2.removeListener(listener));
+        graph2.addNode("n3");
+        assertEquals(1, received.size());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testIsChildOfOnNonExistNode() {
         graph1.isChildOf("n5", "n7");
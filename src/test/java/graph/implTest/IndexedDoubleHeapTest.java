@@ -0,0 +1,162 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import graph.IndexedDoubleHeap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of IndexedDoubleHeap class
+ */
+
+public final class IndexedDoubleHeapTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static final int CAPACITY = 500;
+
+    private IndexedDoubleHeap heap;
+
+    @Before
+    public void setUp() {
+        heap = new IndexedDoubleHeap(CAPACITY);
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(heap.isEmpty());
+        assertEquals(0, heap.size());
+        assertFalse(heap.contains(0));
+        assertFalse(heap.wasPolled(0));
+    }
+
+    @Test
+    public void testPollInKeyOrder() {
+        heap.insert(3, 3.0);
+        heap.insert(1, 1.0);
+        heap.insert(2, 2.0);
+        assertEquals(3, heap.size());
+        assertEquals(1, heap.peek());
+        assertEquals(1.0, heap.peekKey(), 0);
+        assertEquals(1, heap.poll());
+        assertEquals(2, heap.poll());
+        assertEquals(3, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testDecreaseKey() {
+        heap.insert(0, 5.0);
+        heap.insert(1, 4.0);
+        heap.decreaseKey(0, 1.0);
+        assertEquals(1.0, heap.key(0), 0);
+        assertEquals(0, heap.poll());
+        assertEquals(1, heap.poll());
+    }
+
+    @Test
+    public void testOffer() {
+        assertTrue(heap.offer(7, 5.0));
+        assertFalse(heap.offer(7, 6.0));
+        assertEquals(5.0, heap.key(7), 0);
+        assertTrue(heap.offer(7, 2.0));
+        assertEquals(2.0, heap.key(7), 0);
+        assertEquals(7, heap.poll());
+        assertFalse(heap.offer(7, 1.0));
+        assertEquals(2.0, heap.key(7), 0);
+    }
+
+    @Test
+    public void testPolledKeepsKey() {
+        heap.insert(4, 2.5);
+        heap.poll();
+        assertFalse(heap.contains(4));
+        assertTrue(heap.wasPolled(4));
+        assertEquals(2.5, heap.key(4), 0);
+    }
+
+    @Test
+    public void testClear() {
+        heap.insert(4, 2.5);
+        heap.insert(5, 1.5);
+        heap.poll();
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(4));
+        assertFalse(heap.wasPolled(5));
+        heap.insert(5, 9.0);
+        assertEquals(9.0, heap.peekKey(), 0);
+    }
+
+    @Test
+    public void testMatchesSortedOrder() {
+        for (int arity : new int[] {2, 4, 8, 16}) {
+            Random random = new Random(331);
+            IndexedDoubleHeap heap = new IndexedDoubleHeap(CAPACITY, arity);
+            for (int round = 0; round < 3; round++) {
+                heap.clear();
+                Map<Integer, Double> keys = new HashMap<>();
+                for (int i = 0; i < 2000; i++) {
+                    int id = random.nextInt(CAPACITY);
+                    double key = random.nextInt(1000);
+                    if (heap.offer(id, key)) {
+                        keys.put(id, key);
+                    }
+                    if (random.nextInt(5) == 0 && !heap.isEmpty()) {
+                        double min = Collections.min(keys.values());
+                        assertEquals(min, heap.peekKey(), 0);
+                        assertEquals(min, keys.remove(heap.poll()), 0);
+                    }
+                }
+                assertEquals(keys.size(), heap.size());
+                double last = Double.NEGATIVE_INFINITY;
+                while (!heap.isEmpty()) {
+                    double key = heap.peekKey();
+                    assertTrue(key >= last);
+                    assertEquals(key, keys.remove(heap.poll()), 0);
+                    last = key;
+                }
+                assertTrue(keys.isEmpty());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInsertTwice() {
+        heap.insert(1, 1.0);
+        heap.insert(1, 2.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncreaseKey() {
+        heap.insert(1, 1.0);
+        heap.decreaseKey(1, 2.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecreaseKeyNotInHeap() {
+        heap.decreaseKey(1, 2.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testKeyNotInserted() {
+        heap.key(1);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testPollEmpty() {
+        heap.poll();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArityTooSmall() {
+        new IndexedDoubleHeap(CAPACITY, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArityNotPowerOfTwo() {
+        new IndexedDoubleHeap(CAPACITY, 3);
+    }
+}
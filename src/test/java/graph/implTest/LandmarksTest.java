@@ -0,0 +1,159 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import graph.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of Landmarks class
+ */
+
+public final class LandmarksTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static final int SIDE = 15;
+
+    private static final int COUNT = 4;
+
+    private CompactGraph<Integer> grid;
+    private Landmarks<Integer> landmarks;
+
+    /**
+     * @return a street grid of SIDE by SIDE nodes with random one-way and missing streets and random lengths
+     */
+    private static CompactGraph<Integer> grid(Random random) {
+        GraphBuilder<Integer, Double> builder = new GraphBuilder<>();
+        for (int i = 0; i < SIDE; i++) {
+            for (int j = 0; j < SIDE; j++) {
+                int n = i * SIDE + j;
+                builder.addNode(n);
+                for (int other : new int[] {i + 1 < SIDE ? n + SIDE : -1, j + 1 < SIDE ? n + 1 : -1}) {
+                    if (other != -1 && random.nextInt(6) > 0) {
+                        builder.addEdge(n, other, 1.0 + random.nextInt(10));
+                    }
+                    if (other != -1 && random.nextInt(6) > 0) {
+                        builder.addEdge(other, n, 1.0 + random.nextInt(10));
+                    }
+                }
+            }
+        }
+        return CompactGraph.of(builder.build());
+    }
+
+    /**
+     * @return the distance of the shortest path from start to every node of graph, by Dijkstra's algorithm
+     */
+    private static double[] distances(IndexedGraph<Integer> graph, int start) {
+        double[] dist = new double[graph.size()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[graph.idOf(start)] = 0;
+        PriorityQueue<double[]> active = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        active.add(new double[] {0, graph.idOf(start)});
+        while (!active.isEmpty()) {
+            double[] min = active.remove();
+            int n = (int) min[1];
+            if (min[0] > dist[n]) {
+                continue;
+            }
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                if (min[0] + graph.weight(e) < dist[graph.target(e)]) {
+                    dist[graph.target(e)] = min[0] + graph.weight(e);
+                    active.add(new double[] {dist[graph.target(e)], graph.target(e)});
+                }
+            }
+        }
+        return dist;
+    }
+
+    @Before
+    public void setUp() {
+        grid = grid(new Random(331));
+        landmarks = Landmarks.build(grid, COUNT, ForkJoinPool.commonPool());
+    }
+
+    @Test
+    public void testBoundsAreLowerBounds() {
+        for (int start = 0; start < SIDE * SIDE; start += 5) {
+            double[] expected = distances(grid, start);
+            for (int end = 0; end < SIDE * SIDE; end++) {
+                double bound = landmarks.lowerBound(grid.idOf(start), grid.idOf(end));
+                assertTrue(bound >= 0);
+                assertTrue(bound <= expected[grid.idOf(end)] + 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testBoundsAtLandmarksAreExact() {
+        for (int landmark : landmarks.landmarks()) {
+            double[] expected = distances(grid, landmark);
+            for (int end = 0; end < SIDE * SIDE; end++) {
+                if (expected[grid.idOf(end)] < Double.POSITIVE_INFINITY) {
+                    assertEquals(expected[grid.idOf(end)],
+                            landmarks.lowerBound(grid.idOf(landmark), grid.idOf(end)), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLandmarksAreDistinct() {
+        List<Integer> chosen = landmarks.landmarks();
+        assertEquals(COUNT, chosen.size());
+        assertEquals(COUNT, new HashSet<>(chosen).size());
+        assertSame(grid, landmarks.graph());
+    }
+
+    @Test
+    public void testFewerNodesThanLandmarks() {
+        CompactGraph<String> graph = CompactGraph.of(new GraphBuilder<String, Double>()
+                .addEdge("a", "b", 1.0)
+                .addEdge("b", "c", 2.0)
+                .build());
+        Landmarks<String> small = Landmarks.build(graph, COUNT, ForkJoinPool.commonPool());
+        assertEquals(Set.of("a", "b", "c"), new HashSet<>(small.landmarks()));
+        assertEquals(3.0, small.lowerBound(graph.idOf("a"), graph.idOf("c")), 0);
+        assertEquals(Double.POSITIVE_INFINITY, small.lowerBound(graph.idOf("c"), graph.idOf("a")), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoLandmarks() {
+        Landmarks.build(grid, 0, ForkJoinPool.commonPool());
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Path file = Files.createTempFile("landmarks", ".alt");
+        try {
+            landmarks.write(file);
+            Landmarks<Integer> read = Landmarks.read(file, grid);
+            assertEquals(landmarks.landmarks(), read.landmarks());
+            for (int start = 0; start < SIDE * SIDE; start += 13) {
+                for (int end = 0; end < SIDE * SIDE; end++) {
+                    assertEquals(landmarks.lowerBound(start, end), read.lowerBound(start, end), 0);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadForOtherGraph() throws IOException {
+        Path file = Files.createTempFile("landmarks", ".alt");
+        try {
+            landmarks.write(file);
+            Landmarks.read(file, grid(new Random(332)));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import graph.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of MappedGraph class
+ */
+
+public final class MappedGraphTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    /** nodes are [x, y] lists */
+    private static final NodeCoordinates<List<Double>> COORDINATES = new NodeCoordinates<>() {
+        @Override
+        public double x(List<Double> node) {
+            return node.get(0);
+        }
+
+        @Override
+        public double y(List<Double> node) {
+            return node.get(1);
+        }
+
+        @Override
+        public List<Double> at(double x, double y) {
+            return List.of(x, y);
+        }
+    };
+
+    private Path file;
+    private CompactGraph<List<Double>> compact;
+    private MappedGraph<List<Double>> mapped;
+
+    @Before
+    public void setUp() throws IOException {
+        Graph<List<Double>, Double> graph = new GraphBuilder<List<Double>, Double>()
+                .addEdge(List.of(0.0, 0.0), List.of(1.0, 0.0), 1.0)
+                .addEdge(List.of(0.0, 0.0), List.of(1.0, 0.0), 2.0)
+                .addEdge(List.of(1.0, 0.0), List.of(1.0, 1.0), 3.0)
+                .addEdge(List.of(1.0, 1.0), List.of(1.0, 1.0), 4.0)
+                .addNode(List.of(-0.0, 5.0))
+                .build();
+        compact = CompactGraph.of(graph);
+        file = Files.createTempFile("mapped", ".graph");
+        MappedGraph.write(compact, COORDINATES, file);
+        mapped = MappedGraph.open(file, COORDINATES);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testSize() {
+        assertEquals(4, mapped.size());
+        assertEquals(4, mapped.edgeCount());
+    }
+
+    @Test
+    public void testIds() {
+        for (int n = 0; n < compact.size(); n++) {
+            assertEquals(compact.nodeAt(n), mapped.nodeAt(n));
+            assertEquals(n, mapped.idOf(compact.nodeAt(n)));
+        }
+        assertFalse(mapped.hasNode(List.of(0.0, 5.0)));
+        assertTrue(mapped.hasNode(List.of(-0.0, 5.0)));
+        assertEquals(-1, mapped.idAt(2.0, 2.0));
+    }
+
+    @Test
+    public void testEdges() {
+        for (int n = 0; n < compact.size(); n++) {
+            assertEquals(compact.edgeStart(n), mapped.edgeStart(n));
+            assertEquals(compact.edgeEnd(n), mapped.edgeEnd(n));
+        }
+        for (int e = 0; e < compact.edgeCount(); e++) {
+            assertEquals(compact.target(e), mapped.target(e));
+            assertEquals(compact.weight(e), mapped.weight(e), 0);
+        }
+    }
+
+    @Test
+    public void testStats() throws IOException {
+        GraphStats stats = mapped.stats();
+        assertEquals(compact.stats().nodeCount(), stats.nodeCount());
+        assertEquals(compact.stats().duplicateEdgeCount(), stats.duplicateEdgeCount());
+        assertEquals(Files.size(file), stats.offHeapBytes());
+    }
+
+    @Test
+    public void testEmptyGraph() throws IOException {
+        MappedGraph.write(CompactGraph.of(new Graph<List<Double>, Double>()), COORDINATES, file);
+        MappedGraph<List<Double>> empty = MappedGraph.open(file, COORDINATES);
+        assertEquals(0, empty.size());
+        assertEquals(-1, empty.idOf(List.of(0.0, 0.0)));
+        // the heap held does not depend on the size of the graph
+        assertEquals(mapped.stats().heapBytes(), empty.stats().heapBytes());
+    }
+
+    @Test
+    public void testSourceFingerprint() throws IOException {
+        MappedGraph.write(compact, COORDINATES, file, 331);
+        assertEquals(331, MappedGraph.open(file, COORDINATES, 331).sourceFingerprint());
+        assertEquals(331, MappedGraph.open(file, COORDINATES).sourceFingerprint());
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenWithOtherFingerprint() throws IOException {
+        MappedGraph.write(compact, COORDINATES, file, 331);
+        MappedGraph.open(file, COORDINATES, 332);
+    }
+
+    @Test
+    public void testWriteLeavesMappedGraph() throws IOException {
+        // the new graph has the same counts as the old one but other weights
+        CompactGraph<List<Double>> other = CompactGraph.of(new GraphBuilder<List<Double>, Double>()
+                .addEdge(List.of(0.0, 0.0), List.of(1.0, 0.0), 5.0)
+                .addEdge(List.of(0.0, 0.0), List.of(1.0, 0.0), 6.0)
+                .addEdge(List.of(1.0, 0.0), List.of(1.0, 1.0), 7.0)
+                .addEdge(List.of(1.0, 1.0), List.of(1.0, 1.0), 8.0)
+                .addNode(List.of(-0.0, 5.0))
+                .build());
+        MappedGraph.write(other, COORDINATES, file);
+        for (int e = 0; e < compact.edgeCount(); e++) {
+            assertEquals(compact.weight(e), mapped.weight(e), 0);
+        }
+        MappedGraph<List<Double>> reopened = MappedGraph.open(file, COORDINATES);
+        for (int e = 0; e < other.edgeCount(); e++) {
+            assertEquals(other.weight(e), reopened.weight(e), 0);
+        }
+        assertNotEquals(mapped.sourceFingerprint(), reopened.sourceFingerprint());
+        try (java.util.stream.Stream<Path> siblings = Files.list(file.getParent())) {
+            assertTrue(siblings.noneMatch(sibling -> sibling.getFileName().toString()
+                    .startsWith(file.getFileName().toString()) && !sibling.equals(file)));
+        }
+    }
+
+    @Test
+    public void testWriteTooManyNodes() throws IOException {
+        // a graph claiming more nodes than a table can hold, rejected before anything is read or mapped
+        IndexedGraph<List<Double>> huge = new IndexedGraph<>() {
+            @Override public int size() { return 1 << 30; }
+            @Override public int edgeCount() { return 0; }
+            @Override public int idOf(List<Double> name) { throw new UnsupportedOperationException(); }
+            @Override public List<Double> nodeAt(int id) { throw new UnsupportedOperationException(); }
+            @Override public int edgeStart(int id) { throw new UnsupportedOperationException(); }
+            @Override public int edgeEnd(int id) { throw new UnsupportedOperationException(); }
+            @Override public int target(int edge) { throw new UnsupportedOperationException(); }
+            @Override public double weight(int edge) { throw new UnsupportedOperationException(); }
+            @Override public GraphStats stats() { throw new UnsupportedOperationException(); }
+        };
+        try {
+            MappedGraph.write(huge, COORDINATES, file, 0);
+            fail("a graph with too many nodes must not be written");
+        } catch (IOException e) {
+            // expected
+        }
+        // the old file is left in place
+        assertEquals(compact.size(), MappedGraph.open(file, COORDINATES).size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenOtherFile() throws IOException {
+        Files.write(file, "hero\tbook\n".getBytes());
+        MappedGraph.open(file, COORDINATES);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNodeAtOutOfBounds() {
+        mapped.nodeAt(4);
+    }
+}
@@ -0,0 +1,129 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import graph.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of MultiWeightGraph class
+ */
+
+public final class MultiWeightGraphTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private CompactGraph<String> compact;
+    private MultiWeightGraph<String> graph;
+
+    @Before
+    public void setUp() {
+        compact = CompactGraph.of(new GraphBuilder<String, Double>()
+                .addEdge("a", "b", 1.0)
+                .addEdge("a", "c", 4.0)
+                .addEdge("b", "c", 2.0)
+                .build());
+        graph = new MultiWeightGraph<>(compact, "distance");
+    }
+
+    /**
+     * @return the edge index from 'parent' to 'child' in compact
+     */
+    private int edge(String parent, String child) {
+        int p = compact.idOf(parent);
+        for (int e = compact.edgeStart(p); e < compact.edgeEnd(p); e++) {
+            if (compact.nodeAt(compact.target(e)).equals(child)) {
+                return e;
+            }
+        }
+        throw new AssertionError("no edge");
+    }
+
+    @Test
+    public void testBaseCriterionIsTopology() {
+        assertEquals(Set.of("distance"), graph.criteria());
+        assertSame(compact, graph.topology());
+        assertSame(compact, graph.weightedBy("distance"));
+        assertEquals(4.0, graph.weight("distance", edge("a", "c")), 0);
+    }
+
+    @Test
+    public void testAddCriterionFromFunction() {
+        graph.addCriterion("time", (parent, child, distance) -> distance / 2);
+        assertEquals(Set.of("distance", "time"), graph.criteria());
+        assertEquals(2.0, graph.weight("time", edge("a", "c")), 0);
+        assertEquals(1.0, graph.weight("time", edge("b", "c")), 0);
+    }
+
+    @Test
+    public void testAddCriterionFromArrayIsCopied() {
+        double[] weights = new double[compact.edgeCount()];
+        weights[edge("a", "b")] = 7;
+        graph.addCriterion("stairs", weights);
+        weights[edge("a", "b")] = 9;
+        assertEquals(7.0, graph.weight("stairs", edge("a", "b")), 0);
+    }
+
+    @Test
+    public void testViewSharesTopology() {
+        graph.addCriterion("time", (parent, child, distance) -> distance / 2);
+        IndexedGraph<String> view = graph.weightedBy("time");
+        assertEquals(compact.size(), view.size());
+        assertEquals(compact.edgeCount(), view.edgeCount());
+        for (int n = 0; n < compact.size(); n++) {
+            assertEquals(compact.nodeAt(n), view.nodeAt(n));
+            assertEquals(compact.edgeStart(n), view.edgeStart(n));
+            assertEquals(compact.edgeEnd(n), view.edgeEnd(n));
+        }
+        for (int e = 0; e < compact.edgeCount(); e++) {
+            assertEquals(compact.target(e), view.target(e));
+            assertEquals(compact.weight(e) / 2, view.weight(e), 0);
+        }
+    }
+
+    @Test
+    public void testLinearCombination() {
+        graph.addCriterion("time", (parent, child, distance) -> distance / 2);
+        graph.addCriterion("stairs", (parent, child, distance) -> child.equals("c") ? 1.0 : 0.0);
+        IndexedGraph<String> view = graph.weightedBy(Map.of("distance", 1.0, "time", 2.0, "stairs", 10.0));
+        assertEquals(4.0 + 4.0 + 10.0, view.weight(edge("a", "c")), 1e-9);
+        assertEquals(1.0 + 1.0, view.weight(edge("a", "b")), 1e-9);
+    }
+
+    @Test
+    public void testCombinationOfBaseIsTopology() {
+        assertSame(compact, graph.weightedBy(Map.of("distance", 1.0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownCriterion() {
+        graph.weightedBy("time");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownCriterionInCombination() {
+        graph.weightedBy(Map.of("distance", 1.0, "time", 1.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCoefficient() {
+        graph.weightedBy(Map.of("distance", -1.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateCriterion() {
+        graph.addCriterion("distance", (parent, child, distance) -> distance);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeight() {
+        graph.addCriterion("gain", (parent, child, distance) -> -distance);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongLength() {
+        graph.addCriterion("stairs", new double[compact.edgeCount() + 1]);
+    }
+}
@@ -0,0 +1,112 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import graph.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of ParallelGraphBuilder class
+ */
+
+public final class ParallelGraphBuilderTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * build a graph from [parent, child, label] records
+     */
+    private Graph<Integer, Integer> build(List<int[]> records) {
+        return ParallelGraphBuilder.build(records, r -> r[0], r -> r[1], r -> r[2], pool);
+    }
+
+    @Test
+    public void testBuildEmpty() {
+        assertTrue(build(List.of()).getNodes().isEmpty());
+    }
+
+    @Test
+    public void testBuildSmall() {
+        Graph<Integer, Integer> graph = build(List.of(new int[] {1, 2, 0}, new int[] {1, 2, 0}, new int[] {1, 2, 1}));
+        assertEquals(Set.of(1, 2), graph.getNodes());
+        assertEquals(Set.of(0, 1), graph.getLabels(1, 2));
+        assertTrue(graph.getEdges(2).isEmpty());
+    }
+
+    @Test
+    public void testBuildLargeMatchesGraphBuilder() {
+        Random random = new Random(0);
+        List<int[]> records = new ArrayList<>();
+        GraphBuilder<Integer, Integer> builder = new GraphBuilder<>();
+        for (int i = 0; i < 100000; i++) {
+            int[] record = {random.nextInt(20000), random.nextInt(20000), random.nextInt(3)};
+            records.add(record);
+            builder.addEdge(record[0], record[1], record[2]);
+        }
+        Graph<Integer, Integer> expected = builder.build();
+        Graph<Integer, Integer> graph = build(records);
+        assertEquals(expected.getNodes(), graph.getNodes());
+        for (Integer n : expected.getNodes()) {
+            assertEquals(expected.getEdges(n), graph.getEdges(n));
+        }
+        // the built graph is an ordinary modifiable graph
+        graph.removeNode(records.get(0)[1]);
+        assertFalse(graph.hasNode(records.get(0)[1]));
+    }
+
+    @Test
+    public void testAroundParallelThreshold() {
+        for (int size : new int[] {ParallelGraphBuilder.PARALLEL_THRESHOLD - 1, ParallelGraphBuilder.PARALLEL_THRESHOLD}) {
+            Random random = new Random(size);
+            List<int[]> records = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                records.add(new int[] {random.nextInt(3000), random.nextInt(3000), random.nextInt(3)});
+            }
+            Graph<Integer, Integer> expected = new GraphBuilder<Integer, Integer>()
+                    .addEdges(records, r -> r[0], r -> r[1], r -> r[2])
+                    .build();
+            Graph<Integer, Integer> graph = build(records);
+            assertEquals(expected.getNodes(), graph.getNodes());
+            for (Integer n : expected.getNodes()) {
+                assertEquals(expected.getEdges(n), graph.getEdges(n));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelCompactGraph() {
+        Random random = new Random(1);
+        List<int[]> records = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            records.add(new int[] {random.nextInt(10000), random.nextInt(10000), random.nextInt(100)});
+        }
+        Graph<Integer, Integer> graph = build(records);
+        CompactGraph<Integer> compact = CompactGraph.of(graph, Integer::doubleValue, pool);
+        assertEquals(graph.getNodes().size(), compact.size());
+        assertEquals(graph.stats().edgeCount(), compact.edgeCount());
+        for (Integer n : graph.getNodes()) {
+            int id = compact.idOf(n);
+            Set<Edge<Integer, Integer>> edges = new HashSet<>();
+            for (int e = compact.edgeStart(id); e < compact.edgeEnd(id); e++) {
+                edges.add(new Edge<>(compact.nodeAt(compact.target(e)), (int) compact.weight(e)));
+            }
+            assertEquals(graph.getEdges(n), edges);
+        }
+    }
+}
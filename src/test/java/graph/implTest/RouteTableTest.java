@@ -0,0 +1,156 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import graph.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of RouteTable class
+ */
+
+public final class RouteTableTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static final int SIDE = 15;
+
+    private CompactGraph<Integer> grid;
+    private List<Integer> endpoints;
+    private RouteTable<Integer> table;
+
+    /**
+     * @return a street grid of SIDE by SIDE nodes with random one-way and missing streets and random lengths
+     */
+    private static CompactGraph<Integer> grid(Random random) {
+        GraphBuilder<Integer, Double> builder = new GraphBuilder<>();
+        for (int i = 0; i < SIDE; i++) {
+            for (int j = 0; j < SIDE; j++) {
+                int n = i * SIDE + j;
+                builder.addNode(n);
+                for (int other : new int[] {i + 1 < SIDE ? n + SIDE : -1, j + 1 < SIDE ? n + 1 : -1}) {
+                    if (other != -1 && random.nextInt(6) > 0) {
+                        builder.addEdge(n, other, 1.0 + random.nextInt(10));
+                    }
+                    if (other != -1 && random.nextInt(6) > 0) {
+                        builder.addEdge(other, n, 1.0 + random.nextInt(10));
+                    }
+                }
+            }
+        }
+        return CompactGraph.of(builder.build());
+    }
+
+    /**
+     * @return the distance of the shortest path from start to every node of graph, by Dijkstra's algorithm
+     */
+    private static double[] distances(IndexedGraph<Integer> graph, int start) {
+        double[] dist = new double[graph.size()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[graph.idOf(start)] = 0;
+        PriorityQueue<double[]> active = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        active.add(new double[] {0, graph.idOf(start)});
+        while (!active.isEmpty()) {
+            double[] min = active.remove();
+            int n = (int) min[1];
+            if (min[0] > dist[n]) {
+                continue;
+            }
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                if (min[0] + graph.weight(e) < dist[graph.target(e)]) {
+                    dist[graph.target(e)] = min[0] + graph.weight(e);
+                    active.add(new double[] {dist[graph.target(e)], graph.target(e)});
+                }
+            }
+        }
+        return dist;
+    }
+
+    @Before
+    public void setUp() {
+        grid = grid(new Random(331));
+        endpoints = new ArrayList<>();
+        for (int n = 0; n < SIDE * SIDE; n += 17) {
+            endpoints.add(n);
+        }
+        table = RouteTable.build(grid, endpoints, ForkJoinPool.commonPool());
+    }
+
+    @Test
+    public void testDistancesMatchDijkstra() {
+        for (int start : endpoints) {
+            double[] expected = distances(grid, start);
+            for (int end : endpoints) {
+                assertEquals(expected[grid.idOf(end)], table.distance(start, end), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testRoutesFollowEdges() {
+        for (int start : endpoints) {
+            for (int end : endpoints) {
+                List<Integer> nodes = new ArrayList<>(List.of(start));
+                double[] cost = {0};
+                boolean found = table.route(start, end, (child, weight) -> {
+                    int parent = grid.idOf(nodes.get(nodes.size() - 1));
+                    boolean edge = false;
+                    for (int e = grid.edgeStart(parent); e < grid.edgeEnd(parent); e++) {
+                        edge |= grid.nodeAt(grid.target(e)).equals(child) && grid.weight(e) == weight;
+                    }
+                    assertTrue("route uses an edge of the graph", edge);
+                    nodes.add(child);
+                    cost[0] += weight;
+                });
+                assertEquals(table.distance(start, end) < Double.POSITIVE_INFINITY, found);
+                if (found) {
+                    assertEquals(end, (int) nodes.get(nodes.size() - 1));
+                    assertEquals(table.distance(start, end), cost[0], 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDuplicateEndpoints() {
+        RouteTable<Integer> doubled = RouteTable.build(grid, List.of(3, 40, 3), ForkJoinPool.commonPool());
+        assertEquals(2, doubled.endpointCount());
+        assertTrue(doubled.isEndpoint(40));
+        assertFalse(doubled.isEndpoint(41));
+        assertEquals(table.graph(), doubled.graph());
+    }
+
+    @Test
+    public void testNoPath() {
+        CompactGraph<String> graph = CompactGraph.of(new GraphBuilder<String, Double>()
+                .addEdge("a", "b", 1.0)
+                .addEdge("b", "c", 2.0)
+                .build());
+        RouteTable<String> small = RouteTable.build(graph, List.of("a", "c"), ForkJoinPool.commonPool());
+        assertEquals(3.0, small.distance("a", "c"), 0);
+        assertEquals(Double.POSITIVE_INFINITY, small.distance("c", "a"), 0);
+        assertFalse(small.route("c", "a", (child, weight) -> fail("no edge")));
+        assertTrue(small.route("c", "c", (child, weight) -> fail("no edge")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotAnEndpoint() {
+        table.distance(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEndpointNotInGraph() {
+        RouteTable.build(grid, List.of(0, -1), ForkJoinPool.commonPool());
+    }
+
+    @Test
+    public void testEstimateBytes() {
+        assertEquals(RouteTable.estimateBytes(grid, endpoints.size()), table.heapBytes());
+        assertTrue(table.heapBytes() >= 4L * endpoints.size() * grid.size());
+        assertTrue(RouteTable.estimateBytes(grid, 2 * endpoints.size()) > table.heapBytes());
+        assertTrue(table.buildNanos() >= 0);
+    }
+}
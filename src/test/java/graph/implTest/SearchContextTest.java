@@ -0,0 +1,86 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import graph.SearchContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of SearchContext class
+ */
+
+public final class SearchContextTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private static final int CAPACITY = 50;
+
+    private SearchContext context;
+
+    @Before
+    public void setUp() {
+        context = new SearchContext(CAPACITY);
+    }
+
+    @Test
+    public void testNew() {
+        assertEquals(CAPACITY, context.capacity());
+        for (int side = SearchContext.FORWARD; side <= SearchContext.BACKWARD; side++) {
+            assertTrue(context.queue(side).isEmpty());
+            assertEquals(Double.POSITIVE_INFINITY, context.distance(side, 7), 0);
+            assertEquals(-1, context.pred(side, 7));
+            assertEquals(-1, context.predEdge(side, 7));
+        }
+        assertTrue(Double.isNaN(context.estimate(7)));
+    }
+
+    @Test
+    public void testReachOneSide() {
+        context.reach(SearchContext.BACKWARD, 7, 2.5, 3, 11);
+        assertEquals(2.5, context.distance(SearchContext.BACKWARD, 7), 0);
+        assertEquals(3, context.pred(SearchContext.BACKWARD, 7));
+        assertEquals(11, context.predEdge(SearchContext.BACKWARD, 7));
+        assertEquals(Double.POSITIVE_INFINITY, context.distance(SearchContext.FORWARD, 7), 0);
+        assertEquals(-1, context.pred(SearchContext.FORWARD, 7));
+    }
+
+    @Test
+    public void testClearResetsTouched() {
+        context.reach(SearchContext.FORWARD, 4, 1.0, -1, -1);
+        context.reach(SearchContext.FORWARD, 5, 2.0, 4, 0);
+        context.reach(SearchContext.BACKWARD, 5, 3.0, 6, 1);
+        context.estimate(6, 4.0);
+        context.queue(SearchContext.FORWARD).insert(5, 2.0);
+        context.queue(SearchContext.BACKWARD).insert(6, 0.0);
+        context.queue(SearchContext.BACKWARD).poll();
+        context.clear();
+        for (int id : new int[] {4, 5, 6}) {
+            for (int side = SearchContext.FORWARD; side <= SearchContext.BACKWARD; side++) {
+                assertEquals(Double.POSITIVE_INFINITY, context.distance(side, id), 0);
+                assertEquals(-1, context.pred(side, id));
+                assertEquals(-1, context.predEdge(side, id));
+                assertFalse(context.queue(side).contains(id));
+                assertFalse(context.queue(side).wasPolled(id));
+            }
+            assertTrue(Double.isNaN(context.estimate(id)));
+        }
+        context.reach(SearchContext.FORWARD, 5, 9.0, 4, 2);
+        assertEquals(9.0, context.distance(SearchContext.FORWARD, 5), 0);
+    }
+
+    @Test
+    public void testReachTwice() {
+        context.reach(SearchContext.FORWARD, 5, 3.0, 1, 1);
+        context.reach(SearchContext.FORWARD, 5, 2.0, 2, 4);
+        assertEquals(2.0, context.distance(SearchContext.FORWARD, 5), 0);
+        assertEquals(2, context.pred(SearchContext.FORWARD, 5));
+        context.clear();
+        assertEquals(Double.POSITIVE_INFINITY, context.distance(SearchContext.FORWARD, 5), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCapacity() {
+        new SearchContext(-1);
+    }
+}
@@ -0,0 +1,75 @@
+package graph.implTest;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import graph.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * This class contains a set of test cases that can be used to test the implementation of ShortestPathTree class
+ */
+
+public final class ShortestPathTreeTest {
+    @Rule public Timeout globalTimeout = Timeout.seconds(10); // 10 seconds max per method tested
+
+    private CompactGraph<String> graph;
+    private ShortestPathTree<String> tree;
+
+    @Before
+    public void setUp() {
+        graph = CompactGraph.of(new GraphBuilder<String, Double>()
+                .addEdge("a", "b", 4.0)
+                .addEdge("a", "c", 1.0)
+                .addEdge("c", "b", 2.0)
+                .addEdge("b", "d", 1.0)
+                .addEdge("e", "a", 1.0)
+                .build());
+        tree = ShortestPathTree.build(graph, "a");
+    }
+
+    @Test
+    public void testDistances() {
+        assertEquals("a", tree.source());
+        assertSame(graph, tree.graph());
+        assertEquals(0.0, tree.distance("a"), 0);
+        assertEquals(1.0, tree.distance("c"), 0);
+        assertEquals(3.0, tree.distance("b"), 0);
+        assertEquals(4.0, tree.distance("d"), 0);
+        assertEquals(Double.POSITIVE_INFINITY, tree.distance("e"), 0);
+    }
+
+    @Test
+    public void testRoute() {
+        List<String> nodes = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        assertTrue(tree.route("d", (child, weight) -> {
+            nodes.add(child);
+            weights.add(weight);
+        }));
+        assertEquals(List.of("c", "b", "d"), nodes);
+        assertEquals(List.of(1.0, 2.0, 1.0), weights);
+    }
+
+    @Test
+    public void testRouteToSource() {
+        assertTrue(tree.route("a", (child, weight) -> fail()));
+    }
+
+    @Test
+    public void testRouteUnreachable() {
+        assertFalse(tree.route("e", (child, weight) -> fail()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDistanceUnknownNode() {
+        tree.distance("z");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownSource() {
+        ShortestPathTree.build(graph, "z");
+    }
+}
@@ -0,0 +1,467 @@
+package pathfinder.benchmark;
+
+import graph.CompactGraph;
+import graph.GraphBuilder;
+import graph.IndexedDoubleHeap;
+import graph.IndexedGraph;
+import graph.NodeCoordinates;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+import java.util.*;
+
+/**
+ * Compares the priority queues Dijkstra's algorithm can settle nodes with, on the campus graph and on street grids
+ *
+ * The same search runs with a binary and a 4-ary IndexedDoubleHeap, an indexed pairing heap and a PriorityQueue
+ * of boxed entries that leaves stale entries behind instead of lowering keys, which is how SearchPath searched
+ * before. Every queue is reused from one search to the next, as a server answering many queries on one thread
+ * would, and is checked to find the same distances as the others before it is timed.
+ * Run with {@code gradle runHeapBenchmark}, optionally passing the sides of the street grids to search
+ * between random intersections of, which default to 100 and 300.
+ */
+public final class HeapBenchmark {
+    /** the number of untimed rounds letting the JIT compile the measured code */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /** the number of timed rounds */
+    private static final int ROUNDS = 5;
+
+    /** the number of searches per round on a street grid */
+    private static final int GRID_QUERIES = 200;
+
+    /** the sides of the street grids searched when none are given */
+    private static final int[] DEFAULT_SIDES = {100, 300};
+
+    private static final NodeCoordinates<Point> COORDINATES = new NodeCoordinates<>() {
+        @Override
+        public double x(Point p) {
+            return p.getX();
+        }
+
+        @Override
+        public double y(Point p) {
+            return p.getY();
+        }
+
+        @Override
+        public Point at(double x, double y) {
+            return new Point(x, y);
+        }
+    };
+
+    /**
+     * the operations of an indexed min-queue a search needs, as IndexedDoubleHeap names them
+     */
+    private interface MinQueue {
+        void clear();
+
+        boolean isEmpty();
+
+        /**
+         * @return true iff id was inserted or its key lowered
+         */
+        boolean offer(int id, double key);
+
+        /**
+         * @return the id with the least key, which is never offered again until clear
+         */
+        int poll();
+
+        /**
+         * @return the key id was polled with
+         */
+        double key(int id);
+    }
+
+    public static void main(String[] args) {
+        GraphBuilder<Point, Double> campus = new GraphBuilder<>();
+        List<Point[]> campusQueries = new ArrayList<>();
+        campus(campus, campusQueries);
+        run("campus", campus, campusQueries);
+
+        int[] sides = DEFAULT_SIDES;
+        if (args.length > 0) {
+            sides = Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        }
+        for (int side : sides) {
+            GraphBuilder<Point, Double> grid = new GraphBuilder<>();
+            List<Point[]> gridQueries = new ArrayList<>();
+            streetGrid(grid, gridQueries, side, new Random(331));
+            run(side + " by " + side + " grid", grid, gridQueries);
+        }
+    }
+
+    /**
+     * check and time every queue searching the graph of builder between the endpoints of queries
+     */
+    private static void run(String name, GraphBuilder<Point, Double> builder, List<Point[]> queries) {
+        CompactGraph<Point> graph = CompactGraph.of(builder.build()).spatiallyOrdered(COORDINATES);
+        int[][] ids = new int[queries.size()][];
+        for (int q = 0; q < queries.size(); q++) {
+            ids[q] = new int[] {graph.idOf(queries.get(q)[0]), graph.idOf(queries.get(q)[1])};
+        }
+        System.out.println(name + ": " + graph.size() + " nodes, " + graph.edgeCount() + " edges, "
+                + queries.size() + " routes");
+
+        Map<String, MinQueue> queues = new LinkedHashMap<>();
+        queues.put("binary heap", heap(new IndexedDoubleHeap(graph.size(), 2)));
+        queues.put("4-ary heap", heap(new IndexedDoubleHeap(graph.size(), 4)));
+        queues.put("pairing heap", new PairingHeap(graph.size()));
+        queues.put("PriorityQueue", new LazyQueue(graph.size()));
+
+        double[] expected = null;
+        for (Map.Entry<String, MinQueue> queue : queues.entrySet()) {
+            double[] found = new double[ids.length];
+            for (int q = 0; q < ids.length; q++) {
+                found[q] = distance(graph, ids[q][0], ids[q][1], queue.getValue());
+            }
+            if (expected != null && !Arrays.equals(expected, found)) {
+                throw new IllegalStateException(queue.getKey() + " found routes of another cost");
+            }
+            expected = found;
+        }
+
+        Map<String, double[]> rounds = new LinkedHashMap<>();
+        for (String queue : queues.keySet()) {
+            rounds.put(queue, new double[ROUNDS]);
+        }
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            for (Map.Entry<String, MinQueue> queue : queues.entrySet()) {
+                long nanos = time(graph, ids, queue.getValue());
+                if (round >= 0) {
+                    rounds.get(queue.getKey())[round] = ids.length * 1e9 / nanos;
+                }
+            }
+        }
+        for (String queue : queues.keySet()) {
+            report(queue, rounds.get(queue));
+        }
+    }
+
+    /**
+     * @return the distance from source to target in graph by Dijkstra's algorithm settling nodes with queue,
+     * infinity if there is no path
+     */
+    private static double distance(IndexedGraph<Point> graph, int source, int target, MinQueue queue) {
+        queue.clear();
+        queue.offer(source, 0);
+        while (!queue.isEmpty()) {
+            int n = queue.poll();
+            double cost = queue.key(n);
+            if (n == target) {
+                return cost;
+            }
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                queue.offer(graph.target(e), cost + graph.weight(e));
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * run every query once, returning the elapsed nanoseconds
+     */
+    private static long time(IndexedGraph<Point> graph, int[][] ids, MinQueue queue) {
+        long start = System.nanoTime();
+        double total = 0;
+        for (int[] query : ids) {
+            total += distance(graph, query[0], query[1], queue);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (Double.isNaN(total)) {
+            throw new IllegalStateException("no route cost");
+        }
+        return elapsed;
+    }
+
+    /**
+     * @return heap seen as a MinQueue
+     */
+    private static MinQueue heap(IndexedDoubleHeap heap) {
+        return new MinQueue() {
+            @Override
+            public void clear() {
+                heap.clear();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return heap.isEmpty();
+            }
+
+            @Override
+            public boolean offer(int id, double key) {
+                return heap.offer(id, key);
+            }
+
+            @Override
+            public int poll() {
+                return heap.poll();
+            }
+
+            @Override
+            public double key(int id) {
+                return heap.key(id);
+            }
+        };
+    }
+
+    /**
+     * add the campus paths to builder, and a query between every pair of buildings to queries
+     */
+    private static void campus(GraphBuilder<Point, Double> builder, List<Point[]> queries) {
+        for (CampusPath path : CampusPathsParser.parseCampusPaths()) {
+            builder.addEdge(new Point(path.getX1(), path.getY1()), new Point(path.getX2(), path.getY2()),
+                    path.getDistance());
+        }
+        List<Point> buildings = new ArrayList<>();
+        for (CampusBuilding building : CampusPathsParser.parseCampusBuildings()) {
+            buildings.add(new Point(building.getX(), building.getY()));
+        }
+        for (Point start : buildings) {
+            for (Point end : buildings) {
+                queries.add(new Point[] {start, end});
+            }
+        }
+    }
+
+    /**
+     * add a jittered street grid with a few streets missing to builder, and queries between random
+     * intersections to queries
+     */
+    private static void streetGrid(GraphBuilder<Point, Double> builder, List<Point[]> queries, int side, Random random) {
+        Point[][] grid = new Point[side][side];
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                grid[i][j] = new Point(i * 100 + random.nextDouble() * 30, j * 100 + random.nextDouble() * 30);
+                builder.addNode(grid[i][j]);
+            }
+        }
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                for (Point other : new Point[] {i + 1 < side ? grid[i + 1][j] : null, j + 1 < side ? grid[i][j + 1] : null}) {
+                    if (other != null && random.nextInt(10) > 0) {
+                        double length = Math.hypot(grid[i][j].getX() - other.getX(), grid[i][j].getY() - other.getY());
+                        builder.addEdge(grid[i][j], other, length);
+                        builder.addEdge(other, grid[i][j], length);
+                    }
+                }
+            }
+        }
+        for (int q = 0; q < GRID_QUERIES; q++) {
+            queries.add(new Point[] {
+                grid[random.nextInt(side)][random.nextInt(side)],
+                grid[random.nextInt(side)][random.nextInt(side)]
+            });
+        }
+    }
+
+    /**
+     * print the median and best of the measured rounds
+     */
+    private static void report(String name, double[] rounds) {
+        double[] sorted = rounds.clone();
+        Arrays.sort(sorted);
+        System.out.printf("  %-16s median %,10.0f routes/s   best %,10.0f routes/s%n",
+                name, sorted[sorted.length / 2], sorted[sorted.length - 1]);
+    }
+
+    /**
+     * an indexed pairing heap, where every id is a node of a tree whose root has the least key, and the children of
+     * an id are a list linked through sibling. Lowering a key cuts the id's subtree out and links it to the root;
+     * polling pairs up the root's children left to right and links the pairs right to left.
+     */
+    private static final class PairingHeap implements MinQueue {
+        private static final int ABSENT = 0;
+        private static final int QUEUED = 1;
+        private static final int POLLED = 2;
+
+        private final double[] keys;
+        private final byte[] states;
+        private final int[] child;
+        private final int[] sibling;
+        /** the parent of a first child, the previous sibling of any other child, -1 for the root */
+        private final int[] prev;
+        private final int[] touched;
+        private final int[] pairs;
+        private int touchedCount;
+        private int root = -1;
+
+        private PairingHeap(int capacity) {
+            keys = new double[capacity];
+            states = new byte[capacity];
+            child = new int[capacity];
+            sibling = new int[capacity];
+            prev = new int[capacity];
+            touched = new int[capacity];
+            pairs = new int[capacity];
+        }
+
+        @Override
+        public void clear() {
+            for (int i = 0; i < touchedCount; i++) {
+                states[touched[i]] = ABSENT;
+            }
+            touchedCount = 0;
+            root = -1;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return root == -1;
+        }
+
+        @Override
+        public boolean offer(int id, double key) {
+            if (states[id] == ABSENT) {
+                states[id] = QUEUED;
+                touched[touchedCount++] = id;
+                keys[id] = key;
+                child[id] = -1;
+                sibling[id] = -1;
+                prev[id] = -1;
+                root = root == -1 ? id : link(root, id);
+                return true;
+            }
+            if (states[id] == QUEUED && key < keys[id]) {
+                keys[id] = key;
+                if (id != root) {
+                    if (child[prev[id]] == id) {
+                        child[prev[id]] = sibling[id];
+                    } else {
+                        sibling[prev[id]] = sibling[id];
+                    }
+                    if (sibling[id] != -1) {
+                        prev[sibling[id]] = prev[id];
+                    }
+                    sibling[id] = -1;
+                    prev[id] = -1;
+                    root = link(root, id);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int poll() {
+            int min = root;
+            states[min] = POLLED;
+            int count = 0;
+            for (int c = child[min]; c != -1; ) {
+                int next = sibling[c];
+                int second = next == -1 ? -1 : sibling[next];
+                sibling[c] = -1;
+                prev[c] = -1;
+                if (next == -1) {
+                    pairs[count++] = c;
+                } else {
+                    sibling[next] = -1;
+                    prev[next] = -1;
+                    pairs[count++] = link(c, next);
+                }
+                c = second;
+            }
+            root = -1;
+            for (int i = count - 1; i >= 0; i--) {
+                root = root == -1 ? pairs[i] : link(pairs[i], root);
+            }
+            return min;
+        }
+
+        @Override
+        public double key(int id) {
+            return keys[id];
+        }
+
+        /**
+         * @return the root of the tree made by making the root with the greater key of two detached trees the
+         * first child of the other
+         */
+        private int link(int a, int b) {
+            if (keys[b] < keys[a]) {
+                int swap = a;
+                a = b;
+                b = swap;
+            }
+            sibling[b] = child[a];
+            if (child[a] != -1) {
+                prev[child[a]] = b;
+            }
+            prev[b] = a;
+            child[a] = b;
+            return a;
+        }
+    }
+
+    /**
+     * a PriorityQueue of boxed entries, adding a new entry whenever a key is lowered and skipping stale entries
+     * when polling
+     */
+    private static final class LazyQueue implements MinQueue {
+        private final PriorityQueue<Entry> entries = new PriorityQueue<>();
+        private final double[] keys;
+        private final boolean[] polled;
+
+        private LazyQueue(int capacity) {
+            keys = new double[capacity];
+            polled = new boolean[capacity];
+        }
+
+        @Override
+        public void clear() {
+            entries.clear();
+            Arrays.fill(keys, Double.POSITIVE_INFINITY);
+            Arrays.fill(polled, false);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            while (!entries.isEmpty() && polled[entries.peek().id]) {
+                entries.remove();
+            }
+            return entries.isEmpty();
+        }
+
+        @Override
+        public boolean offer(int id, double key) {
+            if (polled[id] || key >= keys[id]) {
+                return false;
+            }
+            keys[id] = key;
+            entries.add(new Entry(id, key));
+            return true;
+        }
+
+        @Override
+        public int poll() {
+            isEmpty();
+            int id = entries.remove().id;
+            polled[id] = true;
+            return id;
+        }
+
+        @Override
+        public double key(int id) {
+            return keys[id];
+        }
+
+        private static final class Entry implements Comparable<Entry> {
+            private final int id;
+            private final double key;
+
+            private Entry(int id, double key) {
+                this.id = id;
+                this.key = key;
+            }
+
+            @Override
+            public int compareTo(Entry other) {
+                return Double.compare(key, other.key);
+            }
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package pathfinder.benchmark;
+
+import graph.CompactGraph;
+import graph.ContractionHierarchy;
+import graph.GraphBuilder;
+import graph.HubLabels;
+import graph.IndexedGraph;
+import graph.Landmarks;
+import graph.NodeCoordinates;
+import graph.RouteTable;
+import graph.SearchContext;
+import pathfinder.SearchPath;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Compares the point to point searches of SearchPath on the campus graph, searching between every pair of buildings
+ *
+ * Every search is checked to find routes of the same cost as Dijkstra's algorithm, then the nodes it settles
+ * are counted and the time it takes is measured. The nodes settled inside a contraction hierarchy are not counted,
+ * and hub labels and the route table settle none.
+ * Run with {@code gradle runSearchBenchmark}, optionally passing the side of a street grid to search between
+ * random intersections of instead of the campus, to see how the searches scale to larger maps.
+ */
+public final class SearchBenchmark {
+    /** the number of untimed rounds letting the JIT compile the measured code */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /** the number of timed rounds */
+    private static final int ROUNDS = 5;
+
+    /** the number of searches per round on a street grid */
+    private static final int GRID_QUERIES = 200;
+
+    /** the number of landmarks ALT search estimates distances by */
+    private static final int LANDMARKS = 16;
+
+    private static final NodeCoordinates<Point> COORDINATES = new NodeCoordinates<>() {
+        @Override
+        public double x(Point p) {
+            return p.getX();
+        }
+
+        @Override
+        public double y(Point p) {
+            return p.getY();
+        }
+
+        @Override
+        public Point at(double x, double y) {
+            return new Point(x, y);
+        }
+    };
+
+    /**
+     * one way of searching the campus graph
+     */
+    private interface Search {
+        /**
+         * @return the shortest path from start to end
+         */
+        Path<Point> find(Point start, Point end);
+
+        /**
+         * @return the number of nodes settled searching from start to end, the same as find settles, -1 if unknown
+         */
+        int settled(Point start, Point end);
+    }
+
+    public static void main(String[] args) {
+        GraphBuilder<Point, Double> builder = new GraphBuilder<>();
+        List<Point[]> queries = new ArrayList<>();
+        if (args.length > 0) {
+            streetGrid(builder, queries, Integer.parseInt(args[0]), new Random(331));
+        } else {
+            campus(builder, queries);
+        }
+        CompactGraph<Point> graph = CompactGraph.of(builder.build()).spatiallyOrdered(COORDINATES);
+        CompactGraph<Point> reversed = CompactGraph.transposeOf(graph);
+        double scale = SearchPath.heuristicScale(graph, COORDINATES);
+        System.out.println(graph.size() + " nodes, " + graph.edgeCount() + " edges, "
+                + scale + " weight per coordinate unit at least");
+        long contractStart = System.nanoTime();
+        ContractionHierarchy<Point> hierarchy = ContractionHierarchy.build(graph);
+        System.out.printf("contraction hierarchy built in %.0f ms with %,d shortcuts%n",
+                (System.nanoTime() - contractStart) / 1e6, hierarchy.shortcutCount());
+        long labelsStart = System.nanoTime();
+        HubLabels<Point> labels = HubLabels.build(hierarchy, ForkJoinPool.commonPool());
+        System.out.printf("hub labels built in %.0f ms with %.1f entries per label%n",
+                (System.nanoTime() - labelsStart) / 1e6, labels.entryCount() / 2.0 / graph.size());
+        Set<Point> endpoints = new HashSet<>();
+        for (Point[] query : queries) {
+            endpoints.addAll(List.of(query));
+        }
+        RouteTable<Point> routes = RouteTable.build(graph, endpoints, ForkJoinPool.commonPool());
+        System.out.printf("route table of %d endpoints built in %.0f ms, %.1f MB%n", routes.endpointCount(),
+                routes.buildNanos() / 1e6, routes.heapBytes() / (1024.0 * 1024.0));
+        long landmarksStart = System.nanoTime();
+        Landmarks<Point> landmarks = Landmarks.build(graph, LANDMARKS, ForkJoinPool.commonPool());
+        System.out.printf("%d landmarks searched in %.0f ms%n", landmarks.landmarks().size(),
+                (System.nanoTime() - landmarksStart) / 1e6);
+
+        // every search reuses one context, as the searches of ModelConnector do on each thread
+        SearchContext context = new SearchContext(graph.size());
+        Map<String, Search> searches = new LinkedHashMap<>();
+        searches.put("Dijkstra", new Search() {
+            @Override
+            public Path<Point> find(Point start, Point end) {
+                return SearchPath.findShortestPath(start, end, graph, context);
+            }
+
+            @Override
+            public int settled(Point start, Point end) {
+                return settledNodes(graph, start, end, n -> 0);
+            }
+        });
+        searches.put("A*", new Search() {
+            @Override
+            public Path<Point> find(Point start, Point end) {
+                return SearchPath.findShortestPath(start, end, graph, COORDINATES, scale, context);
+            }
+
+            @Override
+            public int settled(Point start, Point end) {
+                return settledNodes(graph, start, end, n -> estimate(graph.nodeAt(n), end, scale));
+            }
+        });
+        searches.put("ALT", new Search() {
+            @Override
+            public Path<Point> find(Point start, Point end) {
+                return SearchPath.findShortestPath(start, end, landmarks, context);
+            }
+
+            @Override
+            public int settled(Point start, Point end) {
+                return settledNodes(graph, start, end, n -> landmarks.lowerBound(n, graph.idOf(end)));
+            }
+        });
+        searches.put("bidirectional", new Search() {
+            @Override
+            public Path<Point> find(Point start, Point end) {
+                return SearchPath.findShortestPath(start, end, graph, reversed, context);
+            }
+
+            @Override
+            public int settled(Point start, Point end) {
+                return bidirectionalSettledNodes(graph, reversed, start, end);
+            }
+        });
+        searches.put("hierarchy", new Search() {
+            @Override
+            public Path<Point> find(Point start, Point end) {
+                return SearchPath.findShortestPath(start, end, hierarchy);
+            }
+
+            @Override
+            public int settled(Point start, Point end) {
+                return -1;
+            }
+        });
+        searches.put("hub labels", new Search() {
+            @Override
+            public Path<Point> find(Point start, Point end) {
+                return SearchPath.findShortestPath(start, end, labels);
+            }
+
+            @Override
+            public int settled(Point start, Point end) {
+                return -1;
+            }
+        });
+        searches.put("route table", new Search() {
+            @Override
+            public Path<Point> find(Point start, Point end) {
+                return SearchPath.findShortestPath(start, end, routes);
+            }
+
+            @Override
+            public int settled(Point start, Point end) {
+                return -1;
+            }
+        });
+
+        Map<String, Long> settled = new LinkedHashMap<>();
+        for (Map.Entry<String, Search> search : searches.entrySet()) {
+            long total = 0;
+            for (Point[] query : queries) {
+                Path<Point> expected = SearchPath.findShortestPath(query[0], query[1], graph);
+                Path<Point> found = search.getValue().find(query[0], query[1]);
+                if (expected == null ? found != null : found == null
+                        || Math.abs(found.getCost() - expected.getCost()) > 1e-9) {
+                    throw new IllegalStateException(search.getKey() + " found a route of another cost from "
+                            + query[0] + " to " + query[1]);
+                }
+                int nodes = search.getValue().settled(query[0], query[1]);
+                total = total < 0 || nodes < 0 ? -1 : total + nodes;
+            }
+            settled.put(search.getKey(), total);
+        }
+        System.out.println(queries.size() + " routes of equal cost");
+
+        Map<String, double[]> rounds = new LinkedHashMap<>();
+        for (String name : searches.keySet()) {
+            rounds.put(name, new double[ROUNDS]);
+        }
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            for (Map.Entry<String, Search> search : searches.entrySet()) {
+                long nanos = time(search.getValue(), queries);
+                if (round >= 0) {
+                    rounds.get(search.getKey())[round] = queries.size() * 1e9 / nanos;
+                }
+            }
+        }
+        for (String name : searches.keySet()) {
+            report(name, settled.get(name), settled.get("Dijkstra"), rounds.get(name));
+        }
+    }
+
+    /**
+     * add the campus paths to builder, and a query between every pair of buildings to queries
+     */
+    private static void campus(GraphBuilder<Point, Double> builder, List<Point[]> queries) {
+        for (CampusPath path : CampusPathsParser.parseCampusPaths()) {
+            builder.addEdge(new Point(path.getX1(), path.getY1()), new Point(path.getX2(), path.getY2()),
+                    path.getDistance());
+        }
+        List<Point> buildings = new ArrayList<>();
+        for (CampusBuilding building : CampusPathsParser.parseCampusBuildings()) {
+            buildings.add(new Point(building.getX(), building.getY()));
+        }
+        for (Point start : buildings) {
+            for (Point end : buildings) {
+                queries.add(new Point[] {start, end});
+            }
+        }
+    }
+
+    /**
+     * add a jittered street grid with a few streets missing to builder, and queries between random
+     * intersections to queries
+     */
+    private static void streetGrid(GraphBuilder<Point, Double> builder, List<Point[]> queries, int side, Random random) {
+        Point[][] grid = new Point[side][side];
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                grid[i][j] = new Point(i * 100 + random.nextDouble() * 30, j * 100 + random.nextDouble() * 30);
+                builder.addNode(grid[i][j]);
+            }
+        }
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                for (Point other : new Point[] {i + 1 < side ? grid[i + 1][j] : null, j + 1 < side ? grid[i][j + 1] : null}) {
+                    if (other != null && random.nextInt(10) > 0) {
+                        double length = Math.hypot(grid[i][j].getX() - other.getX(), grid[i][j].getY() - other.getY());
+                        builder.addEdge(grid[i][j], other, length);
+                        builder.addEdge(other, grid[i][j], length);
+                    }
+                }
+            }
+        }
+        for (int q = 0; q < GRID_QUERIES; q++) {
+            queries.add(new Point[] {
+                grid[random.nextInt(side)][random.nextInt(side)],
+                grid[random.nextInt(side)][random.nextInt(side)]
+            });
+        }
+    }
+
+    /**
+     * run every query once, returning the elapsed nanoseconds
+     */
+    private static long time(Search search, List<Point[]> queries) {
+        long start = System.nanoTime();
+        double total = 0;
+        for (Point[] query : queries) {
+            Path<Point> path = search.find(query[0], query[1]);
+            total += path == null ? 0 : path.getCost();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (Double.isNaN(total)) {
+            throw new IllegalStateException("no route cost");
+        }
+        return elapsed;
+    }
+
+    /**
+     * count the nodes A* search settles from start to end by the given lower bound on the distance from every
+     * node id to end, which is Dijkstra's algorithm if the bound is 0
+     */
+    private static int settledNodes(IndexedGraph<Point> graph, Point start, Point end, IntToDoubleFunction lowerBound) {
+        double[] dist = new double[graph.size()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        int source = graph.idOf(start);
+        int target = graph.idOf(end);
+        dist[source] = 0;
+        PriorityQueue<double[]> active = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        active.add(new double[] {lowerBound.applyAsDouble(source), source});
+        int settled = 0;
+        while (!active.isEmpty()) {
+            double[] min = active.remove();
+            int n = (int) min[1];
+            if (min[0] > dist[n] + lowerBound.applyAsDouble(n)) {
+                continue;
+            }
+            settled++;
+            if (n == target) {
+                break;
+            }
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                double cost = dist[n] + graph.weight(e);
+                if (cost < dist[graph.target(e)]) {
+                    dist[graph.target(e)] = cost;
+                    active.add(new double[] {cost + lowerBound.applyAsDouble(graph.target(e)), graph.target(e)});
+                }
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * count the nodes bidirectional Dijkstra settles from start to end, in both directions
+     */
+    private static int bidirectionalSettledNodes(IndexedGraph<Point> graph, IndexedGraph<Point> reversed,
+                                                 Point start, Point end) {
+        List<IndexedGraph<Point>> sides = List.of(graph, reversed);
+        double[][] dist = {new double[graph.size()], new double[graph.size()]};
+        List<PriorityQueue<double[]>> active = new ArrayList<>();
+        int[] roots = {graph.idOf(start), graph.idOf(end)};
+        for (int side = 0; side < 2; side++) {
+            Arrays.fill(dist[side], Double.POSITIVE_INFINITY);
+            dist[side][roots[side]] = 0;
+            active.add(new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0])));
+            active.get(side).add(new double[] {0, roots[side]});
+        }
+        double best = roots[0] == roots[1] ? 0 : Double.POSITIVE_INFINITY;
+        int settled = 0;
+        for (int side = 0; ; side = 1 - side) {
+            for (int s = 0; s < 2; s++) {
+                PriorityQueue<double[]> queue = active.get(s);
+                while (!queue.isEmpty() && queue.peek()[0] > dist[s][(int) queue.peek()[1]]) {
+                    queue.remove();
+                }
+            }
+            double radius = active.get(side).isEmpty() ? Double.POSITIVE_INFINITY : active.get(side).peek()[0];
+            double otherRadius = active.get(1 - side).isEmpty()
+                    ? Double.POSITIVE_INFINITY : active.get(1 - side).peek()[0];
+            if (radius + otherRadius >= best) {
+                return settled;
+            }
+            int n = (int) active.get(side).remove()[1];
+            settled++;
+            IndexedGraph<Point> edges = sides.get(side);
+            for (int e = edges.edgeStart(n); e < edges.edgeEnd(n); e++) {
+                int child = edges.target(e);
+                double cost = dist[side][n] + edges.weight(e);
+                if (cost < dist[side][child]) {
+                    dist[side][child] = cost;
+                    active.get(side).add(new double[] {cost, child});
+                    best = Math.min(best, cost + dist[1 - side][child]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return scale times the straight line distance from p to end
+     */
+    private static double estimate(Point p, Point end, double scale) {
+        return scale * Math.hypot(p.getX() - end.getX(), p.getY() - end.getY());
+    }
+
+    /**
+     * print the settled nodes, relative to those of Dijkstra's algorithm, and the median and best of the measured rounds
+     */
+    private static void report(String name, long settled, long dijkstraSettled, double[] rounds) {
+        double[] sorted = rounds.clone();
+        Arrays.sort(sorted);
+        String nodes = settled < 0 ? String.format("%36s", "")
+                : String.format("%,12d settled nodes (%5.1f%%)", settled, 100.0 * settled / dijkstraSettled);
+        System.out.printf("%-16s %s   median %,10.0f routes/s   best %,10.0f routes/s%n",
+                name, nodes, sorted[sorted.length / 2], sorted[sorted.length - 1]);
+    }
+}
@@ -0,0 +1,169 @@
+package pathfinder.benchmark;
+
+import graph.CompactGraph;
+import graph.GraphBuilder;
+import graph.IndexedGraph;
+import graph.NodeCoordinates;
+import pathfinder.SearchPath;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.*;
+
+/**
+ * Compares Dijkstra throughput, in settled nodes per second, on a compact graph numbered in hash order
+ * and the same graph numbered along a Hilbert curve by CompactGraph.spatiallyOrdered
+ *
+ * The graph is a street grid of side by side intersections, jittered and with a few streets missing,
+ * which is far larger than the campus so that the search arrays do not fit in the CPU caches.
+ * Run with {@code gradle runSpatialOrderBenchmark}, optionally passing the side of the grid as the only argument.
+ */
+public final class SpatialOrderBenchmark {
+    private static final int DEFAULT_SIDE = 400;
+
+    /** the number of searches per round */
+    private static final int QUERIES = 50;
+
+    /** the number of untimed rounds letting the JIT compile the measured code */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /** the number of timed rounds */
+    private static final int ROUNDS = 5;
+
+    private static final NodeCoordinates<Point> COORDINATES = new NodeCoordinates<>() {
+        @Override
+        public double x(Point p) {
+            return p.getX();
+        }
+
+        @Override
+        public double y(Point p) {
+            return p.getY();
+        }
+
+        @Override
+        public Point at(double x, double y) {
+            return new Point(x, y);
+        }
+    };
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIDE;
+        Random random = new Random(331);
+        Point[][] grid = new Point[side][side];
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                grid[i][j] = new Point(i * 100 + random.nextDouble() * 30, j * 100 + random.nextDouble() * 30);
+            }
+        }
+        GraphBuilder<Point, Double> builder = new GraphBuilder<>(side * side);
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                builder.addNode(grid[i][j]);
+                if (i + 1 < side && random.nextInt(10) > 0) {
+                    street(builder, grid[i][j], grid[i + 1][j]);
+                }
+                if (j + 1 < side && random.nextInt(10) > 0) {
+                    street(builder, grid[i][j], grid[i][j + 1]);
+                }
+            }
+        }
+        CompactGraph<Point> hashOrdered = CompactGraph.of(builder.build());
+        CompactGraph<Point> hilbertOrdered = hashOrdered.spatiallyOrdered(COORDINATES);
+        System.out.println(hashOrdered.size() + " nodes, " + hashOrdered.edgeCount() + " edges");
+
+        Point[][] queries = new Point[QUERIES][];
+        long settled = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = new Point[] {
+                grid[random.nextInt(side)][random.nextInt(side)],
+                grid[random.nextInt(side)][random.nextInt(side)]
+            };
+            settled += settledNodes(hashOrdered, queries[q][0], queries[q][1]);
+        }
+        System.out.println(settled + " nodes settled per round of " + QUERIES + " searches");
+
+        double[] hash = new double[ROUNDS];
+        double[] hilbert = new double[ROUNDS];
+        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+            long hashNanos = time(hashOrdered, queries);
+            long hilbertNanos = time(hilbertOrdered, queries);
+            if (round >= 0) {
+                hash[round] = settled * 1e9 / hashNanos;
+                hilbert[round] = settled * 1e9 / hilbertNanos;
+            }
+        }
+        report("hash order", hash);
+        report("Hilbert order", hilbert);
+    }
+
+    /**
+     * add a street in both directions between two intersections
+     */
+    private static void street(GraphBuilder<Point, Double> builder, Point a, Point b) {
+        double length = Math.hypot(a.getX() - b.getX(), a.getY() - b.getY());
+        builder.addEdge(a, b, length);
+        builder.addEdge(b, a, length);
+    }
+
+    /**
+     * run every query once, returning the elapsed nanoseconds
+     */
+    private static long time(IndexedGraph<Point> graph, Point[][] queries) {
+        long start = System.nanoTime();
+        double total = 0;
+        for (Point[] query : queries) {
+            Path<Point> path = SearchPath.findShortestPath(query[0], query[1], graph);
+            total += path == null ? 0 : path.getCost();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (Double.isNaN(total)) {
+            throw new IllegalStateException("no route cost");
+        }
+        return elapsed;
+    }
+
+    /**
+     * count the nodes Dijkstra's algorithm settles searching from start to end,
+     * the searches being timed settle the same nodes
+     */
+    private static int settledNodes(IndexedGraph<Point> graph, Point start, Point end) {
+        double[] dist = new double[graph.size()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        int source = graph.idOf(start);
+        int target = graph.idOf(end);
+        dist[source] = 0;
+        PriorityQueue<double[]> active = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        active.add(new double[] {0, source});
+        int settled = 0;
+        while (!active.isEmpty()) {
+            double[] min = active.remove();
+            int n = (int) min[1];
+            if (min[0] > dist[n]) {
+                continue;
+            }
+            settled++;
+            if (n == target) {
+                break;
+            }
+            for (int e = graph.edgeStart(n); e < graph.edgeEnd(n); e++) {
+                double cost = dist[n] + graph.weight(e);
+                if (cost < dist[graph.target(e)]) {
+                    dist[graph.target(e)] = cost;
+                    active.add(new double[] {cost, graph.target(e)});
+                }
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * print the median and best of the measured rounds
+     */
+    private static void report(String name, double[] rounds) {
+        double[] sorted = rounds.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-16s median %,14.0f settled nodes/s   best %,14.0f settled nodes/s%n",
+                name, sorted[sorted.length / 2], sorted[sorted.length - 1]);
+    }
+}
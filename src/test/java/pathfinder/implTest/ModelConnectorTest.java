@@ -3,9 +3,28 @@ package pathfinder.implTest;
 import org.junit.Before;
 import org.junit.Test;
 import pathfinder.ModelConnector;
+import pathfinder.SearchStrategy;
+import pathfinder.ValidationMode;
+import graph.CompactGraph;
+import graph.GraphBuilder;
+import graph.GraphStats;
+import graph.MappedGraph;
+import graph.NodeCoordinates;
 import pathfinder.datastructures.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * this class test the implementation of additional methods for ModelConnector
@@ -24,4 +43,366 @@ public class ModelConnectorTest {
         assertEquals(new Point(1724.1276, 1208.4754), modelConnector.getCoordinate("OUG"));
         assertEquals(new Point(1625.2679, 1783.5181), modelConnector.getCoordinate("PAA"));
     }
+
+    @Test
+    public void testCloseAndReopenPath() {
+        Path<Point> open = modelConnector.findShortestPath("OUG", "PAA");
+        Iterator<Path<Point>.Segment> it = open.iterator();
+        it.next();
+        Path<Point>.Segment closed = it.next();
+        assertTrue(modelConnector.closePath(closed.getStart(), closed.getEnd()));
+        Path<Point> detour = modelConnector.findShortestPath("OUG", "PAA");
+        assertTrue(detour.getCost() >= open.getCost());
+        for (Path<Point>.Segment segment : detour) {
+            assertFalse(segment.getStart().equals(closed.getStart()) && segment.getEnd().equals(closed.getEnd()));
+        }
+        assertTrue(modelConnector.reopenPath(closed.getStart(), closed.getEnd()));
+        assertFalse(modelConnector.reopenPath(closed.getStart(), closed.getEnd()));
+        assertEquals(open.getCost(), modelConnector.findShortestPath("OUG", "PAA").getCost(), 1e-9);
+    }
+
+    @Test
+    public void testMappedGraphFile() throws IOException {
+        java.nio.file.Path file = Files.createTempFile("campus", ".graph");
+        Files.delete(file);
+        System.setProperty(ModelConnector.GRAPH_FILE_PROPERTY, file.toString());
+        try {
+            double expected = modelConnector.findShortestPath("OUG", "PAA").getCost();
+            assertEquals(expected, new ModelConnector().findShortestPath("OUG", "PAA").getCost(), 1e-9);
+            assertTrue(Files.exists(file));
+            // the second connector maps the file written by the first
+            assertEquals(expected, new ModelConnector().findShortestPath("OUG", "PAA").getCost(), 1e-9);
+        } finally {
+            System.clearProperty(ModelConnector.GRAPH_FILE_PROPERTY);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testStaleMappedGraphFile() throws IOException {
+        java.nio.file.Path file = Files.createTempFile("campus", ".graph");
+        Files.delete(file);
+        System.setProperty(ModelConnector.GRAPH_FILE_PROPERTY, file.toString());
+        try {
+            double expected = new ModelConnector().findShortestPath("OUG", "PAA").getCost();
+            // a file of the same size written from other campus paths, every distance doubled
+            NodeCoordinates<Point> coordinates = new NodeCoordinates<>() {
+                @Override
+                public double x(Point p) {
+                    return p.getX();
+                }
+
+                @Override
+                public double y(Point p) {
+                    return p.getY();
+                }
+
+                @Override
+                public Point at(double x, double y) {
+                    return new Point(x, y);
+                }
+            };
+            MappedGraph<Point> written = MappedGraph.open(file, coordinates);
+            GraphBuilder<Point, Double> doubled = new GraphBuilder<>();
+            for (int n = 0; n < written.size(); n++) {
+                doubled.addNode(written.nodeAt(n));
+                for (int e = written.edgeStart(n); e < written.edgeEnd(n); e++) {
+                    doubled.addEdge(written.nodeAt(n), written.nodeAt(written.target(e)), 2 * written.weight(e));
+                }
+            }
+            MappedGraph.write(CompactGraph.of(doubled.build()), coordinates, file, written.sourceFingerprint() + 1);
+            assertEquals(expected, new ModelConnector().findShortestPath("OUG", "PAA").getCost(), 1e-9);
+            assertEquals(written.sourceFingerprint(), MappedGraph.open(file, coordinates).sourceFingerprint());
+        } finally {
+            System.clearProperty(ModelConnector.GRAPH_FILE_PROPERTY);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testValidationModes() {
+        double expected = modelConnector.findShortestPath("OUG", "PAA").getCost();
+        for (ValidationMode mode : ValidationMode.values()) {
+            ModelConnector connector = new ModelConnector(mode);
+            assertEquals(expected, connector.findShortestPath("OUG", "PAA").getCost(), 1e-9);
+            Point start = connector.getCoordinate("OUG");
+            Point end = connector.findShortestPath("OUG", "PAA").iterator().next().getEnd();
+            assertTrue(connector.closePath(start, end));
+            assertTrue(connector.reopenPath(start, end));
+            assertTrue(connector.shortNameExists("PAA"));
+        }
+    }
+
+    @Test
+    public void testConfiguredValidationMode() {
+        try {
+            System.setProperty(ValidationMode.PROPERTY, " Full ");
+            assertEquals(ValidationMode.FULL, ValidationMode.configured());
+            System.setProperty(ValidationMode.PROPERTY, "off");
+            assertEquals(ValidationMode.OFF, ValidationMode.configured());
+            System.clearProperty(ValidationMode.PROPERTY);
+            // implementation tests run with assertions enabled
+            assertEquals(ValidationMode.SAMPLED, ValidationMode.configured());
+        } finally {
+            System.clearProperty(ValidationMode.PROPERTY);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownValidationMode() {
+        try {
+            System.setProperty(ValidationMode.PROPERTY, "sometimes");
+            ValidationMode.configured();
+        } finally {
+            System.clearProperty(ValidationMode.PROPERTY);
+        }
+    }
+
+    @Test
+    public void testGraphStats() {
+        Map<String, GraphStats> stats = modelConnector.graphStats();
+        assertEquals(stats.get("live").nodeCount(), stats.get("query").nodeCount());
+        assertEquals(stats.get("live").edgeCount(), stats.get("query").edgeCount());
+        assertTrue(stats.get("live").edgeCount() > stats.get("live").nodeCount());
+    }
+
+    @Test
+    public void testSearchStrategiesAgree() {
+        ModelConnector dijkstra = new ModelConnector(ValidationMode.OFF, SearchStrategy.DIJKSTRA);
+        ModelConnector aStar = new ModelConnector(ValidationMode.OFF, SearchStrategy.A_STAR);
+        ModelConnector alt = new ModelConnector(ValidationMode.OFF, SearchStrategy.ALT);
+        ModelConnector bidirectional = new ModelConnector(ValidationMode.OFF, SearchStrategy.BIDIRECTIONAL);
+        ModelConnector hierarchy = new ModelConnector(ValidationMode.OFF, SearchStrategy.CONTRACTION_HIERARCHY);
+        for (String start : dijkstra.buildingNames().keySet()) {
+            for (String end : dijkstra.buildingNames().keySet()) {
+                double expected = dijkstra.findShortestPath(start, end).getCost();
+                assertEquals(expected, aStar.findShortestPath(start, end).getCost(), 1e-9);
+                for (ModelConnector connector : new ModelConnector[] {alt, bidirectional, hierarchy}) {
+                    Path<Point> path = connector.findShortestPath(start, end);
+                    assertEquals(expected, path.getCost(), 1e-9);
+                    assertEquals(connector.getCoordinate(start), path.getStart());
+                    assertEquals(connector.getCoordinate(end), path.getEnd());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHierarchyFile() throws IOException {
+        java.nio.file.Path file = Files.createTempFile("campus", ".hierarchy");
+        Files.delete(file);
+        System.setProperty(ModelConnector.HIERARCHY_FILE_PROPERTY, file.toString());
+        try {
+            double expected = modelConnector.findShortestPath("OUG", "PAA").getCost();
+            ModelConnector written = new ModelConnector(ValidationMode.OFF, SearchStrategy.CONTRACTION_HIERARCHY);
+            assertEquals(expected, written.findShortestPath("OUG", "PAA").getCost(), 1e-9);
+            assertTrue(Files.exists(file));
+            // the second connector reads the hierarchy written by the first
+            ModelConnector read = new ModelConnector(ValidationMode.OFF, SearchStrategy.CONTRACTION_HIERARCHY);
+            assertEquals(expected, read.findShortestPath("OUG", "PAA").getCost(), 1e-9);
+        } finally {
+            System.clearProperty(ModelConnector.HIERARCHY_FILE_PROPERTY);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testLandmarksFile() throws IOException {
+        java.nio.file.Path file = Files.createTempFile("campus", ".landmarks");
+        Files.delete(file);
+        System.setProperty(ModelConnector.LANDMARKS_FILE_PROPERTY, file.toString());
+        try {
+            double expected = modelConnector.findShortestPath("OUG", "PAA").getCost();
+            ModelConnector written = new ModelConnector(ValidationMode.OFF, SearchStrategy.ALT);
+            assertEquals(expected, written.findShortestPath("OUG", "PAA").getCost(), 1e-9);
+            assertTrue(Files.exists(file));
+            // the second connector reads the landmarks written by the first
+            ModelConnector read = new ModelConnector(ValidationMode.OFF, SearchStrategy.ALT);
+            assertEquals(expected, read.findShortestPath("OUG", "PAA").getCost(), 1e-9);
+        } finally {
+            System.clearProperty(ModelConnector.LANDMARKS_FILE_PROPERTY);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testDistanceMatchesPaths() {
+        for (String start : modelConnector.buildingNames().keySet()) {
+            for (String end : modelConnector.buildingNames().keySet()) {
+                assertEquals(modelConnector.findShortestPath(start, end).getCost(),
+                        modelConnector.distance(start, end), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testDistanceWithClosedPath() {
+        Path<Point> open = modelConnector.findShortestPath("OUG", "PAA");
+        Iterator<Path<Point>.Segment> it = open.iterator();
+        it.next();
+        Path<Point>.Segment closed = it.next();
+        assertTrue(modelConnector.closePath(closed.getStart(), closed.getEnd()));
+        assertEquals(modelConnector.findShortestPath("OUG", "PAA").getCost(), modelConnector.distance("OUG", "PAA"), 1e-9);
+        assertTrue(modelConnector.distance("OUG", "PAA") >= open.getCost());
+        assertTrue(modelConnector.reopenPath(closed.getStart(), closed.getEnd()));
+        assertEquals(open.getCost(), modelConnector.distance("OUG", "PAA"), 1e-9);
+    }
+
+    @Test
+    public void testDistanceBeforeAndAfterLabels() {
+        ModelConnector connector = new ModelConnector();
+        double searched = connector.distance("OUG", "PAA");
+        assertTrue(connector.awaitHubLabels());
+        assertEquals(searched, connector.distance("OUG", "PAA"), 1e-9);
+        assertEquals(modelConnector.findShortestPath("OUG", "PAA").getCost(), searched, 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDistanceUnknownBuilding() {
+        modelConnector.distance("OUG", "XYZ");
+    }
+
+    @Test
+    public void testRoutesFromMatchPaths() {
+        Map<String, Path<Point>> routes = modelConnector.routesFrom("OUG");
+        assertEquals(modelConnector.buildingNames().keySet(), routes.keySet());
+        for (String end : modelConnector.buildingNames().keySet()) {
+            assertEquals(modelConnector.findShortestPath("OUG", end).getCost(), routes.get(end).getCost(), 1e-9);
+            assertEquals(modelConnector.getCoordinate(end), routes.get(end).getEnd());
+        }
+        // the second fan-out from the same start reads the kept tree
+        assertEquals(routes, modelConnector.routesFrom("OUG"));
+    }
+
+    @Test
+    public void testRoutesFromWithClosedPath() {
+        Path<Point> open = modelConnector.findShortestPath("OUG", "PAA");
+        modelConnector.routesFrom("OUG");
+        Iterator<Path<Point>.Segment> it = open.iterator();
+        it.next();
+        Path<Point>.Segment closed = it.next();
+        assertTrue(modelConnector.closePath(closed.getStart(), closed.getEnd()));
+        assertEquals(modelConnector.findShortestPath("OUG", "PAA"), modelConnector.routesFrom("OUG").get("PAA"));
+        assertTrue(modelConnector.reopenPath(closed.getStart(), closed.getEnd()));
+        assertEquals(open.getCost(), modelConnector.routesFrom("OUG").get("PAA").getCost(), 1e-9);
+    }
+
+    @Test
+    public void testConcurrentRoutesFrom() throws Exception {
+        List<String> starts = new ArrayList<>(modelConnector.buildingNames().keySet());
+        ModelConnector connector = new ModelConnector();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Map<String, Path<Point>>>> results = new ArrayList<>();
+            for (int round = 0; round < 2; round++) {
+                for (String start : starts) {
+                    results.add(pool.submit(() -> connector.routesFrom(start)));
+                }
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(modelConnector.routesFrom(starts.get(i % starts.size())), results.get(i).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRoutesFromUnknownBuilding() {
+        modelConnector.routesFrom("XYZ");
+    }
+
+    @Test
+    public void testLabelsFile() throws IOException {
+        java.nio.file.Path file = Files.createTempFile("campus", ".labels");
+        Files.delete(file);
+        System.setProperty(ModelConnector.LABELS_FILE_PROPERTY, file.toString());
+        try {
+            double expected = modelConnector.findShortestPath("OUG", "PAA").getCost();
+            ModelConnector written = new ModelConnector();
+            assertTrue(written.awaitHubLabels());
+            assertTrue(Files.exists(file));
+            assertEquals(expected, written.distance("OUG", "PAA"), 1e-9);
+            // the second connector reads the labels written by the first
+            ModelConnector read = new ModelConnector();
+            assertTrue(read.awaitHubLabels());
+            assertEquals(expected, read.distance("OUG", "PAA"), 1e-9);
+        } finally {
+            System.clearProperty(ModelConnector.LABELS_FILE_PROPERTY);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testRouteTable() {
+        System.setProperty(ModelConnector.ROUTE_TABLE_BUDGET_PROPERTY, "64");
+        try {
+            ModelConnector tabled = new ModelConnector();
+            assertTrue(tabled.routeTableReport().contains("built in"));
+            assertFalse(tabled.awaitHubLabels());
+            for (String start : modelConnector.buildingNames().keySet()) {
+                for (String end : modelConnector.buildingNames().keySet()) {
+                    Path<Point> path = tabled.findShortestPath(start, end);
+                    assertEquals(modelConnector.findShortestPath(start, end).getCost(), path.getCost(), 1e-9);
+                    assertEquals(tabled.getCoordinate(start), path.getStart());
+                    assertEquals(tabled.getCoordinate(end), path.getEnd());
+                    assertEquals(path.getCost(), tabled.distance(start, end), 1e-9);
+                }
+            }
+        } finally {
+            System.clearProperty(ModelConnector.ROUTE_TABLE_BUDGET_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testRouteTableOverBudget() {
+        System.setProperty(ModelConnector.ROUTE_TABLE_BUDGET_PROPERTY, "0");
+        try {
+            ModelConnector untabled = new ModelConnector();
+            assertTrue(untabled.routeTableReport().contains("not built"));
+            assertEquals(modelConnector.findShortestPath("OUG", "PAA").getCost(),
+                    untabled.findShortestPath("OUG", "PAA").getCost(), 1e-9);
+        } finally {
+            System.clearProperty(ModelConnector.ROUTE_TABLE_BUDGET_PROPERTY);
+        }
+        assertTrue(modelConnector.routeTableReport().contains("off"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownRouteTableBudget() {
+        System.setProperty(ModelConnector.ROUTE_TABLE_BUDGET_PROPERTY, "lots");
+        try {
+            new ModelConnector();
+        } finally {
+            System.clearProperty(ModelConnector.ROUTE_TABLE_BUDGET_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testConfiguredSearchStrategy() {
+        try {
+            System.setProperty(SearchStrategy.PROPERTY, " Dijkstra ");
+            assertEquals(SearchStrategy.DIJKSTRA, SearchStrategy.configured());
+            System.setProperty(SearchStrategy.PROPERTY, "ALT");
+            assertEquals(SearchStrategy.ALT, SearchStrategy.configured());
+            System.setProperty(SearchStrategy.PROPERTY, "bidirectional");
+            assertEquals(SearchStrategy.BIDIRECTIONAL, SearchStrategy.configured());
+            System.setProperty(SearchStrategy.PROPERTY, "Contraction_Hierarchy");
+            assertEquals(SearchStrategy.CONTRACTION_HIERARCHY, SearchStrategy.configured());
+            System.clearProperty(SearchStrategy.PROPERTY);
+            assertEquals(SearchStrategy.A_STAR, SearchStrategy.configured());
+        } finally {
+            System.clearProperty(SearchStrategy.PROPERTY);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownSearchStrategy() {
+        try {
+            System.setProperty(SearchStrategy.PROPERTY, "breadth_first");
+            SearchStrategy.configured();
+        } finally {
+            System.clearProperty(SearchStrategy.PROPERTY);
+        }
+    }
 }
@@ -7,7 +7,13 @@ import pathfinder.SearchPath;
 import pathfinder.datastructures.*;
 import graph.*;
 
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * this class test the implementation of the SearchPath class and its Dijkstra's Algorithm
@@ -33,4 +39,298 @@ public class SearchPathTest {
         assertEquals("C", result.getEnd());
         assertEquals("A", result.getStart());
     }
+
+    @Test
+    public void testSearchImprovesReachedNode(){
+        // B is reached directly first, then more cheaply through C, and the path to D must go through C
+        graph.addNode("D");
+        graph.addChild("A", "B", 5.0);
+        graph.addChild("C", "B", 1.0);
+        graph.addChild("B", "D", 1.0);
+        graph.removeEdgeFrom("A", "B", 1.0);
+        Path<String> result = SearchPath.findShortestPath("A", "D", graph);
+        assertEquals(0, Double.compare(3.0, result.getCost()));
+        StringBuilder nodes = new StringBuilder(result.getStart());
+        for (Path<String>.Segment segment : result) {
+            nodes.append(segment.getEnd());
+        }
+        assertEquals("ACBD", nodes.toString());
+        assertEquals(0, Double.compare(0.0, SearchPath.findShortestPath("B", "B", graph).getCost()));
+        assertNull(SearchPath.findShortestPath("D", "A", graph));
+    }
+
+    @Test
+    public void testSearchCompact(){
+        Path<String> result = SearchPath.findShortestPath("A", "C", CompactGraph.of(graph));
+        assertEquals(0, Double.compare(1.0, result.getCost()));
+        assertEquals("C", result.getEnd());
+        assertEquals("A", result.getStart());
+    }
+
+    @Test
+    public void testSearchCompactNoPath(){
+        assertNull(SearchPath.findShortestPath("C", "A", CompactGraph.of(graph)));
+    }
+
+    @Test
+    public void testSearchDoubleWeighted(){
+        DoubleWeightedGraph<String> weighted = new DoubleWeightedGraph<>();
+        weighted.addNode("A");
+        weighted.addNode("B");
+        weighted.addNode("C");
+        weighted.addChild("A", "B", 1.0);
+        weighted.addChild("B", "C", 1.0);
+        weighted.addChild("A", "C", 3.0);
+        Path<String> result = SearchPath.findShortestPath("A", "C", weighted);
+        assertEquals(0, Double.compare(2.0, result.getCost()));
+        assertEquals("C", result.getEnd());
+        assertNull(SearchPath.findShortestPath("C", "A", weighted));
+    }
+
+    @Test
+    public void testSearchByCriterion(){
+        MultiWeightGraph<String> weighted = new MultiWeightGraph<>(CompactGraph.of(graph), "distance");
+        // the direct edge from A to C has stairs
+        weighted.addCriterion("stairs", (parent, child, distance) -> parent.equals("A") && child.equals("C") ? 1.0 : 0.0);
+        Path<String> result = SearchPath.findShortestPath("A", "C", weighted, "stairs");
+        assertEquals(0, Double.compare(0.0, result.getCost()));
+        assertEquals("B", result.iterator().next().getEnd());
+        result = SearchPath.findShortestPath("A", "C", weighted, "distance");
+        assertEquals(0, Double.compare(1.0, result.getCost()));
+    }
+
+    @Test
+    public void testSearchByCombination(){
+        MultiWeightGraph<String> weighted = new MultiWeightGraph<>(CompactGraph.of(graph), "distance");
+        weighted.addCriterion("stairs", (parent, child, distance) -> parent.equals("A") && child.equals("C") ? 1.0 : 0.0);
+        Path<String> result = SearchPath.findShortestPath("A", "C", weighted, Map.of("distance", 1.0, "stairs", 0.5));
+        assertEquals(0, Double.compare(1.5, result.getCost()));
+        result = SearchPath.findShortestPath("A", "C", weighted, Map.of("distance", 1.0, "stairs", 2.0));
+        assertEquals(0, Double.compare(2.0, result.getCost()));
+        assertEquals("B", result.iterator().next().getEnd());
+    }
+
+    /** nodes are [x, y] points */
+    private static final NodeCoordinates<Point> COORDINATES = new NodeCoordinates<>() {
+        @Override
+        public double x(Point p) {
+            return p.getX();
+        }
+
+        @Override
+        public double y(Point p) {
+            return p.getY();
+        }
+
+        @Override
+        public Point at(double x, double y) {
+            return new Point(x, y);
+        }
+    };
+
+    /**
+     * @return a random street grid whose edges are 'scale' times their length or longer
+     */
+    private static CompactGraph<Point> grid(int side, double scale, Random random) {
+        Point[][] points = new Point[side][side];
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                points[i][j] = new Point(i * 10 + random.nextDouble() * 5, j * 10 + random.nextDouble() * 5);
+            }
+        }
+        GraphBuilder<Point, Double> builder = new GraphBuilder<>();
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                builder.addNode(points[i][j]);
+                for (Point other : new Point[] {i + 1 < side ? points[i + 1][j] : null, j + 1 < side ? points[i][j + 1] : null}) {
+                    if (other != null && random.nextInt(5) > 0) {
+                        double length = Math.hypot(points[i][j].getX() - other.getX(), points[i][j].getY() - other.getY());
+                        builder.addEdge(points[i][j], other, length * scale * (1 + random.nextDouble()));
+                        builder.addEdge(other, points[i][j], length * scale * (1 + random.nextDouble()));
+                    }
+                }
+            }
+        }
+        return CompactGraph.of(builder.build());
+    }
+
+    @Test
+    public void testHeuristicScale(){
+        CompactGraph<Point> compact = CompactGraph.of(new GraphBuilder<Point, Double>()
+                .addEdge(new Point(0, 0), new Point(3, 4), 10.0)
+                .addEdge(new Point(3, 4), new Point(3, 0), 12.0)
+                .addEdge(new Point(3, 0), new Point(3, 0), 1.0)
+                .build());
+        assertEquals(2.0, SearchPath.heuristicScale(compact, COORDINATES), 1e-6);
+        assertEquals(0, Double.compare(0.0, SearchPath.heuristicScale(CompactGraph.of(graph), new NodeCoordinates<String>() {
+            @Override
+            public double x(String node) {
+                return 0;
+            }
+
+            @Override
+            public double y(String node) {
+                return 0;
+            }
+
+            @Override
+            public String at(double x, double y) {
+                return "A";
+            }
+        })));
+    }
+
+    @Test
+    public void testAStarMatchesDijkstra(){
+        Random random = new Random(331);
+        CompactGraph<Point> compact = grid(20, 3.0, random);
+        double scale = SearchPath.heuristicScale(compact, COORDINATES);
+        assertTrue(scale >= 3.0 * (1 - 1e-6));
+        for (int q = 0; q < 100; q++) {
+            Point start = compact.nodeAt(random.nextInt(compact.size()));
+            Point end = compact.nodeAt(random.nextInt(compact.size()));
+            Path<Point> dijkstra = SearchPath.findShortestPath(start, end, compact);
+            Path<Point> aStar = SearchPath.findShortestPath(start, end, compact, COORDINATES, scale);
+            if (dijkstra == null) {
+                assertNull(aStar);
+            } else {
+                assertEquals(dijkstra.getCost(), aStar.getCost(), 1e-9);
+                assertEquals(end, aStar.getEnd());
+            }
+        }
+    }
+
+    @Test
+    public void testLandmarksMatchDijkstra(){
+        Random random = new Random(333);
+        CompactGraph<Point> compact = grid(20, 1.0, random);
+        Landmarks<Point> landmarks = Landmarks.build(compact, 4, ForkJoinPool.commonPool());
+        for (int q = 0; q < 100; q++) {
+            Point start = compact.nodeAt(random.nextInt(compact.size()));
+            Point end = compact.nodeAt(random.nextInt(compact.size()));
+            Path<Point> dijkstra = SearchPath.findShortestPath(start, end, compact);
+            Path<Point> alt = SearchPath.findShortestPath(start, end, landmarks);
+            if (dijkstra == null) {
+                assertNull(alt);
+            } else {
+                assertEquals(dijkstra.getCost(), alt.getCost(), 1e-9);
+                assertEquals(start, alt.getStart());
+                assertEquals(end, alt.getEnd());
+            }
+        }
+    }
+
+    @Test
+    public void testReusedContextMatchesNewContext(){
+        Random random = new Random(337);
+        CompactGraph<Point> compact = grid(20, 3.0, random);
+        CompactGraph<Point> reversed = CompactGraph.transposeOf(compact);
+        Landmarks<Point> landmarks = Landmarks.build(compact, 4, ForkJoinPool.commonPool());
+        double scale = SearchPath.heuristicScale(compact, COORDINATES);
+        SearchContext context = new SearchContext(compact.size());
+        for (int q = 0; q < 100; q++) {
+            Point start = compact.nodeAt(random.nextInt(compact.size()));
+            Point end = compact.nodeAt(random.nextInt(compact.size()));
+            assertEquals(SearchPath.findShortestPath(start, end, compact),
+                    SearchPath.findShortestPath(start, end, compact, context));
+            assertEquals(SearchPath.findShortestPath(start, end, compact, COORDINATES, scale),
+                    SearchPath.findShortestPath(start, end, compact, COORDINATES, scale, context));
+            assertEquals(SearchPath.findShortestPath(start, end, landmarks),
+                    SearchPath.findShortestPath(start, end, landmarks, context));
+            assertEquals(SearchPath.findShortestPath(start, end, compact, reversed),
+                    SearchPath.findShortestPath(start, end, compact, reversed, context));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testContextSmallerThanGraph(){
+        CompactGraph<String> compact = CompactGraph.of(graph);
+        SearchPath.findShortestPath("A", "C", compact, new SearchContext(compact.size() - 1));
+    }
+
+    @Test
+    public void testShortestPathTreeMatchesDijkstra(){
+        Random random = new Random(338);
+        CompactGraph<Point> compact = grid(20, 1.0, random);
+        for (int q = 0; q < 5; q++) {
+            Point start = compact.nodeAt(random.nextInt(compact.size()));
+            ShortestPathTree<Point> tree = SearchPath.shortestPathTree(start, compact);
+            for (int n = 0; n < compact.size(); n++) {
+                Point end = compact.nodeAt(n);
+                Path<Point> dijkstra = SearchPath.findShortestPath(start, end, compact);
+                Path<Point> fromTree = SearchPath.findShortestPath(start, end, tree);
+                if (dijkstra == null) {
+                    assertNull(fromTree);
+                } else {
+                    assertEquals(dijkstra.getCost(), fromTree.getCost(), 1e-9);
+                    assertEquals(start, fromTree.getStart());
+                    assertEquals(end, fromTree.getEnd());
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortestPathTreeFromOtherStart(){
+        CompactGraph<Point> compact = grid(5, 1.0, new Random(339));
+        ShortestPathTree<Point> tree = SearchPath.shortestPathTree(compact.nodeAt(0), compact);
+        SearchPath.findShortestPath(compact.nodeAt(1), compact.nodeAt(2), tree);
+    }
+
+    @Test
+    public void testHubLabelsMatchDijkstra(){
+        Random random = new Random(334);
+        CompactGraph<Point> compact = grid(20, 1.0, random);
+        HubLabels<Point> labels = HubLabels.build(ContractionHierarchy.build(compact), ForkJoinPool.commonPool());
+        for (int q = 0; q < 100; q++) {
+            Point start = compact.nodeAt(random.nextInt(compact.size()));
+            Point end = compact.nodeAt(random.nextInt(compact.size()));
+            Path<Point> dijkstra = SearchPath.findShortestPath(start, end, compact);
+            Path<Point> hubs = SearchPath.findShortestPath(start, end, labels);
+            if (dijkstra == null) {
+                assertNull(hubs);
+            } else {
+                assertEquals(dijkstra.getCost(), hubs.getCost(), 1e-9);
+                assertEquals(start, hubs.getStart());
+                assertEquals(end, hubs.getEnd());
+            }
+        }
+    }
+
+    @Test
+    public void testBidirectionalMatchesDijkstra(){
+        Random random = new Random(332);
+        CompactGraph<Point> compact = grid(20, 1.0, random);
+        CompactGraph<Point> reversed = CompactGraph.transposeOf(compact);
+        for (int q = 0; q < 100; q++) {
+            Point start = compact.nodeAt(random.nextInt(compact.size()));
+            Point end = compact.nodeAt(random.nextInt(compact.size()));
+            Path<Point> dijkstra = SearchPath.findShortestPath(start, end, compact);
+            Path<Point> bidirectional = SearchPath.findShortestPath(start, end, compact, reversed);
+            if (dijkstra == null) {
+                assertNull(bidirectional);
+            } else {
+                assertEquals(dijkstra.getCost(), bidirectional.getCost(), 1e-9);
+                assertEquals(start, bidirectional.getStart());
+                assertEquals(end, bidirectional.getEnd());
+                double cost = 0;
+                Point at = start;
+                for (Path<Point>.Segment segment : bidirectional) {
+                    assertEquals(at, segment.getStart());
+                    cost += segment.getCost();
+                    at = segment.getEnd();
+                }
+                assertEquals(bidirectional.getCost(), cost, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testBidirectionalDirected(){
+        CompactGraph<String> compact = CompactGraph.of(graph);
+        CompactGraph<String> reversed = CompactGraph.transposeOf(compact);
+        assertEquals(0, Double.compare(1.0, SearchPath.findShortestPath("A", "C", compact, reversed).getCost()));
+        assertEquals(0, Double.compare(0.0, SearchPath.findShortestPath("B", "B", compact, reversed).getCost()));
+        assertNull(SearchPath.findShortestPath("C", "A", compact, reversed));
+    }
 }
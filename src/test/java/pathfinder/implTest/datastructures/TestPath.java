@@ -6,6 +6,7 @@ import pathfinder.datastructures.Path;
 import pathfinder.datastructures.Point;
 
 import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
@@ -53,6 +54,36 @@ public class TestPath {
         assertEquals(2.0D, path.getCost(), 1.0D / (1000.0D * 1000.0D * 1000.0D));
     }
 
+    @Test
+    public void testExtendManyMatchesExtendOne() {
+        Path<Point> path = new Path<>(new Point(1.0, 2.0)).extend(new Point(3.0, 2.0), 2.0D);
+        Path<Point> many = path.extend(List.of(new Point(3.0, 5.0), new Point(4.0, 5.0)), List.of(3.0D, 1.0D));
+        Path<Point> one = path.extend(new Point(3.0, 5.0), 3.0D).extend(new Point(4.0, 5.0), 1.0D);
+        assertEquals(one, many);
+        assertEquals(6.0D, many.getCost(), EPSILON);
+        assertEquals(2.0D, path.getCost(), EPSILON);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtendManyWithoutCosts() {
+        new Path<>(new Point(1.0, 2.0)).extend(List.of(new Point(3.0, 2.0)), List.of());
+    }
+
+    @Test
+    public void testExtendManyFromBuffer() {
+        Path<Point> path = new Path<>(new Point(1.0, 2.0)).extend(new Point(3.0, 2.0), 2.0D);
+        List<Point> ends = List.of(new Point(3.0, 5.0), new Point(4.0, 5.0));
+        // the cost past the last end is ignored
+        Path<Point> buffered = path.extend(ends, new double[] {3.0D, 1.0D, 7.0D});
+        assertEquals(path.extend(ends, List.of(3.0D, 1.0D)), buffered);
+        assertEquals(6.0D, buffered.getCost(), EPSILON);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtendManyFromShortBuffer() {
+        new Path<>(new Point(1.0, 2.0)).extend(List.of(new Point(3.0, 2.0)), new double[0]);
+    }
+
     @Test
     public void testNonemptyPathEquality() {
         Path<Point> path1 = new Path<>(new Point(1.0, 2.0));